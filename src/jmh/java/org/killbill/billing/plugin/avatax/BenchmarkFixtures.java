@@ -0,0 +1,162 @@
+/*
+ * Copyright 2020-2026 Equinix, Inc
+ * Copyright 2014-2026 The Billing Project, LLC
+ *
+ * The Billing Project licenses this file to you under the Apache License, version 2.0
+ * (the "License"); you may not use this file except in compliance with the
+ * License.  You may obtain a copy of the License at:
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.killbill.billing.plugin.avatax;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.UUID;
+
+import org.joda.time.LocalDate;
+import org.killbill.billing.account.api.Account;
+import org.killbill.billing.catalog.api.Currency;
+import org.killbill.billing.invoice.api.Invoice;
+import org.killbill.billing.invoice.api.InvoiceItem;
+import org.killbill.billing.invoice.api.InvoiceItemType;
+import org.killbill.billing.invoice.api.InvoiceStatus;
+import org.killbill.billing.invoice.api.boilerplate.InvoiceImp;
+import org.killbill.billing.invoice.api.boilerplate.InvoiceItemImp;
+import org.killbill.billing.payment.api.PluginProperty;
+import org.killbill.billing.plugin.TestUtils;
+import org.killbill.billing.plugin.avatax.api.AvaTaxTaxCalculator;
+import org.killbill.billing.plugin.avatax.client.model.TransactionLineDetailModel;
+import org.killbill.billing.plugin.avatax.client.model.TransactionLineModel;
+import org.killbill.billing.plugin.avatax.client.model.TransactionModel;
+
+// Invoices and AvaTax documents shared by the JMH benchmarks. Invoices and items are plain objects (not mocks),
+// so that the allocation rates reported by the GC profiler are the plugin's.
+public final class BenchmarkFixtures {
+
+    // Fixed seed, for reproducible runs
+    private static final long SEED = 42;
+
+    private BenchmarkFixtures() {}
+
+    public static Account buildAccount() {
+        return TestUtils.buildAccount(Currency.USD, "45 Fremont Street", null, "San Francisco", "CA", "94105", "US");
+    }
+
+    /**
+     * @param nbItems number of usage items on the invoice
+     */
+    @SuppressWarnings({"rawtypes", "unchecked"})
+    public static Invoice buildInvoice(final Account account, final int nbItems) {
+        final UUID invoiceId = new UUID(SEED, nbItems);
+        final LocalDate invoiceDate = new LocalDate(2026, 10, 1);
+        final Random random = new Random(SEED);
+
+        final List<InvoiceItem> invoiceItems = new ArrayList<InvoiceItem>(nbItems);
+        for (int i = 0; i < nbItems; i++) {
+            invoiceItems.add(new InvoiceItemImp.Builder().withId(new UUID(random.nextLong(), random.nextLong()))
+                                                         .withInvoiceId(invoiceId)
+                                                         .withAccountId(account.getId())
+                                                         .withInvoiceItemType(InvoiceItemType.USAGE)
+                                                         .withPlanName("compute-monthly")
+                                                         .withPhaseName("compute-monthly-evergreen")
+                                                         .withUsageName("compute-usage-" + (i % 50))
+                                                         .withDescription("Compute usage " + i)
+                                                         .withStartDate(invoiceDate.minusMonths(1))
+                                                         .withEndDate(invoiceDate)
+                                                         .withAmount(BigDecimal.valueOf(1 + random.nextInt(10000), 2))
+                                                         .withCurrency(Currency.USD)
+                                                         .build());
+        }
+
+        return new InvoiceImp.Builder().withId(invoiceId)
+                                       .withAccountId(account.getId())
+                                       .withInvoiceDate(invoiceDate)
+                                       .withTargetDate(invoiceDate)
+                                       .withCurrency(Currency.USD)
+                                       .withStatus(InvoiceStatus.COMMITTED)
+                                       .withInvoiceItems(invoiceItems)
+                                       .build();
+    }
+
+    // One taxCode_<invoiceItemId> property per item, as set by AvaTaxInvoicePluginApi
+    public static List<PluginProperty> buildPluginProperties(final Invoice invoice) {
+        final List<PluginProperty> pluginProperties = new LinkedList<PluginProperty>();
+        for (final InvoiceItem invoiceItem : invoice.getInvoiceItems()) {
+            pluginProperties.add(new PluginProperty(String.format("%s_%s", AvaTaxTaxCalculator.TAX_CODE, invoiceItem.getId()), "SW054000", false));
+        }
+        return pluginProperties;
+    }
+
+    // Taxed items, each one with an adjustment for a quarter of them
+    public static Map<UUID, Iterable<InvoiceItem>> buildKbInvoiceItems(final Invoice invoice) {
+        final Map<UUID, Iterable<InvoiceItem>> kbInvoiceItems = new HashMap<UUID, Iterable<InvoiceItem>>();
+        int i = 0;
+        for (final InvoiceItem invoiceItem : invoice.getInvoiceItems()) {
+            final List<InvoiceItem> adjustments = new LinkedList<InvoiceItem>();
+            if (i++ % 4 == 0) {
+                adjustments.add(new InvoiceItemImp.Builder().withId(new UUID(invoiceItem.getId().getLeastSignificantBits(), i))
+                                                            .withInvoiceId(invoice.getId())
+                                                            .withInvoiceItemType(InvoiceItemType.ITEM_ADJ)
+                                                            .withLinkedItemId(invoiceItem.getId())
+                                                            .withAmount(BigDecimal.ONE.negate())
+                                                            .withCurrency(Currency.USD)
+                                                            .build());
+            }
+            kbInvoiceItems.put(invoiceItem.getId(), adjustments);
+        }
+        return kbInvoiceItems;
+    }
+
+    // AvaTax response for that invoice, with a state and a county tax on each line
+    public static TransactionModel buildTransactionModel(final Invoice invoice) {
+        final TransactionModel transactionModel = new TransactionModel();
+        transactionModel.code = String.format("%s_%s", invoice.getId(), "000000000000");
+        transactionModel.date = invoice.getInvoiceDate().toDate();
+        transactionModel.status = "Committed";
+        transactionModel.type = "SalesInvoice";
+        transactionModel.lines = new TransactionLineModel[invoice.getInvoiceItems().size()];
+
+        int i = 0;
+        for (final InvoiceItem invoiceItem : invoice.getInvoiceItems()) {
+            final TransactionLineModel line = new TransactionLineModel();
+            line.lineNumber = invoiceItem.getId().toString();
+            line.taxCode = "SW054000";
+            line.isItemTaxable = true;
+            line.taxableAmount = invoiceItem.getAmount().doubleValue();
+            line.details = new TransactionLineDetailModel[]{buildDetail(invoiceItem, "CA STATE TAX", 0.06),
+                                                            buildDetail(invoiceItem, "CA COUNTY TAX", 0.0025)};
+            for (final TransactionLineDetailModel detail : line.details) {
+                line.tax += detail.tax;
+            }
+            transactionModel.totalAmount += line.taxableAmount;
+            transactionModel.totalTax += line.tax;
+            transactionModel.lines[i++] = line;
+        }
+        transactionModel.totalTaxable = transactionModel.totalAmount;
+        transactionModel.totalTaxCalculated = transactionModel.totalTax;
+
+        return transactionModel;
+    }
+
+    private static TransactionLineDetailModel buildDetail(final InvoiceItem invoiceItem, final String taxName, final double rate) {
+        final TransactionLineDetailModel detail = new TransactionLineDetailModel();
+        detail.taxName = taxName;
+        detail.rate = rate;
+        detail.taxableAmount = invoiceItem.getAmount().doubleValue();
+        detail.tax = detail.taxableAmount * rate;
+        return detail;
+    }
+}
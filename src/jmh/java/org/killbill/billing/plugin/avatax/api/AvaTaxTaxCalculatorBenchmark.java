@@ -0,0 +1,92 @@
+/*
+ * Copyright 2020-2026 Equinix, Inc
+ * Copyright 2014-2026 The Billing Project, LLC
+ *
+ * The Billing Project licenses this file to you under the Apache License, version 2.0
+ * (the "License"); you may not use this file except in compliance with the
+ * License.  You may obtain a copy of the License at:
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.killbill.billing.plugin.avatax.api;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.killbill.billing.account.api.Account;
+import org.killbill.billing.invoice.api.Invoice;
+import org.killbill.billing.payment.api.PluginProperty;
+import org.killbill.billing.plugin.avatax.BenchmarkFixtures;
+import org.killbill.billing.plugin.avatax.client.model.CreateTransactionModel;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+// CreateTransactionModel building (toTaxRequest and toLine for each item), including the indexing of the plugin properties
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class AvaTaxTaxCalculatorBenchmark {
+
+    @Param({"1", "10", "100", "1000", "10000"})
+    public int nbItems;
+
+    private AvaTaxTaxCalculator calculator;
+    private Account account;
+    private Invoice invoice;
+    private List<PluginProperty> pluginProperties;
+
+    @Setup
+    public void setUp() {
+        // Neither the client nor the DAO is used to build the request
+        calculator = new AvaTaxTaxCalculator(null, null, null, null);
+        account = BenchmarkFixtures.buildAccount();
+        invoice = BenchmarkFixtures.buildInvoice(account, nbItems);
+        pluginProperties = BenchmarkFixtures.buildPluginProperties(invoice);
+    }
+
+    @Benchmark
+    public CreateTransactionModel toTaxRequest() {
+        return buildTaxRequest(calculator, account, invoice, pluginProperties);
+    }
+
+    // Also used to benchmark the serialization (see AvaTaxModelsBenchmark)
+    public static CreateTransactionModel buildTaxRequest(final Account account, final Invoice invoice) {
+        return buildTaxRequest(new AvaTaxTaxCalculator(null, null, null, null), account, invoice, BenchmarkFixtures.buildPluginProperties(invoice));
+    }
+
+    private static CreateTransactionModel buildTaxRequest(final AvaTaxTaxCalculator calculator,
+                                                          final Account account,
+                                                          final Invoice invoice,
+                                                          final Iterable<PluginProperty> pluginProperties) {
+        return calculator.toTaxRequest("DEFAULT",
+                                       account,
+                                       invoice,
+                                       invoice.getInvoiceItems(),
+                                       null,
+                                       null,
+                                       false,
+                                       true,
+                                       new AvaTaxPluginProperties(pluginProperties),
+                                       invoice.getInvoiceDate(),
+                                       false);
+    }
+}
@@ -0,0 +1,92 @@
+/*
+ * Copyright 2020-2026 Equinix, Inc
+ * Copyright 2014-2026 The Billing Project, LLC
+ *
+ * The Billing Project licenses this file to you under the Apache License, version 2.0
+ * (the "License"); you may not use this file except in compliance with the
+ * License.  You may obtain a copy of the License at:
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.killbill.billing.plugin.avatax.api;
+
+import java.util.Collection;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.killbill.billing.invoice.api.Invoice;
+import org.killbill.billing.invoice.api.InvoiceItem;
+import org.killbill.billing.payment.api.PluginProperty;
+import org.killbill.billing.plugin.avatax.BenchmarkFixtures;
+import org.killbill.billing.plugin.avatax.client.model.RateModel;
+import org.killbill.billing.plugin.avatax.client.model.TaxRateResult;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+// Tax items building from the Tax Rates API rates, for each taxable item of the invoice
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class TaxRatesTaxCalculatorBenchmark {
+
+    @Param({"1", "10", "100", "1000", "10000"})
+    public int nbItems;
+
+    private TaxRatesTaxCalculator calculator;
+    private Invoice invoice;
+    private List<PluginProperty> pluginProperties;
+    private TaxRateResult taxRates;
+
+    @Setup
+    public void setUp() {
+        // Neither the client nor the DAO is used to build the items
+        calculator = new TaxRatesTaxCalculator(null, null, null, null);
+        invoice = BenchmarkFixtures.buildInvoice(BenchmarkFixtures.buildAccount(), nbItems);
+
+        pluginProperties = new LinkedList<PluginProperty>(BenchmarkFixtures.buildPluginProperties(invoice));
+        pluginProperties.add(new PluginProperty(TaxRatesTaxCalculator.RATE_TYPE, "State", false));
+        pluginProperties.add(new PluginProperty(TaxRatesTaxCalculator.RATE_TYPE, "County", false));
+
+        taxRates = new TaxRateResult();
+        taxRates.rates = new LinkedList<RateModel>();
+        taxRates.rates.add(buildRate("CA STATE TAX", "State", 0.06));
+        taxRates.rates.add(buildRate("CA COUNTY TAX", "County", 0.0025));
+        taxRates.rates.add(buildRate("CA SPECIAL TAX", "Special", 0.01));
+        for (final RateModel rateModel : taxRates.rates) {
+            taxRates.totalRate += rateModel.rate;
+        }
+    }
+
+    @Benchmark
+    public Collection<InvoiceItem> buildInvoiceItems() {
+        return calculator.buildTaxRatesInvoiceItems(invoice, invoice.getInvoiceItems(), null, pluginProperties, taxRates);
+    }
+
+    private RateModel buildRate(final String name, final String type, final double rate) {
+        final RateModel rateModel = new RateModel();
+        rateModel.name = name;
+        rateModel.type = type;
+        rateModel.rate = rate;
+        return rateModel;
+    }
+}
@@ -0,0 +1,78 @@
+/*
+ * Copyright 2020-2026 Equinix, Inc
+ * Copyright 2014-2026 The Billing Project, LLC
+ *
+ * The Billing Project licenses this file to you under the Apache License, version 2.0
+ * (the "License"); you may not use this file except in compliance with the
+ * License.  You may obtain a copy of the License at:
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.killbill.billing.plugin.avatax.client;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+import org.killbill.billing.account.api.Account;
+import org.killbill.billing.invoice.api.Invoice;
+import org.killbill.billing.plugin.avatax.BenchmarkFixtures;
+import org.killbill.billing.plugin.avatax.api.AvaTaxTaxCalculatorBenchmark;
+import org.killbill.billing.plugin.avatax.client.model.CreateTransactionModel;
+import org.killbill.billing.plugin.avatax.client.model.TransactionModel;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+// (De)serialization of the AvaTax documents, with the ObjectMapper used by AvaTaxClient
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class AvaTaxModelsBenchmark {
+
+    @Param({"1", "10", "100", "1000", "10000"})
+    public int nbItems;
+
+    private ObjectMapper objectMapper;
+    private CreateTransactionModel createTransactionModel;
+    private byte[] transactionModelBytes;
+
+    @Setup
+    public void setUp() throws IOException {
+        objectMapper = ClientUtils.createObjectMapper();
+
+        final Account account = BenchmarkFixtures.buildAccount();
+        final Invoice invoice = BenchmarkFixtures.buildInvoice(account, nbItems);
+        createTransactionModel = AvaTaxTaxCalculatorBenchmark.buildTaxRequest(account, invoice);
+        transactionModelBytes = objectMapper.writeValueAsBytes(BenchmarkFixtures.buildTransactionModel(invoice));
+    }
+
+    @Benchmark
+    public byte[] serializeCreateTransactionModel() throws IOException {
+        return objectMapper.writeValueAsBytes(createTransactionModel);
+    }
+
+    @Benchmark
+    public TransactionModel deserializeTransactionModel() throws IOException {
+        return objectMapper.readValue(transactionModelBytes, TransactionModel.class);
+    }
+}
@@ -0,0 +1,101 @@
+/*
+ * Copyright 2020-2026 Equinix, Inc
+ * Copyright 2014-2026 The Billing Project, LLC
+ *
+ * The Billing Project licenses this file to you under the Apache License, version 2.0
+ * (the "License"); you may not use this file except in compliance with the
+ * License.  You may obtain a copy of the License at:
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.killbill.billing.plugin.avatax.dao;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+import org.joda.time.DateTime;
+import org.joda.time.DateTimeZone;
+import org.killbill.billing.account.api.Account;
+import org.killbill.billing.invoice.api.Invoice;
+import org.killbill.billing.invoice.api.InvoiceItem;
+import org.killbill.billing.plugin.avatax.BenchmarkFixtures;
+import org.killbill.billing.plugin.avatax.EmbeddedDbHelper;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+// Retrieval of the already taxed items of an invoice (embedded database): from avatax_response_items, and from the
+// legacy kb_invoice_item_ids (JSON) column for responses not backfilled yet
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class AvaTaxDaoBenchmark {
+
+    @Param({"1", "10", "100", "1000", "10000"})
+    public int nbItems;
+
+    private AvaTaxDao dao;
+    private UUID kbTenantId;
+    private Invoice invoice;
+    private Invoice legacyInvoice;
+
+    @Setup
+    public void setUp() throws Exception {
+        EmbeddedDbHelper.instance().startDb();
+        dao = new AvaTaxDao(EmbeddedDbHelper.instance().getDataSource());
+
+        kbTenantId = UUID.randomUUID();
+        final Account account = BenchmarkFixtures.buildAccount();
+        invoice = BenchmarkFixtures.buildInvoice(account, nbItems);
+        final Map<UUID, Iterable<InvoiceItem>> kbInvoiceItems = BenchmarkFixtures.buildKbInvoiceItems(invoice);
+        dao.addResponse(account.getId(), invoice.getId(), kbInvoiceItems, BenchmarkFixtures.buildTransactionModel(invoice), new DateTime(DateTimeZone.UTC), kbTenantId);
+
+        // Same response, as if written by an older version of the plugin (only the legacy JSON column is populated)
+        legacyInvoice = BenchmarkFixtures.buildInvoice(account, nbItems);
+        final Map<UUID, Iterable<InvoiceItem>> legacyKbInvoiceItems = BenchmarkFixtures.buildKbInvoiceItems(legacyInvoice);
+        dao.addResponse(account.getId(), legacyInvoice.getId(), legacyKbInvoiceItems, BenchmarkFixtures.buildTransactionModel(legacyInvoice), new DateTime(DateTimeZone.UTC), kbTenantId);
+        try (final Connection connection = EmbeddedDbHelper.instance().getDataSource().getConnection();
+             final PreparedStatement statement = connection.prepareStatement("delete from avatax_response_items where response_record_id in (select record_id from avatax_responses where kb_invoice_id = ?)")) {
+            statement.setString(1, legacyInvoice.getId().toString());
+            statement.executeUpdate();
+        }
+    }
+
+    @TearDown
+    public void tearDown() throws Exception {
+        EmbeddedDbHelper.instance().stopDB();
+    }
+
+    @Benchmark
+    public Map<UUID, Set<UUID>> getTaxedItemsWithAdjustments() throws Exception {
+        return dao.getTaxedItemsWithAdjustments(invoice.getId(), kbTenantId);
+    }
+
+    @Benchmark
+    public Map<UUID, Set<UUID>> getTaxedItemsWithAdjustmentsNotBackfilled() throws Exception {
+        return dao.getTaxedItemsWithAdjustments(legacyInvoice.getId(), kbTenantId);
+    }
+}
@@ -28,9 +28,6 @@ import java.util.UUID;
 
 import org.killbill.billing.ObjectType;
 import org.killbill.billing.account.api.Account;
-import org.killbill.billing.catalog.api.CatalogApiException;
-import org.killbill.billing.catalog.api.Plan;
-import org.killbill.billing.catalog.api.StaticCatalog;
 import org.killbill.billing.invoice.api.Invoice;
 import org.killbill.billing.invoice.api.InvoiceItem;
 import org.killbill.billing.invoice.plugin.api.AdditionalItemsResult;
@@ -41,11 +38,14 @@ import org.killbill.billing.osgi.libs.killbill.OSGIKillbillAPI;
 import org.killbill.billing.payment.api.PluginProperty;
 import org.killbill.billing.plugin.api.PluginProperties;
 import org.killbill.billing.plugin.api.invoice.PluginInvoicePluginApi;
-import org.killbill.billing.plugin.avatax.client.AvaTaxClient;
-import org.killbill.billing.plugin.avatax.client.AvaTaxClientException;
 import org.killbill.billing.plugin.avatax.core.AvaTaxConfigurationHandler;
+import org.killbill.billing.plugin.avatax.core.AvaTaxInvoiceStats;
+import org.killbill.billing.plugin.avatax.core.AvaTaxInvoiceTimings;
+import org.killbill.billing.plugin.avatax.core.AvaTaxInvoiceTimings.Phase;
+import org.killbill.billing.plugin.avatax.core.AvaTaxOutboxWorker;
 import org.killbill.billing.plugin.avatax.dao.AvaTaxDao;
-import org.killbill.billing.plugin.avatax.dao.gen.tables.records.AvataxResponsesRecord;
+import org.killbill.billing.plugin.avatax.dao.AvaTaxResponseWriter;
+import org.killbill.billing.plugin.avatax.dao.TaxCodesCache;
 import org.killbill.billing.util.callcontext.TenantContext;
 import org.killbill.billing.util.customfield.CustomField;
 import org.killbill.clock.Clock;
@@ -53,41 +53,77 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import com.google.common.base.Predicate;
+import com.google.common.collect.ImmutableList;
 import com.google.common.collect.Iterables;
-import com.google.common.collect.Lists;
 
 public class AvaTaxInvoicePluginApi extends PluginInvoicePluginApi {
 
     private static final Logger logger = LoggerFactory.getLogger(AvalaraInvoicePluginApi.class);
 
     private static final String INVOICE_OPERATION = "INVOICE_OPERATION";
+    private static final int FLUSH_ATTEMPTS = 3;
+    private static final int OUTBOX_ATTEMPTS = 3;
 
     private final AvaTaxConfigurationHandler avaTaxConfigurationHandler;
     private final AvaTaxDao dao;
+    private final AvaTaxResponseWriter responseWriter;
+    private final TaxCodesCache taxCodesCache;
+    private final PlanProductsCache planProductsCache;
+    private final AvaTaxInvoiceStats invoiceStats;
     private final AvaTaxTaxCalculator calculator;
 
     public AvaTaxInvoicePluginApi(final AvaTaxConfigurationHandler avaTaxConfigurationHandler,
                                   final AvaTaxDao dao,
+                                  final AvaTaxResponseWriter responseWriter,
+                                  final TaxCodesCache taxCodesCache,
+                                  final PlanProductsCache planProductsCache,
+                                  final AvaTaxInvoiceStats invoiceStats,
                                   final OSGIKillbillAPI killbillApi,
                                   final OSGIConfigPropertiesService configProperties,
                                   final Clock clock) {
         super(killbillApi, configProperties, clock);
         this.avaTaxConfigurationHandler = avaTaxConfigurationHandler;
         this.dao = dao;
-        this.calculator = new AvaTaxTaxCalculator(avaTaxConfigurationHandler, dao, clock, killbillApi);
+        this.responseWriter = responseWriter;
+        this.taxCodesCache = taxCodesCache;
+        this.planProductsCache = planProductsCache;
+        this.invoiceStats = invoiceStats;
+        this.calculator = new AvaTaxTaxCalculator(avaTaxConfigurationHandler, dao, responseWriter, clock, killbillApi);
     }
 
     @Override
     public AdditionalItemsResult getAdditionalInvoiceItems(final Invoice invoice, final boolean dryRun, final Iterable<PluginProperty> properties, final InvoiceContext context) {
-        final Collection<PluginProperty> pluginProperties = Lists.<PluginProperty>newArrayList(properties);
+        final long slowInvoiceThresholdMillis = avaTaxConfigurationHandler.getConfigurable(context.getTenantId()).getSlowInvoiceThresholdMillis();
+        final AvaTaxInvoiceTimings timings = new AvaTaxInvoiceTimings(invoice.getId(), context.getTenantId(), clock.getUTCNow());
+        try {
+            return getAdditionalInvoiceItems(invoice, dryRun, properties, context, timings);
+        } finally {
+            timings.stop();
+            invoiceStats.record(timings, slowInvoiceThresholdMillis);
+        }
+    }
+
+    private AdditionalItemsResult getAdditionalInvoiceItems(final Invoice invoice,
+                                                            final boolean dryRun,
+                                                            final Iterable<PluginProperty> properties,
+                                                            final InvoiceContext context,
+                                                            final AvaTaxInvoiceTimings timings) {
+        // Indexed once, so that looking up the per-item properties doesn't require a scan for each item
+        final AvaTaxPluginProperties pluginProperties = new AvaTaxPluginProperties(properties);
 
         final Account account = getAccount(invoice.getAccountId(), context);
 
+        long startNanos = System.nanoTime();
         checkForTaxExemption(invoice, pluginProperties, context);
-        checkForTaxCodes(invoice, pluginProperties, context);
+        checkForTaxCodesInCustomFields(invoice, pluginProperties, context);
+        timings.record(Phase.CUSTOM_FIELDS, startNanos);
+
+        startNanos = System.nanoTime();
+        checkForTaxCodesOnProducts(invoice, pluginProperties, context);
+        timings.record(Phase.CATALOG, startNanos);
 
         try {
-            final List<InvoiceItem> additionalItems = calculator.compute(account, invoice, dryRun, pluginProperties, context);
+            final List<InvoiceItem> additionalItems = calculator.compute(account, invoice, dryRun, pluginProperties, context, timings);
             return new AvataxAdditionalItemsResult(additionalItems, null);
         } catch (final Exception e) {
             // Prevent invoice generation
@@ -97,43 +133,65 @@ public class AvaTaxInvoicePluginApi extends PluginInvoicePluginApi {
 
     @Override
     public OnSuccessInvoiceResult onSuccessCall(final InvoiceContext context, final Iterable<PluginProperty> properties) {
+        flushResponses(responseWriter, context);
+
         final String invoiceOperation = PluginProperties.findPluginPropertyValue(INVOICE_OPERATION, properties);
         if (invoiceOperation == null) {
             return super.onSuccessCall(context, properties);
         }
 
-        final Collection<String> docCodes = new HashSet<String>();
-        try {
-            // Find existing transactions
-            final List<AvataxResponsesRecord> responses = dao.getSuccessfulResponses(context.getInvoice().getId(), context.getTenantId());
-            for (final AvataxResponsesRecord response : responses) {
-                docCodes.add(response.getDocCode());
+        if (!AvaTaxOutboxWorker.COMMIT.equals(invoiceOperation) && !AvaTaxOutboxWorker.VOID.equals(invoiceOperation)) {
+            return super.onSuccessCall(context, properties);
+        }
+
+        queueOutboxOperations(context, invoiceOperation);
+
+        return super.onSuccessCall(context, properties);
+    }
+
+    // Find existing transactions and queue the operation, AvaTax is called in the background (see AvaTaxOutboxWorker)
+    private void queueOutboxOperations(final InvoiceContext context, final String invoiceOperation) {
+        SQLException lastException = null;
+        for (int attempt = 1; attempt <= OUTBOX_ATTEMPTS; attempt++) {
+            try {
+                final List<String> docCodes = dao.getSuccessfulDocCodes(context.getInvoice().getId(), context.getTenantId());
+                dao.addOutboxOperations(context.getInvoice().getId(), new HashSet<String>(docCodes), invoiceOperation, clock.getUTCNow(), context.getTenantId());
+                return;
+            } catch (final SQLException e) {
+                logger.warn("Unable to queue the {} of the transactions of invoice {} (attempt {}/{})", invoiceOperation, context.getInvoice().getId(), attempt, OUTBOX_ATTEMPTS, e);
+                lastException = e;
             }
-        } catch (final SQLException e) {
-            logger.warn("Unable to {} transaction in Avalara", invoiceOperation, e);
-            // Don't fail the whole operation though
         }
 
-        final AvaTaxClient avaTaxClient = avaTaxConfigurationHandler.getConfigurable(context.getTenantId());
-        for (final String docCode : docCodes) {
+        // Fail the call: the documents would otherwise never be committed (or voided) in Avalara
+        throw new RuntimeException(String.format("Unable to %s transactions in Avalara for invoice %s", invoiceOperation, context.getInvoice().getId()), lastException);
+    }
+
+    // With write-behind, make sure the responses are stored once the invoice is committed: they only live in memory until then
+    static void flushResponses(final AvaTaxResponseWriter responseWriter, final InvoiceContext context) {
+        if (context.getInvoice() == null) {
+            return;
+        }
+
+        SQLException lastException = null;
+        for (int attempt = 1; attempt <= FLUSH_ATTEMPTS; attempt++) {
             try {
-                if ("commit".equals(invoiceOperation)) {
-                    avaTaxClient.commitTransaction(docCode);
-                } else if ("void".equals(invoiceOperation)) {
-                    avaTaxClient.voidTransaction(docCode);
-                }
-            } catch (final AvaTaxClientException e) {
-                logger.warn("Unable to {} transaction in Avalara", invoiceOperation, e);
-                // Don't fail the whole operation though
+                // Responses the writer failed to store are stored synchronously by the flush
+                responseWriter.flush(ImmutableList.<UUID>of(context.getInvoice().getId()));
+                return;
+            } catch (final SQLException e) {
+                logger.warn("Unable to store the AvaTax responses for invoice {} (attempt {}/{})", context.getInvoice().getId(), attempt, FLUSH_ATTEMPTS, e);
+                lastException = e;
             }
         }
 
-        return super.onSuccessCall(context, properties);
+        // Fail the call rather than losing the responses on restart (they are kept, and retried by the next flush)
+        throw new RuntimeException("Unable to store the AvaTax responses for invoice " + context.getInvoice().getId(), lastException);
     }
 
-    private void checkForTaxExemption(final Invoice invoice, final Collection<PluginProperty> properties, final TenantContext context) {
+    private void checkForTaxExemption(final Invoice invoice, final AvaTaxPluginProperties properties, final TenantContext context) {
         // Overridden by plugin properties?
-        if (PluginProperties.findPluginPropertyValue(AvaTaxTaxCalculator.CUSTOMER_USAGE_TYPE, properties) != null) {
+        if (properties.getValue(AvaTaxTaxCalculator.CUSTOMER_USAGE_TYPE) != null) {
             return;
         }
 
@@ -147,16 +205,11 @@ public class AvaTaxInvoicePluginApi extends PluginInvoicePluginApi {
                                                                        }).orNull();
 
         if (customField != null) {
-            properties.add(new PluginProperty(AvaTaxTaxCalculator.CUSTOMER_USAGE_TYPE, customField.getFieldValue(), false));
+            properties.addIfAbsent(AvaTaxTaxCalculator.CUSTOMER_USAGE_TYPE, customField.getFieldValue());
         }
     }
 
-    private void checkForTaxCodes(final Invoice invoice, final Collection<PluginProperty> properties, final TenantContext context) {
-        checkForTaxCodesInCustomFields(invoice, properties, context);
-        checkForTaxCodesOnProducts(invoice, properties, context);
-    }
-
-    private void checkForTaxCodesInCustomFields(final Invoice invoice, final Collection<PluginProperty> properties, final TenantContext context) {
+    private void checkForTaxCodesInCustomFields(final Invoice invoice, final AvaTaxPluginProperties properties, final TenantContext context) {
         final List<CustomField> customFields = killbillAPI.getCustomFieldUserApi().getCustomFieldsForAccountType(invoice.getAccountId(), ObjectType.INVOICE_ITEM, context);
         if (customFields.isEmpty()) {
             return;
@@ -179,12 +232,12 @@ public class AvaTaxInvoicePluginApi extends PluginInvoicePluginApi {
         for (final CustomField customField : taxCodeCustomFieldsForInvoiceItems) {
             final UUID invoiceItemId = customField.getObjectId();
             final String taxCode = customField.getFieldValue();
-            addTaxCodeToInvoiceItem(invoiceItemId, taxCode, properties);
+            // Unless already in plugin properties
+            properties.addTaxCodeIfAbsent(invoiceItemId, taxCode);
         }
     }
 
-    private void checkForTaxCodesOnProducts(final Invoice invoice, final Collection<PluginProperty> properties, final TenantContext context) {
-        final Map<String, String> planToProductCache = new HashMap<String, String>();
+    private void checkForTaxCodesOnProducts(final Invoice invoice, final AvaTaxPluginProperties properties, final TenantContext context) {
         final Map<String, String> productToTaxCodeCache = new HashMap<String, String>();
 
         for (final InvoiceItem invoiceItem : invoice.getInvoiceItems()) {
@@ -193,23 +246,14 @@ public class AvaTaxInvoicePluginApi extends PluginInvoicePluginApi {
                 continue;
             }
 
-            if (planToProductCache.get(planName) == null) {
-                try {
-                    final StaticCatalog catalog = killbillAPI.getCatalogUserApi().getCurrentCatalog(null, context);
-                    final Plan plan = catalog.findPlan(planName);
-                    planToProductCache.put(planName, plan.getProduct().getName());
-                } catch (final CatalogApiException e) {
-                    continue;
-                }
-            }
-            final String productName = planToProductCache.get(planName);
+            final String productName = planProductsCache.getProductName(planName, context);
             if (productName == null) {
                 continue;
             }
 
-            if (productToTaxCodeCache.get(productName) == null) {
+            if (!productToTaxCodeCache.containsKey(productName)) {
                 try {
-                    final String taxCode = dao.getTaxCode(productName, context.getTenantId());
+                    final String taxCode = taxCodesCache.getTaxCode(productName, context.getTenantId());
                     productToTaxCodeCache.put(productName, taxCode);
                 } catch (final SQLException e) {
                     continue;
@@ -218,16 +262,8 @@ public class AvaTaxInvoicePluginApi extends PluginInvoicePluginApi {
 
             final String taxCode = productToTaxCodeCache.get(productName);
             if (taxCode != null) {
-                addTaxCodeToInvoiceItem(invoiceItem.getId(), productToTaxCodeCache.get(productName), properties);
+                properties.addTaxCodeIfAbsent(invoiceItem.getId(), taxCode);
             }
         }
     }
-
-    private void addTaxCodeToInvoiceItem(final UUID invoiceItemId, final String taxCode, final Collection<PluginProperty> properties) {
-        final String pluginPropertyName = String.format("%s_%s", AvaTaxTaxCalculator.TAX_CODE, invoiceItemId);
-        // Already in plugin properties?
-        if (PluginProperties.findPluginPropertyValue(pluginPropertyName, properties) == null) {
-            properties.add(new PluginProperty(pluginPropertyName, taxCode, false));
-        }
-    }
 }
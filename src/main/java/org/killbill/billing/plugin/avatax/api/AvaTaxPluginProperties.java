@@ -0,0 +1,150 @@
+/*
+ * Copyright 2020-2026 Equinix, Inc
+ * Copyright 2014-2026 The Billing Project, LLC
+ *
+ * The Billing Project licenses this file to you under the Apache License, version 2.0
+ * (the "License"); you may not use this file except in compliance with the
+ * License.  You may obtain a copy of the License at:
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.killbill.billing.plugin.avatax.api;
+
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+import javax.annotation.Nullable;
+
+import org.killbill.billing.payment.api.PluginProperty;
+
+import com.google.common.base.Strings;
+
+/**
+ * Per-call index of the plugin properties, built once so that looking up the per-item properties
+ * ({@code taxCode_<invoiceItemId>}, {@code locationCode_<invoiceItemId>}) and the rate types ({@code rateType}, which can be
+ * specified several times) doesn't require a scan of all properties for each item.
+ * <p/>
+ * Lookups follow PluginProperties#findPluginPropertyValue: the first property with a given key wins and empty values are treated as null.
+ * Instances aren't thread-safe: properties must all be added before the index is shared with the tax calls.
+ */
+public class AvaTaxPluginProperties implements Iterable<PluginProperty> {
+
+    private static final String TAX_CODE_PREFIX = AvaTaxTaxCalculator.TAX_CODE + "_";
+    private static final String LOCATION_CODE_PREFIX = AvaTaxTaxCalculator.LOCATION_CODE + "_";
+
+    private final List<PluginProperty> properties = new LinkedList<PluginProperty>();
+    // Values can be null (property specified without a value)
+    private final Map<String, String> values = new HashMap<String, String>();
+    private final Map<UUID, String> taxCodes = new HashMap<UUID, String>();
+    private final Map<UUID, String> locationCodes = new HashMap<UUID, String>();
+    private final List<String> rateTypes = new LinkedList<String>();
+
+    public AvaTaxPluginProperties(@Nullable final Iterable<PluginProperty> pluginProperties) {
+        if (pluginProperties != null) {
+            for (final PluginProperty pluginProperty : pluginProperties) {
+                add(pluginProperty);
+            }
+        }
+    }
+
+    /**
+     * @return the given properties, indexed (the same instance is returned if they already are)
+     */
+    public static AvaTaxPluginProperties of(@Nullable final Iterable<PluginProperty> pluginProperties) {
+        if (pluginProperties instanceof AvaTaxPluginProperties) {
+            return (AvaTaxPluginProperties) pluginProperties;
+        }
+        return new AvaTaxPluginProperties(pluginProperties);
+    }
+
+    public String getValue(final String key) {
+        return values.get(key);
+    }
+
+    public String getValue(final String key, final String defaultValue) {
+        final String value = values.get(key);
+        return value == null ? defaultValue : value;
+    }
+
+    public String getTaxCode(final UUID invoiceItemId) {
+        return taxCodes.get(invoiceItemId);
+    }
+
+    public String getLocationCode(final UUID invoiceItemId) {
+        return locationCodes.get(invoiceItemId);
+    }
+
+    /**
+     * @return the values of all rateType properties, in order (empty if all rate types should be applied)
+     */
+    public List<String> getRateTypes() {
+        return rateTypes;
+    }
+
+    /**
+     * Add a property, unless one with the same key was already specified
+     *
+     * @return true if the property was added
+     */
+    public boolean addIfAbsent(final String key, final Object value) {
+        if (values.containsKey(key)) {
+            return false;
+        }
+        add(new PluginProperty(key, value, false));
+        return true;
+    }
+
+    public boolean addTaxCodeIfAbsent(final UUID invoiceItemId, final String taxCode) {
+        return addIfAbsent(TAX_CODE_PREFIX + invoiceItemId, taxCode);
+    }
+
+    @Override
+    public Iterator<PluginProperty> iterator() {
+        return properties.iterator();
+    }
+
+    private void add(final PluginProperty pluginProperty) {
+        properties.add(pluginProperty);
+
+        final String key = pluginProperty.getKey();
+        if (TaxRatesTaxCalculator.RATE_TYPE.equals(key)) {
+            rateTypes.add(pluginProperty.getValue() == null ? "" : pluginProperty.getValue().toString());
+        }
+        if (key == null || values.containsKey(key)) {
+            return;
+        }
+
+        final String value = pluginProperty.getValue() == null ? null : Strings.emptyToNull(String.valueOf(pluginProperty.getValue()));
+        values.put(key, value);
+
+        if (key.startsWith(TAX_CODE_PREFIX)) {
+            indexByInvoiceItemId(key.substring(TAX_CODE_PREFIX.length()), value, taxCodes);
+        } else if (key.startsWith(LOCATION_CODE_PREFIX)) {
+            indexByInvoiceItemId(key.substring(LOCATION_CODE_PREFIX.length()), value, locationCodes);
+        }
+    }
+
+    private static void indexByInvoiceItemId(final String invoiceItemIdString, @Nullable final String value, final Map<UUID, String> index) {
+        final UUID invoiceItemId;
+        try {
+            invoiceItemId = UUID.fromString(invoiceItemIdString);
+        } catch (final IllegalArgumentException e) {
+            return;
+        }
+        // UUID#fromString is lenient: only index canonical ids, as the keys are looked up with invoiceItem.getId().toString()
+        if (invoiceItemId.toString().equals(invoiceItemIdString) && value != null) {
+            index.put(invoiceItemId, value);
+        }
+    }
+}
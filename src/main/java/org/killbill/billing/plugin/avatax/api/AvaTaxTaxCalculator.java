@@ -26,6 +26,7 @@ import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
 import java.util.UUID;
+import java.util.concurrent.ExecutorService;
 
 import javax.annotation.Nullable;
 
@@ -36,8 +37,8 @@ import org.killbill.billing.invoice.api.InvoiceItem;
 import org.killbill.billing.invoice.api.InvoiceStatus;
 import org.killbill.billing.osgi.libs.killbill.OSGIKillbillAPI;
 import org.killbill.billing.payment.api.PluginProperty;
-import org.killbill.billing.plugin.api.PluginProperties;
 import org.killbill.billing.plugin.avatax.client.AvaTaxClient;
+import org.killbill.billing.plugin.avatax.client.AvaTaxCircuitOpenException;
 import org.killbill.billing.plugin.avatax.client.AvaTaxClientException;
 import org.killbill.billing.plugin.avatax.client.model.AddressLocationInfo;
 import org.killbill.billing.plugin.avatax.client.model.AddressesModel;
@@ -45,15 +46,23 @@ import org.killbill.billing.plugin.avatax.client.model.CreateTransactionModel;
 import org.killbill.billing.plugin.avatax.client.model.DocType;
 import org.killbill.billing.plugin.avatax.client.model.LineItemModel;
 import org.killbill.billing.plugin.avatax.client.model.TaxOverrideModel;
+import org.killbill.billing.plugin.avatax.client.model.TaxRateResult;
 import org.killbill.billing.plugin.avatax.client.model.TransactionLineDetailModel;
 import org.killbill.billing.plugin.avatax.client.model.TransactionLineModel;
 import org.killbill.billing.plugin.avatax.client.model.TransactionModel;
 import org.killbill.billing.plugin.avatax.core.AvaTaxConfigurationHandler;
+import org.killbill.billing.plugin.avatax.core.AvaTaxInvoiceTimings;
+import org.killbill.billing.plugin.avatax.core.AvaTaxInvoiceTimings.Phase;
 import org.killbill.billing.plugin.avatax.dao.AvaTaxDao;
+import org.killbill.billing.plugin.avatax.dao.AvaTaxResponse;
+import org.killbill.billing.plugin.avatax.dao.AvaTaxResponseWriter;
+import org.killbill.billing.plugin.avatax.dao.AvaTaxResponsesUnitOfWork;
+import org.killbill.billing.plugin.avatax.dao.gen.tables.records.AvataxTaxRatesRecord;
 import org.killbill.clock.Clock;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import com.google.common.annotations.VisibleForTesting;
 import com.google.common.base.MoreObjects;
 import com.google.common.base.Preconditions;
 import com.google.common.collect.ImmutableList;
@@ -79,10 +88,23 @@ public class AvaTaxTaxCalculator extends AvaTaxTaxCalculatorBase {
                                final AvaTaxDao dao,
                                final Clock clock,
                                final OSGIKillbillAPI osgiKillbillAPI) {
-        super(dao, clock, osgiKillbillAPI);
+        this(avaTaxConfigurationHandler, dao, new AvaTaxResponseWriter(dao), clock, osgiKillbillAPI);
+    }
+
+    public AvaTaxTaxCalculator(final AvaTaxConfigurationHandler avaTaxConfigurationHandler,
+                               final AvaTaxDao dao,
+                               final AvaTaxResponseWriter responseWriter,
+                               final Clock clock,
+                               final OSGIKillbillAPI osgiKillbillAPI) {
+        super(dao, responseWriter, clock, osgiKillbillAPI);
         this.avaTaxConfigurationHandler = avaTaxConfigurationHandler;
     }
 
+    @Override
+    protected ExecutorService getExecutor(final UUID kbTenantId) {
+        return avaTaxConfigurationHandler.getExecutor(kbTenantId);
+    }
+
     @Override
     protected Collection<InvoiceItem> buildInvoiceItems(final Account account,
                                                         final Invoice newInvoice,
@@ -94,11 +116,14 @@ public class AvaTaxTaxCalculator extends AvaTaxTaxCalculatorBase {
                                                         final Iterable<PluginProperty> pluginProperties,
                                                         final UUID kbTenantId,
                                                         final Map<UUID, Iterable<InvoiceItem>> kbInvoiceItems,
-                                                        final LocalDate utcToday) throws AvaTaxClientException, SQLException {
+                                                        final LocalDate utcToday,
+                                                        final AvaTaxResponsesUnitOfWork responses,
+                                                        final AvaTaxInvoiceTimings timings) throws AvaTaxClientException, SQLException {
         final AvaTaxClient avaTaxClient = avaTaxConfigurationHandler.getConfigurable(kbTenantId);
         final String companyCode = avaTaxClient.getCompanyCode();
         final boolean shouldCommitDocuments = avaTaxClient.shouldCommitDocuments();
 
+        long startNanos = System.nanoTime();
         final CreateTransactionModel taxRequest = toTaxRequest(companyCode,
                                                                account,
                                                                invoice,
@@ -107,19 +132,28 @@ public class AvaTaxTaxCalculator extends AvaTaxTaxCalculatorBase {
                                                                originalInvoiceReferenceCode,
                                                                dryRun,
                                                                shouldCommitDocuments,
-                                                               pluginProperties,
+                                                               AvaTaxPluginProperties.of(pluginProperties),
                                                                utcToday,
                                                                avaTaxClient.shouldSkipAnomalousAdjustments());
+        timings.record(Phase.REQUEST_BUILD, startNanos);
         if (taxRequest == null) {
             return ImmutableList.<InvoiceItem>of();
         }                                                       
         logger.info("CreateTransaction req: {}", taxRequest.simplifiedToString());
 
         try {
-            final TransactionModel taxResult = avaTaxClient.createTransaction(taxRequest);
+            final TransactionModel taxResult;
+            try {
+                taxResult = avaTaxClient.createTransaction(taxRequest, timings);
+            } catch (final AvaTaxCircuitOpenException e) {
+                if (!avaTaxClient.shouldFallbackToTaxRates()) {
+                    throw e;
+                }
+                return buildFallbackInvoiceItems(account, newInvoice, taxRequest, taxableItems, adjustmentItems, dryRun, pluginProperties, kbTenantId, kbInvoiceItems, responses, timings, e);
+            }
             logger.info("CreateTransaction res: {}", taxResult.simplifiedToString());
             if (!dryRun) {
-                dao.addResponse(account.getId(), newInvoice.getId(), kbInvoiceItems, taxResult, clock.getUTCNow(), kbTenantId);
+                responses.add(AvaTaxResponse.forTransaction(account.getId(), newInvoice.getId(), kbInvoiceItems, taxResult, clock.getUTCNow(), kbTenantId));
             }
 
             if (taxResult.lines == null || taxResult.lines.length == 0) {
@@ -127,6 +161,7 @@ public class AvaTaxTaxCalculator extends AvaTaxTaxCalculatorBase {
                 return ImmutableList.<InvoiceItem>of();
             }
 
+            startNanos = System.nanoTime();
             final Collection<InvoiceItem> invoiceItems = new LinkedList<InvoiceItem>();
             for (final TransactionLineModel transactionLineModel : taxResult.lines) {
                 // See convention in toLine() below
@@ -143,17 +178,56 @@ public class AvaTaxTaxCalculator extends AvaTaxTaxCalculatorBase {
                 }
                 invoiceItems.addAll(toInvoiceItems(newInvoice.getId(), taxableItems.get(invoiceItemId), transactionLineModel, adjustmentItem));
             }
+            timings.record(Phase.ITEMS_BUILD, startNanos);
 
             return invoiceItems;
         } catch (final AvaTaxClientException e) {
             if (e.getErrors() != null) {
-                dao.addResponse(account.getId(), invoice.getId(), kbInvoiceItems, e.getErrors(), clock.getUTCNow(), kbTenantId);
+                responses.add(AvaTaxResponse.forErrors(account.getId(), invoice.getId(), kbInvoiceItems, e.getErrors(), clock.getUTCNow(), kbTenantId));
                 logger.warn("CreateTransaction res: {}", e.getErrors());
             }
             throw e;
         }
     }
 
+    // Local estimate while AvaTax is unavailable, using the tax rates stored for the ship-to postal code (see the Tax Rates API local store)
+    private Collection<InvoiceItem> buildFallbackInvoiceItems(final Account account,
+                                                              final Invoice newInvoice,
+                                                              final CreateTransactionModel taxRequest,
+                                                              final Map<UUID, InvoiceItem> taxableItems,
+                                                              @Nullable final Map<UUID, List<InvoiceItem>> adjustmentItems,
+                                                              final boolean dryRun,
+                                                              final Iterable<PluginProperty> pluginProperties,
+                                                              final UUID kbTenantId,
+                                                              final Map<UUID, Iterable<InvoiceItem>> kbInvoiceItems,
+                                                              final AvaTaxResponsesUnitOfWork responses,
+                                                              final AvaTaxInvoiceTimings timings,
+                                                              final AvaTaxCircuitOpenException circuitOpenException) throws AvaTaxClientException, SQLException {
+        final AddressLocationInfo shipTo = taxRequest.addresses == null ? null : taxRequest.addresses.shipTo;
+        if (shipTo == null || shipTo.postalCode == null || shipTo.country == null) {
+            throw circuitOpenException;
+        }
+
+        final AvataxTaxRatesRecord snapshot = dao.getTaxRates(shipTo.postalCode, shipTo.country, clock.getUTCNow(), kbTenantId);
+        if (snapshot == null) {
+            logger.warn("AvaTax is unavailable and no tax rates are stored for postalCode='{}', country='{}'", shipTo.postalCode, shipTo.country);
+            throw circuitOpenException;
+        }
+
+        final TaxRateResult taxRates = dao.toTaxRateResult(snapshot);
+        logger.warn("AvaTax is unavailable, estimating taxes for invoice {} using the tax rates stored for postalCode='{}', country='{}'", newInvoice.getId(), shipTo.postalCode, shipTo.country);
+        if (!dryRun) {
+            // Flagged, and the request is queued, so that the document is created in AvaTax later on (see AvaTaxPendingDocumentsWorker)
+            responses.add(AvaTaxResponse.forFallback(account.getId(), newInvoice.getId(), kbInvoiceItems, taxRates, taxRequest, clock.getUTCNow(), kbTenantId));
+        }
+
+        final long startNanos = System.nanoTime();
+        final Collection<InvoiceItem> invoiceItems = buildTaxRatesInvoiceItems(newInvoice, taxableItems.values(), adjustmentItems, pluginProperties, taxRates);
+        timings.record(Phase.ITEMS_BUILD, startNanos);
+
+        return invoiceItems;
+    }
+
     private Collection<InvoiceItem> toInvoiceItems(final UUID invoiceId,
                                                    final InvoiceItem taxableItem,
                                                    final TransactionLineModel transactionLineModel,
@@ -195,20 +269,21 @@ public class AvaTaxTaxCalculator extends AvaTaxTaxCalculatorBase {
      * @param originalInvoiceReferenceCode the original AvaTax reference code (null for Sales document)
      * @param dryRun                       true if the invoice won't be persisted
      * @param shouldCommitDocuments        true if the AvaTax document should be committed
-     * @param pluginProperties             Kill Bill plugin properties
+     * @param pluginProperties             Kill Bill plugin properties, indexed
      * @param utcToday                     today's date
      */
-    private CreateTransactionModel toTaxRequest(final String companyCode,
-                                                final Account account,
-                                                final Invoice invoice,
-                                                final Collection<InvoiceItem> taxableItems,
-                                                @Nullable final Map<UUID, List<InvoiceItem>> adjustmentItems,
-                                                @Nullable final String originalInvoiceReferenceCode,
-                                                final boolean dryRun,
-                                                final boolean shouldCommitDocuments,
-                                                final Iterable<PluginProperty> pluginProperties,
-                                                final LocalDate utcToday,
-                                                final boolean skipAnomalousAdjustments) {
+    @VisibleForTesting
+    CreateTransactionModel toTaxRequest(final String companyCode,
+                                        final Account account,
+                                        final Invoice invoice,
+                                        final Collection<InvoiceItem> taxableItems,
+                                        @Nullable final Map<UUID, List<InvoiceItem>> adjustmentItems,
+                                        @Nullable final String originalInvoiceReferenceCode,
+                                        final boolean dryRun,
+                                        final boolean shouldCommitDocuments,
+                                        final AvaTaxPluginProperties pluginProperties,
+                                        final LocalDate utcToday,
+                                        final boolean skipAnomalousAdjustments) {
         
         try {
             Preconditions.checkState((originalInvoiceReferenceCode == null && (adjustmentItems == null || adjustmentItems.isEmpty())) ||
@@ -268,8 +343,8 @@ public class AvaTaxTaxCalculator extends AvaTaxTaxCalculatorBase {
             i++;
         }
 
-        taxRequest.companyCode = PluginProperties.getValue(PROPERTY_COMPANY_CODE, companyCode, pluginProperties);
-        taxRequest.entityUseCode = PluginProperties.findPluginPropertyValue(CUSTOMER_USAGE_TYPE, pluginProperties);
+        taxRequest.companyCode = pluginProperties.getValue(PROPERTY_COMPANY_CODE, companyCode);
+        taxRequest.entityUseCode = pluginProperties.getValue(CUSTOMER_USAGE_TYPE);
 
         return taxRequest;
     }
@@ -286,12 +361,12 @@ public class AvaTaxTaxCalculator extends AvaTaxTaxCalculatorBase {
      * @param taxableItem         new taxable invoice item or original, already taxed, item if it's being adjusted
      * @param adjustmentItems     new taxableItem adjustment items, used to compute the amount of tax to return (null for Sales document)
      * @param originalInvoiceDate date of the original taxableItem's invoice (not the invoice date of the repair for instance), if it's being returned
-     * @param pluginProperties    plugin properties
+     * @param pluginProperties    plugin properties, indexed
      */
     private LineItemModel toLine(final InvoiceItem taxableItem,
                                  @Nullable final Iterable<InvoiceItem> adjustmentItems,
                                  @Nullable final LocalDate originalInvoiceDate,
-                                 final Iterable<PluginProperty> pluginProperties) {
+                                 final AvaTaxPluginProperties pluginProperties) {
         final LineItemModel lineItemModel = new LineItemModel();
         lineItemModel.number = taxableItem.getId().toString();
         // SKU
@@ -331,9 +406,9 @@ public class AvaTaxTaxCalculator extends AvaTaxTaxCalculatorBase {
             lineItemModel.taxOverride.taxDate = originalInvoiceDate.toString();
         }
 
-        lineItemModel.taxCode = PluginProperties.findPluginPropertyValue(String.format("%s_%s", TAX_CODE, taxableItem.getId()), pluginProperties);
+        lineItemModel.taxCode = pluginProperties.getTaxCode(taxableItem.getId());
 
-        final String lineItemLocationCode = PluginProperties.findPluginPropertyValue(String.format("%s_%s", LOCATION_CODE, taxableItem.getId()), pluginProperties);
+        final String lineItemLocationCode = pluginProperties.getLocationCode(taxableItem.getId());
         if (lineItemLocationCode != null) {
             lineItemModel.addresses = new AddressesModel();
             lineItemModel.addresses.singleLocation = new AddressLocationInfo();
@@ -343,17 +418,17 @@ public class AvaTaxTaxCalculator extends AvaTaxTaxCalculatorBase {
         return lineItemModel;
     }
 
-    private AddressesModel toAddress(final Account account, final Iterable<PluginProperty> pluginProperties) {
+    private AddressesModel toAddress(final Account account, final AvaTaxPluginProperties pluginProperties) {
         final AddressLocationInfo addressLocationInfo = new AddressLocationInfo();
 
-        final String line1 = PluginProperties.findPluginPropertyValue(LOCATION_ADDRESS1, pluginProperties);
+        final String line1 = pluginProperties.getValue(LOCATION_ADDRESS1);
         if (line1 != null) {
             addressLocationInfo.line1 = line1;
-            addressLocationInfo.line2 = PluginProperties.findPluginPropertyValue(LOCATION_ADDRESS2, pluginProperties);
-            addressLocationInfo.city = PluginProperties.findPluginPropertyValue(LOCATION_CITY, pluginProperties);
-            addressLocationInfo.region = PluginProperties.findPluginPropertyValue(LOCATION_REGION, pluginProperties);
-            addressLocationInfo.postalCode = PluginProperties.findPluginPropertyValue(LOCATION_POSTAL_CODE, pluginProperties);
-            addressLocationInfo.country = PluginProperties.findPluginPropertyValue(LOCATION_COUNTRY, pluginProperties);
+            addressLocationInfo.line2 = pluginProperties.getValue(LOCATION_ADDRESS2);
+            addressLocationInfo.city = pluginProperties.getValue(LOCATION_CITY);
+            addressLocationInfo.region = pluginProperties.getValue(LOCATION_REGION);
+            addressLocationInfo.postalCode = pluginProperties.getValue(LOCATION_POSTAL_CODE);
+            addressLocationInfo.country = pluginProperties.getValue(LOCATION_COUNTRY);
         } else {
             addressLocationInfo.line1 = account.getAddress1();
             addressLocationInfo.line2 = account.getAddress2();
@@ -18,13 +18,21 @@
 
 package org.killbill.billing.plugin.avatax.api;
 
+import java.math.BigDecimal;
 import java.sql.SQLException;
+import java.util.ArrayList;
 import java.util.Collection;
 import java.util.HashMap;
+import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
 import java.util.UUID;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicBoolean;
 
 import javax.annotation.Nullable;
 
@@ -37,15 +45,23 @@ import org.killbill.billing.osgi.libs.killbill.OSGIKillbillAPI;
 import org.killbill.billing.payment.api.PluginProperty;
 import org.killbill.billing.plugin.api.invoice.PluginTaxCalculator;
 import org.killbill.billing.plugin.avatax.client.AvaTaxClientException;
+import org.killbill.billing.plugin.avatax.client.model.RateModel;
+import org.killbill.billing.plugin.avatax.client.model.TaxRateResult;
+import org.killbill.billing.plugin.avatax.core.AvaTaxInvoiceTimings;
+import org.killbill.billing.plugin.avatax.core.AvaTaxInvoiceTimings.Phase;
 import org.killbill.billing.plugin.avatax.dao.AvaTaxDao;
-import org.killbill.billing.plugin.avatax.dao.gen.tables.records.AvataxResponsesRecord;
+import org.killbill.billing.plugin.avatax.dao.AvaTaxResponseWriter;
+import org.killbill.billing.plugin.avatax.dao.AvaTaxResponsesUnitOfWork;
+import org.killbill.billing.plugin.util.KillBillMoney;
 import org.killbill.billing.util.callcontext.TenantContext;
 import org.killbill.clock.Clock;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
-import com.google.common.collect.HashMultimap;
+import com.google.common.annotations.VisibleForTesting;
+import com.google.common.base.MoreObjects;
 import com.google.common.collect.ImmutableList;
+import com.google.common.collect.LinkedHashMultimap;
 import com.google.common.collect.Multimap;
 
 public abstract class AvaTaxTaxCalculatorBase extends PluginTaxCalculator {
@@ -53,11 +69,17 @@ public abstract class AvaTaxTaxCalculatorBase extends PluginTaxCalculator {
     private static final Logger logger = LoggerFactory.getLogger(AvaTaxTaxCalculatorBase.class);
 
     protected final AvaTaxDao dao;
+    protected final AvaTaxResponseWriter responseWriter;
     protected final Clock clock;
 
     public AvaTaxTaxCalculatorBase(final AvaTaxDao dao, final Clock clock, final OSGIKillbillAPI osgiKillbillAPI) {
+        this(dao, new AvaTaxResponseWriter(dao), clock, osgiKillbillAPI);
+    }
+
+    public AvaTaxTaxCalculatorBase(final AvaTaxDao dao, final AvaTaxResponseWriter responseWriter, final Clock clock, final OSGIKillbillAPI osgiKillbillAPI) {
         super(osgiKillbillAPI);
         this.dao = dao;
+        this.responseWriter = responseWriter;
         this.clock = clock;
     }
 
@@ -66,9 +88,21 @@ public abstract class AvaTaxTaxCalculatorBase extends PluginTaxCalculator {
                                      final boolean dryRun,
                                      final Iterable<PluginProperty> pluginProperties,
                                      final TenantContext tenantContext) throws Exception {
+        return compute(account, newInvoice, dryRun, pluginProperties, tenantContext, new AvaTaxInvoiceTimings(newInvoice.getId(), tenantContext.getTenantId(), clock.getUTCNow()));
+    }
+
+    public List<InvoiceItem> compute(final Account account,
+                                     final Invoice newInvoice,
+                                     final boolean dryRun,
+                                     final Iterable<PluginProperty> pluginProperties,
+                                     final TenantContext tenantContext,
+                                     final AvaTaxInvoiceTimings timings) throws Exception {
         // Retrieve what we've already taxed (Tax Rates API) or sent (AvaTax)
-        final List<AvataxResponsesRecord> responses = dao.getSuccessfulResponses(newInvoice.getId(), tenantContext.getTenantId());
-        final Map<UUID, Set<UUID>> alreadyTaxedItemsWithAdjustments = dao.getTaxedItemsWithAdjustments(responses);
+        long startNanos = System.nanoTime();
+        // Responses for that invoice may not be stored yet (write-behind)
+        responseWriter.flush(ImmutableList.<UUID>of(newInvoice.getId()));
+        final Map<UUID, Set<UUID>> alreadyTaxedItemsWithAdjustments = dao.getTaxedItemsWithAdjustments(newInvoice.getId(), tenantContext.getTenantId());
+        timings.record(Phase.HISTORY, startNanos);
 
         // For AvaTax, we can only send one type of document at a time (Sales or Return). In some cases, we need to send both, for example
         // in the case of repairs (adjustment for the original item, tax for the new item -- all generated items would be on the new invoice)
@@ -80,27 +114,43 @@ public abstract class AvaTaxTaxCalculatorBase extends PluginTaxCalculator {
             }
         }
 
-        final ImmutableList.Builder<InvoiceItem> newInvoiceItemsBuilder = ImmutableList.<InvoiceItem>builder();
+        // All responses for that invoice are stored at once
+        final AvaTaxResponsesUnitOfWork responses = responseWriter.beginUnitOfWork();
+
+        // Sales document first, then one return document for each original invoice
+        final List<Callable<Iterable<InvoiceItem>>> taxCalls = new LinkedList<Callable<Iterable<InvoiceItem>>>();
         if (!salesTaxItems.isEmpty()) {
-            newInvoiceItemsBuilder.addAll(getTax(account,
-                                                 newInvoice,
-                                                 newInvoice,
-                                                 salesTaxItems,
-                                                 null,
-                                                 null,
-                                                 dryRun,
-                                                 pluginProperties,
-                                                 tenantContext.getTenantId()));
+            taxCalls.add(new Callable<Iterable<InvoiceItem>>() {
+                @Override
+                public Iterable<InvoiceItem> call() throws Exception {
+                    return getTax(account,
+                                  newInvoice,
+                                  newInvoice,
+                                  salesTaxItems,
+                                  null,
+                                  null,
+                                  dryRun,
+                                  pluginProperties,
+                                  tenantContext.getTenantId(),
+                                  responses,
+                                  timings);
+                }
+            });
         }
 
         // Handle returns by original invoice (1 return call for each original invoice)
-        final Multimap<UUID, NewItemToTax> itemsToReturnByInvoiceId = HashMultimap.<UUID, NewItemToTax>create();
+        final Multimap<UUID, NewItemToTax> itemsToReturnByInvoiceId = LinkedHashMultimap.<UUID, NewItemToTax>create();
         for (final NewItemToTax newItemToTax : newItemsToTax) {
             if (newItemToTax.getAdjustmentItems() == null) {
                 continue;
             }
             itemsToReturnByInvoiceId.put(newItemToTax.getInvoice().getId(), newItemToTax);
         }
+        // Retrieve the original documents for all invoices at once
+        startNanos = System.nanoTime();
+        responseWriter.flush(itemsToReturnByInvoiceId.keySet());
+        final Map<UUID, String> originalInvoiceReferenceCodes = dao.getFirstSuccessfulDocCodes(itemsToReturnByInvoiceId.keySet(), tenantContext.getTenantId());
+        timings.record(Phase.HISTORY, startNanos);
         for (final UUID invoiceId : itemsToReturnByInvoiceId.keySet()) {
             final Collection<NewItemToTax> itemsToReturn = itemsToReturnByInvoiceId.get(invoiceId);
 
@@ -112,18 +162,108 @@ public abstract class AvaTaxTaxCalculatorBase extends PluginTaxCalculator {
                 adjustmentItems.put(itemToReturn.getTaxableItem().getId(), itemToReturn.getAdjustmentItems());
             }
 
-            final List<AvataxResponsesRecord> responsesForInvoice = dao.getSuccessfulResponses(invoice.getId(), tenantContext.getTenantId());
-            final String originalInvoiceReferenceCode = responsesForInvoice.isEmpty() ? null : responsesForInvoice.get(0).getDocCode();
-
-            newInvoiceItemsBuilder.addAll(getTax(account,
-                                                 newInvoice,
-                                                 invoice,
-                                                 taxableItemsToReturn,
-                                                 adjustmentItems,
-                                                 originalInvoiceReferenceCode,
-                                                 dryRun,
-                                                 pluginProperties,
-                                                 tenantContext.getTenantId()));
+            final String originalInvoiceReferenceCode = originalInvoiceReferenceCodes.get(invoice.getId());
+            taxCalls.add(new Callable<Iterable<InvoiceItem>>() {
+                @Override
+                public Iterable<InvoiceItem> call() throws Exception {
+                    return getTax(account,
+                                  newInvoice,
+                                  invoice,
+                                  taxableItemsToReturn,
+                                  adjustmentItems,
+                                  originalInvoiceReferenceCode,
+                                  dryRun,
+                                  pluginProperties,
+                                  tenantContext.getTenantId(),
+                                  responses,
+                                  timings);
+                }
+            });
+        }
+
+        final List<InvoiceItem> newInvoiceItems;
+        try {
+            newInvoiceItems = executeTaxCalls(taxCalls, getExecutor(tenantContext.getTenantId()));
+        } catch (final Exception e) {
+            // Store the responses of the calls which went through (documents may have been created in AvaTax), as well as the errors
+            try {
+                responses.commit();
+            } catch (final SQLException e2) {
+                logger.warn("Unable to store the responses for invoice {}", newInvoice.getId(), e2);
+            }
+            throw e;
+        }
+
+        startNanos = System.nanoTime();
+        responses.commit();
+        timings.record(Phase.PERSIST, startNanos);
+
+        return newInvoiceItems;
+    }
+
+    /**
+     * Executor to use to issue the tax calls of a given invoice concurrently.
+     *
+     * @param kbTenantId tenant id
+     * @return the executor, or null if calls should be made sequentially
+     */
+    protected ExecutorService getExecutor(final UUID kbTenantId) {
+        return null;
+    }
+
+    // When a call fails, the calls already in flight are waited for (documents may have been created in AvaTax, their responses
+    // need to be stored), but the calls which haven't started yet are skipped
+    @VisibleForTesting
+    static List<InvoiceItem> executeTaxCalls(final List<Callable<Iterable<InvoiceItem>>> taxCalls, @Nullable final ExecutorService executor) throws Exception {
+        final ImmutableList.Builder<InvoiceItem> newInvoiceItemsBuilder = ImmutableList.<InvoiceItem>builder();
+        if (executor == null || taxCalls.size() <= 1) {
+            for (final Callable<Iterable<InvoiceItem>> taxCall : taxCalls) {
+                newInvoiceItemsBuilder.addAll(taxCall.call());
+            }
+            return newInvoiceItemsBuilder.build();
+        }
+
+        final AtomicBoolean failed = new AtomicBoolean(false);
+        final List<Future<Iterable<InvoiceItem>>> futures = new ArrayList<Future<Iterable<InvoiceItem>>>(taxCalls.size());
+        for (final Callable<Iterable<InvoiceItem>> taxCall : taxCalls) {
+            futures.add(executor.submit(new Callable<Iterable<InvoiceItem>>() {
+                @Override
+                public Iterable<InvoiceItem> call() throws Exception {
+                    if (failed.get()) {
+                        return ImmutableList.<InvoiceItem>of();
+                    }
+                    try {
+                        return taxCall.call();
+                    } catch (final Exception e) {
+                        failed.set(true);
+                        throw e;
+                    }
+                }
+            }));
+        }
+
+        // Collect the results in submission order, so that the order of the items is deterministic
+        Exception firstFailure = null;
+        for (final Future<Iterable<InvoiceItem>> future : futures) {
+            try {
+                final Iterable<InvoiceItem> newInvoiceItems = future.get();
+                if (firstFailure == null) {
+                    newInvoiceItemsBuilder.addAll(newInvoiceItems);
+                }
+            } catch (final ExecutionException e) {
+                if (firstFailure == null) {
+                    firstFailure = e.getCause() instanceof Exception ? (Exception) e.getCause() : e;
+                }
+            } catch (final InterruptedException e) {
+                // Calls in flight complete in the background (their responses are written directly, see AvaTaxResponsesUnitOfWork)
+                failed.set(true);
+                Thread.currentThread().interrupt();
+                throw e;
+            }
+        }
+
+        if (firstFailure != null) {
+            throw firstFailure;
         }
         return newInvoiceItemsBuilder.build();
     }
@@ -136,7 +276,9 @@ public abstract class AvaTaxTaxCalculatorBase extends PluginTaxCalculator {
                                          @Nullable final String originalInvoiceReferenceCode,
                                          final boolean dryRun,
                                          final Iterable<PluginProperty> pluginProperties,
-                                         final UUID kbTenantId) throws Exception {
+                                         final UUID kbTenantId,
+                                         final AvaTaxResponsesUnitOfWork responses,
+                                         final AvaTaxInvoiceTimings timings) throws Exception {
         // Keep track of the invoice items and adjustments we've already taxed (Tax Rates API) or sent (AvaTax)
         final Map<UUID, Iterable<InvoiceItem>> kbInvoiceItems = new HashMap<UUID, Iterable<InvoiceItem>>();
         if (adjustmentItems != null) {
@@ -160,7 +302,77 @@ public abstract class AvaTaxTaxCalculatorBase extends PluginTaxCalculator {
                                  pluginProperties,
                                  kbTenantId,
                                  kbInvoiceItems,
-                                 taxItemsDate);
+                                 taxItemsDate,
+                                 responses,
+                                 timings);
+    }
+
+    /**
+     * Compute the taxes of the taxable items (or of their adjustments) using tax rates (Tax Rates API, or local estimate while AvaTax is unavailable).
+     */
+    protected Collection<InvoiceItem> buildTaxRatesInvoiceItems(final Invoice newInvoice,
+                                                                final Iterable<InvoiceItem> taxableItems,
+                                                                @Nullable final Map<UUID, List<InvoiceItem>> adjustmentItems,
+                                                                final Iterable<PluginProperty> pluginProperties,
+                                                                final TaxRateResult taxRates) {
+        final List<String> rateTypes = AvaTaxPluginProperties.of(pluginProperties).getRateTypes();
+        final Collection<InvoiceItem> newTaxItems = new LinkedList<InvoiceItem>();
+        for (final InvoiceItem taxableItem : taxableItems) {
+            if (adjustmentItems != null) {
+                final InvoiceItem adjustmentItem;
+                if (adjustmentItems.get(taxableItem.getId()) != null && adjustmentItems.get(taxableItem.getId()).size() == 1) {
+                    // Could be a repair or an item adjustment: in either case, we use it to compute the service period
+                    adjustmentItem = adjustmentItems.get(taxableItem.getId()).get(0);
+                } else {
+                    // Multiple adjustments: use the original service period
+                    adjustmentItem = null;
+                }
+                final BigDecimal adjustmentAmount = sum(adjustmentItems.get(taxableItem.getId()));
+                newTaxItems.addAll(buildTaxRatesInvoiceItems(newInvoice, taxableItem, adjustmentItem, rateTypes, adjustmentAmount, taxRates));
+            } else {
+                newTaxItems.addAll(buildTaxRatesInvoiceItems(newInvoice, taxableItem, null, rateTypes, taxableItem.getAmount(), taxRates));
+            }
+        }
+        return newTaxItems;
+    }
+
+    private Collection<InvoiceItem> buildTaxRatesInvoiceItems(final Invoice newInvoice,
+                                                              final InvoiceItem taxableItem,
+                                                              @Nullable final InvoiceItem repairItem,
+                                                              final List<String> rateTypes,
+                                                              final BigDecimal netItemAmount,
+                                                              final TaxRateResult taxRates) {
+        final Collection<InvoiceItem> newTaxItems = new LinkedList<InvoiceItem>();
+        if (taxRates.rates == null || taxRates.rates.isEmpty()) {
+            final BigDecimal rawAmount = BigDecimal.valueOf(taxRates.totalRate).multiply(netItemAmount);
+            // Use KillBillMoney to ensure we use the same rounding everywhere
+            final BigDecimal amount = KillBillMoney.of(rawAmount, taxableItem.getCurrency());
+            final InvoiceItem taxItem = buildTaxItem(taxableItem,
+                                                     newInvoice.getId(),
+                                                     repairItem,
+                                                     amount,
+                                                     "Tax");
+            if (taxItem != null) {
+                newTaxItems.add(taxItem);
+            }
+        } else {
+            for (final RateModel rateModel : taxRates.rates) {
+                if (rateTypes.isEmpty() || rateTypes.contains(rateModel.type)) {
+                    final BigDecimal rawAmount = BigDecimal.valueOf(rateModel.rate).multiply(netItemAmount);
+                    // Use KillBillMoney to ensure we use the same rounding everywhere
+                    final BigDecimal amount = KillBillMoney.of(rawAmount, taxableItem.getCurrency());
+                    final InvoiceItem taxItem = buildTaxItem(taxableItem,
+                                                             newInvoice.getId(),
+                                                             repairItem,
+                                                             amount,
+                                                             MoreObjects.firstNonNull(rateModel.name, "Tax"));
+                    if (taxItem != null) {
+                        newTaxItems.add(taxItem);
+                    }
+                }
+            }
+        }
+        return newTaxItems;
     }
 
     protected abstract Collection<InvoiceItem> buildInvoiceItems(final Account account,
@@ -173,5 +385,7 @@ public abstract class AvaTaxTaxCalculatorBase extends PluginTaxCalculator {
                                                                  final Iterable<PluginProperty> pluginProperties,
                                                                  final UUID kbTenantId,
                                                                  final Map<UUID, Iterable<InvoiceItem>> kbInvoiceItems,
-                                                                 final LocalDate utcToday) throws AvaTaxClientException, SQLException;
+                                                                 final LocalDate utcToday,
+                                                                 final AvaTaxResponsesUnitOfWork responses,
+                                                                 final AvaTaxInvoiceTimings timings) throws AvaTaxClientException, SQLException;
 }
@@ -34,8 +34,11 @@ import org.killbill.billing.plugin.api.invoice.PluginInvoicePluginApi;
 import org.killbill.billing.plugin.avatax.client.AvaTaxClient;
 import org.killbill.billing.plugin.avatax.client.TaxRatesClient;
 import org.killbill.billing.plugin.avatax.core.AvaTaxConfigurationHandler;
+import org.killbill.billing.plugin.avatax.core.AvaTaxInvoiceStats;
 import org.killbill.billing.plugin.avatax.core.TaxRatesConfigurationHandler;
 import org.killbill.billing.plugin.avatax.dao.AvaTaxDao;
+import org.killbill.billing.plugin.avatax.dao.AvaTaxResponseWriter;
+import org.killbill.billing.plugin.avatax.dao.TaxCodesCache;
 import org.killbill.clock.Clock;
 
 public class AvalaraInvoicePluginApi extends PluginInvoicePluginApi {
@@ -50,6 +53,10 @@ public class AvalaraInvoicePluginApi extends PluginInvoicePluginApi {
     public AvalaraInvoicePluginApi(final AvaTaxConfigurationHandler avaTaxConfigurationHandler,
                                    final TaxRatesConfigurationHandler taxRatesConfigurationHandler,
                                    final AvaTaxDao dao,
+                                   final AvaTaxResponseWriter responseWriter,
+                                   final TaxCodesCache taxCodesCache,
+                                   final PlanProductsCache planProductsCache,
+                                   final AvaTaxInvoiceStats invoiceStats,
                                    final OSGIKillbillAPI killbillAPI,
                                    final OSGIConfigPropertiesService configProperties,
                                    final Clock clock) {
@@ -59,11 +66,17 @@ public class AvalaraInvoicePluginApi extends PluginInvoicePluginApi {
 
         this.avaTaxInvoicePluginApi = new AvaTaxInvoicePluginApi(avaTaxConfigurationHandler,
                                                                  dao,
+                                                                 responseWriter,
+                                                                 taxCodesCache,
+                                                                 planProductsCache,
+                                                                 invoiceStats,
                                                                  killbillAPI,
                                                                  configProperties,
                                                                  clock);
         this.taxRatesInvoicePluginApi = new TaxRatesInvoicePluginApi(taxRatesConfigurationHandler,
                                                                      dao,
+                                                                     responseWriter,
+                                                                     invoiceStats,
                                                                      killbillAPI,
                                                                      configProperties,
                                                                      clock);
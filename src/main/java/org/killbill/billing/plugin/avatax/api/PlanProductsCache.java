@@ -0,0 +1,143 @@
+/*
+ * Copyright 2020-2026 Equinix, Inc
+ * Copyright 2014-2026 The Billing Project, LLC
+ *
+ * The Billing Project licenses this file to you under the Apache License, version 2.0
+ * (the "License"); you may not use this file except in compliance with the
+ * License.  You may obtain a copy of the License at:
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.killbill.billing.plugin.avatax.api;
+
+import java.util.Optional;
+import java.util.Properties;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+
+import javax.annotation.Nullable;
+
+import org.killbill.billing.catalog.api.CatalogApiException;
+import org.killbill.billing.catalog.api.Plan;
+import org.killbill.billing.catalog.api.StaticCatalog;
+import org.killbill.billing.osgi.libs.killbill.OSGIKillbillAPI;
+import org.killbill.billing.plugin.avatax.client.ClientUtils;
+import org.killbill.billing.util.callcontext.TenantContext;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.google.common.base.MoreObjects;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+
+// Per-tenant plan name -> product name index. The catalog is resolved once per tenant and the index is dropped
+// when a new catalog is uploaded (see AvaTaxCatalogEventHandler). The event is only seen by the node which receives it,
+// the TTL bounds the staleness on the other nodes.
+public class PlanProductsCache {
+
+    public static final String TTL_SECONDS_PROPERTY = "planProducts.cache.ttlSeconds";
+
+    private static final Logger logger = LoggerFactory.getLogger(PlanProductsCache.class);
+
+    private static final int DEFAULT_TTL_SECONDS = 300;
+    private static final int MAX_TENANTS = 1000;
+
+    private final OSGIKillbillAPI killbillAPI;
+    // Null when the cache is disabled
+    private final Cache<UUID, PlanProducts> planProductsByTenant;
+
+    public PlanProductsCache(final OSGIKillbillAPI killbillAPI, final long ttlSeconds) {
+        this.killbillAPI = killbillAPI;
+        if (ttlSeconds <= 0) {
+            this.planProductsByTenant = null;
+        } else {
+            this.planProductsByTenant = CacheBuilder.newBuilder()
+                                                    .maximumSize(MAX_TENANTS)
+                                                    .expireAfterWrite(ttlSeconds, TimeUnit.SECONDS)
+                                                    .build();
+        }
+    }
+
+    public static PlanProductsCache create(final OSGIKillbillAPI killbillAPI, final Properties properties) {
+        final int ttlSeconds = MoreObjects.firstNonNull(ClientUtils.getIntegerProperty(properties, TTL_SECONDS_PROPERTY), DEFAULT_TTL_SECONDS);
+        return new PlanProductsCache(killbillAPI, ttlSeconds);
+    }
+
+    /**
+     * @return the product name or null if the plan cannot be resolved
+     */
+    public String getProductName(final String planName, final TenantContext context) {
+        final PlanProducts planProducts = getPlanProducts(context);
+        return planProducts == null ? null : planProducts.getProductName(planName);
+    }
+
+    public void invalidate(@Nullable final UUID kbTenantId) {
+        if (planProductsByTenant != null && kbTenantId != null) {
+            planProductsByTenant.invalidate(kbTenantId);
+        }
+    }
+
+    private PlanProducts getPlanProducts(final TenantContext context) {
+        final UUID kbTenantId = context.getTenantId();
+        if (planProductsByTenant != null && kbTenantId != null) {
+            final PlanProducts planProducts = planProductsByTenant.getIfPresent(kbTenantId);
+            if (planProducts != null) {
+                return planProducts;
+            }
+        }
+
+        final StaticCatalog catalog;
+        try {
+            catalog = killbillAPI.getCatalogUserApi().getCurrentCatalog(null, context);
+        } catch (final CatalogApiException e) {
+            // Not cached, so that it is retried on the next invoice
+            logger.warn("Unable to retrieve the catalog for tenant {}", kbTenantId, e);
+            return null;
+        }
+
+        final PlanProducts planProducts = new PlanProducts(catalog);
+        if (planProductsByTenant == null || kbTenantId == null) {
+            return planProducts;
+        }
+        final PlanProducts existingPlanProducts = planProductsByTenant.asMap().putIfAbsent(kbTenantId, planProducts);
+        return existingPlanProducts == null ? planProducts : existingPlanProducts;
+    }
+
+    private static final class PlanProducts {
+
+        private final StaticCatalog catalog;
+        // Optional.empty() for plans which cannot be resolved, so that they aren't looked up again
+        private final ConcurrentMap<String, Optional<String>> productNames = new ConcurrentHashMap<String, Optional<String>>();
+
+        private PlanProducts(final StaticCatalog catalog) {
+            this.catalog = catalog;
+            for (final Plan plan : catalog.getPlans()) {
+                productNames.put(plan.getName(), Optional.ofNullable(plan.getProduct() == null ? null : plan.getProduct().getName()));
+            }
+        }
+
+        private String getProductName(final String planName) {
+            Optional<String> productName = productNames.get(planName);
+            if (productName == null) {
+                // Not part of the current version (e.g. plan with price overrides)
+                try {
+                    final Plan plan = catalog.findPlan(planName);
+                    productName = Optional.ofNullable(plan.getProduct() == null ? null : plan.getProduct().getName());
+                } catch (final CatalogApiException e) {
+                    productName = Optional.empty();
+                }
+                productNames.putIfAbsent(planName, productName);
+            }
+            return productName.orElse(null);
+        }
+    }
+}
@@ -25,37 +25,59 @@ import org.killbill.billing.invoice.api.Invoice;
 import org.killbill.billing.invoice.api.InvoiceItem;
 import org.killbill.billing.invoice.plugin.api.AdditionalItemsResult;
 import org.killbill.billing.invoice.plugin.api.InvoiceContext;
+import org.killbill.billing.invoice.plugin.api.OnSuccessInvoiceResult;
 import org.killbill.billing.osgi.libs.killbill.OSGIConfigPropertiesService;
 import org.killbill.billing.osgi.libs.killbill.OSGIKillbillAPI;
 import org.killbill.billing.payment.api.PluginProperty;
 import org.killbill.billing.plugin.api.invoice.PluginInvoicePluginApi;
+import org.killbill.billing.plugin.avatax.core.AvaTaxInvoiceStats;
+import org.killbill.billing.plugin.avatax.core.AvaTaxInvoiceTimings;
 import org.killbill.billing.plugin.avatax.core.TaxRatesConfigurationHandler;
 import org.killbill.billing.plugin.avatax.dao.AvaTaxDao;
+import org.killbill.billing.plugin.avatax.dao.AvaTaxResponseWriter;
 import org.killbill.clock.Clock;
 
 public class TaxRatesInvoicePluginApi extends PluginInvoicePluginApi {
 
+    private final TaxRatesConfigurationHandler taxRatesConfigurationHandler;
+    private final AvaTaxResponseWriter responseWriter;
+    private final AvaTaxInvoiceStats invoiceStats;
     private final TaxRatesTaxCalculator calculator;
 
     public TaxRatesInvoicePluginApi(final TaxRatesConfigurationHandler taxRatesConfigurationHandler,
                                     final AvaTaxDao dao,
+                                    final AvaTaxResponseWriter responseWriter,
+                                    final AvaTaxInvoiceStats invoiceStats,
                                     final OSGIKillbillAPI killbillApi,
                                     final OSGIConfigPropertiesService configProperties,
                                     final Clock clock) {
         super(killbillApi, configProperties, clock);
-        this.calculator = new TaxRatesTaxCalculator(taxRatesConfigurationHandler, dao, clock, killbillApi);
+        this.taxRatesConfigurationHandler = taxRatesConfigurationHandler;
+        this.responseWriter = responseWriter;
+        this.invoiceStats = invoiceStats;
+        this.calculator = new TaxRatesTaxCalculator(taxRatesConfigurationHandler, dao, responseWriter, clock, killbillApi);
     }
 
     @Override
     public AdditionalItemsResult getAdditionalInvoiceItems(final Invoice invoice, final boolean dryRun, final Iterable<PluginProperty> properties, final InvoiceContext context) {
-        final Account account = getAccount(invoice.getAccountId(), context);
-
+        final long slowInvoiceThresholdMillis = taxRatesConfigurationHandler.getConfigurable(context.getTenantId()).getSlowInvoiceThresholdMillis();
+        final AvaTaxInvoiceTimings timings = new AvaTaxInvoiceTimings(invoice.getId(), context.getTenantId(), clock.getUTCNow());
         try {
-            final List<InvoiceItem> additionalItems = calculator.compute(account, invoice, dryRun, properties, context);
+            final Account account = getAccount(invoice.getAccountId(), context);
+            final List<InvoiceItem> additionalItems = calculator.compute(account, invoice, dryRun, properties, context, timings);
             return new AvataxAdditionalItemsResult(additionalItems, null);
         } catch (final Exception e) {
             // Prevent invoice generation
             throw new RuntimeException(e);
+        } finally {
+            timings.stop();
+            invoiceStats.record(timings, slowInvoiceThresholdMillis);
         }
     }
+
+    @Override
+    public OnSuccessInvoiceResult onSuccessCall(final InvoiceContext context, final Iterable<PluginProperty> properties) {
+        AvaTaxInvoicePluginApi.flushResponses(responseWriter, context);
+        return super.onSuccessCall(context, properties);
+    }
 }
@@ -18,37 +18,39 @@
 
 package org.killbill.billing.plugin.avatax.api;
 
-import java.math.BigDecimal;
 import java.sql.SQLException;
+import java.time.ZoneOffset;
 import java.util.Collection;
-import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
 import java.util.UUID;
 
 import javax.annotation.Nullable;
 
+import org.joda.time.DateTime;
 import org.joda.time.LocalDate;
 import org.killbill.billing.account.api.Account;
 import org.killbill.billing.invoice.api.Invoice;
 import org.killbill.billing.invoice.api.InvoiceItem;
 import org.killbill.billing.osgi.libs.killbill.OSGIKillbillAPI;
 import org.killbill.billing.payment.api.PluginProperty;
-import org.killbill.billing.plugin.api.PluginProperties;
 import org.killbill.billing.plugin.avatax.client.AvaTaxClientException;
-import org.killbill.billing.plugin.avatax.client.model.RateModel;
+import org.killbill.billing.plugin.avatax.client.TaxRatesClient;
 import org.killbill.billing.plugin.avatax.client.model.TaxRateResult;
+import org.killbill.billing.plugin.avatax.core.AvaTaxInvoiceTimings;
+import org.killbill.billing.plugin.avatax.core.AvaTaxInvoiceTimings.Phase;
 import org.killbill.billing.plugin.avatax.core.TaxRatesConfigurationHandler;
 import org.killbill.billing.plugin.avatax.dao.AvaTaxDao;
-import org.killbill.billing.plugin.util.KillBillMoney;
+import org.killbill.billing.plugin.avatax.dao.AvaTaxResponse;
+import org.killbill.billing.plugin.avatax.dao.AvaTaxResponseWriter;
+import org.killbill.billing.plugin.avatax.dao.AvaTaxResponsesUnitOfWork;
+import org.killbill.billing.plugin.avatax.dao.gen.tables.records.AvataxTaxRatesRecord;
 import org.killbill.clock.Clock;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
-import com.google.common.base.Function;
-import com.google.common.base.MoreObjects;
+import com.google.common.annotations.VisibleForTesting;
 import com.google.common.collect.ImmutableList;
-import com.google.common.collect.Iterables;
 
 public class TaxRatesTaxCalculator extends AvaTaxTaxCalculatorBase {
 
@@ -62,7 +64,15 @@ public class TaxRatesTaxCalculator extends AvaTaxTaxCalculatorBase {
                                  final AvaTaxDao dao,
                                  final Clock clock,
                                  final OSGIKillbillAPI osgiKillbillAPI) {
-        super(dao, clock, osgiKillbillAPI);
+        this(taxRatesConfigurationHandler, dao, new AvaTaxResponseWriter(dao), clock, osgiKillbillAPI);
+    }
+
+    public TaxRatesTaxCalculator(final TaxRatesConfigurationHandler taxRatesConfigurationHandler,
+                                 final AvaTaxDao dao,
+                                 final AvaTaxResponseWriter responseWriter,
+                                 final Clock clock,
+                                 final OSGIKillbillAPI osgiKillbillAPI) {
+        super(dao, responseWriter, clock, osgiKillbillAPI);
         this.taxRatesConfigurationHandler = taxRatesConfigurationHandler;
     }
 
@@ -77,96 +87,101 @@ public class TaxRatesTaxCalculator extends AvaTaxTaxCalculatorBase {
                                                         final Iterable<PluginProperty> pluginProperties,
                                                         final UUID kbTenantId,
                                                         final Map<UUID, Iterable<InvoiceItem>> kbInvoiceItems,
-                                                        final LocalDate utcToday) throws AvaTaxClientException, SQLException {
+                                                        final LocalDate utcToday,
+                                                        final AvaTaxResponsesUnitOfWork responses,
+                                                        final AvaTaxInvoiceTimings timings) throws AvaTaxClientException, SQLException {
         final TaxRateResult taxRates = getTaxRates(account, kbTenantId);
         if (taxRates == null) {
             return ImmutableList.<InvoiceItem>of();
         }
         logger.info("TaxRateResult for account {}: {}", account.getId(), taxRates.simplifiedToString());
         if (!dryRun) {
-            dao.addResponse(account.getId(), newInvoice.getId(), kbInvoiceItems, taxRates, clock.getUTCNow(), kbTenantId);
+            responses.add(AvaTaxResponse.forTaxRates(account.getId(), newInvoice.getId(), kbInvoiceItems, taxRates, clock.getUTCNow(), kbTenantId));
         }
 
-        final Collection<InvoiceItem> newTaxItems = new LinkedList<InvoiceItem>();
-        for (final InvoiceItem taxableItem : taxableItems.values()) {
-            if (adjustmentItems != null) {
-                final InvoiceItem adjustmentItem;
-                if (adjustmentItems.get(taxableItem.getId()) != null && adjustmentItems.get(taxableItem.getId()).size() == 1) {
-                    // Could be a repair or an item adjustment: in either case, we use it to compute the service period
-                    adjustmentItem = adjustmentItems.get(taxableItem.getId()).get(0);
-                } else {
-                    // Multiple adjustments: use the original service period
-                    adjustmentItem = null;
-                }
-                final BigDecimal adjustmentAmount = sum(adjustmentItems.get(taxableItem.getId()));
-                newTaxItems.addAll(buildInvoiceItems(newInvoice, taxableItem, adjustmentItem, pluginProperties, adjustmentAmount, taxRates));
-            } else {
-                newTaxItems.addAll(buildInvoiceItems(newInvoice, taxableItem, null, pluginProperties, taxableItem.getAmount(), taxRates));
-            }
-        }
+        final long startNanos = System.nanoTime();
+        final Collection<InvoiceItem> newTaxItems = buildTaxRatesInvoiceItems(newInvoice, taxableItems.values(), adjustmentItems, pluginProperties, taxRates);
+        timings.record(Phase.ITEMS_BUILD, startNanos);
 
         return newTaxItems;
     }
 
-    private Collection<InvoiceItem> buildInvoiceItems(final Invoice newInvoice,
-                                                      final InvoiceItem taxableItem,
-                                                      @Nullable final InvoiceItem repairItem,
-                                                      final Iterable<PluginProperty> pluginProperties,
-                                                      final BigDecimal netItemAmount,
-                                                      final TaxRateResult taxRates) {
-        final List<String> rateTypes = ImmutableList.<String>copyOf(Iterables.transform(PluginProperties.findPluginProperties(RATE_TYPE, pluginProperties),
-                                                                                        new Function<PluginProperty, String>() {
-                                                                                            @Override
-                                                                                            public String apply(final PluginProperty pluginProperty) {
-                                                                                                return pluginProperty == null ? "" : pluginProperty.getValue().toString();
-                                                                                            }
-                                                                                        }));
-
-        final Collection<InvoiceItem> newTaxItems = new LinkedList<InvoiceItem>();
-        if (taxRates.rates == null || taxRates.rates.isEmpty()) {
-            final BigDecimal rawAmount = BigDecimal.valueOf(taxRates.totalRate).multiply(netItemAmount);
-            // Use KillBillMoney to ensure we use the same rounding everywhere
-            final BigDecimal amount = KillBillMoney.of(rawAmount, taxableItem.getCurrency());
-            final InvoiceItem taxItem = buildTaxItem(taxableItem,
-                                                     newInvoice.getId(),
-                                                     repairItem,
-                                                     amount,
-                                                     "Tax");
-            if (taxItem != null) {
-                newTaxItems.add(taxItem);
-            }
-        } else {
-            for (final RateModel rateModel : taxRates.rates) {
-                if (rateTypes.isEmpty() || rateTypes.contains(rateModel.type)) {
-                    final BigDecimal rawAmount = BigDecimal.valueOf(rateModel.rate).multiply(netItemAmount);
-                    // Use KillBillMoney to ensure we use the same rounding everywhere
-                    final BigDecimal amount = KillBillMoney.of(rawAmount, taxableItem.getCurrency());
-                    final InvoiceItem taxItem = buildTaxItem(taxableItem,
-                                                             newInvoice.getId(),
-                                                             repairItem,
-                                                             amount,
-                                                             MoreObjects.firstNonNull(rateModel.name, "Tax"));
-                    if (taxItem != null) {
-                        newTaxItems.add(taxItem);
-                    }
-                }
-            }
-        }
-        return newTaxItems;
-    }
-
-    private TaxRateResult getTaxRates(final Account account, final UUID kbTenantId) throws AvaTaxClientException {
-        if (account.getAddress1() != null &&
-            account.getCity() != null &&
-            account.getStateOrProvince() != null &&
+    @VisibleForTesting
+    TaxRateResult getTaxRates(final Account account, final UUID kbTenantId) throws AvaTaxClientException, SQLException {
+        final TaxRatesClient taxRatesClient = taxRatesConfigurationHandler.getConfigurable(kbTenantId);
+        if (taxRatesClient.isLocalStoreEnabled() &&
             account.getPostalCode() != null &&
             account.getCountry() != null) {
-            return taxRatesConfigurationHandler.getConfigurable(kbTenantId).fromAddress(account.getAddress1(), account.getCity(), account.getStateOrProvince(), account.getPostalCode(), account.getCountry());
+            // Snapshots are stored per postal code, and shared across nodes
+            return taxRatesClient.getTaxRatesCache().get(null,
+                                                         null,
+                                                         null,
+                                                         account.getPostalCode(),
+                                                         account.getCountry(),
+                                                         () -> getTaxRatesFromLocalStore(taxRatesClient, account.getPostalCode(), account.getCountry(), kbTenantId));
+        } else if (account.getAddress1() != null &&
+                   account.getCity() != null &&
+                   account.getStateOrProvince() != null &&
+                   account.getPostalCode() != null &&
+                   account.getCountry() != null) {
+            return taxRatesClient.getTaxRatesCache().get(account.getAddress1(),
+                                                         account.getCity(),
+                                                         account.getStateOrProvince(),
+                                                         account.getPostalCode(),
+                                                         account.getCountry(),
+                                                         () -> taxRatesClient.fromAddress(account.getAddress1(), account.getCity(), account.getStateOrProvince(), account.getPostalCode(), account.getCountry()));
         } else if (account.getPostalCode() != null && account.getCountry() != null) {
-            return taxRatesConfigurationHandler.getConfigurable(kbTenantId).fromPostal(account.getPostalCode(), account.getCountry());
+            return taxRatesClient.getTaxRatesCache().get(null,
+                                                         null,
+                                                         null,
+                                                         account.getPostalCode(),
+                                                         account.getCountry(),
+                                                         () -> taxRatesClient.fromPostal(account.getPostalCode(), account.getCountry()));
         } else {
             logger.warn("Not enough information to retrieve tax rates for account {}", account.getId());
             return null;
         }
     }
+
+    private TaxRateResult getTaxRatesFromLocalStore(final TaxRatesClient taxRatesClient,
+                                                    final String postalCode,
+                                                    final String country,
+                                                    final UUID kbTenantId) throws AvaTaxClientException, SQLException {
+        final DateTime utcNow = clock.getUTCNow();
+        final AvataxTaxRatesRecord snapshot = dao.getTaxRates(postalCode, country, utcNow, kbTenantId);
+        if (taxRatesClient.isLocalStoreOffline()) {
+            // Rates are imported by operators, the Tax Rates API is never called
+            if (snapshot == null) {
+                logger.warn("No tax rates stored for postalCode='{}', country='{}'", postalCode, country);
+                return null;
+            }
+            return dao.toTaxRateResult(snapshot);
+        } else if (snapshot != null && !isStale(snapshot, taxRatesClient.getLocalStoreMaxAgeSeconds(), utcNow)) {
+            return dao.toTaxRateResult(snapshot);
+        }
+
+        final TaxRateResult taxRates;
+        try {
+            taxRates = taxRatesClient.fromPostal(postalCode, country);
+        } catch (final AvaTaxClientException e) {
+            if (snapshot == null) {
+                throw e;
+            }
+            logger.warn("Unable to refresh tax rates for postalCode='{}', country='{}', using rates stored on {}", postalCode, country, snapshot.getCreatedDate(), e);
+            return dao.toTaxRateResult(snapshot);
+        }
+
+        if (taxRates != null) {
+            dao.addTaxRates(postalCode, country, taxRates, utcNow, utcNow, kbTenantId);
+        }
+        return taxRates;
+    }
+
+    private boolean isStale(final AvataxTaxRatesRecord snapshot, final int maxAgeSeconds, final DateTime utcNow) {
+        if (maxAgeSeconds <= 0) {
+            return false;
+        }
+        // The age is measured from when the rates were stored: imported rates can be effective long before
+        return snapshot.getCreatedDate().toInstant(ZoneOffset.UTC).toEpochMilli() < utcNow.minusSeconds(maxAgeSeconds).getMillis();
+    }
 }
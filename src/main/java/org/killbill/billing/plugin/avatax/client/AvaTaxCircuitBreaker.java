@@ -0,0 +1,208 @@
+/*
+ * Copyright 2020-2026 Equinix, Inc
+ * Copyright 2014-2026 The Billing Project, LLC
+ *
+ * The Billing Project licenses this file to you under the Apache License, version 2.0
+ * (the "License"); you may not use this file except in compliance with the
+ * License.  You may obtain a copy of the License at:
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.killbill.billing.plugin.avatax.client;
+
+import java.util.Properties;
+import java.util.concurrent.TimeUnit;
+
+import org.killbill.billing.plugin.avatax.core.AvaTaxActivator;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.google.common.annotations.VisibleForTesting;
+import com.google.common.base.MoreObjects;
+import com.google.common.base.Ticker;
+
+/**
+ * Count-based circuit breaker for the tax calculation calls to AvaTax (see AvaTaxClient#createTransaction). There is one per tenant,
+ * as each tenant has its own AvaTaxClient.
+ * <p>
+ * The outcome of the last windowSize calls is recorded. Once at least minimumCalls have been recorded, the circuit opens if the
+ * percentage of failed calls or of slow calls reaches its threshold. While open, calls are rejected right away. After
+ * waitDurationInOpenStateMs, up to permittedCallsInHalfOpenState trial calls are let through: the circuit closes if they are
+ * healthy and opens again otherwise.
+ * <p>
+ * Only availability issues count as failures: AvaTax rejecting a request (e.g. invalid address) means it is up.
+ */
+public class AvaTaxCircuitBreaker {
+
+    public static final String PROPERTY_PREFIX = "circuitBreaker.";
+
+    public enum State {
+        CLOSED,
+        OPEN,
+        HALF_OPEN
+    }
+
+    private static final Logger logger = LoggerFactory.getLogger(AvaTaxCircuitBreaker.class);
+
+    private final boolean enabled;
+    private final int failureRateThreshold;
+    private final int slowCallRateThreshold;
+    private final long slowCallDurationNanos;
+    private final int minimumCalls;
+    private final long waitDurationInOpenStateNanos;
+    private final int permittedCallsInHalfOpenState;
+    private final Ticker ticker;
+
+    // Outcomes of the last calls (ring buffer)
+    private final boolean[] failedCalls;
+    private final boolean[] slowCalls;
+    private int position = 0;
+    private int nbCalls = 0;
+    private int nbFailedCalls = 0;
+    private int nbSlowCalls = 0;
+
+    private State state = State.CLOSED;
+    private long openedAtNanos;
+    private int nbHalfOpenCalls;
+
+    public AvaTaxCircuitBreaker(final boolean enabled,
+                                final int failureRateThreshold,
+                                final int slowCallRateThreshold,
+                                final long slowCallDurationMillis,
+                                final int minimumCalls,
+                                final int windowSize,
+                                final long waitDurationInOpenStateMillis,
+                                final int permittedCallsInHalfOpenState) {
+        this(enabled, failureRateThreshold, slowCallRateThreshold, slowCallDurationMillis, minimumCalls, windowSize, waitDurationInOpenStateMillis, permittedCallsInHalfOpenState, Ticker.systemTicker());
+    }
+
+    @VisibleForTesting
+    AvaTaxCircuitBreaker(final boolean enabled,
+                         final int failureRateThreshold,
+                         final int slowCallRateThreshold,
+                         final long slowCallDurationMillis,
+                         final int minimumCalls,
+                         final int windowSize,
+                         final long waitDurationInOpenStateMillis,
+                         final int permittedCallsInHalfOpenState,
+                         final Ticker ticker) {
+        this.enabled = enabled;
+        this.failureRateThreshold = failureRateThreshold;
+        this.slowCallRateThreshold = slowCallRateThreshold;
+        this.slowCallDurationNanos = TimeUnit.MILLISECONDS.toNanos(slowCallDurationMillis);
+        this.minimumCalls = Math.max(1, Math.min(minimumCalls, windowSize));
+        this.waitDurationInOpenStateNanos = TimeUnit.MILLISECONDS.toNanos(waitDurationInOpenStateMillis);
+        this.permittedCallsInHalfOpenState = Math.max(1, Math.min(permittedCallsInHalfOpenState, windowSize));
+        this.ticker = ticker;
+        this.failedCalls = new boolean[windowSize];
+        this.slowCalls = new boolean[windowSize];
+    }
+
+    public static AvaTaxCircuitBreaker create(final Properties properties) {
+        return new AvaTaxCircuitBreaker(Boolean.parseBoolean(properties.getProperty(AvaTaxActivator.PROPERTY_PREFIX + PROPERTY_PREFIX + "enabled")),
+                                        getIntegerProperty(properties, "failureRateThreshold", 50),
+                                        getIntegerProperty(properties, "slowCallRateThreshold", 100),
+                                        getIntegerProperty(properties, "slowCallDurationMs", 10000),
+                                        getIntegerProperty(properties, "minimumCalls", 10),
+                                        getIntegerProperty(properties, "windowSize", 20),
+                                        getIntegerProperty(properties, "waitDurationInOpenStateMs", 30000),
+                                        getIntegerProperty(properties, "permittedCallsInHalfOpenState", 3));
+    }
+
+    private static int getIntegerProperty(final Properties properties, final String key, final int defaultValue) {
+        return MoreObjects.firstNonNull(ClientUtils.getIntegerProperty(properties, PROPERTY_PREFIX + key), defaultValue);
+    }
+
+    /**
+     * @return true if the call can be made, false if it should be rejected (circuit open)
+     */
+    public synchronized boolean tryAcquirePermission() {
+        if (!enabled) {
+            return true;
+        }
+
+        if (state == State.OPEN) {
+            if (ticker.read() - openedAtNanos < waitDurationInOpenStateNanos) {
+                return false;
+            }
+            transitionTo(State.HALF_OPEN);
+        }
+
+        if (state == State.HALF_OPEN) {
+            if (nbHalfOpenCalls >= permittedCallsInHalfOpenState) {
+                return false;
+            }
+            nbHalfOpenCalls++;
+        }
+
+        return true;
+    }
+
+    /**
+     * Record the outcome of a call made after tryAcquirePermission returned true.
+     *
+     * @param durationNanos duration of the call
+     * @param failed        whether AvaTax was unavailable (timeout, connection or server error)
+     */
+    public synchronized void onResult(final long durationNanos, final boolean failed) {
+        if (!enabled || state == State.OPEN) {
+            // Calls started before the circuit opened don't matter anymore
+            return;
+        }
+
+        record(failed, durationNanos >= slowCallDurationNanos);
+
+        if (state == State.HALF_OPEN) {
+            if (nbCalls >= permittedCallsInHalfOpenState) {
+                transitionTo(isThresholdReached() ? State.OPEN : State.CLOSED);
+            }
+        } else if (nbCalls >= minimumCalls && isThresholdReached()) {
+            transitionTo(State.OPEN);
+        }
+    }
+
+    public synchronized State getState() {
+        return state;
+    }
+
+    private void record(final boolean failed, final boolean slow) {
+        if (nbCalls == failedCalls.length) {
+            // Evict the oldest outcome
+            nbFailedCalls -= failedCalls[position] ? 1 : 0;
+            nbSlowCalls -= slowCalls[position] ? 1 : 0;
+        } else {
+            nbCalls++;
+        }
+        failedCalls[position] = failed;
+        slowCalls[position] = slow;
+        nbFailedCalls += failed ? 1 : 0;
+        nbSlowCalls += slow ? 1 : 0;
+        position = (position + 1) % failedCalls.length;
+    }
+
+    private boolean isThresholdReached() {
+        return nbFailedCalls * 100 >= failureRateThreshold * nbCalls ||
+               nbSlowCalls * 100 >= slowCallRateThreshold * nbCalls;
+    }
+
+    private void transitionTo(final State newState) {
+        logger.warn("AvaTax circuit breaker transition from {} to {} (calls={}, failed={}, slow={})", state, newState, nbCalls, nbFailedCalls, nbSlowCalls);
+        state = newState;
+        // Each state starts with a clean window
+        position = 0;
+        nbCalls = 0;
+        nbFailedCalls = 0;
+        nbSlowCalls = 0;
+        nbHalfOpenCalls = 0;
+        if (newState == State.OPEN) {
+            openedAtNanos = ticker.read();
+        }
+    }
+}
@@ -19,15 +19,21 @@
 package org.killbill.billing.plugin.avatax.client;
 
 import java.io.IOException;
+import java.io.InputStream;
 import java.net.URISyntaxException;
 import java.security.GeneralSecurityException;
 import java.util.Properties;
 
+import javax.annotation.Nullable;
+
 import org.killbill.billing.plugin.avatax.client.model.AvaTaxErrors;
 import org.killbill.billing.plugin.avatax.client.model.CreateTransactionModel;
 import org.killbill.billing.plugin.avatax.client.model.PingResult;
 import org.killbill.billing.plugin.avatax.client.model.TransactionModel;
 import org.killbill.billing.plugin.avatax.core.AvaTaxActivator;
+import org.killbill.billing.plugin.avatax.core.AvaTaxInvoiceTimings;
+import org.killbill.billing.plugin.avatax.core.AvaTaxInvoiceTimings.Phase;
+import org.killbill.billing.plugin.avatax.core.AvaTaxMetrics;
 import org.killbill.billing.plugin.util.http.HttpClient;
 import org.killbill.billing.plugin.util.http.InvalidRequest;
 import org.killbill.billing.plugin.util.http.ResponseFormat;
@@ -51,8 +57,24 @@ public class AvaTaxClient extends HttpClient {
     private final boolean commitDocuments;
     // When true - skips adjustments which don't have corresponding previousInvoiceId
     private final boolean skipAnomalousAdjustments;
+    // Maximum number of concurrent calls per invoice
+    private final int concurrency;
+    // Invoices whose tax calculation takes longer are logged (negative to disable)
+    private final long slowInvoiceThresholdMillis;
+    // Details of older responses are removed by the retention job (null to keep them forever)
+    private final Integer responsesRetentionDays;
+    private final AvaTaxCircuitBreaker circuitBreaker;
+    // While the circuit breaker is open, estimate taxes using the stored tax rates instead of failing
+    private final boolean fallbackToTaxRates;
+    // Committed transactions retrieved via getTransactionByCode (disabled by default)
+    private final TransactionsCache transactionsCache;
+    private final AvaTaxMetrics metrics;
 
     public AvaTaxClient(final Properties properties) throws GeneralSecurityException {
+        this(properties, AvaTaxMetrics.NO_OP);
+    }
+
+    public AvaTaxClient(final Properties properties, final AvaTaxMetrics metrics) throws GeneralSecurityException {
         super(properties.getProperty(AvaTaxActivator.PROPERTY_PREFIX + "url"),
               properties.getProperty(AvaTaxActivator.PROPERTY_PREFIX + "accountId"),
               properties.getProperty(AvaTaxActivator.PROPERTY_PREFIX + "licenseKey"),
@@ -66,6 +88,14 @@ public class AvaTaxClient extends HttpClient {
         this.sanitizedCompanyCode = sanitizeCompanyCode(this.companyCode);
         this.commitDocuments = Boolean.parseBoolean(properties.getProperty(AvaTaxActivator.PROPERTY_PREFIX + "commitDocuments"));
         this.skipAnomalousAdjustments = Boolean.parseBoolean(properties.getProperty(AvaTaxActivator.PROPERTY_PREFIX + "adjustments.lenientMode"));
+        this.concurrency = MoreObjects.firstNonNull(ClientUtils.getIntegerProperty(properties, "concurrency"), 1);
+        this.slowInvoiceThresholdMillis = MoreObjects.firstNonNull(ClientUtils.getIntegerProperty(properties, "slowInvoiceThresholdMs"), 5000);
+        this.responsesRetentionDays = ClientUtils.getIntegerProperty(properties, "responses.retention.days");
+        this.circuitBreaker = AvaTaxCircuitBreaker.create(properties);
+        this.fallbackToTaxRates = Boolean.parseBoolean(properties.getProperty(AvaTaxActivator.PROPERTY_PREFIX + AvaTaxCircuitBreaker.PROPERTY_PREFIX + "fallbackToTaxRates"));
+        this.transactionsCache = new TransactionsCache(MoreObjects.firstNonNull(ClientUtils.getIntegerProperty(properties, "transactions.cache.maxSize"), 10000),
+                                                       MoreObjects.firstNonNull(ClientUtils.getIntegerProperty(properties, "transactions.cache.ttlSeconds"), 0));
+        this.metrics = metrics;
     }
 
     public String getCompanyCode() {
@@ -80,6 +110,30 @@ public class AvaTaxClient extends HttpClient {
         return commitDocuments;
     }
 
+    public int getConcurrency() {
+        return concurrency;
+    }
+
+    public long getSlowInvoiceThresholdMillis() {
+        return slowInvoiceThresholdMillis;
+    }
+
+    public Integer getResponsesRetentionDays() {
+        return responsesRetentionDays;
+    }
+
+    public AvaTaxCircuitBreaker getCircuitBreaker() {
+        return circuitBreaker;
+    }
+
+    public boolean shouldFallbackToTaxRates() {
+        return fallbackToTaxRates;
+    }
+
+    public TransactionsCache getTransactionsCache() {
+        return transactionsCache;
+    }
+
     public boolean isConfigured() {
         return configured;
     }
@@ -90,58 +144,64 @@ public class AvaTaxClient extends HttpClient {
     }
 
     public TransactionModel createTransaction(final CreateTransactionModel createTransactionModel) throws AvaTaxClientException {
+        return createTransaction(createTransactionModel, null);
+    }
+
+    /**
+     * @param timings if specified, the serialization and HTTP times are added to the invoice timings
+     * @throws AvaTaxCircuitOpenException if AvaTax is considered unavailable (see AvaTaxCircuitBreaker)
+     */
+    public TransactionModel createTransaction(final CreateTransactionModel createTransactionModel, @Nullable final AvaTaxInvoiceTimings timings) throws AvaTaxClientException {
+        final long startNanos = System.nanoTime();
+        final String body = serialize(createTransactionModel);
+        if (timings != null) {
+            timings.record(Phase.SERIALIZATION, startNanos);
+        }
+
+        if (!circuitBreaker.tryAcquirePermission()) {
+            throw new AvaTaxCircuitOpenException("AvaTax circuit breaker is open, not calling createTransaction");
+        }
+
+        final long callStartNanos = System.nanoTime();
+        boolean failed = true;
         try {
-            return doCall(POST,
-                          url + "/transactions/create",
-                          serialize(createTransactionModel),
-                          ImmutableMap.of(),
-                          ImmutableMap.<String, String>of("X-Avalara-Client", KILL_BILL_CLIENT_HEADER),
-                          TransactionModel.class,
-                          ResponseFormat.JSON);
-        } catch (final InterruptedException e) {
-            throw new AvaTaxClientException(e);
-        } catch (final IOException e) {
-            throw new AvaTaxClientException(e);
-        } catch (final URISyntaxException e) {
-            throw new AvaTaxClientException(e);
-        } catch (final InvalidRequest e) {
-            try {
-                final AvaTaxErrors errors = deserializeResponse(e.getResponse(), AvaTaxErrors.class, ResponseFormat.JSON);
-                throw new AvaTaxClientException(errors, e);
-            } catch (final IOException e1) {
-                logger.warn("Invalid AvaTax request: status={}", e.getResponse() == null ? null : e.getResponse().statusCode());
-                throw new AvaTaxClientException(e);
-            }
+            final TransactionModel transactionModel = call("createTransaction",
+                                                           POST,
+                                                           url + "/transactions/create",
+                                                           body,
+                                                           TransactionModel.class,
+                                                           true,
+                                                           timings);
+            failed = false;
+            return transactionModel;
+        } catch (final AvaTaxClientException e) {
+            failed = isUnavailable(e);
+            throw e;
+        } finally {
+            circuitBreaker.onResult(System.nanoTime() - callStartNanos, failed);
+        }
+    }
+
+    // AvaTax rejecting the request (e.g. invalid address) doesn't mean it's unavailable
+    private static boolean isUnavailable(final AvaTaxClientException e) {
+        if (!(e.getCause() instanceof InvalidRequest) || ((InvalidRequest) e.getCause()).getResponse() == null) {
+            return true;
         }
+        final int statusCode = ((InvalidRequest) e.getCause()).getResponse().statusCode();
+        return statusCode >= 500 || statusCode == 429;
     }
 
     public TransactionModel commitTransaction(final String transactionCode) throws AvaTaxClientException {
         logger.info("Committing transaction {}", transactionCode);
 
-        try {
-            // See https://developer.avalara.com/api-reference/avatax/rest/v2/methods/Transactions/CommitTransaction/
-            return doCall(POST,
-                          url + "/companies/" + sanitizedCompanyCode + "/transactions/" + transactionCode + "/commit",
-                          serialize(ImmutableMap.<String, Boolean>of("commit", true)),
-                          ImmutableMap.of(),
-                          ImmutableMap.<String, String>of("X-Avalara-Client", KILL_BILL_CLIENT_HEADER),
-                          TransactionModel.class,
-                          ResponseFormat.JSON);
-        } catch (final InterruptedException e) {
-            throw new AvaTaxClientException(e);
-        } catch (final IOException e) {
-            throw new AvaTaxClientException(e);
-        } catch (final URISyntaxException e) {
-            throw new AvaTaxClientException(e);
-        } catch (final InvalidRequest e) {
-            try {
-                final AvaTaxErrors errors = deserializeResponse(e.getResponse(), AvaTaxErrors.class, ResponseFormat.JSON);
-                throw new AvaTaxClientException(errors, e);
-            } catch (final IOException e1) {
-                logger.warn("Invalid AvaTax request: status={}", e.getResponse() == null ? null : e.getResponse().statusCode());
-                throw new AvaTaxClientException(e);
-            }
-        }
+        // See https://developer.avalara.com/api-reference/avatax/rest/v2/methods/Transactions/CommitTransaction/
+        return call("commitTransaction",
+                    POST,
+                    url + "/companies/" + sanitizedCompanyCode + "/transactions/" + transactionCode + "/commit",
+                    serialize(ImmutableMap.<String, Boolean>of("commit", true)),
+                    TransactionModel.class,
+                    true,
+                    null);
     }
 
     public TransactionModel voidTransaction(final String transactionCode) throws AvaTaxClientException {
@@ -149,75 +209,97 @@ public class AvaTaxClient extends HttpClient {
 
         try {
             // See https://developer.avalara.com/api-reference/avatax/rest/v2/methods/Transactions/VoidTransaction/
-            return doCall(POST,
-                          url + "/companies/" + sanitizedCompanyCode + "/transactions/" + transactionCode + "/void",
-                          serialize(ImmutableMap.<String, String>of("code", "DocVoided")),
-                          ImmutableMap.of(),
-                          ImmutableMap.<String, String>of("X-Avalara-Client", KILL_BILL_CLIENT_HEADER),
-                          TransactionModel.class,
-                          ResponseFormat.JSON);
-        } catch (final InterruptedException e) {
-            throw new AvaTaxClientException(e);
-        } catch (final IOException e) {
-            throw new AvaTaxClientException(e);
-        } catch (final URISyntaxException e) {
-            throw new AvaTaxClientException(e);
-        } catch (final InvalidRequest e) {
-            try {
-                final AvaTaxErrors errors = deserializeResponse(e.getResponse(), AvaTaxErrors.class, ResponseFormat.JSON);
-                throw new AvaTaxClientException(errors, e);
-            } catch (final IOException e1) {
-                logger.warn("Invalid AvaTax request: status={}", e.getResponse() == null ? null : e.getResponse().statusCode());
-                throw new AvaTaxClientException(e);
-            }
+            return call("voidTransaction",
+                        POST,
+                        url + "/companies/" + sanitizedCompanyCode + "/transactions/" + transactionCode + "/void",
+                        serialize(ImmutableMap.<String, String>of("code", "DocVoided")),
+                        TransactionModel.class,
+                        true,
+                        null);
+        } finally {
+            // Once the call is over: lookups started before then don't cache their (possibly stale) result, see TransactionsCache#invalidate
+            transactionsCache.invalidate(transactionCode);
         }
     }
 
     public TransactionModel getTransactionByCode(final String transactionCode) throws AvaTaxClientException {
+        // See https://developer.avalara.com/api-reference/avatax/rest/v2/methods/Transactions/GetTransactionByCode/
+        return call("getTransactionByCode",
+                    GET,
+                    url + "/companies/" + sanitizedCompanyCode + "/transactions/" + transactionCode,
+                    null,
+                    TransactionModel.class,
+                    true,
+                    null);
+    }
+
+    public PingResult ping() throws AvaTaxClientException {
+        // See https://developer.avalara.com/api-reference/avatax/rest/v2/methods/Utilities/Ping/
+        return call("ping",
+                    GET,
+                    url + "/utilities/ping",
+                    null,
+                    PingResult.class,
+                    false,
+                    null);
+    }
+
+    private <T> T call(final String callName,
+                       final String verb,
+                       final String uri,
+                       @Nullable final String body,
+                       final Class<T> clazz,
+                       final boolean withErrors,
+                       @Nullable final AvaTaxInvoiceTimings timings) throws AvaTaxClientException {
+        metrics.recordRequestSize(callName, body);
+
+        final long startNanos = System.nanoTime();
+        long deserializationStartNanos = -1;
+        AvaTaxClientException error = null;
         try {
-            // See https://developer.avalara.com/api-reference/avatax/rest/v2/methods/Transactions/GetTransactionByCode/
-            return doCall(GET,
-                          url + "/companies/" + sanitizedCompanyCode + "/transactions/" + transactionCode,
-                          null,
-                          ImmutableMap.of(),
-                          ImmutableMap.<String, String>of("X-Avalara-Client", KILL_BILL_CLIENT_HEADER),
-                          TransactionModel.class,
-                          ResponseFormat.JSON);
+            // Raw response, deserialized by ClientUtils to record its size
+            final InputStream response = doCall(verb,
+                                                uri,
+                                                body,
+                                                ImmutableMap.<String, String>of(),
+                                                ImmutableMap.<String, String>of("X-Avalara-Client", KILL_BILL_CLIENT_HEADER),
+                                                InputStream.class,
+                                                ResponseFormat.RAW);
+            deserializationStartNanos = System.nanoTime();
+            return ClientUtils.deserialize(mapper, response, clazz, callName, metrics);
         } catch (final InterruptedException e) {
-            throw new AvaTaxClientException(e);
+            error = new AvaTaxClientException(e);
+            throw error;
         } catch (final IOException e) {
-            throw new AvaTaxClientException(e);
+            error = new AvaTaxClientException(e);
+            throw error;
         } catch (final URISyntaxException e) {
-            throw new AvaTaxClientException(e);
+            error = new AvaTaxClientException(e);
+            throw error;
         } catch (final InvalidRequest e) {
-            try {
-                final AvaTaxErrors errors = deserializeResponse(e.getResponse(), AvaTaxErrors.class, ResponseFormat.JSON);
-                throw new AvaTaxClientException(errors, e);
-            } catch (final IOException e1) {
-                logger.warn("Invalid AvaTax request: status={}", e.getResponse() == null ? null : e.getResponse().statusCode());
-                throw new AvaTaxClientException(e);
+            error = withErrors ? toAvaTaxClientException(e) : new AvaTaxClientException(e);
+            throw error;
+        } finally {
+            final long endNanos = System.nanoTime();
+            metrics.recordClientCall(callName, endNanos - startNanos, error);
+            if (timings != null) {
+                if (deserializationStartNanos < 0) {
+                    timings.add(Phase.HTTP, endNanos - startNanos);
+                } else {
+                    timings.add(Phase.HTTP, deserializationStartNanos - startNanos);
+                    timings.add(Phase.SERIALIZATION, endNanos - deserializationStartNanos);
+                }
             }
         }
     }
 
-    public PingResult ping() throws AvaTaxClientException {
+    private AvaTaxClientException toAvaTaxClientException(final InvalidRequest e) {
         try {
-            // See https://developer.avalara.com/api-reference/avatax/rest/v2/methods/Utilities/Ping/
-            return doCall(GET,
-                          url + "/utilities/ping",
-                          null,
-                          ImmutableMap.<String, String>of(),
-                          ImmutableMap.<String, String>of("X-Avalara-Client", KILL_BILL_CLIENT_HEADER),
-                          PingResult.class,
-                          ResponseFormat.JSON);
-        } catch (final InterruptedException e) {
-            throw new AvaTaxClientException(e);
-        } catch (final IOException e) {
-            throw new AvaTaxClientException(e);
-        } catch (final URISyntaxException e) {
-            throw new AvaTaxClientException(e);
-        } catch (final InvalidRequest e) {
-            throw new AvaTaxClientException(e);
+            final AvaTaxErrors errors = deserializeResponse(e.getResponse(), AvaTaxErrors.class, ResponseFormat.JSON);
+            return new AvaTaxClientException(errors, e);
+        } catch (final IOException e1) {
+            logger.warn("Invalid AvaTax request: status={}", e.getResponse() == null ? null : e.getResponse().statusCode());
+            return new AvaTaxClientException(e);
         }
     }
 
@@ -18,10 +18,13 @@
 
 package org.killbill.billing.plugin.avatax.client;
 
+import java.io.IOException;
+import java.io.InputStream;
 import java.text.SimpleDateFormat;
 import java.util.Properties;
 
 import org.killbill.billing.plugin.avatax.core.AvaTaxActivator;
+import org.killbill.billing.plugin.avatax.core.AvaTaxMetrics;
 
 import com.fasterxml.jackson.annotation.JsonInclude.Include;
 import com.fasterxml.jackson.core.JsonParser.Feature;
@@ -29,11 +32,16 @@ import com.fasterxml.jackson.databind.DeserializationFeature;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fasterxml.jackson.databind.SerializationFeature;
 import com.google.common.base.Strings;
+import com.google.common.io.CountingInputStream;
 
 public abstract class ClientUtils {
 
     public static Integer getIntegerProperty(final Properties properties, final String key) {
-        final String property = properties.getProperty(AvaTaxActivator.PROPERTY_PREFIX + key);
+        return getIntegerProperty(properties, AvaTaxActivator.PROPERTY_PREFIX, key);
+    }
+
+    public static Integer getIntegerProperty(final Properties properties, final String prefix, final String key) {
+        final String property = properties.getProperty(prefix + key);
         return Strings.isNullOrEmpty(property) ? null : Integer.valueOf(property);
     }
 
@@ -51,4 +59,17 @@ public abstract class ClientUtils {
         objectMapper.setDateFormat(new SimpleDateFormat("yyyy-MM-dd"));
         return objectMapper;
     }
+
+    // Deserialize a (raw) JSON response, recording its size
+    public static <T> T deserialize(final ObjectMapper mapper,
+                                    final InputStream response,
+                                    final Class<T> clazz,
+                                    final String callName,
+                                    final AvaTaxMetrics metrics) throws IOException {
+        try (final CountingInputStream in = new CountingInputStream(response)) {
+            final T result = mapper.readValue(in, clazz);
+            metrics.recordResponseSize(callName, in.getCount());
+            return result;
+        }
+    }
 }
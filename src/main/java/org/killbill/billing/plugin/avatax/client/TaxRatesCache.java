@@ -0,0 +1,110 @@
+/*
+ * Copyright 2020-2026 Equinix, Inc
+ * Copyright 2014-2026 The Billing Project, LLC
+ *
+ * The Billing Project licenses this file to you under the Apache License, version 2.0
+ * (the "License"); you may not use this file except in compliance with the
+ * License.  You may obtain a copy of the License at:
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.killbill.billing.plugin.avatax.client;
+
+import java.sql.SQLException;
+import java.util.Locale;
+import java.util.concurrent.TimeUnit;
+
+import javax.annotation.Nullable;
+
+import org.killbill.billing.plugin.avatax.client.model.TaxRateResult;
+
+import com.google.common.base.CharMatcher;
+import com.google.common.base.Strings;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+
+// Bounded, TTL-based cache of Tax Rates API results, keyed by normalized address.
+// One instance is owned by each TaxRatesClient, so a tenant configuration change (which re-creates the client) drops it.
+public class TaxRatesCache {
+
+    private static final char KEY_SEPARATOR = '|';
+
+    // Null when the cache is disabled
+    private final Cache<String, TaxRateResult> cache;
+
+    public TaxRatesCache(final int maxSize, final long ttlSeconds) {
+        if (maxSize <= 0 || ttlSeconds <= 0) {
+            this.cache = null;
+        } else {
+            this.cache = CacheBuilder.newBuilder()
+                                     .maximumSize(maxSize)
+                                     .expireAfterWrite(ttlSeconds, TimeUnit.SECONDS)
+                                     .build();
+        }
+    }
+
+    public boolean isEnabled() {
+        return cache != null;
+    }
+
+    public TaxRateResult get(@Nullable final String line1,
+                             @Nullable final String city,
+                             @Nullable final String region,
+                             @Nullable final String postalCode,
+                             @Nullable final String country,
+                             final TaxRatesLoader loader) throws AvaTaxClientException, SQLException {
+        if (cache == null) {
+            return loader.load();
+        }
+
+        final String key = toKey(line1, city, region, postalCode, country);
+        final TaxRateResult cachedTaxRates = cache.getIfPresent(key);
+        if (cachedTaxRates != null) {
+            return cachedTaxRates;
+        }
+
+        final TaxRateResult taxRates = loader.load();
+        if (taxRates != null) {
+            cache.put(key, taxRates);
+        }
+        return taxRates;
+    }
+
+    public void invalidateAll() {
+        if (cache != null) {
+            cache.invalidateAll();
+        }
+    }
+
+    static String toKey(@Nullable final String line1,
+                        @Nullable final String city,
+                        @Nullable final String region,
+                        @Nullable final String postalCode,
+                        @Nullable final String country) {
+        return normalize(line1) + KEY_SEPARATOR +
+               normalize(city) + KEY_SEPARATOR +
+               normalize(region) + KEY_SEPARATOR +
+               normalize(postalCode) + KEY_SEPARATOR +
+               normalize(country);
+    }
+
+    private static String normalize(@Nullable final String value) {
+        if (Strings.isNullOrEmpty(value)) {
+            return "";
+        }
+        // "45  Fremont St " and "45 fremont st" should share the same entry
+        return CharMatcher.whitespace().trimAndCollapseFrom(value, ' ').toUpperCase(Locale.ROOT);
+    }
+
+    public interface TaxRatesLoader {
+
+        TaxRateResult load() throws AvaTaxClientException, SQLException;
+    }
+}
@@ -23,11 +23,13 @@ import java.io.InputStream;
 import java.io.InputStreamReader;
 import java.net.URISyntaxException;
 import java.security.GeneralSecurityException;
+import java.util.Map;
 import java.util.Properties;
 
 import org.killbill.billing.plugin.avatax.client.model.PingResult;
 import org.killbill.billing.plugin.avatax.client.model.TaxRateResult;
 import org.killbill.billing.plugin.avatax.core.AvaTaxActivator;
+import org.killbill.billing.plugin.avatax.core.AvaTaxMetrics;
 import org.killbill.billing.plugin.util.http.HttpClient;
 import org.killbill.billing.plugin.util.http.InvalidRequest;
 import org.killbill.billing.plugin.util.http.ResponseFormat;
@@ -41,7 +43,19 @@ public class TaxRatesClient extends HttpClient {
 
     public static final String KILL_BILL_CLIENT_HEADER = "Kill Bill; 2.0; killbill-avatax; 2.0; NA";
 
+    private final TaxRatesCache taxRatesCache;
+    private final boolean localStoreEnabled;
+    private final boolean localStoreOffline;
+    private final int localStoreMaxAgeSeconds;
+    // Invoices whose tax calculation takes longer are logged (negative to disable)
+    private final long slowInvoiceThresholdMillis;
+    private final AvaTaxMetrics metrics;
+
     public TaxRatesClient(final Properties properties) throws GeneralSecurityException {
+        this(properties, AvaTaxMetrics.NO_OP);
+    }
+
+    public TaxRatesClient(final Properties properties, final AvaTaxMetrics metrics) throws GeneralSecurityException {
         super(properties.getProperty(AvaTaxActivator.TAX_RATES_API_PROPERTY_PREFIX + "url"),
               properties.getProperty(AvaTaxActivator.TAX_RATES_API_PROPERTY_PREFIX + "accountId"),
               properties.getProperty(AvaTaxActivator.TAX_RATES_API_PROPERTY_PREFIX + "licenseKey"),
@@ -50,32 +64,49 @@ public class TaxRatesClient extends HttpClient {
               ClientUtils.getBooleanProperty(properties, "strictSSL"),
               MoreObjects.firstNonNull(ClientUtils.getIntegerProperty(properties, "connectTimeout"), 10000),
               MoreObjects.firstNonNull(ClientUtils.getIntegerProperty(properties, "requestTimeout"), 60000));
+        // Disabled by default
+        this.taxRatesCache = new TaxRatesCache(MoreObjects.firstNonNull(ClientUtils.getIntegerProperty(properties, AvaTaxActivator.TAX_RATES_API_PROPERTY_PREFIX, "cache.maxSize"), 10000),
+                                               MoreObjects.firstNonNull(ClientUtils.getIntegerProperty(properties, AvaTaxActivator.TAX_RATES_API_PROPERTY_PREFIX, "cache.ttlSeconds"), 0));
+        // The offline mode implies the local store
+        this.localStoreOffline = Boolean.parseBoolean(properties.getProperty(AvaTaxActivator.TAX_RATES_API_PROPERTY_PREFIX + "localStore.offline"));
+        this.localStoreEnabled = localStoreOffline || Boolean.parseBoolean(properties.getProperty(AvaTaxActivator.TAX_RATES_API_PROPERTY_PREFIX + "localStore.enabled"));
+        this.localStoreMaxAgeSeconds = MoreObjects.firstNonNull(ClientUtils.getIntegerProperty(properties, AvaTaxActivator.TAX_RATES_API_PROPERTY_PREFIX, "localStore.maxAgeSeconds"), 86400);
+        this.slowInvoiceThresholdMillis = MoreObjects.firstNonNull(ClientUtils.getIntegerProperty(properties, "slowInvoiceThresholdMs"), 5000);
+        this.metrics = metrics;
     }
 
     public boolean isConfigured() {
-        return url != null;
+        return url != null || localStoreOffline;
+    }
+
+    public TaxRatesCache getTaxRatesCache() {
+        return taxRatesCache;
+    }
+
+    public boolean isLocalStoreEnabled() {
+        return localStoreEnabled;
+    }
+
+    public boolean isLocalStoreOffline() {
+        return localStoreOffline;
+    }
+
+    public int getLocalStoreMaxAgeSeconds() {
+        return localStoreMaxAgeSeconds;
+    }
+
+    public long getSlowInvoiceThresholdMillis() {
+        return slowInvoiceThresholdMillis;
     }
 
     public TaxRateResult fromPostal(final String postal, final String country) throws AvaTaxClientException {
-        try {
-            // See https://developer.avalara.com/api-reference/avatax/rest/v2/methods/Free/TaxRatesByPostalCode/
-            return doCall(GET,
-                          url + "/taxrates/bypostalcode",
-                          null,
-                          ImmutableMap.<String, String>of("postalCode", postal,
-                                                          "country", country),
-                          ImmutableMap.<String, String>of("X-Avalara-Client", KILL_BILL_CLIENT_HEADER),
-                          TaxRateResult.class,
-                          ResponseFormat.JSON);
-        } catch (final InterruptedException e) {
-            throw new AvaTaxClientException(e);
-        } catch (final IOException e) {
-            throw new AvaTaxClientException(e);
-        } catch (final URISyntaxException e) {
-            throw new AvaTaxClientException(e);
-        } catch (final InvalidRequest e) {
-            throw new AvaTaxClientException(e);
-        }
+        // See https://developer.avalara.com/api-reference/avatax/rest/v2/methods/Free/TaxRatesByPostalCode/
+        return call("fromPostal",
+                    url + "/taxrates/bypostalcode",
+                    ImmutableMap.<String, String>of("postalCode", postal,
+                                                    "country", country),
+                    TaxRateResult.class,
+                    false);
     }
 
     public TaxRateResult fromAddress(final String street, final String city, final String state, final String postal, final String country) throws AvaTaxClientException {
@@ -86,55 +117,69 @@ public class TaxRatesClient extends HttpClient {
         queryParams.put("postalCode", postal);
         queryParams.put("country", country);
 
-        try {
-            // See https://developer.avalara.com/api-reference/avatax/rest/v2/methods/Free/TaxRatesByAddress/
-            return doCall(GET,
-                          url + "/taxrates/byaddress",
-                          null,
-                          queryParams.build(),
-                          ImmutableMap.<String, String>of("X-Avalara-Client", KILL_BILL_CLIENT_HEADER),
-                          TaxRateResult.class,
-                          ResponseFormat.JSON);
-        } catch (final InterruptedException e) {
-            throw new AvaTaxClientException(e);
-        } catch (final IOException e) {
-            throw new AvaTaxClientException(e);
-        } catch (final URISyntaxException e) {
-            throw new AvaTaxClientException(e);
-        } catch (final InvalidRequest e) {
-            String message = e.getMessage();
-            if (e.getResponse() != null) {
-                final InputStream responseBody = e.getResponse().body();
-                if (responseBody != null) {
-                    try {
-                        message += "[" + CharStreams.toString(new InputStreamReader(responseBody, Charsets.UTF_8)) + "]";
-                    } catch (final IOException ex) {
-                        message = ex.toString();
-                    }
-                }
-            }
-            throw new AvaTaxClientException(message, e);
-        }
+        // See https://developer.avalara.com/api-reference/avatax/rest/v2/methods/Free/TaxRatesByAddress/
+        return call("fromAddress",
+                    url + "/taxrates/byaddress",
+                    queryParams.build(),
+                    TaxRateResult.class,
+                    true);
     }
 
     public PingResult ping() throws AvaTaxClientException {
+        // See https://developer.avalara.com/api-reference/avatax/rest/v2/methods/Utilities/Ping/
+        return call("ping",
+                    url + "/utilities/ping",
+                    ImmutableMap.<String, String>of(),
+                    PingResult.class,
+                    false);
+    }
+
+    private <T> T call(final String callName,
+                       final String uri,
+                       final Map<String, String> queryParams,
+                       final Class<T> clazz,
+                       final boolean withResponseInMessage) throws AvaTaxClientException {
+        final long startNanos = System.nanoTime();
+        AvaTaxClientException error = null;
         try {
-            // See https://developer.avalara.com/api-reference/avatax/rest/v2/methods/Utilities/Ping/
-            return doCall(GET,
-                          url + "/utilities/ping",
-                          null,
-                          ImmutableMap.<String, String>of(),
-                          ImmutableMap.<String, String>of("X-Avalara-Client", KILL_BILL_CLIENT_HEADER),
-                          PingResult.class,
-                          ResponseFormat.JSON);
+            // Raw response, deserialized by ClientUtils to record its size
+            final InputStream response = doCall(GET,
+                                                uri,
+                                                null,
+                                                queryParams,
+                                                ImmutableMap.<String, String>of("X-Avalara-Client", KILL_BILL_CLIENT_HEADER),
+                                                InputStream.class,
+                                                ResponseFormat.RAW);
+            return ClientUtils.deserialize(mapper, response, clazz, callName, metrics);
         } catch (final InterruptedException e) {
-            throw new AvaTaxClientException(e);
+            error = new AvaTaxClientException(e);
+            throw error;
         } catch (final IOException e) {
-            throw new AvaTaxClientException(e);
+            error = new AvaTaxClientException(e);
+            throw error;
         } catch (final URISyntaxException e) {
-            throw new AvaTaxClientException(e);
+            error = new AvaTaxClientException(e);
+            throw error;
         } catch (final InvalidRequest e) {
-            throw new AvaTaxClientException(e);
+            error = withResponseInMessage ? new AvaTaxClientException(getMessageWithResponse(e), e) : new AvaTaxClientException(e);
+            throw error;
+        } finally {
+            metrics.recordClientCall(callName, System.nanoTime() - startNanos, error);
+        }
+    }
+
+    private String getMessageWithResponse(final InvalidRequest e) {
+        String message = e.getMessage();
+        if (e.getResponse() != null) {
+            final InputStream responseBody = e.getResponse().body();
+            if (responseBody != null) {
+                try {
+                    message += "[" + CharStreams.toString(new InputStreamReader(responseBody, Charsets.UTF_8)) + "]";
+                } catch (final IOException ex) {
+                    message = ex.toString();
+                }
+            }
         }
+        return message;
     }
 }
@@ -0,0 +1,94 @@
+/*
+ * Copyright 2020-2026 Equinix, Inc
+ * Copyright 2014-2026 The Billing Project, LLC
+ *
+ * The Billing Project licenses this file to you under the Apache License, version 2.0
+ * (the "License"); you may not use this file except in compliance with the
+ * License.  You may obtain a copy of the License at:
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+package org.killbill.billing.plugin.avatax.client;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.killbill.billing.plugin.avatax.client.model.TransactionModel;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+
+// Bounded, TTL-based cache of committed AvaTax transactions, keyed by document code. Documents in other states are never cached, as they can still change.
+// One instance is owned by each AvaTaxClient, so a tenant configuration change (which re-creates the client) drops it.
+public class TransactionsCache {
+
+    private static final String COMMITTED = "Committed";
+
+    // Null when the cache is disabled
+    private final Cache<String, TransactionModel> cache;
+    // Incremented by each invalidation (voids are rare, so it isn't tracked per document)
+    private final AtomicLong invalidations = new AtomicLong();
+
+    public TransactionsCache(final int maxSize, final long ttlSeconds) {
+        if (maxSize <= 0 || ttlSeconds <= 0) {
+            this.cache = null;
+        } else {
+            this.cache = CacheBuilder.newBuilder()
+                                     .maximumSize(maxSize)
+                                     .expireAfterWrite(ttlSeconds, TimeUnit.SECONDS)
+                                     .build();
+        }
+    }
+
+    public boolean isEnabled() {
+        return cache != null;
+    }
+
+    public TransactionModel get(final String transactionCode, final TransactionLoader loader) throws AvaTaxClientException {
+        if (cache == null) {
+            return loader.load();
+        }
+
+        final TransactionModel cachedTransaction = cache.getIfPresent(transactionCode);
+        if (cachedTransaction != null) {
+            return cachedTransaction;
+        }
+
+        final long invalidationsBeforeLoad = invalidations.get();
+        final TransactionModel transaction = loader.load();
+        if (transaction != null && COMMITTED.equals(transaction.status)) {
+            cache.put(transactionCode, transaction);
+            // The transaction may have been voided while it was loaded: either the invalidation happened after the put (and removed it),
+            // or it happened before and the counter changed
+            if (invalidations.get() != invalidationsBeforeLoad) {
+                cache.invalidate(transactionCode);
+            }
+        }
+        return transaction;
+    }
+
+    // Committed documents can still be voided: call once the void is done, so that lookups in flight don't cache the transaction as committed
+    public void invalidate(final String transactionCode) {
+        if (cache != null) {
+            invalidations.incrementAndGet();
+            cache.invalidate(transactionCode);
+        }
+    }
+
+    public void invalidateAll() {
+        if (cache != null) {
+            cache.invalidateAll();
+        }
+    }
+
+    public interface TransactionLoader {
+
+        TransactionModel load() throws AvaTaxClientException;
+    }
+}
@@ -29,9 +29,12 @@ import org.killbill.billing.osgi.api.OSGIPluginProperties;
 import org.killbill.billing.osgi.libs.killbill.KillbillActivatorBase;
 import org.killbill.billing.plugin.api.notification.PluginConfigurationEventHandler;
 import org.killbill.billing.plugin.avatax.api.AvalaraInvoicePluginApi;
+import org.killbill.billing.plugin.avatax.api.PlanProductsCache;
 import org.killbill.billing.plugin.avatax.client.AvaTaxClient;
 import org.killbill.billing.plugin.avatax.client.TaxRatesClient;
 import org.killbill.billing.plugin.avatax.dao.AvaTaxDao;
+import org.killbill.billing.plugin.avatax.dao.AvaTaxResponseWriter;
+import org.killbill.billing.plugin.avatax.dao.TaxCodesCache;
 import org.killbill.billing.plugin.core.resources.jooby.PluginApp;
 import org.killbill.billing.plugin.core.resources.jooby.PluginAppBuilder;
 import org.killbill.clock.Clock;
@@ -47,16 +50,34 @@ public class AvaTaxActivator extends KillbillActivatorBase {
 
     private AvaTaxConfigurationHandler avaTaxConfigurationHandler;
     private TaxRatesConfigurationHandler taxRatesConfigurationHandler;
+    private PlanProductsCache planProductsCache;
+    private AvaTaxResponseItemsBackfill responseItemsBackfill;
+    private AvaTaxResponsesCompression responsesCompression;
+    private AvaTaxResponsesRetention responsesRetention;
+    private AvaTaxPendingDocumentsWorker pendingDocumentsWorker;
+    private AvaTaxOutboxWorker outboxWorker;
+    private AvaTaxBulkCommitsWorker bulkCommitsWorker;
+    private AvaTaxResponseWriter responseWriter;
 
     @Override
     public void start(final BundleContext context) throws Exception {
         super.start(context);
 
-        final AvaTaxDao dao = new AvaTaxDao(dataSource.getDataSource());
+        // No-op if the Kill Bill metric registry isn't available
+        final AvaTaxMetrics metrics = new AvaTaxMetrics(metricRegistry == null ? null : metricRegistry.getMetricRegistry());
+
+        // Opt-in: store the large JSON columns of the responses compressed
+        final AvaTaxDao dao = new AvaTaxDao(dataSource.getDataSource(), metrics, AvaTaxResponsesCompression.isEnabled(configProperties.getProperties()));
+        // Opt-in: store the responses in the background
+        responseWriter = AvaTaxResponseWriter.create(dao, configProperties.getProperties());
+        responseWriter.start();
+        final TaxCodesCache taxCodesCache = TaxCodesCache.create(dao, configProperties.getProperties());
+        planProductsCache = PlanProductsCache.create(killbillAPI, configProperties.getProperties());
+        final AvaTaxInvoiceStats invoiceStats = AvaTaxInvoiceStats.create(configProperties.getProperties());
         final Clock clock = new DefaultClock();
 
-        avaTaxConfigurationHandler = new AvaTaxConfigurationHandler(PLUGIN_NAME, killbillAPI);
-        taxRatesConfigurationHandler = new TaxRatesConfigurationHandler(PLUGIN_NAME, killbillAPI);
+        avaTaxConfigurationHandler = new AvaTaxConfigurationHandler(PLUGIN_NAME, killbillAPI, metrics);
+        taxRatesConfigurationHandler = new TaxRatesConfigurationHandler(PLUGIN_NAME, killbillAPI, metrics);
 
         // Avalara AvaTax API
         final AvaTaxClient globalAvataxClient = avaTaxConfigurationHandler.createConfigurable(configProperties.getProperties());
@@ -69,6 +90,10 @@ public class AvaTaxActivator extends KillbillActivatorBase {
         final InvoicePluginApi invoicePluginApi = new AvalaraInvoicePluginApi(avaTaxConfigurationHandler,
                                                                               taxRatesConfigurationHandler,
                                                                               dao,
+                                                                              responseWriter,
+                                                                              taxCodesCache,
+                                                                              planProductsCache,
+                                                                              invoiceStats,
                                                                               killbillAPI,
                                                                               configProperties,
                                                                               clock);
@@ -86,20 +111,92 @@ public class AvaTaxActivator extends KillbillActivatorBase {
                                                          super.clock,
                                                          configProperties).withRouteClass(AvalaraHealthcheckServlet.class)
                                                                           .withRouteClass(AvaTaxTaxCodesServlet.class)
+                                                                          .withRouteClass(AvaTaxTaxRatesServlet.class)
                                                                           .withRouteClass(AvaTaxTransactionsServlet.class)
+                                                                          .withRouteClass(AvaTaxStatsServlet.class)
                                                                           .withService(avalaraHealthcheck)
                                                                           .withService(dao)
+                                                                          .withService(taxCodesCache)
+                                                                          .withService(invoiceStats)
                                                                           .withService(avaTaxConfigurationHandler)
+                                                                          .withService(taxRatesConfigurationHandler)
                                                                           .build();
         final HttpServlet servlet = PluginApp.createServlet(pluginApp);
         registerServlet(context, servlet);
 
         registerEventHandler();
+
+        // Opt-in: migrate existing responses to avatax_response_items in the background
+        if (AvaTaxResponseItemsBackfill.isEnabled(configProperties.getProperties())) {
+            responseItemsBackfill = AvaTaxResponseItemsBackfill.create(dao, clock, configProperties.getProperties());
+            responseItemsBackfill.start();
+        }
+
+        // Opt-in: compress existing responses in the background
+        if (AvaTaxResponsesCompression.isBackfillEnabled(configProperties.getProperties())) {
+            responsesCompression = AvaTaxResponsesCompression.create(dao, clock, configProperties.getProperties());
+            responsesCompression.start();
+        }
+
+        // Opt-in: remove the details of old responses in the background
+        if (AvaTaxResponsesRetention.isEnabled(configProperties.getProperties())) {
+            responsesRetention = AvaTaxResponsesRetention.create(dao, avaTaxConfigurationHandler, clock, configProperties.getProperties());
+            responsesRetention.start();
+        }
+
+        // Create the documents of the invoices taxed while AvaTax was unavailable
+        if (AvaTaxPendingDocumentsWorker.isEnabled(configProperties.getProperties())) {
+            pendingDocumentsWorker = AvaTaxPendingDocumentsWorker.create(dao, avaTaxConfigurationHandler, killbillAPI, clock, configProperties.getProperties());
+            pendingDocumentsWorker.start();
+        }
+
+        // Commit and void the documents of the invoices committed or voided in Kill Bill
+        if (AvaTaxOutboxWorker.isEnabled(configProperties.getProperties())) {
+            outboxWorker = AvaTaxOutboxWorker.create(dao, avaTaxConfigurationHandler, clock, configProperties.getProperties());
+            outboxWorker.start();
+        }
+
+        // Queue the documents of the bulk commits in the outbox
+        if (AvaTaxBulkCommitsWorker.isEnabled(configProperties.getProperties())) {
+            bulkCommitsWorker = AvaTaxBulkCommitsWorker.create(dao, killbillAPI, clock, configProperties.getProperties());
+            bulkCommitsWorker.start();
+        }
+    }
+
+    @Override
+    public void stop(final BundleContext context) throws Exception {
+        if (responseItemsBackfill != null) {
+            responseItemsBackfill.stop();
+        }
+        if (responsesCompression != null) {
+            responsesCompression.stop();
+        }
+        if (responsesRetention != null) {
+            responsesRetention.stop();
+        }
+        if (pendingDocumentsWorker != null) {
+            pendingDocumentsWorker.stop();
+        }
+        if (outboxWorker != null) {
+            outboxWorker.stop();
+        }
+        if (bulkCommitsWorker != null) {
+            bulkCommitsWorker.stop();
+        }
+        if (avaTaxConfigurationHandler != null) {
+            avaTaxConfigurationHandler.shutdown();
+        }
+        // Store the pending responses
+        if (responseWriter != null) {
+            responseWriter.stop();
+        }
+        super.stop(context);
     }
 
     private void registerEventHandler() {
         final PluginConfigurationEventHandler handler = new PluginConfigurationEventHandler(avaTaxConfigurationHandler, taxRatesConfigurationHandler);
-        dispatcher.registerEventHandlers(handler);
+        final AvaTaxCatalogEventHandler catalogEventHandler = new AvaTaxCatalogEventHandler(planProductsCache);
+        dispatcher.registerEventHandlers(handler, catalogEventHandler);
     }
 
     private void registerInvoicePluginApi(final BundleContext context, final InvoicePluginApi api) {
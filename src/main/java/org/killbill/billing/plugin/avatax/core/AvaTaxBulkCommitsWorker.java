@@ -0,0 +1,171 @@
+/*
+ * Copyright 2020-2026 Equinix, Inc
+ * Copyright 2014-2026 The Billing Project, LLC
+ *
+ * The Billing Project licenses this file to you under the Apache License, version 2.0
+ * (the "License"); you may not use this file except in compliance with the
+ * License.  You may obtain a copy of the License at:
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+package org.killbill.billing.plugin.avatax.core;
+
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.UUID;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import org.killbill.billing.invoice.api.Invoice;
+import org.killbill.billing.invoice.api.InvoiceApiException;
+import org.killbill.billing.invoice.api.InvoiceStatus;
+import org.killbill.billing.osgi.libs.killbill.OSGIKillbillAPI;
+import org.killbill.billing.plugin.avatax.api.AvaTaxTenantContext;
+import org.killbill.billing.plugin.avatax.client.ClientUtils;
+import org.killbill.billing.plugin.avatax.dao.AvaTaxDao;
+import org.killbill.billing.plugin.avatax.dao.gen.tables.records.AvataxBulkCommitsRecord;
+import org.killbill.billing.plugin.avatax.dao.gen.tables.records.AvataxResponsesRecord;
+import org.killbill.clock.Clock;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.google.common.annotations.VisibleForTesting;
+import com.google.common.base.MoreObjects;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+
+/**
+ * Background job queuing in avatax_outbox the commit of the documents of the bulk commits requested via the transactions servlet.
+ * <p>
+ * Documents are looked up a page at a time and the cursor of the bulk commit is moved in the same transaction as the documents are queued,
+ * so that a bulk commit interrupted by a restart is resumed where it stopped (by any node). The commits themselves are sent by
+ * AvaTaxOutboxWorker, with its concurrency and retries.
+ */
+public class AvaTaxBulkCommitsWorker implements Runnable {
+
+    public static final String PROPERTY_PREFIX = AvaTaxActivator.PROPERTY_PREFIX + "bulkCommits.";
+
+    private static final Logger logger = LoggerFactory.getLogger(AvaTaxBulkCommitsWorker.class);
+
+    private static final int DEFAULT_PAGE_SIZE = 500;
+    private static final int DEFAULT_DELAY_MILLIS = 5000;
+
+    private final AvaTaxDao dao;
+    private final OSGIKillbillAPI killbillAPI;
+    private final Clock clock;
+    private final int pageSize;
+    private final long delayMillis;
+    private final ScheduledExecutorService executor;
+
+    public AvaTaxBulkCommitsWorker(final AvaTaxDao dao,
+                                   final OSGIKillbillAPI killbillAPI,
+                                   final Clock clock,
+                                   final int pageSize,
+                                   final long delayMillis) {
+        this.dao = dao;
+        this.killbillAPI = killbillAPI;
+        this.clock = clock;
+        this.pageSize = pageSize;
+        this.delayMillis = delayMillis;
+        this.executor = Executors.newSingleThreadScheduledExecutor(new ThreadFactoryBuilder().setNameFormat("avatax-bulk-commits-%d")
+                                                                                             .setDaemon(true)
+                                                                                             .build());
+    }
+
+    // Enabled by default: bulk commits would never be processed otherwise
+    public static boolean isEnabled(final Properties properties) {
+        return ClientUtils.getBooleanProperty(properties, "bulkCommits.enabled");
+    }
+
+    public static AvaTaxBulkCommitsWorker create(final AvaTaxDao dao,
+                                                 final OSGIKillbillAPI killbillAPI,
+                                                 final Clock clock,
+                                                 final Properties properties) {
+        final int pageSize = MoreObjects.firstNonNull(ClientUtils.getIntegerProperty(properties, PROPERTY_PREFIX, "pageSize"), DEFAULT_PAGE_SIZE);
+        final int delayMillis = MoreObjects.firstNonNull(ClientUtils.getIntegerProperty(properties, PROPERTY_PREFIX, "delayMillis"), DEFAULT_DELAY_MILLIS);
+        return new AvaTaxBulkCommitsWorker(dao, killbillAPI, clock, pageSize, delayMillis);
+    }
+
+    public void start() {
+        logger.info("Starting the avatax_bulk_commits worker (pageSize={}, delayMillis={})", pageSize, delayMillis);
+        executor.scheduleWithFixedDelay(this, delayMillis, delayMillis, TimeUnit.MILLISECONDS);
+    }
+
+    public void stop() {
+        executor.shutdownNow();
+    }
+
+    @Override
+    public void run() {
+        try {
+            for (final AvataxBulkCommitsRecord bulkCommit : dao.getBulkCommitsToScan()) {
+                if (Thread.currentThread().isInterrupted()) {
+                    break;
+                }
+                scan(bulkCommit);
+            }
+        } catch (final Exception e) {
+            // Don't let the exception cancel the job: bulk commits are resumed from their cursor on the next run
+            logger.warn("Unable to process avatax_bulk_commits", e);
+        }
+    }
+
+    @VisibleForTesting
+    void scan(final AvataxBulkCommitsRecord bulkCommit) throws Exception {
+        final UUID kbTenantId = UUID.fromString(bulkCommit.getKbTenantId());
+        while (!Thread.currentThread().isInterrupted()) {
+            final List<AvataxResponsesRecord> responses = dao.getBulkCommitResponses(bulkCommit, pageSize);
+
+            final Map<String, UUID> docCodes = new LinkedHashMap<String, UUID>();
+            final Map<UUID, Boolean> committedInvoices = new HashMap<UUID, Boolean>();
+            for (final AvataxResponsesRecord response : responses) {
+                final UUID kbInvoiceId = UUID.fromString(response.getKbInvoiceId());
+                Boolean committed = committedInvoices.get(kbInvoiceId);
+                if (committed == null) {
+                    committed = isInvoiceCommitted(kbInvoiceId, kbTenantId);
+                    committedInvoices.put(kbInvoiceId, committed);
+                }
+                if (committed) {
+                    docCodes.put(response.getDocCode(), kbInvoiceId);
+                }
+            }
+
+            final AvataxResponsesRecord lastResponse = responses.isEmpty() ? null : responses.get(responses.size() - 1);
+            final boolean lastPage = responses.size() < pageSize;
+            if (!dao.addBulkCommitOperations(bulkCommit,
+                                             docCodes,
+                                             lastResponse == null ? null : lastResponse.getDocDate(),
+                                             lastResponse == null ? null : lastResponse.getRecordId(),
+                                             lastPage,
+                                             clock.getUTCNow())) {
+                logger.info("Bulk commit {} is processed by another node", bulkCommit.getBulkCommitId());
+                return;
+            }
+
+            if (lastPage) {
+                logger.info("Bulk commit {}: {} documents queued", bulkCommit.getBulkCommitId(), bulkCommit.getNbQueued());
+                return;
+            }
+        }
+    }
+
+    // Draft invoices are committed with the invoice (see AvaTaxInvoicePluginApi#onSuccessCall) and voided invoices mustn't be
+    private boolean isInvoiceCommitted(final UUID kbInvoiceId, final UUID kbTenantId) {
+        try {
+            final Invoice invoice = killbillAPI.getInvoiceUserApi().getInvoice(kbInvoiceId, new AvaTaxTenantContext(null, kbTenantId));
+            return invoice != null && invoice.getStatus() == InvoiceStatus.COMMITTED;
+        } catch (final InvoiceApiException e) {
+            logger.warn("Unable to retrieve invoice {}, skipping its documents", kbInvoiceId, e);
+            return false;
+        }
+    }
+}
@@ -0,0 +1,42 @@
+/*
+ * Copyright 2020-2026 Equinix, Inc
+ * Copyright 2014-2026 The Billing Project, LLC
+ *
+ * The Billing Project licenses this file to you under the Apache License, version 2.0
+ * (the "License"); you may not use this file except in compliance with the
+ * License.  You may obtain a copy of the License at:
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.killbill.billing.plugin.avatax.core;
+
+import org.killbill.billing.notification.plugin.api.ExtBusEvent;
+import org.killbill.billing.notification.plugin.api.ExtBusEventType;
+import org.killbill.billing.osgi.libs.killbill.OSGIKillbillEventDispatcher.OSGIKillbillEventHandler;
+import org.killbill.billing.plugin.avatax.api.PlanProductsCache;
+import org.killbill.billing.tenant.api.TenantKV.TenantKey;
+
+// Drop the plan -> product index of a tenant when a new catalog is uploaded (or deleted)
+public class AvaTaxCatalogEventHandler implements OSGIKillbillEventHandler {
+
+    private final PlanProductsCache planProductsCache;
+
+    public AvaTaxCatalogEventHandler(final PlanProductsCache planProductsCache) {
+        this.planProductsCache = planProductsCache;
+    }
+
+    @Override
+    public void handleKillbillEvent(final ExtBusEvent killbillEvent) {
+        if ((ExtBusEventType.TENANT_CONFIG_CHANGE.equals(killbillEvent.getEventType()) || ExtBusEventType.TENANT_CONFIG_DELETION.equals(killbillEvent.getEventType())) &&
+            TenantKey.CATALOG.toString().equals(killbillEvent.getMetaData())) {
+            planProductsCache.invalidate(killbillEvent.getTenantId());
+        }
+    }
+}
@@ -20,6 +20,10 @@ package org.killbill.billing.plugin.avatax.core;
 
 import java.security.GeneralSecurityException;
 import java.util.Properties;
+import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+
+import javax.annotation.Nullable;
 
 import org.killbill.billing.osgi.libs.killbill.OSGIKillbillAPI;
 import org.killbill.billing.plugin.api.notification.PluginTenantConfigurableConfigurationHandler;
@@ -27,17 +31,75 @@ import org.killbill.billing.plugin.avatax.client.AvaTaxClient;
 
 public class AvaTaxConfigurationHandler extends PluginTenantConfigurableConfigurationHandler<AvaTaxClient> {
 
+    // Lookups of documents (e.g. from Kaui) are queued separately, so that they don't delay the tax calls
+    private static final int READ_QUEUE_SIZE = 100;
+
+    private final AvaTaxExecutors executors = new AvaTaxExecutors();
+    private final AvaTaxExecutors readExecutors = new AvaTaxExecutors("avatax-read-", READ_QUEUE_SIZE);
+    private final ThreadLocal<UUID> configuredTenantId = new ThreadLocal<UUID>();
+    private final AvaTaxMetrics metrics;
+
     public AvaTaxConfigurationHandler(final String pluginName,
                                       final OSGIKillbillAPI osgiKillbillAPI) {
+        this(pluginName, osgiKillbillAPI, AvaTaxMetrics.NO_OP);
+    }
+
+    public AvaTaxConfigurationHandler(final String pluginName,
+                                      final OSGIKillbillAPI osgiKillbillAPI,
+                                      final AvaTaxMetrics metrics) {
         super(pluginName, osgiKillbillAPI);
+        this.metrics = metrics;
+    }
+
+    @Override
+    protected void configure(final UUID kbTenantId) {
+        // Let createConfigurable know which tenant the client is for
+        configuredTenantId.set(kbTenantId);
+        try {
+            super.configure(kbTenantId);
+        } finally {
+            configuredTenantId.remove();
+        }
     }
 
     @Override
     protected AvaTaxClient createConfigurable(final Properties properties) {
         try {
-            return new AvaTaxClient(properties);
+            return new AvaTaxClient(properties, metrics.forTenant(configuredTenantId.get()));
         } catch (final GeneralSecurityException e) {
             throw new IllegalStateException(e);
         }
     }
+
+    /**
+     * Get the executor for AvaTax calls for that tenant, sized according to its configured concurrency.
+     *
+     * @return the executor, or null if calls should be made sequentially
+     */
+    public ExecutorService getExecutor(@Nullable final UUID kbTenantId) {
+        final int concurrency = getConfigurable(kbTenantId).getConcurrency();
+        if (concurrency <= 1) {
+            return null;
+        }
+        return executors.getExecutor(kbTenantId, concurrency);
+    }
+
+    /**
+     * Get the executor for AvaTax lookups for that tenant (bounded by its configured concurrency as well, but separate from the tax calls).
+     * Once READ_QUEUE_SIZE lookups are waiting, new ones are rejected (RejectedExecutionException).
+     *
+     * @return the executor, or null if calls should be made sequentially
+     */
+    public ExecutorService getReadExecutor(@Nullable final UUID kbTenantId) {
+        final int concurrency = getConfigurable(kbTenantId).getConcurrency();
+        if (concurrency <= 1) {
+            return null;
+        }
+        return readExecutors.getExecutor(kbTenantId, concurrency);
+    }
+
+    public void shutdown() {
+        executors.shutdown();
+        readExecutors.shutdown();
+    }
 }
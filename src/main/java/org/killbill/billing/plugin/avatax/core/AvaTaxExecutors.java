@@ -0,0 +1,99 @@
+/*
+ * Copyright 2020-2026 Equinix, Inc
+ * Copyright 2014-2026 The Billing Project, LLC
+ *
+ * The Billing Project licenses this file to you under the Apache License, version 2.0
+ * (the "License"); you may not use this file except in compliance with the
+ * License.  You may obtain a copy of the License at:
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.killbill.billing.plugin.avatax.core;
+
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+import javax.annotation.Nullable;
+
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+
+// Bounded thread pools (one per tenant), used to issue AvaTax calls concurrently
+public class AvaTaxExecutors {
+
+    private static final String GLOBAL = "global";
+    private static final long KEEP_ALIVE_SECONDS = 60;
+
+    private final String namePrefix;
+    // 0 for an unbounded queue
+    private final int queueSize;
+    private final ConcurrentMap<String, ThreadPoolExecutor> executors = new ConcurrentHashMap<String, ThreadPoolExecutor>();
+
+    public AvaTaxExecutors() {
+        this("avatax-", 0);
+    }
+
+    /**
+     * @param namePrefix prefix of the thread names
+     * @param queueSize  maximum number of tasks waiting for a thread, per tenant (0 for no limit). Once reached, tasks are rejected (RejectedExecutionException)
+     */
+    public AvaTaxExecutors(final String namePrefix, final int queueSize) {
+        this.namePrefix = namePrefix;
+        this.queueSize = queueSize;
+    }
+
+    /**
+     * Get the executor for that tenant, resized if the configured concurrency has changed.
+     */
+    public ExecutorService getExecutor(@Nullable final UUID kbTenantId, final int concurrency) {
+        final String key = kbTenantId == null ? GLOBAL : kbTenantId.toString();
+        return executors.compute(key, (k, executor) -> {
+            if (executor == null) {
+                return createExecutor(k, concurrency);
+            }
+            if (executor.getMaximumPoolSize() < concurrency) {
+                executor.setMaximumPoolSize(concurrency);
+                executor.setCorePoolSize(concurrency);
+            } else if (executor.getMaximumPoolSize() > concurrency) {
+                executor.setCorePoolSize(concurrency);
+                executor.setMaximumPoolSize(concurrency);
+            }
+            return executor;
+        });
+    }
+
+    public void shutdown() {
+        for (final ThreadPoolExecutor executor : executors.values()) {
+            executor.shutdownNow();
+        }
+        executors.clear();
+    }
+
+    private ThreadPoolExecutor createExecutor(final String name, final int concurrency) {
+        final BlockingQueue<Runnable> queue = queueSize > 0 ? new ArrayBlockingQueue<Runnable>(queueSize) : new LinkedBlockingQueue<Runnable>();
+        final ThreadPoolExecutor executor = new ThreadPoolExecutor(concurrency,
+                                                                   concurrency,
+                                                                   KEEP_ALIVE_SECONDS,
+                                                                   TimeUnit.SECONDS,
+                                                                   queue,
+                                                                   new ThreadFactoryBuilder().setNameFormat(namePrefix + name + "-%d")
+                                                                                             .setDaemon(true)
+                                                                                             .build());
+        // Don't keep threads around for idle tenants
+        executor.allowCoreThreadTimeOut(true);
+        return executor;
+    }
+}
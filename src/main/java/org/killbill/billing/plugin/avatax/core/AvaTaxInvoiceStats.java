@@ -0,0 +1,135 @@
+/*
+ * Copyright 2020-2026 Equinix, Inc
+ * Copyright 2014-2026 The Billing Project, LLC
+ *
+ * The Billing Project licenses this file to you under the Apache License, version 2.0
+ * (the "License"); you may not use this file except in compliance with the
+ * License.  You may obtain a copy of the License at:
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.killbill.billing.plugin.avatax.core;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.UUID;
+
+import org.killbill.billing.plugin.avatax.client.ClientUtils;
+import org.killbill.billing.plugin.avatax.core.AvaTaxInvoiceTimings.Phase;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.google.common.base.MoreObjects;
+
+// Log the phase breakdown of the invoices whose tax calculation is slower than the configured threshold (slowInvoiceThresholdMs)
+// and keep the most recent ones in memory, for AvaTaxStatsServlet.
+public class AvaTaxInvoiceStats {
+
+    public static final String MAX_SLOW_INVOICES_PROPERTY = "stats.maxSlowInvoices";
+
+    private static final Logger logger = LoggerFactory.getLogger(AvaTaxInvoiceStats.class);
+
+    private static final int DEFAULT_MAX_SLOW_INVOICES = 100;
+
+    private final int maxSlowInvoices;
+    // Most recent first
+    private final Deque<AvaTaxInvoiceTimings> slowInvoices = new ArrayDeque<AvaTaxInvoiceTimings>();
+
+    public AvaTaxInvoiceStats(final int maxSlowInvoices) {
+        this.maxSlowInvoices = maxSlowInvoices;
+    }
+
+    public static AvaTaxInvoiceStats create(final Properties properties) {
+        return new AvaTaxInvoiceStats(MoreObjects.firstNonNull(ClientUtils.getIntegerProperty(properties, MAX_SLOW_INVOICES_PROPERTY), DEFAULT_MAX_SLOW_INVOICES));
+    }
+
+    /**
+     * @param timings         timings of a completed (or failed) tax calculation
+     * @param thresholdMillis minimum total time to log and keep the timings (negative to disable)
+     * @return true if the invoice was slow
+     */
+    public boolean record(final AvaTaxInvoiceTimings timings, final long thresholdMillis) {
+        if (thresholdMillis < 0 || timings.getTotalMillis() < thresholdMillis) {
+            return false;
+        }
+
+        logger.warn("Slow tax calculation: {}", timings);
+
+        if (maxSlowInvoices > 0) {
+            synchronized (slowInvoices) {
+                slowInvoices.addFirst(timings);
+                if (slowInvoices.size() > maxSlowInvoices) {
+                    slowInvoices.removeLast();
+                }
+            }
+        }
+        return true;
+    }
+
+    /**
+     * @return for that tenant, the average and maximum time of each phase across the recent slow invoices, as well as their breakdown
+     */
+    public Map<String, Object> getStats(final UUID kbTenantId) {
+        final List<AvaTaxInvoiceTimings> tenantSlowInvoices = new ArrayList<AvaTaxInvoiceTimings>();
+        synchronized (slowInvoices) {
+            for (final AvaTaxInvoiceTimings timings : slowInvoices) {
+                if (kbTenantId.equals(timings.getKbTenantId())) {
+                    tenantSlowInvoices.add(timings);
+                }
+            }
+        }
+
+        long totalMillis = 0;
+        long maxTotalMillis = 0;
+        final long[] phasesMillis = new long[Phase.values().length];
+        final long[] maxPhasesMillis = new long[Phase.values().length];
+        final List<Map<String, Object>> invoices = new ArrayList<Map<String, Object>>(tenantSlowInvoices.size());
+        for (final AvaTaxInvoiceTimings timings : tenantSlowInvoices) {
+            totalMillis += timings.getTotalMillis();
+            maxTotalMillis = Math.max(maxTotalMillis, timings.getTotalMillis());
+            for (final Phase phase : Phase.values()) {
+                phasesMillis[phase.ordinal()] += timings.getPhaseMillis(phase);
+                maxPhasesMillis[phase.ordinal()] = Math.max(maxPhasesMillis[phase.ordinal()], timings.getPhaseMillis(phase));
+            }
+
+            final Map<String, Object> invoice = new LinkedHashMap<String, Object>();
+            invoice.put("kbInvoiceId", timings.getKbInvoiceId());
+            invoice.put("startDate", timings.getStartDate() == null ? null : timings.getStartDate().toString());
+            invoice.put("totalMs", timings.getTotalMillis());
+            invoice.put("phasesMs", timings.getPhasesMillis());
+            invoices.add(invoice);
+        }
+
+        final int nbInvoices = tenantSlowInvoices.size();
+        final Map<String, Object> phases = new LinkedHashMap<String, Object>();
+        for (final Phase phase : Phase.values()) {
+            phases.put(phase.getName(), summary(phasesMillis[phase.ordinal()], maxPhasesMillis[phase.ordinal()], nbInvoices));
+        }
+
+        final Map<String, Object> stats = new LinkedHashMap<String, Object>();
+        stats.put("nbSlowInvoices", nbInvoices);
+        stats.put("total", summary(totalMillis, maxTotalMillis, nbInvoices));
+        stats.put("phases", phases);
+        stats.put("slowInvoices", invoices);
+        return stats;
+    }
+
+    private static Map<String, Long> summary(final long sumMillis, final long maxMillis, final int nbInvoices) {
+        final Map<String, Long> summary = new LinkedHashMap<String, Long>();
+        summary.put("avgMs", nbInvoices == 0 ? 0 : sumMillis / nbInvoices);
+        summary.put("maxMs", maxMillis);
+        return summary;
+    }
+}
@@ -0,0 +1,132 @@
+/*
+ * Copyright 2020-2026 Equinix, Inc
+ * Copyright 2014-2026 The Billing Project, LLC
+ *
+ * The Billing Project licenses this file to you under the Apache License, version 2.0
+ * (the "License"); you may not use this file except in compliance with the
+ * License.  You may obtain a copy of the License at:
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.killbill.billing.plugin.avatax.core;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+import org.joda.time.DateTime;
+
+/**
+ * Time spent in each phase of the tax calculation of an invoice (getAdditionalInvoiceItems).
+ * <p/>
+ * The tax calls of an invoice can be issued concurrently (see the concurrency property), in which case the sum of the phases
+ * can exceed the total time.
+ */
+public class AvaTaxInvoiceTimings {
+
+    public enum Phase {
+        // Custom fields lookups (tax exemption, tax codes on invoice items)
+        CUSTOM_FIELDS("customFields"),
+        // Plan to product to tax code resolution
+        CATALOG("catalog"),
+        // Previous responses for the invoice
+        HISTORY("history"),
+        REQUEST_BUILD("requestBuild"),
+        // JSON encoding of the requests and decoding of the responses
+        SERIALIZATION("serialization"),
+        HTTP("http"),
+        // Responses stored in the plugin tables
+        PERSIST("persist"),
+        ITEMS_BUILD("itemsBuild");
+
+        private final String name;
+
+        Phase(final String name) {
+            this.name = name;
+        }
+
+        public String getName() {
+            return name;
+        }
+    }
+
+    private final UUID kbInvoiceId;
+    private final UUID kbTenantId;
+    private final DateTime startDate;
+    private final long startNanos;
+    private final AtomicLongArray phasesNanos = new AtomicLongArray(Phase.values().length);
+    private volatile long totalNanos = -1;
+
+    public AvaTaxInvoiceTimings(final UUID kbInvoiceId, final UUID kbTenantId, final DateTime startDate) {
+        this.kbInvoiceId = kbInvoiceId;
+        this.kbTenantId = kbTenantId;
+        this.startDate = startDate;
+        this.startNanos = System.nanoTime();
+    }
+
+    /**
+     * @param phase          phase
+     * @param phaseStartNanos System#nanoTime when the phase started
+     */
+    public void record(final Phase phase, final long phaseStartNanos) {
+        add(phase, System.nanoTime() - phaseStartNanos);
+    }
+
+    public void add(final Phase phase, final long durationNanos) {
+        phasesNanos.addAndGet(phase.ordinal(), durationNanos);
+    }
+
+    public void stop() {
+        totalNanos = System.nanoTime() - startNanos;
+    }
+
+    public UUID getKbInvoiceId() {
+        return kbInvoiceId;
+    }
+
+    public UUID getKbTenantId() {
+        return kbTenantId;
+    }
+
+    public DateTime getStartDate() {
+        return startDate;
+    }
+
+    public long getTotalMillis() {
+        return TimeUnit.NANOSECONDS.toMillis(totalNanos < 0 ? System.nanoTime() - startNanos : totalNanos);
+    }
+
+    public long getPhaseMillis(final Phase phase) {
+        return TimeUnit.NANOSECONDS.toMillis(phasesNanos.get(phase.ordinal()));
+    }
+
+    public Map<String, Long> getPhasesMillis() {
+        final Map<String, Long> phasesMillis = new LinkedHashMap<String, Long>();
+        for (final Phase phase : Phase.values()) {
+            phasesMillis.put(phase.getName(), getPhaseMillis(phase));
+        }
+        return phasesMillis;
+    }
+
+    // Structured (key=value) representation, for the logs
+    @Override
+    public String toString() {
+        final StringBuilder sb = new StringBuilder();
+        sb.append("kbInvoiceId=").append(kbInvoiceId)
+          .append(" kbTenantId=").append(kbTenantId)
+          .append(" totalMs=").append(getTotalMillis());
+        for (final Phase phase : Phase.values()) {
+            sb.append(' ').append(phase.getName()).append("Ms=").append(getPhaseMillis(phase));
+        }
+        return sb.toString();
+    }
+}
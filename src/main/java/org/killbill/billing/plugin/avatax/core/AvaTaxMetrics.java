@@ -0,0 +1,130 @@
+/*
+ * Copyright 2020-2026 Equinix, Inc
+ * Copyright 2014-2026 The Billing Project, LLC
+ *
+ * The Billing Project licenses this file to you under the Apache License, version 2.0
+ * (the "License"); you may not use this file except in compliance with the
+ * License.  You may obtain a copy of the License at:
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.killbill.billing.plugin.avatax.core;
+
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+import javax.annotation.Nullable;
+
+import org.killbill.billing.plugin.avatax.client.AvaTaxClientException;
+import org.killbill.billing.plugin.avatax.client.model.AvaTaxErrors;
+import org.killbill.billing.plugin.util.http.InvalidRequest;
+import org.killbill.commons.metrics.api.MetricRegistry;
+
+import com.google.common.annotations.VisibleForTesting;
+import com.google.common.base.Utf8;
+
+/**
+ * Timers, error counters and payload sizes of the Avalara calls and of the plugin queries, per tenant.
+ * <p/>
+ * Metrics are named avatax.&lt;tenant&gt;.client.&lt;call&gt; (with the .errors.&lt;code&gt;, .request.bytes and .response.bytes variants)
+ * and avatax.&lt;tenant&gt;.dao.&lt;query&gt; (and .errors), where &lt;tenant&gt; is the tenant id, or "default" for the global configuration.
+ * Nothing is recorded if the Kill Bill metric registry isn't available.
+ */
+public class AvaTaxMetrics {
+
+    public static final AvaTaxMetrics NO_OP = new AvaTaxMetrics(null);
+
+    private static final String PREFIX = "avatax.";
+    private static final String DEFAULT_SCOPE = "default";
+
+    private final MetricRegistry registry;
+    private final String scope;
+
+    public AvaTaxMetrics(@Nullable final MetricRegistry registry) {
+        this(registry, DEFAULT_SCOPE);
+    }
+
+    private AvaTaxMetrics(@Nullable final MetricRegistry registry, final String scope) {
+        this.registry = registry;
+        this.scope = scope;
+    }
+
+    /**
+     * @return the metrics for the clients configured for that tenant
+     */
+    public AvaTaxMetrics forTenant(@Nullable final UUID kbTenantId) {
+        if (registry == null) {
+            return this;
+        }
+        return new AvaTaxMetrics(registry, scopeOf(kbTenantId));
+    }
+
+    public void recordClientCall(final String call, final long durationNanos, @Nullable final AvaTaxClientException error) {
+        if (registry == null) {
+            return;
+        }
+
+        final String name = PREFIX + scope + ".client." + call;
+        registry.timer(name).update(durationNanos, TimeUnit.NANOSECONDS);
+        if (error != null) {
+            registry.counter(name + ".errors." + errorCode(error)).inc(1);
+        }
+    }
+
+    public void recordRequestSize(final String call, @Nullable final String body) {
+        if (registry == null || body == null) {
+            return;
+        }
+        registry.histogram(PREFIX + scope + ".client." + call + ".request.bytes").update(Utf8.encodedLength(body));
+    }
+
+    public void recordResponseSize(final String call, final long bytes) {
+        if (registry == null) {
+            return;
+        }
+        registry.histogram(PREFIX + scope + ".client." + call + ".response.bytes").update(bytes);
+    }
+
+    public void recordQuery(@Nullable final UUID kbTenantId, final String query, final long durationNanos, final boolean failed) {
+        if (registry == null) {
+            return;
+        }
+
+        final String name = PREFIX + scopeOf(kbTenantId) + ".dao." + query;
+        registry.timer(name).update(durationNanos, TimeUnit.NANOSECONDS);
+        if (failed) {
+            registry.counter(name + ".errors").inc(1);
+        }
+    }
+
+    /**
+     * @return the AvaTax error code (e.g. EntityNotFoundError), or the HTTP status or exception type if Avalara didn't return one
+     */
+    @VisibleForTesting
+    static String errorCode(final AvaTaxClientException e) {
+        final AvaTaxErrors errors = e.getErrors();
+        final String code;
+        if (errors != null && errors.error != null && errors.error.code != null) {
+            code = errors.error.code;
+        } else if (e.getCause() instanceof InvalidRequest && ((InvalidRequest) e.getCause()).getResponse() != null) {
+            code = "HTTP_" + ((InvalidRequest) e.getCause()).getResponse().statusCode();
+        } else if (e.getCause() != null) {
+            code = e.getCause().getClass().getSimpleName();
+        } else {
+            code = "Unknown";
+        }
+        // Keep metric names well-formed
+        return code.replaceAll("[^A-Za-z0-9_-]", "_");
+    }
+
+    private static String scopeOf(@Nullable final UUID kbTenantId) {
+        return kbTenantId == null ? DEFAULT_SCOPE : kbTenantId.toString();
+    }
+}
@@ -0,0 +1,218 @@
+/*
+ * Copyright 2020-2026 Equinix, Inc
+ * Copyright 2014-2026 The Billing Project, LLC
+ *
+ * The Billing Project licenses this file to you under the Apache License, version 2.0
+ * (the "License"); you may not use this file except in compliance with the
+ * License.  You may obtain a copy of the License at:
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+package org.killbill.billing.plugin.avatax.core;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Properties;
+import java.util.UUID;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import org.joda.time.DateTime;
+import org.killbill.billing.plugin.avatax.client.AvaTaxClient;
+import org.killbill.billing.plugin.avatax.client.AvaTaxClientException;
+import org.killbill.billing.plugin.avatax.client.ClientUtils;
+import org.killbill.billing.plugin.avatax.dao.AvaTaxDao;
+import org.killbill.billing.plugin.avatax.dao.gen.tables.records.AvataxOutboxRecord;
+import org.killbill.clock.Clock;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.google.common.annotations.VisibleForTesting;
+import com.google.common.base.MoreObjects;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+
+/**
+ * Background job sending to AvaTax the commit and void operations queued in avatax_outbox when invoices are committed or voided in Kill Bill.
+ * <p>
+ * Operations are claimed for leaseMillis, so that several nodes can run the job, and sent concurrently (up to concurrency calls per node).
+ * Failed attempts are retried with an exponential backoff, up to maxAttempts.
+ */
+public class AvaTaxOutboxWorker implements Runnable {
+
+    public static final String PROPERTY_PREFIX = AvaTaxActivator.PROPERTY_PREFIX + "outbox.";
+
+    public static final String COMMIT = "commit";
+    public static final String VOID = "void";
+
+    private static final Logger logger = LoggerFactory.getLogger(AvaTaxOutboxWorker.class);
+
+    private static final int DEFAULT_BATCH_SIZE = 50;
+    private static final int DEFAULT_DELAY_MILLIS = 1000;
+    private static final int DEFAULT_LEASE_MILLIS = 5 * 60 * 1000;
+    private static final int DEFAULT_CONCURRENCY = 4;
+    private static final int DEFAULT_INITIAL_BACKOFF_MILLIS = 10 * 1000;
+    private static final int DEFAULT_MAX_BACKOFF_MILLIS = 60 * 60 * 1000;
+    private static final int DEFAULT_MAX_ATTEMPTS = 20;
+
+    private final AvaTaxDao dao;
+    private final AvaTaxConfigurationHandler avaTaxConfigurationHandler;
+    private final Clock clock;
+    private final int batchSize;
+    private final long delayMillis;
+    private final long leaseMillis;
+    private final int concurrency;
+    private final long initialBackoffMillis;
+    private final long maxBackoffMillis;
+    private final int maxAttempts;
+    private final ScheduledExecutorService executor;
+    private final ExecutorService dispatcher;
+
+    public AvaTaxOutboxWorker(final AvaTaxDao dao,
+                              final AvaTaxConfigurationHandler avaTaxConfigurationHandler,
+                              final Clock clock,
+                              final int batchSize,
+                              final long delayMillis,
+                              final long leaseMillis,
+                              final int concurrency,
+                              final long initialBackoffMillis,
+                              final long maxBackoffMillis,
+                              final int maxAttempts) {
+        this.dao = dao;
+        this.avaTaxConfigurationHandler = avaTaxConfigurationHandler;
+        this.clock = clock;
+        this.batchSize = batchSize;
+        this.delayMillis = delayMillis;
+        this.leaseMillis = leaseMillis;
+        this.concurrency = concurrency;
+        this.initialBackoffMillis = initialBackoffMillis;
+        this.maxBackoffMillis = maxBackoffMillis;
+        this.maxAttempts = maxAttempts;
+        this.executor = Executors.newSingleThreadScheduledExecutor(new ThreadFactoryBuilder().setNameFormat("avatax-outbox-%d")
+                                                                                             .setDaemon(true)
+                                                                                             .build());
+        this.dispatcher = Executors.newFixedThreadPool(concurrency, new ThreadFactoryBuilder().setNameFormat("avatax-outbox-dispatcher-%d")
+                                                                                              .setDaemon(true)
+                                                                                              .build());
+    }
+
+    // Enabled by default: committed and voided invoices would never make it to AvaTax otherwise
+    public static boolean isEnabled(final Properties properties) {
+        return ClientUtils.getBooleanProperty(properties, "outbox.enabled");
+    }
+
+    public static AvaTaxOutboxWorker create(final AvaTaxDao dao,
+                                            final AvaTaxConfigurationHandler avaTaxConfigurationHandler,
+                                            final Clock clock,
+                                            final Properties properties) {
+        final int batchSize = MoreObjects.firstNonNull(ClientUtils.getIntegerProperty(properties, PROPERTY_PREFIX, "batchSize"), DEFAULT_BATCH_SIZE);
+        final int delayMillis = MoreObjects.firstNonNull(ClientUtils.getIntegerProperty(properties, PROPERTY_PREFIX, "delayMillis"), DEFAULT_DELAY_MILLIS);
+        final int leaseMillis = MoreObjects.firstNonNull(ClientUtils.getIntegerProperty(properties, PROPERTY_PREFIX, "leaseMillis"), DEFAULT_LEASE_MILLIS);
+        final int concurrency = Math.max(1, MoreObjects.firstNonNull(ClientUtils.getIntegerProperty(properties, PROPERTY_PREFIX, "concurrency"), DEFAULT_CONCURRENCY));
+        final int initialBackoffMillis = MoreObjects.firstNonNull(ClientUtils.getIntegerProperty(properties, PROPERTY_PREFIX, "initialBackoffMillis"), DEFAULT_INITIAL_BACKOFF_MILLIS);
+        final int maxBackoffMillis = MoreObjects.firstNonNull(ClientUtils.getIntegerProperty(properties, PROPERTY_PREFIX, "maxBackoffMillis"), DEFAULT_MAX_BACKOFF_MILLIS);
+        final int maxAttempts = MoreObjects.firstNonNull(ClientUtils.getIntegerProperty(properties, PROPERTY_PREFIX, "maxAttempts"), DEFAULT_MAX_ATTEMPTS);
+        return new AvaTaxOutboxWorker(dao, avaTaxConfigurationHandler, clock, batchSize, delayMillis, leaseMillis, concurrency, initialBackoffMillis, maxBackoffMillis, maxAttempts);
+    }
+
+    public void start() {
+        logger.info("Starting the avatax_outbox worker (batchSize={}, delayMillis={}, concurrency={}, maxAttempts={})", batchSize, delayMillis, concurrency, maxAttempts);
+        executor.scheduleWithFixedDelay(this, delayMillis, delayMillis, TimeUnit.MILLISECONDS);
+    }
+
+    public void stop() {
+        executor.shutdownNow();
+        dispatcher.shutdownNow();
+    }
+
+    @Override
+    public void run() {
+        try {
+            // Drain the queue, a batch at a time
+            while (!Thread.currentThread().isInterrupted() && processBatch() == batchSize) {
+                logger.debug("avatax_outbox batch processed, claiming the next one");
+            }
+        } catch (final InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (final Exception e) {
+            // Don't let the exception cancel the job: unprocessed operations will be claimed again once their lease expires
+            logger.warn("Unable to process avatax_outbox", e);
+        }
+    }
+
+    /**
+     * @return the number of operations claimed
+     */
+    @VisibleForTesting
+    int processBatch() throws Exception {
+        final DateTime utcNow = clock.getUTCNow();
+        final List<AvataxOutboxRecord> operations = dao.claimOutboxOperations(batchSize, utcNow, utcNow.plus(leaseMillis));
+        if (operations.isEmpty()) {
+            return 0;
+        }
+
+        final Collection<Callable<Void>> tasks = new ArrayList<Callable<Void>>(operations.size());
+        for (final AvataxOutboxRecord operation : operations) {
+            tasks.add(new Callable<Void>() {
+                @Override
+                public Void call() throws Exception {
+                    try {
+                        process(operation);
+                    } catch (final Exception e) {
+                        // The operation will be claimed again once its lease expires
+                        logger.warn("Unable to process the {} operation of document {}", operation.getOperation(), operation.getDocCode(), e);
+                    }
+                    return null;
+                }
+            });
+        }
+        // Wait for the whole batch, so that the next claim doesn't return operations still in flight
+        dispatcher.invokeAll(tasks);
+        return operations.size();
+    }
+
+    private void process(final AvataxOutboxRecord operation) throws Exception {
+        final UUID kbTenantId = UUID.fromString(operation.getKbTenantId());
+        final AvaTaxClient avaTaxClient = avaTaxConfigurationHandler.getConfigurable(kbTenantId);
+
+        try {
+            if (COMMIT.equals(operation.getOperation())) {
+                avaTaxClient.commitTransaction(operation.getDocCode());
+            } else if (VOID.equals(operation.getOperation())) {
+                avaTaxClient.voidTransaction(operation.getDocCode());
+            } else {
+                throw new IllegalStateException("Unsupported operation " + operation.getOperation());
+            }
+        } catch (final Exception e) {
+            final int attempts = operation.getAttempts() + 1;
+            final String lastError = e instanceof AvaTaxClientException ? e.toString() : String.valueOf(e.getMessage());
+            if (attempts >= maxAttempts || e instanceof IllegalStateException) {
+                logger.error("Giving up the {} operation of document {} for invoice {} after {} attempts", operation.getOperation(), operation.getDocCode(), operation.getKbInvoiceId(), attempts, e);
+                dao.rescheduleOutboxOperation(operation, AvaTaxDao.OUTBOX_FAILED, attempts, clock.getUTCNow(), lastError, clock.getUTCNow());
+            } else {
+                final long backoffMillis = getBackoffMillis(attempts);
+                logger.warn("Unable to {} document {} for invoice {} in AvaTax (attempt {}), retrying in {}ms", operation.getOperation(), operation.getDocCode(), operation.getKbInvoiceId(), attempts, backoffMillis, e);
+                dao.rescheduleOutboxOperation(operation, AvaTaxDao.OUTBOX_PENDING, attempts, clock.getUTCNow().plus(backoffMillis), lastError, clock.getUTCNow());
+            }
+            return;
+        }
+
+        dao.completeOutboxOperation(operation);
+    }
+
+    @VisibleForTesting
+    long getBackoffMillis(final int attempts) {
+        // initialBackoffMillis, 2 * initialBackoffMillis, 4 * initialBackoffMillis, ... up to maxBackoffMillis
+        final int exponent = Math.min(Math.max(attempts - 1, 0), 30);
+        return Math.min(initialBackoffMillis << exponent, maxBackoffMillis);
+    }
+}
@@ -0,0 +1,279 @@
+/*
+ * Copyright 2020-2026 Equinix, Inc
+ * Copyright 2014-2026 The Billing Project, LLC
+ *
+ * The Billing Project licenses this file to you under the Apache License, version 2.0
+ * (the "License"); you may not use this file except in compliance with the
+ * License.  You may obtain a copy of the License at:
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.killbill.billing.plugin.avatax.core;
+
+import java.util.List;
+import java.util.Properties;
+import java.util.UUID;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import org.joda.time.DateTime;
+import org.killbill.billing.invoice.api.Invoice;
+import org.killbill.billing.invoice.api.InvoiceApiException;
+import org.killbill.billing.invoice.api.InvoiceStatus;
+import org.killbill.billing.osgi.libs.killbill.OSGIKillbillAPI;
+import org.killbill.billing.plugin.avatax.api.AvaTaxTenantContext;
+import org.killbill.billing.plugin.avatax.client.AvaTaxCircuitOpenException;
+import org.killbill.billing.plugin.avatax.client.AvaTaxClient;
+import org.killbill.billing.plugin.avatax.client.AvaTaxClientException;
+import org.killbill.billing.plugin.avatax.client.ClientUtils;
+import org.killbill.billing.plugin.avatax.client.model.CreateTransactionModel;
+import org.killbill.billing.plugin.avatax.client.model.TransactionModel;
+import org.killbill.billing.plugin.avatax.dao.AvaTaxDao;
+import org.killbill.billing.plugin.avatax.dao.gen.tables.records.AvataxPendingDocumentsRecord;
+import org.killbill.clock.Clock;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.google.common.annotations.VisibleForTesting;
+import com.google.common.base.MoreObjects;
+import com.google.common.util.concurrent.RateLimiter;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+
+/**
+ * Background job creating in AvaTax the documents of the invoices taxed while AvaTax was unavailable (see circuitBreaker.fallbackToTaxRates),
+ * queued in avatax_pending_documents.
+ * <p>
+ * Documents are claimed one at a time for leaseMillis, so that several nodes can run the job: a document claimed by a node which died is picked up
+ * again once the lease expires. As a node could still be processing a document whose lease expired, documents are always looked up in AvaTax
+ * before being created. Calls to AvaTax are rate limited (per node) and failed attempts are retried with an exponential backoff, up to maxAttempts.
+ * <p>
+ * The invoice may have been committed or voided since the request was queued: its current status decides whether the document is committed,
+ * and documents of voided invoices are skipped (or voided, if already created). Once created, the fallback response in avatax_responses is replaced
+ * by the actual transaction.
+ */
+public class AvaTaxPendingDocumentsWorker implements Runnable {
+
+    public static final String PROPERTY_PREFIX = AvaTaxActivator.PROPERTY_PREFIX + "pendingDocuments.";
+
+    private static final Logger logger = LoggerFactory.getLogger(AvaTaxPendingDocumentsWorker.class);
+
+    private static final String ENTITY_NOT_FOUND_ERROR = "EntityNotFoundError";
+    private static final String COMMITTED = "Committed";
+    private static final String CANCELLED = "Cancelled";
+
+    private static final int DEFAULT_BATCH_SIZE = 20;
+    private static final int DEFAULT_DELAY_MILLIS = 10000;
+    private static final int DEFAULT_LEASE_MILLIS = 5 * 60 * 1000;
+    private static final int DEFAULT_RATE_PER_SECOND = 2;
+    private static final int DEFAULT_INITIAL_BACKOFF_MILLIS = 60 * 1000;
+    private static final int DEFAULT_MAX_BACKOFF_MILLIS = 60 * 60 * 1000;
+    private static final int DEFAULT_MAX_ATTEMPTS = 20;
+
+    private final AvaTaxDao dao;
+    private final AvaTaxConfigurationHandler avaTaxConfigurationHandler;
+    private final OSGIKillbillAPI killbillAPI;
+    private final Clock clock;
+    private final int batchSize;
+    private final long delayMillis;
+    private final long leaseMillis;
+    private final long initialBackoffMillis;
+    private final long maxBackoffMillis;
+    private final int maxAttempts;
+    private final RateLimiter rateLimiter;
+    private final ScheduledExecutorService executor;
+
+    public AvaTaxPendingDocumentsWorker(final AvaTaxDao dao,
+                                        final AvaTaxConfigurationHandler avaTaxConfigurationHandler,
+                                        final OSGIKillbillAPI killbillAPI,
+                                        final Clock clock,
+                                        final int batchSize,
+                                        final long delayMillis,
+                                        final long leaseMillis,
+                                        final double ratePerSecond,
+                                        final long initialBackoffMillis,
+                                        final long maxBackoffMillis,
+                                        final int maxAttempts) {
+        this.dao = dao;
+        this.avaTaxConfigurationHandler = avaTaxConfigurationHandler;
+        this.killbillAPI = killbillAPI;
+        this.clock = clock;
+        this.batchSize = batchSize;
+        this.delayMillis = delayMillis;
+        this.leaseMillis = leaseMillis;
+        this.initialBackoffMillis = initialBackoffMillis;
+        this.maxBackoffMillis = maxBackoffMillis;
+        this.maxAttempts = maxAttempts;
+        this.rateLimiter = RateLimiter.create(ratePerSecond);
+        this.executor = Executors.newSingleThreadScheduledExecutor(new ThreadFactoryBuilder().setNameFormat("avatax-pending-documents-%d")
+                                                                                             .setDaemon(true)
+                                                                                             .build());
+    }
+
+    // Enabled by default: documents of fallback invoices would never make it to AvaTax otherwise
+    public static boolean isEnabled(final Properties properties) {
+        return ClientUtils.getBooleanProperty(properties, "pendingDocuments.enabled");
+    }
+
+    public static AvaTaxPendingDocumentsWorker create(final AvaTaxDao dao,
+                                                      final AvaTaxConfigurationHandler avaTaxConfigurationHandler,
+                                                      final OSGIKillbillAPI killbillAPI,
+                                                      final Clock clock,
+                                                      final Properties properties) {
+        final int batchSize = MoreObjects.firstNonNull(ClientUtils.getIntegerProperty(properties, PROPERTY_PREFIX, "batchSize"), DEFAULT_BATCH_SIZE);
+        final int delayMillis = MoreObjects.firstNonNull(ClientUtils.getIntegerProperty(properties, PROPERTY_PREFIX, "delayMillis"), DEFAULT_DELAY_MILLIS);
+        final int leaseMillis = MoreObjects.firstNonNull(ClientUtils.getIntegerProperty(properties, PROPERTY_PREFIX, "leaseMillis"), DEFAULT_LEASE_MILLIS);
+        final int ratePerSecond = MoreObjects.firstNonNull(ClientUtils.getIntegerProperty(properties, PROPERTY_PREFIX, "ratePerSecond"), DEFAULT_RATE_PER_SECOND);
+        final int initialBackoffMillis = MoreObjects.firstNonNull(ClientUtils.getIntegerProperty(properties, PROPERTY_PREFIX, "initialBackoffMillis"), DEFAULT_INITIAL_BACKOFF_MILLIS);
+        final int maxBackoffMillis = MoreObjects.firstNonNull(ClientUtils.getIntegerProperty(properties, PROPERTY_PREFIX, "maxBackoffMillis"), DEFAULT_MAX_BACKOFF_MILLIS);
+        final int maxAttempts = MoreObjects.firstNonNull(ClientUtils.getIntegerProperty(properties, PROPERTY_PREFIX, "maxAttempts"), DEFAULT_MAX_ATTEMPTS);
+        return new AvaTaxPendingDocumentsWorker(dao, avaTaxConfigurationHandler, killbillAPI, clock, batchSize, delayMillis, leaseMillis, ratePerSecond, initialBackoffMillis, maxBackoffMillis, maxAttempts);
+    }
+
+    public void start() {
+        logger.info("Starting the avatax_pending_documents worker (batchSize={}, delayMillis={}, rate={}/s, maxAttempts={})", batchSize, delayMillis, rateLimiter.getRate(), maxAttempts);
+        executor.scheduleWithFixedDelay(this, delayMillis, delayMillis, TimeUnit.MILLISECONDS);
+    }
+
+    public void stop() {
+        executor.shutdownNow();
+    }
+
+    @Override
+    public void run() {
+        try {
+            // Drain the queue, a batch at a time
+            while (!Thread.currentThread().isInterrupted() && processBatch() == batchSize) {
+                logger.debug("avatax_pending_documents batch processed, claiming the next one");
+            }
+        } catch (final Exception e) {
+            // Don't let the exception cancel the job: unprocessed documents will be claimed again once their lease expires
+            logger.warn("Unable to process avatax_pending_documents", e);
+        }
+    }
+
+    /**
+     * @return the number of documents processed
+     */
+    @VisibleForTesting
+    int processBatch() throws Exception {
+        int nbProcessed = 0;
+        while (nbProcessed < batchSize && !Thread.currentThread().isInterrupted()) {
+            // Claimed one at a time, so that the lease only needs to cover the processing of a single document
+            final DateTime utcNow = clock.getUTCNow();
+            final List<AvataxPendingDocumentsRecord> pendingDocuments = dao.claimPendingDocuments(1, utcNow, utcNow.plus(leaseMillis));
+            if (pendingDocuments.isEmpty()) {
+                break;
+            }
+            process(pendingDocuments.get(0));
+            nbProcessed++;
+        }
+        return nbProcessed;
+    }
+
+    private void process(final AvataxPendingDocumentsRecord pendingDocument) throws Exception {
+        final UUID kbTenantId = UUID.fromString(pendingDocument.getKbTenantId());
+        final AvaTaxClient avaTaxClient = avaTaxConfigurationHandler.getConfigurable(kbTenantId);
+
+        final TransactionModel transaction;
+        try {
+            final InvoiceStatus invoiceStatus = getInvoiceStatus(pendingDocument);
+            if (invoiceStatus == InvoiceStatus.VOID) {
+                skipVoidedDocument(avaTaxClient, pendingDocument);
+                return;
+            }
+            transaction = createTransaction(avaTaxClient, pendingDocument, invoiceStatus);
+        } catch (final AvaTaxCircuitOpenException e) {
+            // AvaTax is still unavailable: not counted as an attempt
+            dao.reschedulePendingDocument(pendingDocument,
+                                          AvaTaxDao.PENDING_DOCUMENT_PENDING,
+                                          pendingDocument.getAttempts(),
+                                          clock.getUTCNow().plus(initialBackoffMillis),
+                                          e.getMessage(),
+                                          clock.getUTCNow());
+            return;
+        } catch (final Exception e) {
+            final int attempts = pendingDocument.getAttempts() + 1;
+            final String lastError = e instanceof AvaTaxClientException ? e.toString() : String.valueOf(e.getMessage());
+            if (attempts >= maxAttempts) {
+                logger.error("Giving up creating document {} for invoice {} in AvaTax after {} attempts", pendingDocument.getDocCode(), pendingDocument.getKbInvoiceId(), attempts, e);
+                dao.reschedulePendingDocument(pendingDocument, AvaTaxDao.PENDING_DOCUMENT_FAILED, attempts, clock.getUTCNow(), lastError, clock.getUTCNow());
+            } else {
+                final long backoffMillis = getBackoffMillis(attempts);
+                logger.warn("Unable to create document {} for invoice {} in AvaTax (attempt {}), retrying in {}ms", pendingDocument.getDocCode(), pendingDocument.getKbInvoiceId(), attempts, backoffMillis, e);
+                dao.reschedulePendingDocument(pendingDocument, AvaTaxDao.PENDING_DOCUMENT_PENDING, attempts, clock.getUTCNow().plus(backoffMillis), lastError, clock.getUTCNow());
+            }
+            return;
+        }
+
+        if (dao.completePendingDocument(pendingDocument, transaction, clock.getUTCNow())) {
+            logger.info("Document {} for invoice {} created in AvaTax", transaction.code, pendingDocument.getKbInvoiceId());
+        }
+    }
+
+    private InvoiceStatus getInvoiceStatus(final AvataxPendingDocumentsRecord pendingDocument) throws InvoiceApiException {
+        final Invoice invoice = killbillAPI.getInvoiceUserApi().getInvoice(UUID.fromString(pendingDocument.getKbInvoiceId()),
+                                                                           new AvaTaxTenantContext(null, UUID.fromString(pendingDocument.getKbTenantId())));
+        if (invoice == null) {
+            throw new IllegalStateException("Invoice " + pendingDocument.getKbInvoiceId() + " not found");
+        }
+        return invoice.getStatus();
+    }
+
+    private void skipVoidedDocument(final AvaTaxClient avaTaxClient, final AvataxPendingDocumentsRecord pendingDocument) throws Exception {
+        // A previous attempt may have created the document before the invoice was voided
+        final TransactionModel transaction = getTransaction(avaTaxClient, pendingDocument.getDocCode());
+        if (transaction != null && !CANCELLED.equals(transaction.status)) {
+            rateLimiter.acquire();
+            avaTaxClient.voidTransaction(transaction.code);
+        }
+
+        logger.info("Invoice {} was voided, skipping document {}", pendingDocument.getKbInvoiceId(), pendingDocument.getDocCode());
+        dao.reschedulePendingDocument(pendingDocument, AvaTaxDao.PENDING_DOCUMENT_SKIPPED, pendingDocument.getAttempts(), clock.getUTCNow(), "Invoice voided", clock.getUTCNow());
+    }
+
+    private TransactionModel createTransaction(final AvaTaxClient avaTaxClient,
+                                               final AvataxPendingDocumentsRecord pendingDocument,
+                                               final InvoiceStatus invoiceStatus) throws Exception {
+        final CreateTransactionModel request = dao.toCreateTransactionModel(pendingDocument);
+        // The invoice may have been committed since the request was queued (don't commit DRAFT invoices)
+        request.commit = avaTaxClient.shouldCommitDocuments() && invoiceStatus == InvoiceStatus.COMMITTED;
+
+        // A previous attempt, or another node whose lease expired, may have created the document without recording it (e.g. timeout)
+        TransactionModel transaction = getTransaction(avaTaxClient, pendingDocument.getDocCode());
+        if (transaction == null) {
+            rateLimiter.acquire();
+            transaction = avaTaxClient.createTransaction(request);
+        } else if (Boolean.TRUE.equals(request.commit) && !COMMITTED.equals(transaction.status)) {
+            rateLimiter.acquire();
+            transaction = avaTaxClient.commitTransaction(transaction.code);
+        }
+        return transaction;
+    }
+
+    private TransactionModel getTransaction(final AvaTaxClient avaTaxClient, final String docCode) throws AvaTaxClientException {
+        rateLimiter.acquire();
+        try {
+            return avaTaxClient.getTransactionByCode(docCode);
+        } catch (final AvaTaxClientException e) {
+            if (e.getErrors() != null && e.getErrors().error != null && ENTITY_NOT_FOUND_ERROR.equals(e.getErrors().error.code)) {
+                return null;
+            }
+            throw e;
+        }
+    }
+
+    @VisibleForTesting
+    long getBackoffMillis(final int attempts) {
+        // initialBackoffMillis, 2 * initialBackoffMillis, 4 * initialBackoffMillis, ... up to maxBackoffMillis
+        final int exponent = Math.min(Math.max(attempts - 1, 0), 30);
+        return Math.min(initialBackoffMillis << exponent, maxBackoffMillis);
+    }
+}
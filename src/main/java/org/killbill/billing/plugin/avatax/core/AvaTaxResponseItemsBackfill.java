@@ -0,0 +1,102 @@
+/*
+ * Copyright 2020-2026 Equinix, Inc
+ * Copyright 2014-2026 The Billing Project, LLC
+ *
+ * The Billing Project licenses this file to you under the Apache License, version 2.0
+ * (the "License"); you may not use this file except in compliance with the
+ * License.  You may obtain a copy of the License at:
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.killbill.billing.plugin.avatax.core;
+
+import java.util.Properties;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import org.jooq.types.ULong;
+import org.killbill.billing.plugin.avatax.client.ClientUtils;
+import org.killbill.billing.plugin.avatax.dao.AvaTaxDao;
+import org.killbill.clock.Clock;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.google.common.base.MoreObjects;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+
+/**
+ * Background job migrating the taxed items of existing responses into avatax_response_items, a small batch at a time.
+ * <p>
+ * Until a response is migrated, its taxed items are read from the legacy columns, so the job can run while invoices are generated.
+ * The progress is stored in the database: the job resumes where it stopped after a restart, and can run on all nodes.
+ */
+public class AvaTaxResponseItemsBackfill implements Runnable {
+
+    public static final String PROPERTY_PREFIX = AvaTaxActivator.PROPERTY_PREFIX + "responseItems.backfill.";
+
+    private static final Logger logger = LoggerFactory.getLogger(AvaTaxResponseItemsBackfill.class);
+
+    private static final int DEFAULT_BATCH_SIZE = 500;
+    private static final int DEFAULT_DELAY_MILLIS = 1000;
+
+    private final AvaTaxDao dao;
+    private final Clock clock;
+    private final int batchSize;
+    private final long delayMillis;
+    private final ScheduledExecutorService executor;
+
+    public AvaTaxResponseItemsBackfill(final AvaTaxDao dao, final Clock clock, final int batchSize, final long delayMillis) {
+        this.dao = dao;
+        this.clock = clock;
+        this.batchSize = batchSize;
+        this.delayMillis = delayMillis;
+        this.executor = Executors.newSingleThreadScheduledExecutor(new ThreadFactoryBuilder().setNameFormat("avatax-response-items-backfill-%d")
+                                                                                             .setDaemon(true)
+                                                                                             .build());
+    }
+
+    public static boolean isEnabled(final Properties properties) {
+        return Boolean.parseBoolean(properties.getProperty(PROPERTY_PREFIX + "enabled"));
+    }
+
+    public static AvaTaxResponseItemsBackfill create(final AvaTaxDao dao, final Clock clock, final Properties properties) {
+        final int batchSize = MoreObjects.firstNonNull(ClientUtils.getIntegerProperty(properties, PROPERTY_PREFIX, "batchSize"), DEFAULT_BATCH_SIZE);
+        final int delayMillis = MoreObjects.firstNonNull(ClientUtils.getIntegerProperty(properties, PROPERTY_PREFIX, "delayMillis"), DEFAULT_DELAY_MILLIS);
+        return new AvaTaxResponseItemsBackfill(dao, clock, batchSize, delayMillis);
+    }
+
+    public void start() {
+        logger.info("Starting the avatax_response_items backfill (batchSize={}, delayMillis={})", batchSize, delayMillis);
+        // The delay between batches throttles the job, to limit the contention with invoice generation
+        executor.scheduleWithFixedDelay(this, delayMillis, delayMillis, TimeUnit.MILLISECONDS);
+    }
+
+    public void stop() {
+        executor.shutdownNow();
+    }
+
+    @Override
+    public void run() {
+        try {
+            final ULong recordId = dao.backfillResponseItems(batchSize, clock.getUTCNow());
+            if (recordId == null) {
+                logger.info("avatax_response_items backfill completed (last record_id migrated: {})", dao.getBackfillLastRecordId(AvaTaxDao.RESPONSE_ITEMS_BACKFILL));
+                executor.shutdown();
+                return;
+            }
+
+            logger.debug("avatax_response_items backfilled up to record_id {}", recordId);
+        } catch (final Exception e) {
+            // Don't let the exception cancel the job: the batch will be retried
+            logger.warn("avatax_response_items backfill failed", e);
+        }
+    }
+}
@@ -0,0 +1,138 @@
+/*
+ * Copyright 2020-2026 Equinix, Inc
+ * Copyright 2014-2026 The Billing Project, LLC
+ *
+ * The Billing Project licenses this file to you under the Apache License, version 2.0
+ * (the "License"); you may not use this file except in compliance with the
+ * License.  You may obtain a copy of the License at:
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.killbill.billing.plugin.avatax.core;
+
+import java.util.Properties;
+import java.util.UUID;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import org.joda.time.DateTime;
+import org.jooq.types.ULong;
+import org.killbill.billing.plugin.avatax.client.ClientUtils;
+import org.killbill.billing.plugin.avatax.dao.AvaTaxDao;
+import org.killbill.clock.Clock;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.google.common.base.Function;
+import com.google.common.base.MoreObjects;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+
+/**
+ * Background job removing the details of responses older than the retention period of their tenant
+ * (org.killbill.billing.plugin.avatax.responses.retention.days), a small batch at a time.
+ * <p>
+ * The responses themselves are kept, with their doc_code, totals and taxed items, as they are needed to compute taxes on subsequent adjustments.
+ * Once all responses have been looked at, the job waits for intervalMillis before starting over.
+ */
+public class AvaTaxResponsesRetention implements Runnable {
+
+    public static final String PROPERTY_PREFIX = AvaTaxActivator.PROPERTY_PREFIX + "responses.retention.";
+
+    private static final Logger logger = LoggerFactory.getLogger(AvaTaxResponsesRetention.class);
+
+    private static final int DEFAULT_BATCH_SIZE = 500;
+    private static final int DEFAULT_DELAY_MILLIS = 1000;
+    private static final int DEFAULT_INTERVAL_MILLIS = 24 * 60 * 60 * 1000;
+
+    private final AvaTaxDao dao;
+    private final AvaTaxConfigurationHandler avaTaxConfigurationHandler;
+    private final Clock clock;
+    private final int batchSize;
+    private final long delayMillis;
+    private final long intervalMillis;
+    private final ScheduledExecutorService executor;
+
+    private ULong lastRecordId = ULong.valueOf(0);
+    private long nextPassMillis = 0;
+
+    public AvaTaxResponsesRetention(final AvaTaxDao dao,
+                                    final AvaTaxConfigurationHandler avaTaxConfigurationHandler,
+                                    final Clock clock,
+                                    final int batchSize,
+                                    final long delayMillis,
+                                    final long intervalMillis) {
+        this.dao = dao;
+        this.avaTaxConfigurationHandler = avaTaxConfigurationHandler;
+        this.clock = clock;
+        this.batchSize = batchSize;
+        this.delayMillis = delayMillis;
+        this.intervalMillis = intervalMillis;
+        this.executor = Executors.newSingleThreadScheduledExecutor(new ThreadFactoryBuilder().setNameFormat("avatax-responses-retention-%d")
+                                                                                             .setDaemon(true)
+                                                                                             .build());
+    }
+
+    public static boolean isEnabled(final Properties properties) {
+        return Boolean.parseBoolean(properties.getProperty(PROPERTY_PREFIX + "enabled"));
+    }
+
+    public static AvaTaxResponsesRetention create(final AvaTaxDao dao,
+                                                  final AvaTaxConfigurationHandler avaTaxConfigurationHandler,
+                                                  final Clock clock,
+                                                  final Properties properties) {
+        final int batchSize = MoreObjects.firstNonNull(ClientUtils.getIntegerProperty(properties, PROPERTY_PREFIX, "batchSize"), DEFAULT_BATCH_SIZE);
+        final int delayMillis = MoreObjects.firstNonNull(ClientUtils.getIntegerProperty(properties, PROPERTY_PREFIX, "delayMillis"), DEFAULT_DELAY_MILLIS);
+        final int intervalMillis = MoreObjects.firstNonNull(ClientUtils.getIntegerProperty(properties, PROPERTY_PREFIX, "intervalMillis"), DEFAULT_INTERVAL_MILLIS);
+        return new AvaTaxResponsesRetention(dao, avaTaxConfigurationHandler, clock, batchSize, delayMillis, intervalMillis);
+    }
+
+    public void start() {
+        logger.info("Starting the avatax_responses retention job (batchSize={}, delayMillis={}, intervalMillis={})", batchSize, delayMillis, intervalMillis);
+        // The delay between batches throttles the job, to limit the contention with invoice generation
+        executor.scheduleWithFixedDelay(this, delayMillis, delayMillis, TimeUnit.MILLISECONDS);
+    }
+
+    public void stop() {
+        executor.shutdownNow();
+    }
+
+    @Override
+    public void run() {
+        if (System.currentTimeMillis() < nextPassMillis) {
+            return;
+        }
+
+        try {
+            final DateTime utcNow = clock.getUTCNow();
+            final ULong recordId = dao.stripResponses(lastRecordId,
+                                                      batchSize,
+                                                      new Function<UUID, DateTime>() {
+                                                          @Override
+                                                          public DateTime apply(final UUID kbTenantId) {
+                                                              final Integer retentionDays = avaTaxConfigurationHandler.getConfigurable(kbTenantId).getResponsesRetentionDays();
+                                                              return retentionDays == null || retentionDays < 0 ? null : utcNow.minusDays(retentionDays);
+                                                          }
+                                                      });
+            if (recordId == null) {
+                logger.info("avatax_responses retention pass completed (last record_id looked at: {})", lastRecordId);
+                lastRecordId = ULong.valueOf(0);
+                nextPassMillis = System.currentTimeMillis() + intervalMillis;
+                return;
+            }
+
+            lastRecordId = recordId;
+            logger.debug("avatax_responses retention applied up to record_id {}", recordId);
+        } catch (final Exception e) {
+            // Don't let the exception cancel the job: the batch will be retried
+            logger.warn("avatax_responses retention failed after record_id {}", lastRecordId, e);
+        }
+    }
+}
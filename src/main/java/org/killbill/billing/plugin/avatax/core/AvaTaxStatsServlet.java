@@ -0,0 +1,56 @@
+/*
+ * Copyright 2020-2026 Equinix, Inc
+ * Copyright 2014-2026 The Billing Project, LLC
+ *
+ * The Billing Project licenses this file to you under the Apache License, version 2.0
+ * (the "License"); you may not use this file except in compliance with the
+ * License.  You may obtain a copy of the License at:
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.killbill.billing.plugin.avatax.core;
+
+import java.util.Map;
+
+import javax.inject.Named;
+import javax.inject.Singleton;
+
+import org.jooby.MediaType;
+import org.jooby.Result;
+import org.jooby.Results;
+import org.jooby.mvc.GET;
+import org.jooby.mvc.Local;
+import org.jooby.mvc.Path;
+import org.killbill.billing.tenant.api.Tenant;
+
+import com.google.inject.Inject;
+
+@Singleton
+// Handle /plugins/killbill-avatax/stats
+@Path("/stats")
+public class AvaTaxStatsServlet {
+
+    private final AvaTaxConfigurationHandler avaTaxConfigurationHandler;
+    private final AvaTaxInvoiceStats invoiceStats;
+
+    @Inject
+    public AvaTaxStatsServlet(final AvaTaxConfigurationHandler avaTaxConfigurationHandler,
+                              final AvaTaxInvoiceStats invoiceStats) {
+        this.avaTaxConfigurationHandler = avaTaxConfigurationHandler;
+        this.invoiceStats = invoiceStats;
+    }
+
+    @GET
+    public Result getStats(@Local @Named("killbill_tenant") final Tenant tenant) {
+        final Map<String, Object> stats = invoiceStats.getStats(tenant.getId());
+        stats.put("slowInvoiceThresholdMs", avaTaxConfigurationHandler.getConfigurable(tenant.getId()).getSlowInvoiceThresholdMillis());
+        return Results.ok(stats).type(MediaType.json);
+    }
+}
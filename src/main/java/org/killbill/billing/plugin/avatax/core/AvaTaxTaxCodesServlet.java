@@ -36,6 +36,7 @@ import org.jooby.mvc.POST;
 import org.jooby.mvc.Path;
 import org.killbill.billing.osgi.libs.killbill.OSGIKillbillClock;
 import org.killbill.billing.plugin.avatax.dao.AvaTaxDao;
+import org.killbill.billing.plugin.avatax.dao.TaxCodesCache;
 import org.killbill.billing.plugin.avatax.dao.gen.tables.records.AvataxTaxCodesRecord;
 import org.killbill.billing.tenant.api.Tenant;
 
@@ -52,11 +53,13 @@ import com.google.inject.Inject;
 public class AvaTaxTaxCodesServlet {
 
     private final AvaTaxDao dao;
+    private final TaxCodesCache taxCodesCache;
     private final OSGIKillbillClock clock;
 
     @Inject
-    public AvaTaxTaxCodesServlet(final AvaTaxDao dao, final OSGIKillbillClock clock) {
+    public AvaTaxTaxCodesServlet(final AvaTaxDao dao, final TaxCodesCache taxCodesCache, final OSGIKillbillClock clock) {
         this.dao = dao;
+        this.taxCodesCache = taxCodesCache;
         this.clock = clock;
     }
 
@@ -87,6 +90,7 @@ public class AvaTaxTaxCodesServlet {
     public Result createTaxCode(@Body final TaxCodeJson taxCodeJson,
                                 @Local @Named("killbill_tenant") final Tenant tenant) throws SQLException {
         dao.setTaxCode(taxCodeJson.productName, taxCodeJson.taxCode, clock.getClock().getUTCNow(), tenant.getId());
+        taxCodesCache.invalidate(tenant.getId());
         return Results.with(Status.CREATED).header("location", "/plugins/killbill-avatax/taxCodes/" + taxCodeJson.productName);
     }
 
@@ -95,6 +99,7 @@ public class AvaTaxTaxCodesServlet {
     public Result deleteTaxCode(@Named("productName") final String productName,
                                 @Local @Named("killbill_tenant") final Tenant tenant) throws SQLException {
         dao.setTaxCode(productName, null, clock.getClock().getUTCNow(), tenant.getId());
+        taxCodesCache.invalidate(tenant.getId());
         return Results.ok();
     }
 
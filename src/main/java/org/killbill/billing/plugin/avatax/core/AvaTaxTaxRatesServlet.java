@@ -0,0 +1,117 @@
+/*
+ * Copyright 2020-2026 Equinix, Inc
+ * Copyright 2014-2026 The Billing Project, LLC
+ *
+ * The Billing Project licenses this file to you under the Apache License, version 2.0
+ * (the "License"); you may not use this file except in compliance with the
+ * License.  You may obtain a copy of the License at:
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.killbill.billing.plugin.avatax.core;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.sql.SQLException;
+import java.util.Optional;
+
+import javax.inject.Named;
+import javax.inject.Singleton;
+
+import org.joda.time.DateTime;
+import org.joda.time.DateTimeZone;
+import org.joda.time.LocalDate;
+import org.jooby.MediaType;
+import org.jooby.Result;
+import org.jooby.Results;
+import org.jooby.Status;
+import org.jooby.Upload;
+import org.jooby.mvc.GET;
+import org.jooby.mvc.Local;
+import org.jooby.mvc.POST;
+import org.jooby.mvc.Path;
+import org.killbill.billing.osgi.libs.killbill.OSGIKillbillClock;
+import org.killbill.billing.plugin.avatax.client.model.TaxRateResult;
+import org.killbill.billing.plugin.avatax.dao.AvaTaxDao;
+import org.killbill.billing.plugin.avatax.dao.gen.tables.records.AvataxTaxRatesRecord;
+import org.killbill.billing.tenant.api.Tenant;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.google.common.collect.ImmutableMap;
+import com.google.inject.Inject;
+
+@Singleton
+// Handle /plugins/killbill-avatax/taxRates
+@Path("/taxRates")
+public class AvaTaxTaxRatesServlet {
+
+    private static final Logger logger = LoggerFactory.getLogger(AvaTaxTaxRatesServlet.class);
+
+    private static final String DEFAULT_COUNTRY = "US";
+    private static final int IMPORT_BATCH_SIZE = 1000;
+
+    private final TaxRatesConfigurationHandler taxRatesConfigurationHandler;
+    private final AvaTaxDao dao;
+    private final OSGIKillbillClock clock;
+
+    @Inject
+    public AvaTaxTaxRatesServlet(final TaxRatesConfigurationHandler taxRatesConfigurationHandler,
+                                 final AvaTaxDao dao,
+                                 final OSGIKillbillClock clock) {
+        this.taxRatesConfigurationHandler = taxRatesConfigurationHandler;
+        this.dao = dao;
+        this.clock = clock;
+    }
+
+    @GET
+    @Path("/{postalCode}")
+    public Result getTaxRates(@Named("postalCode") final String postalCode,
+                              @Named("country") final Optional<String> country,
+                              @Local @Named("killbill_tenant") final Tenant tenant) throws SQLException {
+        final AvataxTaxRatesRecord snapshot = dao.getTaxRates(postalCode, country.orElse(DEFAULT_COUNTRY), clock.getClock().getUTCNow(), tenant.getId());
+        if (snapshot == null) {
+            return Results.with(Status.NOT_FOUND);
+        }
+        final TaxRateResult taxRateResult = dao.toTaxRateResult(snapshot);
+        return Results.ok(taxRateResult).type(MediaType.json);
+    }
+
+    /**
+     * Import an Avalara rate file by ZIP code (multipart upload, in the file field).
+     */
+    @POST
+    public Result importTaxRates(@Named("file") final Upload file,
+                                 @Named("country") final Optional<String> country,
+                                 @Named("effectiveDate") final Optional<String> effectiveDate,
+                                 @Local @Named("killbill_tenant") final Tenant tenant) throws IOException, SQLException {
+        final DateTime utcNow = clock.getClock().getUTCNow();
+        final DateTime effectiveDateTime = effectiveDate.isPresent() ? new LocalDate(effectiveDate.get()).toDateTimeAtStartOfDay(DateTimeZone.UTC) : utcNow;
+
+        final int nbImported;
+        // The upload is buffered on disk by the server: stream it row by row
+        try (final TaxRatesFileReader reader = new TaxRatesFileReader(Files.newBufferedReader(file.file().toPath(), StandardCharsets.UTF_8))) {
+            nbImported = dao.importTaxRates(country.orElse(DEFAULT_COUNTRY), reader, IMPORT_BATCH_SIZE, effectiveDateTime, utcNow, tenant.getId());
+        } catch (final IllegalArgumentException | UncheckedIOException e) {
+            logger.warn("Unable to import tax rates file {}", file.name(), e);
+            return Results.with(e.getMessage(), Status.BAD_REQUEST);
+        } finally {
+            file.close();
+            // Invalidated whatever the outcome, so that the cache always reflects the stored rates
+            taxRatesConfigurationHandler.getConfigurable(tenant.getId()).getTaxRatesCache().invalidateAll();
+        }
+
+        logger.info("Imported {} tax rates from file {} for tenant {}", nbImported, file.name(), tenant.getId());
+
+        return Results.with(ImmutableMap.<String, Object>of("imported", nbImported), Status.CREATED).type(MediaType.json);
+    }
+}
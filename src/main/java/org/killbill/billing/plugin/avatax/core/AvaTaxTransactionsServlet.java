@@ -20,26 +20,35 @@ package org.killbill.billing.plugin.avatax.core;
 import java.sql.SQLException;
 import java.util.ArrayList;
 import java.util.Collection;
-import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 import java.util.UUID;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
 
 import javax.inject.Named;
 import javax.inject.Singleton;
 
+import org.joda.time.DateTime;
+import org.joda.time.DateTimeZone;
+import org.joda.time.LocalDate;
 import org.jooby.MediaType;
 import org.jooby.Result;
 import org.jooby.Results;
+import org.jooby.Status;
 import org.jooby.mvc.GET;
 import org.jooby.mvc.Local;
 import org.jooby.mvc.POST;
 import org.jooby.mvc.Path;
+import org.killbill.billing.osgi.libs.killbill.OSGIKillbillClock;
 import org.killbill.billing.plugin.avatax.client.AvaTaxClient;
 import org.killbill.billing.plugin.avatax.client.AvaTaxClientException;
 import org.killbill.billing.plugin.avatax.client.model.TransactionModel;
 import org.killbill.billing.plugin.avatax.dao.AvaTaxDao;
-import org.killbill.billing.plugin.avatax.dao.gen.tables.records.AvataxResponsesRecord;
+import org.killbill.billing.plugin.avatax.dao.gen.tables.records.AvataxBulkCommitsRecord;
 import org.killbill.billing.tenant.api.Tenant;
 import org.killbill.billing.util.entity.Entity;
 
@@ -50,30 +59,61 @@ import com.google.inject.Inject;
 @Path("/transactions")
 public class AvaTaxTransactionsServlet {
 
+    private static final int MAX_BULK_COMMIT_INVOICES = 1000;
+
     private final AvaTaxConfigurationHandler avaTaxConfigurationHandler;
     private final AvaTaxDao dao;
+    private final OSGIKillbillClock clock;
 
     @Inject
     public AvaTaxTransactionsServlet(final AvaTaxConfigurationHandler avaTaxConfigurationHandler,
-                                     final AvaTaxDao dao) {
+                                     final AvaTaxDao dao,
+                                     final OSGIKillbillClock clock) {
         this.avaTaxConfigurationHandler = avaTaxConfigurationHandler;
         this.dao = dao;
+        this.clock = clock;
     }
 
     @GET
     public Result getTransactionsByInvoiceId(@Named("kbInvoiceId") final UUID kbInvoiceId,
-                                             @Local @Named("killbill_tenant") final Tenant tenant) throws AvaTaxClientException, SQLException {
-        final List<AvataxResponsesRecord> responses = dao.getSuccessfulResponses(kbInvoiceId, tenant.getId());
-        final Collection<String> docCodes = new HashSet<String>();
-        for (final AvataxResponsesRecord response : responses) {
-            docCodes.add(response.getDocCode());
-        }
+                                             @Local @Named("killbill_tenant") final Tenant tenant) throws AvaTaxClientException, SQLException, InterruptedException, ExecutionException {
+        final List<String> docCodes = dao.getSuccessfulDocCodes(kbInvoiceId, tenant.getId());
 
         final AvaTaxClient avaTaxClient = avaTaxConfigurationHandler.getConfigurable(tenant.getId());
+        // Bounded by the concurrency setting of the tenant, but queued separately from the tax calls
+        final ExecutorService executor = avaTaxConfigurationHandler.getReadExecutor(tenant.getId());
         final Collection<TransactionModel> transactions = new ArrayList<TransactionModel>(docCodes.size());
-        for (final String docCode : docCodes) {
-            final TransactionModel transactionModel = avaTaxClient.getTransactionByCode(docCode);
-            transactions.add(transactionModel);
+        if (executor == null || docCodes.size() <= 1) {
+            for (final String docCode : docCodes) {
+                transactions.add(getTransaction(avaTaxClient, docCode));
+            }
+            return Results.ok(transactions).type(MediaType.json);
+        }
+
+        final List<Future<TransactionModel>> futures = new ArrayList<Future<TransactionModel>>(docCodes.size());
+        try {
+            for (final String docCode : docCodes) {
+                futures.add(executor.submit(() -> getTransaction(avaTaxClient, docCode)));
+            }
+            // Collect the results in submission order
+            for (final Future<TransactionModel> future : futures) {
+                transactions.add(future.get());
+            }
+        } catch (final RejectedExecutionException e) {
+            // Too many lookups waiting already
+            return Results.with("Too many concurrent lookups, try again later", Status.TOO_MANY_REQUESTS);
+        } catch (final ExecutionException e) {
+            if (e.getCause() instanceof AvaTaxClientException) {
+                throw (AvaTaxClientException) e.getCause();
+            } else if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            throw e;
+        } finally {
+            // No-op for completed calls
+            for (final Future<TransactionModel> future : futures) {
+                future.cancel(true);
+            }
         }
 
         return Results.ok(transactions).type(MediaType.json);
@@ -84,7 +124,7 @@ public class AvaTaxTransactionsServlet {
     public Result getTransaction(@Named("transactionCode") final String transactionCode,
                                  @Local @Named("killbill_tenant") final Optional<Tenant> tenant) throws AvaTaxClientException {
         final AvaTaxClient avaTaxClient = avaTaxConfigurationHandler.getConfigurable(tenant.map(Entity::getId).orElse(null));
-        final TransactionModel transactionModel = avaTaxClient.getTransactionByCode(transactionCode);
+        final TransactionModel transactionModel = getTransaction(avaTaxClient, transactionCode);
         return Results.ok(transactionModel).type(MediaType.json);
     }
 
@@ -105,4 +145,99 @@ public class AvaTaxTransactionsServlet {
         final TransactionModel transactionModel = avaTaxClient.voidTransaction(transactionCode);
         return Results.ok(transactionModel).type(MediaType.json);
     }
+
+    /**
+     * Commit the documents of the invoices dated between startDate and endDate (inclusive), or of the specified invoices (kbInvoiceId query parameters).
+     * Documents are committed in the background (see AvaTaxBulkCommitsWorker), the progress can be followed at the returned location.
+     */
+    @POST
+    @Path("/bulkCommits")
+    public Result createBulkCommit(@Named("startDate") final Optional<String> startDate,
+                                   @Named("endDate") final Optional<String> endDate,
+                                   @Named("kbInvoiceId") final List<UUID> kbInvoiceIds,
+                                   @Local @Named("killbill_tenant") final Tenant tenant) throws SQLException {
+        if (startDate.isPresent() != endDate.isPresent() || (!startDate.isPresent() && kbInvoiceIds.isEmpty())) {
+            return Results.with("startDate and endDate, or kbInvoiceId, must be specified", Status.BAD_REQUEST);
+        }
+        if (kbInvoiceIds.size() > MAX_BULK_COMMIT_INVOICES) {
+            return Results.with("At most " + MAX_BULK_COMMIT_INVOICES + " invoices can be committed at once", Status.BAD_REQUEST);
+        }
+
+        final DateTime startDateTime;
+        final DateTime endDateTime;
+        try {
+            startDateTime = startDate.isPresent() ? new LocalDate(startDate.get()).toDateTimeAtStartOfDay(DateTimeZone.UTC) : null;
+            // Exclusive
+            endDateTime = endDate.isPresent() ? new LocalDate(endDate.get()).plusDays(1).toDateTimeAtStartOfDay(DateTimeZone.UTC) : null;
+        } catch (final IllegalArgumentException e) {
+            return Results.with(e.getMessage(), Status.BAD_REQUEST);
+        }
+
+        final UUID bulkCommitId = UUID.randomUUID();
+        dao.addBulkCommit(bulkCommitId, startDateTime, endDateTime, kbInvoiceIds, clock.getClock().getUTCNow(), tenant.getId());
+
+        return Results.with(getBulkCommitJson(bulkCommitId, tenant.getId()), Status.CREATED)
+                      .header("location", "/plugins/killbill-avatax/transactions/bulkCommits/" + bulkCommitId)
+                      .type(MediaType.json);
+    }
+
+    @GET
+    @Path("/bulkCommits/{bulkCommitId}")
+    public Result getBulkCommit(@Named("bulkCommitId") final UUID bulkCommitId,
+                                @Local @Named("killbill_tenant") final Tenant tenant) throws SQLException {
+        final BulkCommitJson bulkCommitJson = getBulkCommitJson(bulkCommitId, tenant.getId());
+        if (bulkCommitJson == null) {
+            return Results.with(Status.NOT_FOUND);
+        }
+        return Results.ok(bulkCommitJson).type(MediaType.json);
+    }
+
+    // Committed transactions are served from the cache, if enabled
+    private TransactionModel getTransaction(final AvaTaxClient avaTaxClient, final String transactionCode) throws AvaTaxClientException {
+        return avaTaxClient.getTransactionsCache().get(transactionCode, () -> avaTaxClient.getTransactionByCode(transactionCode));
+    }
+
+    private BulkCommitJson getBulkCommitJson(final UUID bulkCommitId, final UUID kbTenantId) throws SQLException {
+        final AvataxBulkCommitsRecord bulkCommit = dao.getBulkCommit(bulkCommitId, kbTenantId);
+        if (bulkCommit == null) {
+            return null;
+        }
+        final Map<String, Integer> outboxCounts = dao.getBulkCommitOutboxCounts(bulkCommitId, kbTenantId);
+        return new BulkCommitJson(bulkCommit,
+                                  outboxCounts.getOrDefault(AvaTaxDao.OUTBOX_PENDING, 0),
+                                  outboxCounts.getOrDefault(AvaTaxDao.OUTBOX_FAILED, 0));
+    }
+
+    private static final class BulkCommitJson {
+
+        public final String bulkCommitId;
+        // SCANNING (documents are being queued), COMMITTING or COMPLETED
+        public final String status;
+        public final String startDate;
+        public final String endDate;
+        public final int nbQueued;
+        public final int nbPending;
+        public final int nbFailed;
+        // Including the documents whose commit was replaced by another operation (e.g. void)
+        public final int nbCompleted;
+        public final String createdDate;
+        public final String updatedDate;
+
+        private BulkCommitJson(final AvataxBulkCommitsRecord bulkCommit, final int nbPending, final int nbFailed) {
+            this.bulkCommitId = bulkCommit.getBulkCommitId();
+            if (AvaTaxDao.BULK_COMMIT_SCANNING.equals(bulkCommit.getStatus())) {
+                this.status = "SCANNING";
+            } else {
+                this.status = nbPending > 0 ? "COMMITTING" : "COMPLETED";
+            }
+            this.startDate = bulkCommit.getStartDate() == null ? null : bulkCommit.getStartDate().toLocalDate().toString();
+            this.endDate = bulkCommit.getEndDate() == null ? null : bulkCommit.getEndDate().toLocalDate().minusDays(1).toString();
+            this.nbQueued = bulkCommit.getNbQueued();
+            this.nbPending = nbPending;
+            this.nbFailed = nbFailed;
+            this.nbCompleted = Math.max(nbQueued - nbPending - nbFailed, 0);
+            this.createdDate = bulkCommit.getCreatedDate().toString();
+            this.updatedDate = bulkCommit.getUpdatedDate().toString();
+        }
+    }
 }
@@ -59,6 +59,8 @@ public class AvalaraHealthcheck implements Healthcheck {
                 if (avaTaxClient.isConfigured()) {
                     final PingResult pingResult = avaTaxClient.ping();
                     return pingResult.authenticated ? HealthStatus.healthy() : HealthStatus.unHealthy("AvaTax client unauthenticated");
+                } else if (taxRatesClient.isLocalStoreOffline()) {
+                    return HealthStatus.healthy("TaxRates served from the local store");
                 } else if (taxRatesClient.isConfigured()) {
                     final PingResult pingResult = taxRatesClient.ping();
                     return pingResult.authenticated ? HealthStatus.healthy() : HealthStatus.unHealthy("TaxRates client unauthenticated");
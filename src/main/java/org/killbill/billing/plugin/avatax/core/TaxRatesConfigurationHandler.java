@@ -20,6 +20,7 @@ package org.killbill.billing.plugin.avatax.core;
 
 import java.security.GeneralSecurityException;
 import java.util.Properties;
+import java.util.UUID;
 
 import org.killbill.billing.osgi.libs.killbill.OSGIKillbillAPI;
 import org.killbill.billing.plugin.api.notification.PluginTenantConfigurableConfigurationHandler;
@@ -27,15 +28,36 @@ import org.killbill.billing.plugin.avatax.client.TaxRatesClient;
 
 public class TaxRatesConfigurationHandler extends PluginTenantConfigurableConfigurationHandler<TaxRatesClient> {
 
+    private final ThreadLocal<UUID> configuredTenantId = new ThreadLocal<UUID>();
+    private final AvaTaxMetrics metrics;
+
     public TaxRatesConfigurationHandler(final String pluginName,
                                         final OSGIKillbillAPI osgiKillbillAPI) {
+        this(pluginName, osgiKillbillAPI, AvaTaxMetrics.NO_OP);
+    }
+
+    public TaxRatesConfigurationHandler(final String pluginName,
+                                        final OSGIKillbillAPI osgiKillbillAPI,
+                                        final AvaTaxMetrics metrics) {
         super(pluginName, osgiKillbillAPI);
+        this.metrics = metrics;
+    }
+
+    @Override
+    protected void configure(final UUID kbTenantId) {
+        // Let createConfigurable know which tenant the client is for
+        configuredTenantId.set(kbTenantId);
+        try {
+            super.configure(kbTenantId);
+        } finally {
+            configuredTenantId.remove();
+        }
     }
 
     @Override
     protected TaxRatesClient createConfigurable(final Properties properties) {
         try {
-            return new TaxRatesClient(properties);
+            return new TaxRatesClient(properties, metrics.forTenant(configuredTenantId.get()));
         } catch (final GeneralSecurityException e) {
             throw new IllegalStateException(e);
         }
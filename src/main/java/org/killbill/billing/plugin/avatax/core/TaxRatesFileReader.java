@@ -0,0 +1,213 @@
+/*
+ * Copyright 2020-2026 Equinix, Inc
+ * Copyright 2014-2026 The Billing Project, LLC
+ *
+ * The Billing Project licenses this file to you under the Apache License, version 2.0
+ * (the "License"); you may not use this file except in compliance with the
+ * License.  You may obtain a copy of the License at:
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.killbill.billing.plugin.avatax.core;
+
+import java.io.BufferedReader;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.Reader;
+import java.io.UncheckedIOException;
+import java.util.AbstractMap.SimpleImmutableEntry;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.NoSuchElementException;
+
+import org.killbill.billing.plugin.avatax.client.model.RateModel;
+import org.killbill.billing.plugin.avatax.client.model.TaxRateResult;
+
+import com.google.common.base.Strings;
+
+/**
+ * Streaming reader for the Avalara rate tables by ZIP code (https://www.avalara.com/taxrates/en/download-tax-tables.html).
+ * <p>
+ * Rows are read one at a time, so that large files are never fully loaded in memory.
+ */
+public class TaxRatesFileReader implements Iterator<Entry<String, TaxRateResult>>, Closeable {
+
+    static final String STATE = "State";
+    static final String ZIP_CODE = "ZipCode";
+    static final String COMBINED_RATE = "EstimatedCombinedRate";
+    static final String STATE_RATE = "StateRate";
+    static final String COUNTY_RATE = "EstimatedCountyRate";
+    static final String CITY_RATE = "EstimatedCityRate";
+    static final String SPECIAL_RATE = "EstimatedSpecialRate";
+
+    private final BufferedReader reader;
+    private final Map<String, Integer> columns;
+
+    private int lineNumber;
+    private Entry<String, TaxRateResult> next;
+
+    public TaxRatesFileReader(final Reader reader) throws IOException {
+        this.reader = reader instanceof BufferedReader ? (BufferedReader) reader : new BufferedReader(reader);
+        this.columns = readHeader();
+    }
+
+    @Override
+    public boolean hasNext() {
+        if (next == null) {
+            next = readNext();
+        }
+        return next != null;
+    }
+
+    @Override
+    public Entry<String, TaxRateResult> next() {
+        if (!hasNext()) {
+            throw new NoSuchElementException();
+        }
+        final Entry<String, TaxRateResult> current = next;
+        next = null;
+        return current;
+    }
+
+    @Override
+    public void close() throws IOException {
+        reader.close();
+    }
+
+    private Map<String, Integer> readHeader() throws IOException {
+        final String header = readLine();
+        if (header == null) {
+            throw new IllegalArgumentException("Empty tax rates file");
+        }
+
+        final Map<String, Integer> columns = new HashMap<String, Integer>();
+        final List<String> names = split(header);
+        for (int i = 0; i < names.size(); i++) {
+            // Strip any BOM
+            columns.put(names.get(i).replace("\uFEFF", "").trim(), i);
+        }
+        for (final String required : new String[]{STATE, ZIP_CODE, COMBINED_RATE}) {
+            if (!columns.containsKey(required)) {
+                throw new IllegalArgumentException(String.format("Invalid tax rates file: missing column %s", required));
+            }
+        }
+        return columns;
+    }
+
+    private Entry<String, TaxRateResult> readNext() {
+        try {
+            String line;
+            while ((line = readLine()) != null) {
+                if (!line.trim().isEmpty()) {
+                    return parse(split(line));
+                }
+            }
+            return null;
+        } catch (final IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private Entry<String, TaxRateResult> parse(final List<String> values) {
+        final String state = get(values, STATE);
+        final String zipCode = toZipCode(get(values, ZIP_CODE));
+
+        final TaxRateResult taxRateResult = new TaxRateResult();
+        taxRateResult.totalRate = getRate(values, COMBINED_RATE);
+        taxRateResult.rates = new ArrayList<RateModel>(4);
+        addRate(taxRateResult.rates, getRate(values, STATE_RATE), state, "State");
+        addRate(taxRateResult.rates, getRate(values, COUNTY_RATE), state, "County");
+        addRate(taxRateResult.rates, getRate(values, CITY_RATE), state, "City");
+        addRate(taxRateResult.rates, getRate(values, SPECIAL_RATE), state, "Special");
+
+        return new SimpleImmutableEntry<String, TaxRateResult>(zipCode, taxRateResult);
+    }
+
+    private void addRate(final List<RateModel> rates, final double rate, final String state, final String type) {
+        if (rate == 0) {
+            return;
+        }
+        final RateModel rateModel = new RateModel();
+        rateModel.rate = rate;
+        rateModel.name = String.format("%s %s Tax", Strings.nullToEmpty(state).toUpperCase(Locale.ROOT), type).trim();
+        rateModel.type = type;
+        rates.add(rateModel);
+    }
+
+    private String toZipCode(final String value) {
+        if (Strings.isNullOrEmpty(value)) {
+            throw new IllegalArgumentException(String.format("Invalid tax rates file: missing %s on line %s", ZIP_CODE, lineNumber));
+        }
+        // Spreadsheets tend to drop the leading zeros (e.g. 02110 becomes 2110)
+        return Strings.padStart(value, 5, '0');
+    }
+
+    private double getRate(final List<String> values, final String column) {
+        final String value = get(values, column);
+        if (Strings.isNullOrEmpty(value)) {
+            return 0;
+        }
+        try {
+            return Double.parseDouble(value);
+        } catch (final NumberFormatException e) {
+            throw new IllegalArgumentException(String.format("Invalid tax rates file: invalid %s '%s' on line %s", column, value, lineNumber), e);
+        }
+    }
+
+    private String get(final List<String> values, final String column) {
+        final Integer index = columns.get(column);
+        if (index == null || index >= values.size()) {
+            return null;
+        }
+        return values.get(index).trim();
+    }
+
+    private String readLine() throws IOException {
+        final String line = reader.readLine();
+        if (line != null) {
+            lineNumber++;
+        }
+        return line;
+    }
+
+    // Minimal CSV support: comma separated values, optionally enclosed in double quotes
+    static List<String> split(final String line) {
+        final List<String> values = new ArrayList<String>();
+        final StringBuilder current = new StringBuilder();
+        boolean quoted = false;
+        for (int i = 0; i < line.length(); i++) {
+            final char c = line.charAt(i);
+            if (quoted) {
+                if (c == '"' && i + 1 < line.length() && line.charAt(i + 1) == '"') {
+                    current.append('"');
+                    i++;
+                } else if (c == '"') {
+                    quoted = false;
+                } else {
+                    current.append(c);
+                }
+            } else if (c == '"') {
+                quoted = true;
+            } else if (c == ',') {
+                values.add(current.toString());
+                current.setLength(0);
+            } else {
+                current.append(c);
+            }
+        }
+        values.add(current.toString());
+        return values;
+    }
+}
@@ -22,9 +22,16 @@ import java.io.IOException;
 import java.math.BigDecimal;
 import java.sql.Connection;
 import java.sql.SQLException;
+import java.time.LocalDateTime;
 import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
@@ -35,28 +42,65 @@ import javax.annotation.Nullable;
 import javax.sql.DataSource;
 
 import org.joda.time.DateTime;
+import org.jooq.Condition;
 import org.jooq.Configuration;
 import org.jooq.DSLContext;
+import org.jooq.Field;
+import org.jooq.InsertOnDuplicateSetMoreStep;
+import org.jooq.InsertValuesStep4;
+import org.jooq.InsertValuesStep5;
+import org.jooq.Query;
+import org.jooq.Record;
+import org.jooq.Record2;
+import org.jooq.Record3;
+import org.jooq.Result;
+import org.jooq.SQLDialect;
+import org.jooq.SelectForUpdateStep;
+import org.jooq.TransactionalCallable;
 import org.jooq.TransactionalRunnable;
 import org.jooq.impl.DSL;
+import org.jooq.types.ULong;
 import org.killbill.billing.invoice.api.InvoiceItem;
+import org.killbill.billing.plugin.avatax.client.ClientUtils;
 import org.killbill.billing.plugin.avatax.client.model.AvaTaxErrors;
 import org.killbill.billing.plugin.avatax.client.model.CommonResponse;
+import org.killbill.billing.plugin.avatax.client.model.CreateTransactionModel;
+import org.killbill.billing.plugin.avatax.client.model.RateModel;
 import org.killbill.billing.plugin.avatax.client.model.TransactionModel;
 import org.killbill.billing.plugin.avatax.client.model.TaxRateResult;
+import org.killbill.billing.plugin.avatax.core.AvaTaxMetrics;
+import org.killbill.billing.plugin.avatax.core.AvaTaxOutboxWorker;
+import org.killbill.billing.plugin.avatax.dao.gen.tables.records.AvataxBulkCommitsRecord;
+import org.killbill.billing.plugin.avatax.dao.gen.tables.records.AvataxOutboxRecord;
+import org.killbill.billing.plugin.avatax.dao.gen.tables.records.AvataxPendingDocumentsRecord;
+import org.killbill.billing.plugin.avatax.dao.gen.tables.records.AvataxResponseItemsRecord;
 import org.killbill.billing.plugin.avatax.dao.gen.tables.records.AvataxResponsesRecord;
 import org.killbill.billing.plugin.avatax.dao.gen.tables.records.AvataxTaxCodesRecord;
+import org.killbill.billing.plugin.avatax.dao.gen.tables.records.AvataxTaxRatesRecord;
+import org.killbill.billing.plugin.avatax.dao.gen.tables.records.AvataxTaxRatesStagingRecord;
 import org.killbill.billing.plugin.dao.PluginDao;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.google.common.annotations.VisibleForTesting;
 import com.google.common.base.Function;
 import com.google.common.base.Strings;
-import com.google.common.collect.Maps;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.ImmutableSet;
 
+import static org.killbill.billing.plugin.avatax.dao.gen.tables.AvataxBackfills.AVATAX_BACKFILLS;
+import static org.killbill.billing.plugin.avatax.dao.gen.tables.AvataxBulkCommits.AVATAX_BULK_COMMITS;
+import static org.killbill.billing.plugin.avatax.dao.gen.tables.AvataxOutbox.AVATAX_OUTBOX;
+import static org.killbill.billing.plugin.avatax.dao.gen.tables.AvataxPendingDocuments.AVATAX_PENDING_DOCUMENTS;
+import static org.killbill.billing.plugin.avatax.dao.gen.tables.AvataxResponseItems.AVATAX_RESPONSE_ITEMS;
 import static org.killbill.billing.plugin.avatax.dao.gen.tables.AvataxResponses.AVATAX_RESPONSES;
 import static org.killbill.billing.plugin.avatax.dao.gen.tables.AvataxTaxCodes.AVATAX_TAX_CODES;
+import static org.killbill.billing.plugin.avatax.dao.gen.tables.AvataxTaxRates.AVATAX_TAX_RATES;
+import static org.killbill.billing.plugin.avatax.dao.gen.tables.AvataxTaxRatesStaging.AVATAX_TAX_RATES_STAGING;
 
 public class AvaTaxDao extends PluginDao {
 
@@ -65,15 +109,82 @@ public class AvaTaxDao extends PluginDao {
     private static final String SUCCESS = CommonResponse.SeverityLevel.Success.name();
     private static final String ERROR = CommonResponse.SeverityLevel.Error.name();
 
+    // Columns written when storing a response (see toResponseRow)
+    private static final List<Field<?>> RESPONSE_FIELDS = ImmutableList.<Field<?>>of(AVATAX_RESPONSES.KB_ACCOUNT_ID,
+                                                                                     AVATAX_RESPONSES.KB_INVOICE_ID,
+                                                                                     AVATAX_RESPONSES.DOC_CODE,
+                                                                                     AVATAX_RESPONSES.DOC_DATE,
+                                                                                     AVATAX_RESPONSES.TIMESTAMP,
+                                                                                     AVATAX_RESPONSES.TOTAL_AMOUNT,
+                                                                                     AVATAX_RESPONSES.TOTAL_DISCOUNT,
+                                                                                     AVATAX_RESPONSES.TOTAL_EXEMPTION,
+                                                                                     AVATAX_RESPONSES.TOTAL_TAXABLE,
+                                                                                     AVATAX_RESPONSES.TOTAL_TAX,
+                                                                                     AVATAX_RESPONSES.TOTAL_TAX_CALCULATED,
+                                                                                     AVATAX_RESPONSES.TAX_DATE,
+                                                                                     AVATAX_RESPONSES.TAX_LINES,
+                                                                                     AVATAX_RESPONSES.TAX_SUMMARY,
+                                                                                     AVATAX_RESPONSES.TAX_ADDRESSES,
+                                                                                     AVATAX_RESPONSES.RESULT_CODE,
+                                                                                     AVATAX_RESPONSES.MESSAGES,
+                                                                                     AVATAX_RESPONSES.ADDITIONAL_DATA,
+                                                                                     AVATAX_RESPONSES.CREATED_DATE,
+                                                                                     AVATAX_RESPONSES.KB_TENANT_ID,
+                                                                                     AVATAX_RESPONSES.TAX_LINES_BIN,
+                                                                                     AVATAX_RESPONSES.TAX_SUMMARY_BIN,
+                                                                                     AVATAX_RESPONSES.TAX_ADDRESSES_BIN,
+                                                                                     AVATAX_RESPONSES.MESSAGES_BIN,
+                                                                                     AVATAX_RESPONSES.IS_FALLBACK,
+                                                                                     AVATAX_RESPONSES.KB_INVOICE_ITEM_IDS);
+
+    // Columns kept when a fallback response is replaced by the actual AvaTax transaction (the taxed items don't change)
+    private static final Set<Field<?>> FALLBACK_RESPONSE_KEPT_FIELDS = ImmutableSet.<Field<?>>of(AVATAX_RESPONSES.KB_ACCOUNT_ID,
+                                                                                                AVATAX_RESPONSES.KB_INVOICE_ID,
+                                                                                                AVATAX_RESPONSES.CREATED_DATE,
+                                                                                                AVATAX_RESPONSES.KB_TENANT_ID,
+                                                                                                AVATAX_RESPONSES.KB_INVOICE_ITEM_IDS);
+
+    // Names of the backfill jobs in avatax_backfills
+    public static final String RESPONSE_ITEMS_BACKFILL = "response_items";
+    public static final String RESPONSES_COMPRESSION_BACKFILL = "responses_compression";
+
+    public static final String PENDING_DOCUMENT_PENDING = "PENDING";
+    public static final String PENDING_DOCUMENT_FAILED = "FAILED";
+    public static final String PENDING_DOCUMENT_SKIPPED = "SKIPPED";
+    public static final String OUTBOX_PENDING = "PENDING";
+    public static final String OUTBOX_FAILED = "FAILED";
+    public static final String BULK_COMMIT_SCANNING = "SCANNING";
+    public static final String BULK_COMMIT_QUEUED = "QUEUED";
+
+    // Pending requests are stored as sent to AvaTax
+    private static final ObjectMapper requestMapper = ClientUtils.createObjectMapper();
+
+    private final AvaTaxMetrics metrics;
+    private final boolean compressResponses;
+
     public AvaTaxDao(final DataSource dataSource) throws SQLException {
+        this(dataSource, AvaTaxMetrics.NO_OP);
+    }
+
+    public AvaTaxDao(final DataSource dataSource, final AvaTaxMetrics metrics) throws SQLException {
+        this(dataSource, metrics, false);
+    }
+
+    /**
+     * @param compressResponses whether the tax_lines, tax_summary, tax_addresses and messages columns of new responses are stored compressed
+     *                          (in their _bin counterpart, see CompressedJsonCodec)
+     */
+    public AvaTaxDao(final DataSource dataSource, final AvaTaxMetrics metrics, final boolean compressResponses) throws SQLException {
         super(dataSource);
+        this.metrics = metrics;
+        this.compressResponses = compressResponses;
     }
 
     public void setTaxCode(final String productName,
                            @Nullable final String taxCode,
                            final DateTime utcNow,
                            final UUID kbTenantId) throws SQLException {
-        execute(dataSource.getConnection(),
+        execute("setTaxCode", kbTenantId,
                 new WithConnectionCallback<Void>() {
                     @Override
                     public Void withConnection(final Connection conn) throws SQLException {
@@ -108,7 +219,7 @@ public class AvaTaxDao extends PluginDao {
     }
 
     public List<AvataxTaxCodesRecord> getTaxCodes(final UUID kbTenantId) throws SQLException {
-        return execute(dataSource.getConnection(),
+        return execute("getTaxCodes", kbTenantId,
                        new WithConnectionCallback<List<AvataxTaxCodesRecord>>() {
                            @Override
                            public List<AvataxTaxCodesRecord> withConnection(final Connection conn) throws SQLException {
@@ -123,7 +234,7 @@ public class AvaTaxDao extends PluginDao {
 
     public String getTaxCode(final String productName,
                              final UUID kbTenantId) throws SQLException {
-        final AvataxTaxCodesRecord record = execute(dataSource.getConnection(),
+        final AvataxTaxCodesRecord record = execute("getTaxCode", kbTenantId,
                                                     new WithConnectionCallback<AvataxTaxCodesRecord>() {
                                                         @Override
                                                         public AvataxTaxCodesRecord withConnection(final Connection conn) throws SQLException {
@@ -142,38 +253,234 @@ public class AvaTaxDao extends PluginDao {
         }
     }
 
-    public void addResponse(final UUID kbAccountId,
-                            final UUID kbInvoiceId,
-                            final Map<UUID, Iterable<InvoiceItem>> kbInvoiceItems,
+    /**
+     * Store a tax rates snapshot for a postal code, replacing the previous snapshots for that postal code effective on or before it
+     * (snapshots effective later on, e.g. imported ahead of a rate change, are kept).
+     */
+    public void addTaxRates(final String postalCode,
+                            final String country,
                             final TaxRateResult taxRateResult,
+                            final DateTime effectiveDate,
                             final DateTime utcNow,
                             final UUID kbTenantId) throws SQLException {
-        execute(dataSource.getConnection(),
+        execute("addTaxRates", kbTenantId,
                 new WithConnectionCallback<Void>() {
                     @Override
                     public Void withConnection(final Connection conn) throws SQLException {
                         DSL.using(conn, dialect, settings)
-                           .insertInto(AVATAX_RESPONSES,
-                                       AVATAX_RESPONSES.KB_ACCOUNT_ID,
-                                       AVATAX_RESPONSES.KB_INVOICE_ID,
-                                       AVATAX_RESPONSES.KB_INVOICE_ITEM_IDS,
-                                       AVATAX_RESPONSES.TOTAL_TAX,
-                                       AVATAX_RESPONSES.RESULT_CODE,
-                                       AVATAX_RESPONSES.CREATED_DATE,
-                                       AVATAX_RESPONSES.KB_TENANT_ID)
-                           .values(kbAccountId.toString(),
-                                   kbInvoiceId.toString(),
-                                   kbInvoiceItemsIdsAsString(kbInvoiceItems),
-                                   BigDecimal.valueOf(taxRateResult.totalRate),
-                                   SUCCESS,
-                                   toLocalDateTime(utcNow),
-                                   kbTenantId.toString())
-                           .execute();
+                           .transaction(new TransactionalRunnable() {
+                               @Override
+                               public void run(final Configuration configuration) throws Exception {
+                                   final DSLContext dslContext = DSL.using(configuration);
+
+                                   dslContext.delete(AVATAX_TAX_RATES)
+                                             .where(AVATAX_TAX_RATES.POSTAL_CODE.equal(postalCode))
+                                             .and(AVATAX_TAX_RATES.COUNTRY.equal(country))
+                                             .and(AVATAX_TAX_RATES.KB_TENANT_ID.equal(kbTenantId.toString()))
+                                             .and(AVATAX_TAX_RATES.EFFECTIVE_DATE.lessOrEqual(toLocalDateTime(effectiveDate)))
+                                             .execute();
+
+                                   dslContext.insertInto(AVATAX_TAX_RATES,
+                                                         AVATAX_TAX_RATES.POSTAL_CODE,
+                                                         AVATAX_TAX_RATES.COUNTRY,
+                                                         AVATAX_TAX_RATES.TOTAL_RATE,
+                                                         AVATAX_TAX_RATES.RATES,
+                                                         AVATAX_TAX_RATES.EFFECTIVE_DATE,
+                                                         AVATAX_TAX_RATES.CREATED_DATE,
+                                                         AVATAX_TAX_RATES.KB_TENANT_ID)
+                                             .values(postalCode,
+                                                     country,
+                                                     BigDecimal.valueOf(taxRateResult.totalRate),
+                                                     asString(taxRateResult.rates),
+                                                     toLocalDateTime(effectiveDate),
+                                                     toLocalDateTime(utcNow),
+                                                     kbTenantId.toString())
+                                             .execute();
+                               }
+                           });
                         return null;
                     }
                 });
     }
 
+    /**
+     * Import tax rates snapshots in bulk (e.g. from an Avalara rate file).
+     * <p>
+     * The rates are first loaded in batches into avatax_tax_rates_staging, each batch being committed on its own so that the import
+     * doesn't hold a long transaction. The staged rates are then switched in with a single transaction: lookups see either all the
+     * previous rates or all the imported ones, and the previous rates are left untouched if the file cannot be parsed or loaded.
+     * Snapshots for the imported postal codes effective on or after the effective date are replaced, older ones are kept.
+     * If a postal code appears several times, the last rates win.
+     *
+     * @return the number of distinct imported postal codes
+     */
+    public int importTaxRates(final String country,
+                              final Iterator<Entry<String, TaxRateResult>> taxRatesByPostalCode,
+                              final int batchSize,
+                              final DateTime effectiveDate,
+                              final DateTime utcNow,
+                              final UUID kbTenantId) throws SQLException {
+        final String importId = UUID.randomUUID().toString();
+        return execute("importTaxRates", kbTenantId,
+                       new WithConnectionCallback<Integer>() {
+                           @Override
+                           public Integer withConnection(final Connection conn) throws SQLException {
+                               try {
+                                   // Only the postal codes are kept in memory (about 40k for the US)
+                                   final Set<String> importedPostalCodes = new HashSet<String>();
+                                   final Map<String, TaxRateResult> batch = new LinkedHashMap<String, TaxRateResult>();
+                                   while (taxRatesByPostalCode.hasNext()) {
+                                       final Entry<String, TaxRateResult> entry = taxRatesByPostalCode.next();
+                                       batch.put(entry.getKey(), entry.getValue());
+                                       if (batch.size() >= batchSize) {
+                                           stageTaxRatesBatch(conn, importId, batch, utcNow);
+                                           importedPostalCodes.addAll(batch.keySet());
+                                           batch.clear();
+                                       }
+                                   }
+                                   if (!batch.isEmpty()) {
+                                       stageTaxRatesBatch(conn, importId, batch, utcNow);
+                                       importedPostalCodes.addAll(batch.keySet());
+                                   }
+
+                                   switchStagedTaxRates(conn, importId, country, effectiveDate, utcNow, kbTenantId);
+
+                                   return importedPostalCodes.size();
+                               } finally {
+                                   DSL.using(conn, dialect, settings)
+                                      .delete(AVATAX_TAX_RATES_STAGING)
+                                      .where(AVATAX_TAX_RATES_STAGING.IMPORT_ID.equal(importId))
+                                      .execute();
+                               }
+                           }
+                       });
+    }
+
+    private void stageTaxRatesBatch(final Connection conn,
+                                    final String importId,
+                                    final Map<String, TaxRateResult> batch,
+                                    final DateTime utcNow) {
+        DSL.using(conn, dialect, settings)
+           .transaction(new TransactionalRunnable() {
+               @Override
+               public void run(final Configuration configuration) throws Exception {
+                   final DSLContext dslContext = DSL.using(configuration);
+
+                   // Postal codes repeated across batches
+                   dslContext.delete(AVATAX_TAX_RATES_STAGING)
+                             .where(AVATAX_TAX_RATES_STAGING.IMPORT_ID.equal(importId))
+                             .and(AVATAX_TAX_RATES_STAGING.POSTAL_CODE.in(batch.keySet()))
+                             .execute();
+
+                   InsertValuesStep5<AvataxTaxRatesStagingRecord, String, String, BigDecimal, String, LocalDateTime> insert = dslContext.insertInto(AVATAX_TAX_RATES_STAGING,
+                                                                                                                                                   AVATAX_TAX_RATES_STAGING.IMPORT_ID,
+                                                                                                                                                   AVATAX_TAX_RATES_STAGING.POSTAL_CODE,
+                                                                                                                                                   AVATAX_TAX_RATES_STAGING.TOTAL_RATE,
+                                                                                                                                                   AVATAX_TAX_RATES_STAGING.RATES,
+                                                                                                                                                   AVATAX_TAX_RATES_STAGING.CREATED_DATE);
+                   for (final Entry<String, TaxRateResult> entry : batch.entrySet()) {
+                       insert = insert.values(importId,
+                                              entry.getKey(),
+                                              BigDecimal.valueOf(entry.getValue().totalRate),
+                                              asString(entry.getValue().rates),
+                                              toLocalDateTime(utcNow));
+                   }
+                   insert.execute();
+               }
+           });
+    }
+
+    private void switchStagedTaxRates(final Connection conn,
+                                      final String importId,
+                                      final String country,
+                                      final DateTime effectiveDate,
+                                      final DateTime utcNow,
+                                      final UUID kbTenantId) {
+        DSL.using(conn, dialect, settings)
+           .transaction(new TransactionalRunnable() {
+               @Override
+               public void run(final Configuration configuration) throws Exception {
+                   final DSLContext dslContext = DSL.using(configuration);
+
+                   dslContext.delete(AVATAX_TAX_RATES)
+                             .where(AVATAX_TAX_RATES.POSTAL_CODE.in(DSL.select(AVATAX_TAX_RATES_STAGING.POSTAL_CODE)
+                                                                       .from(AVATAX_TAX_RATES_STAGING)
+                                                                       .where(AVATAX_TAX_RATES_STAGING.IMPORT_ID.equal(importId))))
+                             .and(AVATAX_TAX_RATES.COUNTRY.equal(country))
+                             .and(AVATAX_TAX_RATES.KB_TENANT_ID.equal(kbTenantId.toString()))
+                             .and(AVATAX_TAX_RATES.EFFECTIVE_DATE.greaterOrEqual(toLocalDateTime(effectiveDate)))
+                             .execute();
+
+                   dslContext.insertInto(AVATAX_TAX_RATES,
+                                         AVATAX_TAX_RATES.POSTAL_CODE,
+                                         AVATAX_TAX_RATES.COUNTRY,
+                                         AVATAX_TAX_RATES.TOTAL_RATE,
+                                         AVATAX_TAX_RATES.RATES,
+                                         AVATAX_TAX_RATES.EFFECTIVE_DATE,
+                                         AVATAX_TAX_RATES.CREATED_DATE,
+                                         AVATAX_TAX_RATES.KB_TENANT_ID)
+                             .select(DSL.select(AVATAX_TAX_RATES_STAGING.POSTAL_CODE,
+                                                DSL.val(country),
+                                                AVATAX_TAX_RATES_STAGING.TOTAL_RATE,
+                                                AVATAX_TAX_RATES_STAGING.RATES,
+                                                DSL.val(toLocalDateTime(effectiveDate)),
+                                                DSL.val(toLocalDateTime(utcNow)),
+                                                DSL.val(kbTenantId.toString()))
+                                        .from(AVATAX_TAX_RATES_STAGING)
+                                        .where(AVATAX_TAX_RATES_STAGING.IMPORT_ID.equal(importId)))
+                             .execute();
+               }
+           });
+    }
+
+    /**
+     * Retrieve the latest tax rates snapshot in effect for a postal code.
+     *
+     * @return the snapshot or null if none is found
+     */
+    public AvataxTaxRatesRecord getTaxRates(final String postalCode,
+                                            final String country,
+                                            final DateTime utcNow,
+                                            final UUID kbTenantId) throws SQLException {
+        return execute("getTaxRates", kbTenantId,
+                       new WithConnectionCallback<AvataxTaxRatesRecord>() {
+                           @Override
+                           public AvataxTaxRatesRecord withConnection(final Connection conn) throws SQLException {
+                               return DSL.using(conn, dialect, settings)
+                                         .selectFrom(AVATAX_TAX_RATES)
+                                         .where(AVATAX_TAX_RATES.POSTAL_CODE.equal(postalCode))
+                                         .and(AVATAX_TAX_RATES.COUNTRY.equal(country))
+                                         .and(AVATAX_TAX_RATES.KB_TENANT_ID.equal(kbTenantId.toString()))
+                                         .and(AVATAX_TAX_RATES.EFFECTIVE_DATE.lessOrEqual(toLocalDateTime(utcNow)))
+                                         .orderBy(AVATAX_TAX_RATES.EFFECTIVE_DATE.desc(), AVATAX_TAX_RATES.RECORD_ID.desc())
+                                         .limit(1)
+                                         .fetchOne();
+                           }
+                       });
+    }
+
+    public TaxRateResult toTaxRateResult(final AvataxTaxRatesRecord record) throws SQLException {
+        final TaxRateResult taxRateResult = new TaxRateResult();
+        taxRateResult.totalRate = record.getTotalRate().doubleValue();
+        if (Strings.emptyToNull(record.getRates()) != null) {
+            try {
+                taxRateResult.rates = objectMapper.readValue(record.getRates(), new TypeReference<List<RateModel>>() {});
+            } catch (final IOException e) {
+                throw new SQLException("Corrupted entry for tax rates record_id " + record.getRecordId(), e);
+            }
+        }
+        return taxRateResult;
+    }
+
+    public void addResponse(final UUID kbAccountId,
+                            final UUID kbInvoiceId,
+                            final Map<UUID, Iterable<InvoiceItem>> kbInvoiceItems,
+                            final TaxRateResult taxRateResult,
+                            final DateTime utcNow,
+                            final UUID kbTenantId) throws SQLException {
+        addResponse(AvaTaxResponse.forTaxRates(kbAccountId, kbInvoiceId, kbInvoiceItems, taxRateResult, utcNow, kbTenantId));
+    }
+
     // Success
     public void addResponse(final UUID kbAccountId,
                             final UUID kbInvoiceId,
@@ -181,58 +488,7 @@ public class AvaTaxDao extends PluginDao {
                             final TransactionModel taxResult,
                             final DateTime utcNow,
                             final UUID kbTenantId) throws SQLException {
-        execute(dataSource.getConnection(),
-                new WithConnectionCallback<Void>() {
-                    @Override
-                    public Void withConnection(final Connection conn) throws SQLException {
-                        DSL.using(conn, dialect, settings)
-                           .insertInto(AVATAX_RESPONSES,
-                                       AVATAX_RESPONSES.KB_ACCOUNT_ID,
-                                       AVATAX_RESPONSES.KB_INVOICE_ID,
-                                       AVATAX_RESPONSES.KB_INVOICE_ITEM_IDS,
-                                       AVATAX_RESPONSES.DOC_CODE,
-                                       AVATAX_RESPONSES.DOC_DATE,
-                                       AVATAX_RESPONSES.TIMESTAMP,
-                                       AVATAX_RESPONSES.TOTAL_AMOUNT,
-                                       AVATAX_RESPONSES.TOTAL_DISCOUNT,
-                                       AVATAX_RESPONSES.TOTAL_EXEMPTION,
-                                       AVATAX_RESPONSES.TOTAL_TAXABLE,
-                                       AVATAX_RESPONSES.TOTAL_TAX,
-                                       AVATAX_RESPONSES.TOTAL_TAX_CALCULATED,
-                                       AVATAX_RESPONSES.TAX_DATE,
-                                       AVATAX_RESPONSES.TAX_LINES,
-                                       AVATAX_RESPONSES.TAX_SUMMARY,
-                                       AVATAX_RESPONSES.TAX_ADDRESSES,
-                                       AVATAX_RESPONSES.RESULT_CODE,
-                                       AVATAX_RESPONSES.MESSAGES,
-                                       AVATAX_RESPONSES.ADDITIONAL_DATA,
-                                       AVATAX_RESPONSES.CREATED_DATE,
-                                       AVATAX_RESPONSES.KB_TENANT_ID)
-                           .values(kbAccountId.toString(),
-                                   kbInvoiceId.toString(),
-                                   kbInvoiceItemsIdsAsString(kbInvoiceItems),
-                                   taxResult.code,
-                                   taxResult.date == null ? null : taxResult.date.toInstant().atZone(ZoneOffset.UTC).toLocalDateTime(),
-                                   null,
-                                   BigDecimal.valueOf(taxResult.totalAmount),
-                                   BigDecimal.valueOf(taxResult.totalDiscount),
-                                   BigDecimal.valueOf(taxResult.totalExempt),
-                                   BigDecimal.valueOf(taxResult.totalTaxable),
-                                   BigDecimal.valueOf(taxResult.totalTax),
-                                   BigDecimal.valueOf(taxResult.totalTaxCalculated),
-                                   taxResult.taxDate == null ? null : taxResult.taxDate.toInstant().atZone(ZoneOffset.UTC).toLocalDateTime(),
-                                   asString(taxResult.lines),
-                                   asString(taxResult.summary),
-                                   asString(taxResult.addresses),
-                                   SUCCESS,
-                                   asString(taxResult.messages),
-                                   null,
-                                   toLocalDateTime(utcNow),
-                                   kbTenantId.toString())
-                           .execute();
-                        return null;
-                    }
-                });
+        addResponse(AvaTaxResponse.forTransaction(kbAccountId, kbInvoiceId, kbInvoiceItems, taxResult, utcNow, kbTenantId));
     }
 
     // !Success
@@ -242,35 +498,205 @@ public class AvaTaxDao extends PluginDao {
                             final AvaTaxErrors errors,
                             final DateTime utcNow,
                             final UUID kbTenantId) throws SQLException {
-        execute(dataSource.getConnection(),
+        addResponse(AvaTaxResponse.forErrors(kbAccountId, kbInvoiceId, kbInvoiceItems, errors, utcNow, kbTenantId));
+    }
+
+    private void addResponse(final AvaTaxResponse response) throws SQLException {
+        addResponses("addResponse", ImmutableList.<AvaTaxResponse>of(response));
+    }
+
+    /**
+     * Store several responses (e.g. all responses for an invoice, see AvaTaxResponsesUnitOfWork) using a single connection and transaction.
+     * <p>
+     * Responses are inserted one at a time, to map each generated key to its response. All taxed items are written in a single statement.
+     */
+    public void addResponses(final List<AvaTaxResponse> responses) throws SQLException {
+        addResponses("addResponses", responses);
+    }
+
+    private void addResponses(final String query, final List<AvaTaxResponse> responses) throws SQLException {
+        if (responses.isEmpty()) {
+            return;
+        }
+
+        execute(query, responses.get(0).getKbTenantId(),
                 new WithConnectionCallback<Void>() {
                     @Override
                     public Void withConnection(final Connection conn) throws SQLException {
                         DSL.using(conn, dialect, settings)
-                           .insertInto(AVATAX_RESPONSES,
-                                       AVATAX_RESPONSES.KB_ACCOUNT_ID,
-                                       AVATAX_RESPONSES.KB_INVOICE_ID,
-                                       AVATAX_RESPONSES.KB_INVOICE_ITEM_IDS,
-                                       AVATAX_RESPONSES.RESULT_CODE,
-                                       AVATAX_RESPONSES.ADDITIONAL_DATA,
-                                       AVATAX_RESPONSES.CREATED_DATE,
-                                       AVATAX_RESPONSES.KB_TENANT_ID)
-                           .values(kbAccountId.toString(),
-                                   kbInvoiceId.toString(),
-                                   kbInvoiceItemsIdsAsString(kbInvoiceItems),
-                                   ERROR,
-                                   asString(errors),
-                                   toLocalDateTime(utcNow),
-                                   kbTenantId.toString())
-                           .execute();
+                           .transaction(new TransactionalRunnable() {
+                               @Override
+                               public void run(final Configuration configuration) throws Exception {
+                                   final DSLContext dslContext = DSL.using(configuration);
+                                   final List<ULong> recordIds = insertResponses(dslContext, responses);
+                                   final Map<ULong, AvaTaxResponse> responsesByRecordId = new LinkedHashMap<ULong, AvaTaxResponse>();
+                                   for (int i = 0; i < responses.size(); i++) {
+                                       responsesByRecordId.put(recordIds.get(i), responses.get(i));
+                                   }
+                                   addResponseItems(dslContext, responsesByRecordId);
+                                   addPendingDocuments(dslContext, responsesByRecordId);
+                               }
+                           });
                         return null;
                     }
                 });
     }
 
-    // TODO Check committed docs only - but DocStatus isn't returned?
+    // One statement per response: the order of the keys returned by a multi-row INSERT ... RETURNING isn't guaranteed
+    private List<ULong> insertResponses(final DSLContext dslContext, final List<AvaTaxResponse> responses) throws SQLException {
+        final List<ULong> recordIds = new ArrayList<ULong>(responses.size());
+        for (final AvaTaxResponse response : responses) {
+            recordIds.add(dslContext.insertInto(AVATAX_RESPONSES, RESPONSE_FIELDS)
+                                    .values(toResponseRow(response))
+                                    .returning(AVATAX_RESPONSES.RECORD_ID)
+                                    .fetchOne()
+                                    .getRecordId());
+        }
+        return recordIds;
+    }
+
+    // Values for RESPONSE_FIELDS
+    private List<Object> toResponseRow(final AvaTaxResponse response) throws SQLException {
+        final Object[] row = new Object[RESPONSE_FIELDS.size()];
+        row[0] = response.getKbAccountId().toString();
+        row[1] = response.getKbInvoiceId().toString();
+        if (response.getTransaction() != null) {
+            final TransactionModel taxResult = response.getTransaction();
+            row[2] = taxResult.code;
+            row[3] = taxResult.date == null ? null : taxResult.date.toInstant().atZone(ZoneOffset.UTC).toLocalDateTime();
+            row[4] = null;
+            row[5] = BigDecimal.valueOf(taxResult.totalAmount);
+            row[6] = BigDecimal.valueOf(taxResult.totalDiscount);
+            row[7] = BigDecimal.valueOf(taxResult.totalExempt);
+            row[8] = BigDecimal.valueOf(taxResult.totalTaxable);
+            row[9] = BigDecimal.valueOf(taxResult.totalTax);
+            row[10] = BigDecimal.valueOf(taxResult.totalTaxCalculated);
+            row[11] = taxResult.taxDate == null ? null : taxResult.taxDate.toInstant().atZone(ZoneOffset.UTC).toLocalDateTime();
+            setJsonColumn(row, 12, 20, asString(taxResult.lines));
+            setJsonColumn(row, 13, 21, asString(taxResult.summary));
+            setJsonColumn(row, 14, 22, asString(taxResult.addresses));
+            row[15] = SUCCESS;
+            setJsonColumn(row, 16, 23, asString(taxResult.messages));
+        } else if (response.getErrors() != null) {
+            row[15] = ERROR;
+            row[17] = asString(response.getErrors());
+        } else {
+            row[9] = BigDecimal.valueOf(response.getTaxRateResult().totalRate);
+            row[15] = SUCCESS;
+        }
+        row[18] = toLocalDateTime(response.getCreatedDate());
+        row[19] = response.getKbTenantId().toString();
+        row[24] = response.isFallback();
+        // Still written (the taxed items are read from avatax_response_items), so that the previous release of the plugin can be rolled back to
+        row[25] = kbInvoiceItemsIdsAsString(response.getKbInvoiceItems());
+        return Arrays.asList(row);
+    }
+
+    // Format of the legacy kb_invoice_item_ids column
+    private String kbInvoiceItemsIdsAsString(final Map<UUID, Iterable<InvoiceItem>> kbInvoiceItems) throws SQLException {
+        final Map<UUID, Set<UUID>> kbInvoiceItemsIds = new HashMap<UUID, Set<UUID>>();
+        for (final Entry<UUID, Iterable<InvoiceItem>> entry : kbInvoiceItems.entrySet()) {
+            final Set<UUID> kbAdjustmentItemIds = new HashSet<UUID>();
+            if (entry.getValue() != null) {
+                for (final InvoiceItem adjustmentItem : entry.getValue()) {
+                    kbAdjustmentItemIds.add(adjustmentItem.getId());
+                }
+            }
+            kbInvoiceItemsIds.put(entry.getKey(), kbAdjustmentItemIds);
+        }
+        return asString(kbInvoiceItemsIds);
+    }
+
+    // The value is stored either as is or compressed, in the binary counterpart of the column
+    private void setJsonColumn(final Object[] row, final int index, final int binIndex, @Nullable final String json) {
+        if (compressResponses) {
+            row[binIndex] = CompressedJsonCodec.encode(json);
+        } else {
+            row[index] = json;
+        }
+    }
+
+    private void addResponseItems(final DSLContext dslContext, final Map<ULong, AvaTaxResponse> responsesByRecordId) {
+        InsertValuesStep4<AvataxResponseItemsRecord, ULong, String, String, String> insert = dslContext.insertInto(AVATAX_RESPONSE_ITEMS,
+                                                                                                                   AVATAX_RESPONSE_ITEMS.RESPONSE_RECORD_ID,
+                                                                                                                   AVATAX_RESPONSE_ITEMS.KB_INVOICE_ITEM_ID,
+                                                                                                                   AVATAX_RESPONSE_ITEMS.KB_ADJUSTMENT_ITEM_ID,
+                                                                                                                   AVATAX_RESPONSE_ITEMS.KB_TENANT_ID);
+        boolean hasItems = false;
+        for (final Entry<ULong, AvaTaxResponse> response : responsesByRecordId.entrySet()) {
+            for (final Entry<UUID, Iterable<InvoiceItem>> entry : response.getValue().getKbInvoiceItems().entrySet()) {
+                final Set<UUID> kbAdjustmentItemIds = new HashSet<UUID>();
+                if (entry.getValue() != null) {
+                    for (final InvoiceItem adjustmentItem : entry.getValue()) {
+                        kbAdjustmentItemIds.add(adjustmentItem.getId());
+                    }
+                }
+                insert = addResponseItems(insert, response.getKey(), entry.getKey(), kbAdjustmentItemIds, response.getValue().getKbTenantId());
+                hasItems = true;
+            }
+        }
+        if (hasItems) {
+            insert.execute();
+        }
+    }
+
+    private InsertValuesStep4<AvataxResponseItemsRecord, ULong, String, String, String> addResponseItems(final InsertValuesStep4<AvataxResponseItemsRecord, ULong, String, String, String> insert,
+                                                                                                         final ULong responseRecordId,
+                                                                                                         final UUID kbInvoiceItemId,
+                                                                                                         final Collection<UUID> kbAdjustmentItemIds,
+                                                                                                         final UUID kbTenantId) {
+        // One row per adjustment, or a single row without adjustment so that the taxed item is recorded
+        if (kbAdjustmentItemIds.isEmpty()) {
+            return insert.values(responseRecordId, kbInvoiceItemId.toString(), null, kbTenantId.toString());
+        }
+
+        InsertValuesStep4<AvataxResponseItemsRecord, ULong, String, String, String> result = insert;
+        for (final UUID kbAdjustmentItemId : kbAdjustmentItemIds) {
+            result = result.values(responseRecordId, kbInvoiceItemId.toString(), kbAdjustmentItemId.toString(), kbTenantId.toString());
+        }
+        return result;
+    }
+
+    // Fallback responses: the document still needs to be created in AvaTax, queue it in the same transaction
+    private void addPendingDocuments(final DSLContext dslContext, final Map<ULong, AvaTaxResponse> responsesByRecordId) throws JsonProcessingException {
+        for (final Entry<ULong, AvaTaxResponse> response : responsesByRecordId.entrySet()) {
+            final CreateTransactionModel pendingRequest = response.getValue().getPendingRequest();
+            if (pendingRequest == null) {
+                continue;
+            }
+
+            final LocalDateTime createdDate = toLocalDateTime(response.getValue().getCreatedDate());
+            dslContext.insertInto(AVATAX_PENDING_DOCUMENTS,
+                                  AVATAX_PENDING_DOCUMENTS.RESPONSE_RECORD_ID,
+                                  AVATAX_PENDING_DOCUMENTS.KB_ACCOUNT_ID,
+                                  AVATAX_PENDING_DOCUMENTS.KB_INVOICE_ID,
+                                  AVATAX_PENDING_DOCUMENTS.DOC_CODE,
+                                  AVATAX_PENDING_DOCUMENTS.REQUEST,
+                                  AVATAX_PENDING_DOCUMENTS.STATUS,
+                                  AVATAX_PENDING_DOCUMENTS.ATTEMPTS,
+                                  AVATAX_PENDING_DOCUMENTS.NEXT_ATTEMPT_DATE,
+                                  AVATAX_PENDING_DOCUMENTS.CREATED_DATE,
+                                  AVATAX_PENDING_DOCUMENTS.UPDATED_DATE,
+                                  AVATAX_PENDING_DOCUMENTS.KB_TENANT_ID)
+                      .values(response.getKey(),
+                              response.getValue().getKbAccountId().toString(),
+                              response.getValue().getKbInvoiceId().toString(),
+                              pendingRequest.code,
+                              requestMapper.writeValueAsString(pendingRequest),
+                              PENDING_DOCUMENT_PENDING,
+                              0,
+                              createdDate,
+                              createdDate,
+                              createdDate,
+                              response.getValue().getKbTenantId().toString())
+                      .execute();
+        }
+    }
+
+    // Full rows: the plugin itself only reads the columns it needs (see getTaxedItemsWithAdjustments and getSuccessfulDocCodes)
+    @VisibleForTesting
     public List<AvataxResponsesRecord> getSuccessfulResponses(final UUID invoiceId, final UUID kbTenantId) throws SQLException {
-        return execute(dataSource.getConnection(),
+        return execute("getSuccessfulResponses", kbTenantId,
                        new WithConnectionCallback<List<AvataxResponsesRecord>>() {
                            @Override
                            public List<AvataxResponsesRecord> withConnection(final Connection conn) throws SQLException {
@@ -286,23 +712,966 @@ public class AvaTaxDao extends PluginDao {
     }
 
     /**
-     * Retrieve all taxed items (successfully committed in AvaTax), along with the associated adjustments that have already
-     * been taken into account.
+     * Retrieve the (distinct) document codes of all successful responses for that invoice.
+     */
+    public List<String> getSuccessfulDocCodes(final UUID invoiceId, final UUID kbTenantId) throws SQLException {
+        final List<String> docCodes = execute("getSuccessfulDocCodes", kbTenantId,
+                                              new WithConnectionCallback<List<String>>() {
+                                                  @Override
+                                                  public List<String> withConnection(final Connection conn) throws SQLException {
+                                                      return DSL.using(conn, dialect, settings)
+                                                                .select(AVATAX_RESPONSES.DOC_CODE, AVATAX_RESPONSES.RECORD_ID)
+                                                                .from(AVATAX_RESPONSES)
+                                                                .where(AVATAX_RESPONSES.KB_INVOICE_ID.equal(invoiceId.toString()))
+                                                                .and(AVATAX_RESPONSES.RESULT_CODE.equal(SUCCESS))
+                                                                .and(AVATAX_RESPONSES.KB_TENANT_ID.equal(kbTenantId.toString()))
+                                                                .and(AVATAX_RESPONSES.DOC_CODE.isNotNull())
+                                                                .orderBy(AVATAX_RESPONSES.RECORD_ID.asc())
+                                                                .fetch(AVATAX_RESPONSES.DOC_CODE);
+                                                  }
+                                              });
+        return ImmutableList.<String>copyOf(new LinkedHashSet<String>(docCodes));
+    }
+
+    /**
+     * Retrieve the document code of the first successful response for each invoice, in a single query.
+     *
+     * @param kbInvoiceIds invoice ids
+     * @param kbTenantId   tenant id
+     * @return Mapping between invoice ids and document codes (invoices without any successful response are absent, the document code is null for the Tax Rates API).
+     * For a fallback response, this is the code of the document queued in avatax_pending_documents, which may not be created in AvaTax yet
+     */
+    public Map<UUID, String> getFirstSuccessfulDocCodes(final Collection<UUID> kbInvoiceIds, final UUID kbTenantId) throws SQLException {
+        if (kbInvoiceIds.isEmpty()) {
+            return ImmutableMap.<UUID, String>of();
+        }
+
+        final Collection<String> kbInvoiceIdsAsStrings = new HashSet<String>(kbInvoiceIds.size());
+        for (final UUID kbInvoiceId : kbInvoiceIds) {
+            kbInvoiceIdsAsStrings.add(kbInvoiceId.toString());
+        }
+
+        final Result<Record3<String, String, ULong>> records = execute("getFirstSuccessfulDocCodes", kbTenantId,
+                                                                       new WithConnectionCallback<Result<Record3<String, String, ULong>>>() {
+                                                                           @Override
+                                                                           public Result<Record3<String, String, ULong>> withConnection(final Connection conn) throws SQLException {
+                                                                               return DSL.using(conn, dialect, settings)
+                                                                                         .select(AVATAX_RESPONSES.KB_INVOICE_ID,
+                                                                                                 DSL.coalesce(AVATAX_RESPONSES.DOC_CODE, AVATAX_PENDING_DOCUMENTS.DOC_CODE),
+                                                                                                 AVATAX_RESPONSES.RECORD_ID)
+                                                                                         .from(AVATAX_RESPONSES)
+                                                                                         // The doc code of fallback responses is only set once the document is created in AvaTax
+                                                                                         .leftJoin(AVATAX_PENDING_DOCUMENTS).on(AVATAX_PENDING_DOCUMENTS.RESPONSE_RECORD_ID.equal(AVATAX_RESPONSES.RECORD_ID))
+                                                                                         .where(AVATAX_RESPONSES.KB_INVOICE_ID.in(kbInvoiceIdsAsStrings))
+                                                                                         .and(AVATAX_RESPONSES.RESULT_CODE.equal(SUCCESS))
+                                                                                         .and(AVATAX_RESPONSES.KB_TENANT_ID.equal(kbTenantId.toString()))
+                                                                                         .orderBy(AVATAX_RESPONSES.RECORD_ID.asc())
+                                                                                         .fetch();
+                                                                           }
+                                                                       });
+
+        final Map<UUID, String> docCodes = new HashMap<UUID, String>();
+        for (final Record3<String, String, ULong> record : records) {
+            final UUID kbInvoiceId = UUID.fromString(record.value1());
+            // Records are sorted by record_id: keep the first one
+            if (!docCodes.containsKey(kbInvoiceId)) {
+                docCodes.put(kbInvoiceId, record.value2());
+            }
+        }
+        return docCodes;
+    }
+
+    /**
+     * Retrieve all taxed items for that invoice, along with the associated adjustments that have already been taken into account.
      *
-     * @param responses existing AvaTax responses
+     * @param invoiceId  invoice id
+     * @param kbTenantId tenant id
      * @return Mapping between taxed invoice item ids and associated adjustments (if any)
      */
-    public Map<UUID, Set<UUID>> getTaxedItemsWithAdjustments(final Iterable<AvataxResponsesRecord> responses) {
+    public Map<UUID, Set<UUID>> getTaxedItemsWithAdjustments(final UUID invoiceId, final UUID kbTenantId) throws SQLException {
+        final Result<Record3<ULong, String, String>> records = execute("getTaxedItemsWithAdjustments", kbTenantId,
+                                                                       new WithConnectionCallback<Result<Record3<ULong, String, String>>>() {
+                                                                           @Override
+                                                                           public Result<Record3<ULong, String, String>> withConnection(final Connection conn) throws SQLException {
+                                                                               return DSL.using(conn, dialect, settings)
+                                                                                         .select(AVATAX_RESPONSES.RECORD_ID, AVATAX_RESPONSE_ITEMS.KB_INVOICE_ITEM_ID, AVATAX_RESPONSE_ITEMS.KB_ADJUSTMENT_ITEM_ID)
+                                                                                         .from(AVATAX_RESPONSES)
+                                                                                         .leftJoin(AVATAX_RESPONSE_ITEMS).on(AVATAX_RESPONSE_ITEMS.RESPONSE_RECORD_ID.equal(AVATAX_RESPONSES.RECORD_ID))
+                                                                                         .where(AVATAX_RESPONSES.KB_INVOICE_ID.equal(invoiceId.toString()))
+                                                                                         .and(AVATAX_RESPONSES.RESULT_CODE.equal(SUCCESS))
+                                                                                         .and(AVATAX_RESPONSES.KB_TENANT_ID.equal(kbTenantId.toString()))
+                                                                                         .fetch();
+                                                                           }
+                                                                       });
+
         final Map<UUID, Set<UUID>> kbInvoiceItemsIds = new HashMap<UUID, Set<UUID>>();
-        for (final AvataxResponsesRecord response : responses) {
+        final Collection<ULong> legacyRecordIds = new HashSet<ULong>();
+        for (final Record3<ULong, String, String> record : records) {
+            if (record.value2() == null) {
+                // Not backfilled yet (see backfillResponseItems)
+                legacyRecordIds.add(record.value1());
+                continue;
+            }
+
+            final UUID kbInvoiceItemId = UUID.fromString(record.value2());
+            if (kbInvoiceItemsIds.get(kbInvoiceItemId) == null) {
+                kbInvoiceItemsIds.put(kbInvoiceItemId, new HashSet<UUID>());
+            }
+            if (record.value3() != null) {
+                kbInvoiceItemsIds.get(kbInvoiceItemId).add(UUID.fromString(record.value3()));
+            }
+        }
+
+        if (!legacyRecordIds.isEmpty()) {
+            for (final Record2<ULong, String> record : getLegacyKbInvoiceItemIds(legacyRecordIds, kbTenantId)) {
+                addTaxedItemsWithAdjustments(record.value1(), record.value2(), kbInvoiceItemsIds);
+            }
+        }
+
+        return kbInvoiceItemsIds;
+    }
+
+    private Result<Record2<ULong, String>> getLegacyKbInvoiceItemIds(final Collection<ULong> recordIds, final UUID kbTenantId) throws SQLException {
+        return execute("getLegacyKbInvoiceItemIds", kbTenantId,
+                       new WithConnectionCallback<Result<Record2<ULong, String>>>() {
+                           @Override
+                           public Result<Record2<ULong, String>> withConnection(final Connection conn) throws SQLException {
+                               return DSL.using(conn, dialect, settings)
+                                         .select(AVATAX_RESPONSES.RECORD_ID, AVATAX_RESPONSES.KB_INVOICE_ITEM_IDS)
+                                         .from(AVATAX_RESPONSES)
+                                         .where(AVATAX_RESPONSES.RECORD_ID.in(recordIds))
+                                         .fetch();
+                           }
+                       });
+    }
+
+    /**
+     * Copy the taxed items and their adjustments of responses written by older versions of the plugin into avatax_response_items.
+     * <p>
+     * The progress is stored in avatax_backfills (see RESPONSE_ITEMS_BACKFILL), locked for the duration of the batch: the job
+     * resumes where it stopped after a restart, and several nodes running it don't migrate the same responses.
+     *
+     * @param batchSize maximum number of responses to migrate
+     * @param utcNow    current time
+     * @return the record_id of the last response migrated, null if there is nothing left to migrate
+     */
+    public ULong backfillResponseItems(final int batchSize, final DateTime utcNow) throws SQLException {
+        return execute("backfillResponseItems", null,
+                       new WithConnectionCallback<ULong>() {
+                           @Override
+                           public ULong withConnection(final Connection conn) throws SQLException {
+                               return DSL.using(conn, dialect, settings)
+                                         .transactionResult(new TransactionalCallable<ULong>() {
+                                             @Override
+                                             public ULong run(final Configuration configuration) throws Exception {
+                                                 final DSLContext dslContext = DSL.using(configuration);
+                                                 final ULong fromRecordId = lockBackfill(dslContext, RESPONSE_ITEMS_BACKFILL, utcNow);
+
+                                                 final Result<AvataxResponsesRecord> responses = dslContext.select(AVATAX_RESPONSES.RECORD_ID,
+                                                                                                                   AVATAX_RESPONSES.KB_INVOICE_ITEM_IDS,
+                                                                                                                   AVATAX_RESPONSES.KB_TENANT_ID)
+                                                                                                           .from(AVATAX_RESPONSES)
+                                                                                                           .where(AVATAX_RESPONSES.RECORD_ID.greaterThan(fromRecordId))
+                                                                                                           .and(AVATAX_RESPONSES.KB_INVOICE_ITEM_IDS.isNotNull())
+                                                                                                           .andNotExists(dslContext.selectOne()
+                                                                                                                                   .from(AVATAX_RESPONSE_ITEMS)
+                                                                                                                                   .where(AVATAX_RESPONSE_ITEMS.RESPONSE_RECORD_ID.equal(AVATAX_RESPONSES.RECORD_ID)))
+                                                                                                           .orderBy(AVATAX_RESPONSES.RECORD_ID.asc())
+                                                                                                           .limit(batchSize)
+                                                                                                           .fetchInto(AVATAX_RESPONSES);
+                                                 if (responses.isEmpty()) {
+                                                     return null;
+                                                 }
+
+                                                 InsertValuesStep4<AvataxResponseItemsRecord, ULong, String, String, String> insert = dslContext.insertInto(AVATAX_RESPONSE_ITEMS,
+                                                                                                                                                            AVATAX_RESPONSE_ITEMS.RESPONSE_RECORD_ID,
+                                                                                                                                                            AVATAX_RESPONSE_ITEMS.KB_INVOICE_ITEM_ID,
+                                                                                                                                                            AVATAX_RESPONSE_ITEMS.KB_ADJUSTMENT_ITEM_ID,
+                                                                                                                                                            AVATAX_RESPONSE_ITEMS.KB_TENANT_ID);
+                                                 boolean hasItems = false;
+                                                 for (final AvataxResponsesRecord response : responses) {
+                                                     final Map<UUID, Set<UUID>> kbInvoiceItemsIds = new HashMap<UUID, Set<UUID>>();
+                                                     addTaxedItemsWithAdjustments(response.getRecordId(), response.getKbInvoiceItemIds(), kbInvoiceItemsIds);
+                                                     for (final Entry<UUID, Set<UUID>> entry : kbInvoiceItemsIds.entrySet()) {
+                                                         insert = addResponseItems(insert, response.getRecordId(), entry.getKey(), entry.getValue(), UUID.fromString(response.getKbTenantId()));
+                                                         hasItems = true;
+                                                     }
+                                                 }
+                                                 if (hasItems) {
+                                                     insert.execute();
+                                                 }
+
+                                                 final ULong lastRecordId = responses.get(responses.size() - 1).getRecordId();
+                                                 updateBackfill(dslContext, RESPONSE_ITEMS_BACKFILL, lastRecordId, utcNow);
+                                                 return lastRecordId;
+                                             }
+                                         });
+                           }
+                       });
+    }
+
+    /**
+     * Compress the tax_lines, tax_summary, tax_addresses and messages columns of responses stored uncompressed (e.g. by older versions of the plugin).
+     * <p>
+     * The uncompressed columns are set to NULL. Like for backfillResponseItems, the progress is stored in avatax_backfills (see RESPONSES_COMPRESSION_BACKFILL).
+     *
+     * @param batchSize maximum number of responses to migrate
+     * @param utcNow    current time
+     * @return the record_id of the last response migrated, null if there is nothing left to migrate
+     */
+    public ULong compressResponses(final int batchSize, final DateTime utcNow) throws SQLException {
+        return execute("compressResponses", null,
+                       new WithConnectionCallback<ULong>() {
+                           @Override
+                           public ULong withConnection(final Connection conn) throws SQLException {
+                               return DSL.using(conn, dialect, settings)
+                                         .transactionResult(new TransactionalCallable<ULong>() {
+                                             @Override
+                                             public ULong run(final Configuration configuration) throws Exception {
+                                                 final DSLContext dslContext = DSL.using(configuration);
+                                                 final ULong fromRecordId = lockBackfill(dslContext, RESPONSES_COMPRESSION_BACKFILL, utcNow);
+
+                                                 final Result<AvataxResponsesRecord> responses = dslContext.select(AVATAX_RESPONSES.RECORD_ID,
+                                                                                                                   AVATAX_RESPONSES.TAX_LINES,
+                                                                                                                   AVATAX_RESPONSES.TAX_SUMMARY,
+                                                                                                                   AVATAX_RESPONSES.TAX_ADDRESSES,
+                                                                                                                   AVATAX_RESPONSES.MESSAGES)
+                                                                                                           .from(AVATAX_RESPONSES)
+                                                                                                           .where(AVATAX_RESPONSES.RECORD_ID.greaterThan(fromRecordId))
+                                                                                                           .and(AVATAX_RESPONSES.TAX_LINES.isNotNull()
+                                                                                                                                          .or(AVATAX_RESPONSES.TAX_SUMMARY.isNotNull())
+                                                                                                                                          .or(AVATAX_RESPONSES.TAX_ADDRESSES.isNotNull())
+                                                                                                                                          .or(AVATAX_RESPONSES.MESSAGES.isNotNull()))
+                                                                                                           .orderBy(AVATAX_RESPONSES.RECORD_ID.asc())
+                                                                                                           .limit(batchSize)
+                                                                                                           .fetchInto(AVATAX_RESPONSES);
+                                                 if (responses.isEmpty()) {
+                                                     return null;
+                                                 }
+
+                                                 final List<Query> updates = new ArrayList<Query>(responses.size());
+                                                 for (final AvataxResponsesRecord response : responses) {
+                                                     final Map<Field<?>, Object> values = new HashMap<Field<?>, Object>();
+                                                     addCompressedJsonColumn(values, AVATAX_RESPONSES.TAX_LINES, AVATAX_RESPONSES.TAX_LINES_BIN, response.getTaxLines());
+                                                     addCompressedJsonColumn(values, AVATAX_RESPONSES.TAX_SUMMARY, AVATAX_RESPONSES.TAX_SUMMARY_BIN, response.getTaxSummary());
+                                                     addCompressedJsonColumn(values, AVATAX_RESPONSES.TAX_ADDRESSES, AVATAX_RESPONSES.TAX_ADDRESSES_BIN, response.getTaxAddresses());
+                                                     addCompressedJsonColumn(values, AVATAX_RESPONSES.MESSAGES, AVATAX_RESPONSES.MESSAGES_BIN, response.getMessages());
+                                                     updates.add(dslContext.update(AVATAX_RESPONSES)
+                                                                           .set(values)
+                                                                           .where(AVATAX_RESPONSES.RECORD_ID.equal(response.getRecordId())));
+                                                 }
+                                                 dslContext.batch(updates).execute();
+
+                                                 final ULong lastRecordId = responses.get(responses.size() - 1).getRecordId();
+                                                 updateBackfill(dslContext, RESPONSES_COMPRESSION_BACKFILL, lastRecordId, utcNow);
+                                                 return lastRecordId;
+                                             }
+                                         });
+                           }
+                       });
+    }
+
+    // Columns left null are untouched
+    private void addCompressedJsonColumn(final Map<Field<?>, Object> values, final Field<String> field, final Field<byte[]> binField, @Nullable final String json) {
+        if (json != null) {
+            values.put(binField, CompressedJsonCodec.encode(json));
+            values.put(field, null);
+        }
+    }
+
+    /**
+     * Remove the details of old responses (tax_lines, tax_summary, tax_addresses, messages, additional_data and their compressed counterparts).
+     * <p>
+     * Everything needed to compute taxes for subsequent adjustments is kept: doc_code, the totals and the taxed items.
+     *
+     * @param fromRecordId     only responses with a greater record_id are looked at
+     * @param batchSize        maximum number of responses looked at
+     * @param retentionCutOffs for each tenant, the date before which responses are stripped (null to keep them)
+     * @return the record_id of the last response looked at, null if there is nothing left to look at
+     */
+    public ULong stripResponses(final ULong fromRecordId, final int batchSize, final Function<UUID, DateTime> retentionCutOffs) throws SQLException {
+        return execute("stripResponses", null,
+                       new WithConnectionCallback<ULong>() {
+                           @Override
+                           public ULong withConnection(final Connection conn) throws SQLException {
+                               return DSL.using(conn, dialect, settings)
+                                         .transactionResult(new TransactionalCallable<ULong>() {
+                                             @Override
+                                             public ULong run(final Configuration configuration) throws Exception {
+                                                 final DSLContext dslContext = DSL.using(configuration);
+
+                                                 final Result<Record3<ULong, String, LocalDateTime>> responses = dslContext.select(AVATAX_RESPONSES.RECORD_ID,
+                                                                                                                                   AVATAX_RESPONSES.KB_TENANT_ID,
+                                                                                                                                   AVATAX_RESPONSES.CREATED_DATE)
+                                                                                                                           .from(AVATAX_RESPONSES)
+                                                                                                                           .where(AVATAX_RESPONSES.RECORD_ID.greaterThan(fromRecordId))
+                                                                                                                           .and(DSL.or(AVATAX_RESPONSES.TAX_LINES.isNotNull(),
+                                                                                                                                       AVATAX_RESPONSES.TAX_LINES_BIN.isNotNull(),
+                                                                                                                                       AVATAX_RESPONSES.TAX_SUMMARY.isNotNull(),
+                                                                                                                                       AVATAX_RESPONSES.TAX_SUMMARY_BIN.isNotNull(),
+                                                                                                                                       AVATAX_RESPONSES.TAX_ADDRESSES.isNotNull(),
+                                                                                                                                       AVATAX_RESPONSES.TAX_ADDRESSES_BIN.isNotNull(),
+                                                                                                                                       AVATAX_RESPONSES.MESSAGES.isNotNull(),
+                                                                                                                                       AVATAX_RESPONSES.MESSAGES_BIN.isNotNull(),
+                                                                                                                                       AVATAX_RESPONSES.ADDITIONAL_DATA.isNotNull()))
+                                                                                                                           .orderBy(AVATAX_RESPONSES.RECORD_ID.asc())
+                                                                                                                           .limit(batchSize)
+                                                                                                                           .fetch();
+                                                 if (responses.isEmpty()) {
+                                                     return null;
+                                                 }
+
+                                                 final Map<String, LocalDateTime> cutOffsByTenant = new HashMap<String, LocalDateTime>();
+                                                 final Collection<ULong> recordIds = new ArrayList<ULong>(responses.size());
+                                                 for (final Record3<ULong, String, LocalDateTime> response : responses) {
+                                                     if (!cutOffsByTenant.containsKey(response.value2())) {
+                                                         final DateTime cutOff = retentionCutOffs.apply(UUID.fromString(response.value2()));
+                                                         cutOffsByTenant.put(response.value2(), cutOff == null ? null : toLocalDateTime(cutOff));
+                                                     }
+                                                     final LocalDateTime cutOff = cutOffsByTenant.get(response.value2());
+                                                     if (cutOff != null && response.value3().isBefore(cutOff)) {
+                                                         recordIds.add(response.value1());
+                                                     }
+                                                 }
+
+                                                 if (!recordIds.isEmpty()) {
+                                                     dslContext.update(AVATAX_RESPONSES)
+                                                               .set(AVATAX_RESPONSES.TAX_LINES, (String) null)
+                                                               .set(AVATAX_RESPONSES.TAX_LINES_BIN, (byte[]) null)
+                                                               .set(AVATAX_RESPONSES.TAX_SUMMARY, (String) null)
+                                                               .set(AVATAX_RESPONSES.TAX_SUMMARY_BIN, (byte[]) null)
+                                                               .set(AVATAX_RESPONSES.TAX_ADDRESSES, (String) null)
+                                                               .set(AVATAX_RESPONSES.TAX_ADDRESSES_BIN, (byte[]) null)
+                                                               .set(AVATAX_RESPONSES.MESSAGES, (String) null)
+                                                               .set(AVATAX_RESPONSES.MESSAGES_BIN, (byte[]) null)
+                                                               .set(AVATAX_RESPONSES.ADDITIONAL_DATA, (String) null)
+                                                               .where(AVATAX_RESPONSES.RECORD_ID.in(recordIds))
+                                                               .execute();
+                                                 }
+
+                                                 return responses.get(responses.size() - 1).value1();
+                                             }
+                                         });
+                           }
+                       });
+    }
+
+    /**
+     * Claim the pending documents due for an attempt, so that only this node sends them to AvaTax until the lease expires.
+     * <p>
+     * Rows locked by another node are skipped when the database supports it (SKIP LOCKED), otherwise the claim waits for the other transaction.
+     *
+     * @param batchSize        maximum number of documents to claim
+     * @param utcNow           now
+     * @param leaseExpiration  date after which the documents can be claimed again (e.g. if this node dies while processing them)
+     * @return the claimed documents
+     */
+    public List<AvataxPendingDocumentsRecord> claimPendingDocuments(final int batchSize, final DateTime utcNow, final DateTime leaseExpiration) throws SQLException {
+        return execute("claimPendingDocuments", null,
+                       new WithConnectionCallback<List<AvataxPendingDocumentsRecord>>() {
+                           @Override
+                           public List<AvataxPendingDocumentsRecord> withConnection(final Connection conn) throws SQLException {
+                               return DSL.using(conn, dialect, settings)
+                                         .transactionResult(new TransactionalCallable<List<AvataxPendingDocumentsRecord>>() {
+                                             @Override
+                                             public List<AvataxPendingDocumentsRecord> run(final Configuration configuration) throws Exception {
+                                                 final DSLContext dslContext = DSL.using(configuration);
+
+                                                 final SelectForUpdateStep<AvataxPendingDocumentsRecord> query = dslContext.selectFrom(AVATAX_PENDING_DOCUMENTS)
+                                                                                                                           .where(AVATAX_PENDING_DOCUMENTS.STATUS.equal(PENDING_DOCUMENT_PENDING))
+                                                                                                                           .and(AVATAX_PENDING_DOCUMENTS.NEXT_ATTEMPT_DATE.lessOrEqual(toLocalDateTime(utcNow)))
+                                                                                                                           .orderBy(AVATAX_PENDING_DOCUMENTS.NEXT_ATTEMPT_DATE.asc(), AVATAX_PENDING_DOCUMENTS.RECORD_ID.asc())
+                                                                                                                           .limit(batchSize);
+                                                 final Result<AvataxPendingDocumentsRecord> pendingDocuments = lockForUpdate(query);
+                                                 if (pendingDocuments.isEmpty()) {
+                                                     return ImmutableList.<AvataxPendingDocumentsRecord>of();
+                                                 }
+
+                                                 final Collection<ULong> recordIds = new ArrayList<ULong>(pendingDocuments.size());
+                                                 for (final AvataxPendingDocumentsRecord pendingDocument : pendingDocuments) {
+                                                     recordIds.add(pendingDocument.getRecordId());
+                                                 }
+                                                 dslContext.update(AVATAX_PENDING_DOCUMENTS)
+                                                           .set(AVATAX_PENDING_DOCUMENTS.NEXT_ATTEMPT_DATE, toLocalDateTime(leaseExpiration))
+                                                           .set(AVATAX_PENDING_DOCUMENTS.UPDATED_DATE, toLocalDateTime(utcNow))
+                                                           .where(AVATAX_PENDING_DOCUMENTS.RECORD_ID.in(recordIds))
+                                                           .execute();
+
+                                                 return pendingDocuments;
+                                             }
+                                         });
+                           }
+                       });
+    }
+
+    // Rows locked by another transaction are skipped when the database supports it
+    private <R extends Record> Result<R> lockForUpdate(final SelectForUpdateStep<R> query) {
+        if (dialect.family() == SQLDialect.POSTGRES || dialect.family() == SQLDialect.MYSQL) {
+            return query.forUpdate().skipLocked().fetch();
+        } else {
+            return query.forUpdate().fetch();
+        }
+    }
+
+    public CreateTransactionModel toCreateTransactionModel(final AvataxPendingDocumentsRecord pendingDocument) throws SQLException {
+        try {
+            return requestMapper.readValue(pendingDocument.getRequest(), CreateTransactionModel.class);
+        } catch (final IOException e) {
+            throw new SQLException("Corrupted entry for pending document record_id " + pendingDocument.getRecordId(), e);
+        }
+    }
+
+    /**
+     * Replace the fallback response by the actual AvaTax transaction and remove the document from the queue.
+     *
+     * @return false if the document was already completed (e.g. by another node, after the lease expired)
+     */
+    public boolean completePendingDocument(final AvataxPendingDocumentsRecord pendingDocument,
+                                           final TransactionModel transaction,
+                                           final DateTime utcNow) throws SQLException {
+        final UUID kbTenantId = UUID.fromString(pendingDocument.getKbTenantId());
+        final AvaTaxResponse response = AvaTaxResponse.forTransaction(UUID.fromString(pendingDocument.getKbAccountId()),
+                                                                      UUID.fromString(pendingDocument.getKbInvoiceId()),
+                                                                      ImmutableMap.<UUID, Iterable<InvoiceItem>>of(),
+                                                                      transaction,
+                                                                      utcNow,
+                                                                      kbTenantId);
+        final List<Object> row = toResponseRow(response);
+        final Map<Field<?>, Object> values = new HashMap<Field<?>, Object>();
+        for (int i = 0; i < RESPONSE_FIELDS.size(); i++) {
+            if (!FALLBACK_RESPONSE_KEPT_FIELDS.contains(RESPONSE_FIELDS.get(i))) {
+                values.put(RESPONSE_FIELDS.get(i), row.get(i));
+            }
+        }
+
+        return execute("completePendingDocument", kbTenantId,
+                       new WithConnectionCallback<Boolean>() {
+                           @Override
+                           public Boolean withConnection(final Connection conn) throws SQLException {
+                               return DSL.using(conn, dialect, settings)
+                                         .transactionResult(new TransactionalCallable<Boolean>() {
+                                             @Override
+                                             public Boolean run(final Configuration configuration) throws Exception {
+                                                 final DSLContext dslContext = DSL.using(configuration);
+                                                 final int deleted = dslContext.deleteFrom(AVATAX_PENDING_DOCUMENTS)
+                                                                               .where(AVATAX_PENDING_DOCUMENTS.RECORD_ID.equal(pendingDocument.getRecordId()))
+                                                                               .execute();
+                                                 if (deleted == 0) {
+                                                     return false;
+                                                 }
+
+                                                 // The taxed items (avatax_response_items) are unchanged
+                                                 dslContext.update(AVATAX_RESPONSES)
+                                                           .set(values)
+                                                           .where(AVATAX_RESPONSES.RECORD_ID.equal(pendingDocument.getResponseRecordId()))
+                                                           .execute();
+                                                 return true;
+                                             }
+                                         });
+                           }
+                       });
+    }
+
+    /**
+     * Record a failed attempt.
+     *
+     * @param status          PENDING_DOCUMENT_PENDING to retry at nextAttemptDate, PENDING_DOCUMENT_FAILED to give up,
+     *                        PENDING_DOCUMENT_SKIPPED if the document mustn't be created (e.g. voided invoice)
+     * @param attempts        number of attempts so far
+     * @param nextAttemptDate date of the next attempt (ignored once failed)
+     * @param lastError       reason of the failure
+     */
+    public void reschedulePendingDocument(final AvataxPendingDocumentsRecord pendingDocument,
+                                          final String status,
+                                          final int attempts,
+                                          final DateTime nextAttemptDate,
+                                          @Nullable final String lastError,
+                                          final DateTime utcNow) throws SQLException {
+        execute("reschedulePendingDocument", UUID.fromString(pendingDocument.getKbTenantId()),
+                new WithConnectionCallback<Void>() {
+                    @Override
+                    public Void withConnection(final Connection conn) throws SQLException {
+                        DSL.using(conn, dialect, settings)
+                           .update(AVATAX_PENDING_DOCUMENTS)
+                           .set(AVATAX_PENDING_DOCUMENTS.STATUS, status)
+                           .set(AVATAX_PENDING_DOCUMENTS.ATTEMPTS, attempts)
+                           .set(AVATAX_PENDING_DOCUMENTS.NEXT_ATTEMPT_DATE, toLocalDateTime(nextAttemptDate))
+                           .set(AVATAX_PENDING_DOCUMENTS.LAST_ERROR, lastError)
+                           .set(AVATAX_PENDING_DOCUMENTS.UPDATED_DATE, toLocalDateTime(utcNow))
+                           .where(AVATAX_PENDING_DOCUMENTS.RECORD_ID.equal(pendingDocument.getRecordId()))
+                           .execute();
+                        return null;
+                    }
+                });
+    }
+
+    /**
+     * Queue an operation (commit or void) on documents, to be sent to AvaTax in the background.
+     * <p>
+     * There is at most one operation per document: queuing an operation replaces the previous one, unless it's the same operation and it's still pending
+     * (it is then left alone, with its retries schedule).
+     */
+    public void addOutboxOperations(final UUID kbInvoiceId,
+                                    final Collection<String> docCodes,
+                                    final String operation,
+                                    final DateTime utcNow,
+                                    final UUID kbTenantId) throws SQLException {
+        if (docCodes.isEmpty()) {
+            return;
+        }
+
+        execute("addOutboxOperations", kbTenantId,
+                new WithConnectionCallback<Void>() {
+                    @Override
+                    public Void withConnection(final Connection conn) throws SQLException {
+                        DSL.using(conn, dialect, settings)
+                           .transaction(new TransactionalRunnable() {
+                               @Override
+                               public void run(final Configuration configuration) throws Exception {
+                                   final DSLContext dslContext = DSL.using(configuration);
+                                   final LocalDateTime now = toLocalDateTime(utcNow);
+                                   final Condition alreadyPending = AVATAX_OUTBOX.OPERATION.equal(operation).and(AVATAX_OUTBOX.STATUS.equal(OUTBOX_PENDING));
+                                   for (final String docCode : docCodes) {
+                                       // The existing values are used on the right-hand side: these need to be set before operation and status (MySQL)
+                                       final InsertOnDuplicateSetMoreStep<AvataxOutboxRecord> upsert = dslContext.insertInto(AVATAX_OUTBOX,
+                                                                                                                             AVATAX_OUTBOX.KB_INVOICE_ID,
+                                                                                                                             AVATAX_OUTBOX.DOC_CODE,
+                                                                                                                             AVATAX_OUTBOX.OPERATION,
+                                                                                                                             AVATAX_OUTBOX.STATUS,
+                                                                                                                             AVATAX_OUTBOX.ATTEMPTS,
+                                                                                                                             AVATAX_OUTBOX.NEXT_ATTEMPT_DATE,
+                                                                                                                             AVATAX_OUTBOX.CREATED_DATE,
+                                                                                                                             AVATAX_OUTBOX.UPDATED_DATE,
+                                                                                                                             AVATAX_OUTBOX.KB_TENANT_ID)
+                                                                                                                 .values(kbInvoiceId.toString(),
+                                                                                                                         docCode,
+                                                                                                                         operation,
+                                                                                                                         OUTBOX_PENDING,
+                                                                                                                         0,
+                                                                                                                         now,
+                                                                                                                         now,
+                                                                                                                         now,
+                                                                                                                         kbTenantId.toString())
+                                                                                                                 .onConflict(AVATAX_OUTBOX.DOC_CODE, AVATAX_OUTBOX.KB_TENANT_ID)
+                                                                                                                 .doUpdate()
+                                                                                                                 .set(AVATAX_OUTBOX.ATTEMPTS, DSL.when(alreadyPending, AVATAX_OUTBOX.ATTEMPTS).otherwise(0))
+                                                                                                                 .set(AVATAX_OUTBOX.NEXT_ATTEMPT_DATE, DSL.when(alreadyPending, AVATAX_OUTBOX.NEXT_ATTEMPT_DATE).otherwise(now))
+                                                                                                                 .set(AVATAX_OUTBOX.LAST_ERROR, DSL.when(alreadyPending, AVATAX_OUTBOX.LAST_ERROR).otherwise((String) null))
+                                                                                                                 .set(AVATAX_OUTBOX.UPDATED_DATE, DSL.when(alreadyPending, AVATAX_OUTBOX.UPDATED_DATE).otherwise(now))
+                                                                                                                 .set(AVATAX_OUTBOX.BULK_COMMIT_ID, DSL.when(alreadyPending, AVATAX_OUTBOX.BULK_COMMIT_ID).otherwise((String) null));
+                                       upsert.set(AVATAX_OUTBOX.OPERATION, operation)
+                                             .set(AVATAX_OUTBOX.STATUS, OUTBOX_PENDING)
+                                             .execute();
+                                   }
+                               }
+                           });
+                        return null;
+                    }
+                });
+    }
+
+    /**
+     * Claim the queued operations due for an attempt, so that only this node sends them to AvaTax until the lease expires.
+     *
+     * @param batchSize       maximum number of operations to claim
+     * @param utcNow          now
+     * @param leaseExpiration date after which the operations can be claimed again (e.g. if this node dies while processing them)
+     * @return the claimed operations
+     */
+    public List<AvataxOutboxRecord> claimOutboxOperations(final int batchSize, final DateTime utcNow, final DateTime leaseExpiration) throws SQLException {
+        return execute("claimOutboxOperations", null,
+                       new WithConnectionCallback<List<AvataxOutboxRecord>>() {
+                           @Override
+                           public List<AvataxOutboxRecord> withConnection(final Connection conn) throws SQLException {
+                               return DSL.using(conn, dialect, settings)
+                                         .transactionResult(new TransactionalCallable<List<AvataxOutboxRecord>>() {
+                                             @Override
+                                             public List<AvataxOutboxRecord> run(final Configuration configuration) throws Exception {
+                                                 final DSLContext dslContext = DSL.using(configuration);
+
+                                                 final Result<AvataxOutboxRecord> operations = lockForUpdate(dslContext.selectFrom(AVATAX_OUTBOX)
+                                                                                                                       .where(AVATAX_OUTBOX.STATUS.equal(OUTBOX_PENDING))
+                                                                                                                       .and(AVATAX_OUTBOX.NEXT_ATTEMPT_DATE.lessOrEqual(toLocalDateTime(utcNow)))
+                                                                                                                       .orderBy(AVATAX_OUTBOX.NEXT_ATTEMPT_DATE.asc(), AVATAX_OUTBOX.RECORD_ID.asc())
+                                                                                                                       .limit(batchSize));
+                                                 if (operations.isEmpty()) {
+                                                     return ImmutableList.<AvataxOutboxRecord>of();
+                                                 }
+
+                                                 final Collection<ULong> recordIds = new ArrayList<ULong>(operations.size());
+                                                 for (final AvataxOutboxRecord operation : operations) {
+                                                     recordIds.add(operation.getRecordId());
+                                                 }
+                                                 dslContext.update(AVATAX_OUTBOX)
+                                                           .set(AVATAX_OUTBOX.NEXT_ATTEMPT_DATE, toLocalDateTime(leaseExpiration))
+                                                           .where(AVATAX_OUTBOX.RECORD_ID.in(recordIds))
+                                                           .execute();
+
+                                                 return operations;
+                                             }
+                                         });
+                           }
+                       });
+    }
+
+    /**
+     * Remove a processed operation from the queue, unless it was replaced in the meantime (e.g. void queued while the commit was processed).
+     */
+    public void completeOutboxOperation(final AvataxOutboxRecord operation) throws SQLException {
+        execute("completeOutboxOperation", UUID.fromString(operation.getKbTenantId()),
+                new WithConnectionCallback<Void>() {
+                    @Override
+                    public Void withConnection(final Connection conn) throws SQLException {
+                        DSL.using(conn, dialect, settings)
+                           .deleteFrom(AVATAX_OUTBOX)
+                           .where(AVATAX_OUTBOX.RECORD_ID.equal(operation.getRecordId()))
+                           .and(AVATAX_OUTBOX.OPERATION.equal(operation.getOperation()))
+                           .and(AVATAX_OUTBOX.UPDATED_DATE.equal(operation.getUpdatedDate()))
+                           .execute();
+                        return null;
+                    }
+                });
+    }
+
+    /**
+     * Record a failed attempt, unless the operation was replaced in the meantime.
+     *
+     * @param status          OUTBOX_PENDING to retry at nextAttemptDate, OUTBOX_FAILED to give up
+     * @param attempts        number of attempts so far
+     * @param nextAttemptDate date of the next attempt (ignored once failed)
+     * @param lastError       reason of the failure
+     */
+    public void rescheduleOutboxOperation(final AvataxOutboxRecord operation,
+                                          final String status,
+                                          final int attempts,
+                                          final DateTime nextAttemptDate,
+                                          @Nullable final String lastError,
+                                          final DateTime utcNow) throws SQLException {
+        execute("rescheduleOutboxOperation", UUID.fromString(operation.getKbTenantId()),
+                new WithConnectionCallback<Void>() {
+                    @Override
+                    public Void withConnection(final Connection conn) throws SQLException {
+                        DSL.using(conn, dialect, settings)
+                           .update(AVATAX_OUTBOX)
+                           .set(AVATAX_OUTBOX.STATUS, status)
+                           .set(AVATAX_OUTBOX.ATTEMPTS, attempts)
+                           .set(AVATAX_OUTBOX.NEXT_ATTEMPT_DATE, toLocalDateTime(nextAttemptDate))
+                           .set(AVATAX_OUTBOX.LAST_ERROR, lastError)
+                           .set(AVATAX_OUTBOX.UPDATED_DATE, toLocalDateTime(utcNow))
+                           .where(AVATAX_OUTBOX.RECORD_ID.equal(operation.getRecordId()))
+                           .and(AVATAX_OUTBOX.OPERATION.equal(operation.getOperation()))
+                           .and(AVATAX_OUTBOX.UPDATED_DATE.equal(operation.getUpdatedDate()))
+                           .execute();
+                        return null;
+                    }
+                });
+    }
+
+    /**
+     * Record a bulk commit request, the documents are queued in avatax_outbox by AvaTaxBulkCommitsWorker.
+     *
+     * @param startDate    start of the range of document dates (inclusive), if any
+     * @param endDate      end of the range of document dates (exclusive), if any
+     * @param kbInvoiceIds invoices to commit, if any
+     */
+    public void addBulkCommit(final UUID bulkCommitId,
+                              @Nullable final DateTime startDate,
+                              @Nullable final DateTime endDate,
+                              @Nullable final Collection<UUID> kbInvoiceIds,
+                              final DateTime utcNow,
+                              final UUID kbTenantId) throws SQLException {
+        final String kbInvoiceIdsAsString = kbInvoiceIds == null || kbInvoiceIds.isEmpty() ? null : asString(kbInvoiceIds);
+        execute("addBulkCommit", kbTenantId,
+                new WithConnectionCallback<Void>() {
+                    @Override
+                    public Void withConnection(final Connection conn) throws SQLException {
+                        DSL.using(conn, dialect, settings)
+                           .insertInto(AVATAX_BULK_COMMITS,
+                                       AVATAX_BULK_COMMITS.BULK_COMMIT_ID,
+                                       AVATAX_BULK_COMMITS.START_DATE,
+                                       AVATAX_BULK_COMMITS.END_DATE,
+                                       AVATAX_BULK_COMMITS.KB_INVOICE_IDS,
+                                       AVATAX_BULK_COMMITS.STATUS,
+                                       AVATAX_BULK_COMMITS.NB_QUEUED,
+                                       AVATAX_BULK_COMMITS.CREATED_DATE,
+                                       AVATAX_BULK_COMMITS.UPDATED_DATE,
+                                       AVATAX_BULK_COMMITS.KB_TENANT_ID)
+                           .values(bulkCommitId.toString(),
+                                   startDate == null ? null : toLocalDateTime(startDate),
+                                   endDate == null ? null : toLocalDateTime(endDate),
+                                   kbInvoiceIdsAsString,
+                                   BULK_COMMIT_SCANNING,
+                                   0,
+                                   toLocalDateTime(utcNow),
+                                   toLocalDateTime(utcNow),
+                                   kbTenantId.toString())
+                           .execute();
+                        return null;
+                    }
+                });
+    }
+
+    public AvataxBulkCommitsRecord getBulkCommit(final UUID bulkCommitId, final UUID kbTenantId) throws SQLException {
+        return execute("getBulkCommit", kbTenantId,
+                       new WithConnectionCallback<AvataxBulkCommitsRecord>() {
+                           @Override
+                           public AvataxBulkCommitsRecord withConnection(final Connection conn) throws SQLException {
+                               return DSL.using(conn, dialect, settings)
+                                         .selectFrom(AVATAX_BULK_COMMITS)
+                                         .where(AVATAX_BULK_COMMITS.BULK_COMMIT_ID.equal(bulkCommitId.toString()))
+                                         .and(AVATAX_BULK_COMMITS.KB_TENANT_ID.equal(kbTenantId.toString()))
+                                         .fetchOne();
+                           }
+                       });
+    }
+
+    /**
+     * @return the bulk commits whose documents haven't all been queued yet (all tenants)
+     */
+    public List<AvataxBulkCommitsRecord> getBulkCommitsToScan() throws SQLException {
+        return execute("getBulkCommitsToScan", null,
+                       new WithConnectionCallback<List<AvataxBulkCommitsRecord>>() {
+                           @Override
+                           public List<AvataxBulkCommitsRecord> withConnection(final Connection conn) throws SQLException {
+                               return DSL.using(conn, dialect, settings)
+                                         .selectFrom(AVATAX_BULK_COMMITS)
+                                         .where(AVATAX_BULK_COMMITS.STATUS.equal(BULK_COMMIT_SCANNING))
+                                         .orderBy(AVATAX_BULK_COMMITS.RECORD_ID.asc())
+                                         .fetch();
+                           }
+                       });
+    }
+
+    /**
+     * Retrieve the next documents of a bulk commit, after its cursor. Documents are sorted by date, then by record_id.
+     *
+     * @return the matching responses (only kb_invoice_id, doc_code, doc_date and record_id are populated)
+     */
+    public List<AvataxResponsesRecord> getBulkCommitResponses(final AvataxBulkCommitsRecord bulkCommit, final int limit) throws SQLException {
+        Condition condition = AVATAX_RESPONSES.KB_TENANT_ID.equal(bulkCommit.getKbTenantId())
+                                                           .and(AVATAX_RESPONSES.RESULT_CODE.equal(SUCCESS))
+                                                           .and(AVATAX_RESPONSES.DOC_CODE.isNotNull())
+                                                           .and(AVATAX_RESPONSES.DOC_DATE.isNotNull());
+        if (bulkCommit.getStartDate() != null) {
+            condition = condition.and(AVATAX_RESPONSES.DOC_DATE.greaterOrEqual(bulkCommit.getStartDate()));
+        }
+        if (bulkCommit.getEndDate() != null) {
+            condition = condition.and(AVATAX_RESPONSES.DOC_DATE.lessThan(bulkCommit.getEndDate()));
+        }
+        if (bulkCommit.getKbInvoiceIds() != null) {
+            final List<String> kbInvoiceIds;
             try {
-                kbInvoiceItemsIdsFromString(response.getKbInvoiceItemIds(), kbInvoiceItemsIds);
+                kbInvoiceIds = objectMapper.readValue(bulkCommit.getKbInvoiceIds(), new TypeReference<List<String>>() {});
             } catch (final IOException e) {
-                logger.warn("Corrupted entry for response record_id {}: {}", response.getRecordId(), response.getKbInvoiceItemIds());
+                throw new SQLException("Corrupted entry for bulk commit record_id " + bulkCommit.getRecordId(), e);
             }
+            condition = condition.and(AVATAX_RESPONSES.KB_INVOICE_ID.in(kbInvoiceIds));
+        }
+        if (bulkCommit.getLastDocDate() != null) {
+            condition = condition.and(DSL.row(AVATAX_RESPONSES.DOC_DATE, AVATAX_RESPONSES.RECORD_ID).greaterThan(bulkCommit.getLastDocDate(), bulkCommit.getLastResponseRecordId()));
         }
 
-        return kbInvoiceItemsIds;
+        final Condition finalCondition = condition;
+        return execute("getBulkCommitResponses", UUID.fromString(bulkCommit.getKbTenantId()),
+                       new WithConnectionCallback<List<AvataxResponsesRecord>>() {
+                           @Override
+                           public List<AvataxResponsesRecord> withConnection(final Connection conn) throws SQLException {
+                               return DSL.using(conn, dialect, settings)
+                                         .select(AVATAX_RESPONSES.KB_INVOICE_ID, AVATAX_RESPONSES.DOC_CODE, AVATAX_RESPONSES.DOC_DATE, AVATAX_RESPONSES.RECORD_ID)
+                                         .from(AVATAX_RESPONSES)
+                                         .where(finalCondition)
+                                         .orderBy(AVATAX_RESPONSES.DOC_DATE.asc(), AVATAX_RESPONSES.RECORD_ID.asc())
+                                         .limit(limit)
+                                         .fetchInto(AVATAX_RESPONSES);
+                           }
+                       });
+    }
+
+    /**
+     * Queue the commit of a page of documents of a bulk commit and move its cursor, in a single transaction. Operations already queued
+     * for these documents (e.g. void) are left alone.
+     *
+     * @param bulkCommit the bulk commit, as of the previous page (its cursor is updated on success)
+     * @param docCodes   mapping between the documents to commit and their invoice
+     * @param lastPage   the last page of documents of the bulk commit
+     * @return false if another node processed the page in the meantime (nothing is queued then)
+     */
+    public boolean addBulkCommitOperations(final AvataxBulkCommitsRecord bulkCommit,
+                                           final Map<String, UUID> docCodes,
+                                           @Nullable final LocalDateTime lastDocDate,
+                                           @Nullable final ULong lastResponseRecordId,
+                                           final boolean lastPage,
+                                           final DateTime utcNow) throws SQLException {
+        final Integer nbQueued = execute("addBulkCommitOperations", UUID.fromString(bulkCommit.getKbTenantId()),
+                                         new WithConnectionCallback<Integer>() {
+                                             @Override
+                                             public Integer withConnection(final Connection conn) throws SQLException {
+                                                 return DSL.using(conn, dialect, settings)
+                                                           .transactionResult(new TransactionalCallable<Integer>() {
+                                                               @Override
+                                                               public Integer run(final Configuration configuration) throws Exception {
+                                                                   final DSLContext dslContext = DSL.using(configuration);
+                                                                   final LocalDateTime now = toLocalDateTime(utcNow);
+
+                                                                   // Lock the bulk commit, unless its cursor moved
+                                                                   final int updated = dslContext.update(AVATAX_BULK_COMMITS)
+                                                                                                 .set(AVATAX_BULK_COMMITS.STATUS, lastPage ? BULK_COMMIT_QUEUED : BULK_COMMIT_SCANNING)
+                                                                                                 .set(AVATAX_BULK_COMMITS.LAST_DOC_DATE, lastDocDate == null ? bulkCommit.getLastDocDate() : lastDocDate)
+                                                                                                 .set(AVATAX_BULK_COMMITS.LAST_RESPONSE_RECORD_ID, lastResponseRecordId == null ? bulkCommit.getLastResponseRecordId() : lastResponseRecordId)
+                                                                                                 .set(AVATAX_BULK_COMMITS.UPDATED_DATE, now)
+                                                                                                 .where(AVATAX_BULK_COMMITS.RECORD_ID.equal(bulkCommit.getRecordId()))
+                                                                                                 .and(AVATAX_BULK_COMMITS.STATUS.equal(BULK_COMMIT_SCANNING))
+                                                                                                 .and(AVATAX_BULK_COMMITS.LAST_RESPONSE_RECORD_ID.isNotDistinctFrom(bulkCommit.getLastResponseRecordId()))
+                                                                                                 .execute();
+                                                                   if (updated == 0) {
+                                                                       return null;
+                                                                   }
+
+                                                                   int nbInserted = 0;
+                                                                   for (final Entry<String, UUID> entry : docCodes.entrySet()) {
+                                                                       nbInserted += dslContext.insertInto(AVATAX_OUTBOX,
+                                                                                                           AVATAX_OUTBOX.KB_INVOICE_ID,
+                                                                                                           AVATAX_OUTBOX.DOC_CODE,
+                                                                                                           AVATAX_OUTBOX.OPERATION,
+                                                                                                           AVATAX_OUTBOX.BULK_COMMIT_ID,
+                                                                                                           AVATAX_OUTBOX.STATUS,
+                                                                                                           AVATAX_OUTBOX.ATTEMPTS,
+                                                                                                           AVATAX_OUTBOX.NEXT_ATTEMPT_DATE,
+                                                                                                           AVATAX_OUTBOX.CREATED_DATE,
+                                                                                                           AVATAX_OUTBOX.UPDATED_DATE,
+                                                                                                           AVATAX_OUTBOX.KB_TENANT_ID)
+                                                                                               .values(entry.getValue().toString(),
+                                                                                                       entry.getKey(),
+                                                                                                       AvaTaxOutboxWorker.COMMIT,
+                                                                                                       bulkCommit.getBulkCommitId(),
+                                                                                                       OUTBOX_PENDING,
+                                                                                                       0,
+                                                                                                       now,
+                                                                                                       now,
+                                                                                                       now,
+                                                                                                       bulkCommit.getKbTenantId())
+                                                                                               .onConflictDoNothing()
+                                                                                               .execute();
+                                                                   }
+
+                                                                   dslContext.update(AVATAX_BULK_COMMITS)
+                                                                             .set(AVATAX_BULK_COMMITS.NB_QUEUED, AVATAX_BULK_COMMITS.NB_QUEUED.plus(nbInserted))
+                                                                             .where(AVATAX_BULK_COMMITS.RECORD_ID.equal(bulkCommit.getRecordId()))
+                                                                             .execute();
+                                                                   return nbInserted;
+                                                               }
+                                                           });
+                                             }
+                                         });
+        if (nbQueued == null) {
+            return false;
+        }
+
+        bulkCommit.setStatus(lastPage ? BULK_COMMIT_QUEUED : BULK_COMMIT_SCANNING);
+        if (lastResponseRecordId != null) {
+            bulkCommit.setLastDocDate(lastDocDate);
+            bulkCommit.setLastResponseRecordId(lastResponseRecordId);
+        }
+        bulkCommit.setNbQueued(bulkCommit.getNbQueued() + nbQueued);
+        return true;
+    }
+
+    /**
+     * @return the number of operations of a bulk commit still in avatax_outbox, by status (completed operations are removed)
+     */
+    public Map<String, Integer> getBulkCommitOutboxCounts(final UUID bulkCommitId, final UUID kbTenantId) throws SQLException {
+        final Result<Record2<String, Integer>> records = execute("getBulkCommitOutboxCounts", kbTenantId,
+                                                                 new WithConnectionCallback<Result<Record2<String, Integer>>>() {
+                                                                     @Override
+                                                                     public Result<Record2<String, Integer>> withConnection(final Connection conn) throws SQLException {
+                                                                         return DSL.using(conn, dialect, settings)
+                                                                                   .select(AVATAX_OUTBOX.STATUS, DSL.count())
+                                                                                   .from(AVATAX_OUTBOX)
+                                                                                   .where(AVATAX_OUTBOX.BULK_COMMIT_ID.equal(bulkCommitId.toString()))
+                                                                                   .and(AVATAX_OUTBOX.KB_TENANT_ID.equal(kbTenantId.toString()))
+                                                                                   .groupBy(AVATAX_OUTBOX.STATUS)
+                                                                                   .fetch();
+                                                                     }
+                                                                 });
+
+        final Map<String, Integer> counts = new HashMap<String, Integer>();
+        for (final Record2<String, Integer> record : records) {
+            counts.put(record.value1(), record.value2());
+        }
+        return counts;
+    }
+
+    /**
+     * Retrieve the record_id up to which a backfill job went.
+     *
+     * @param name backfill name (e.g. RESPONSE_ITEMS_BACKFILL)
+     * @return the record_id of the last row migrated, 0 if the job never ran
+     */
+    public ULong getBackfillLastRecordId(final String name) throws SQLException {
+        final ULong lastRecordId = execute("getBackfillLastRecordId", null,
+                                           new WithConnectionCallback<ULong>() {
+                                               @Override
+                                               public ULong withConnection(final Connection conn) throws SQLException {
+                                                   return DSL.using(conn, dialect, settings)
+                                                             .select(AVATAX_BACKFILLS.LAST_RECORD_ID)
+                                                             .from(AVATAX_BACKFILLS)
+                                                             .where(AVATAX_BACKFILLS.NAME.equal(name))
+                                                             .fetchOne(AVATAX_BACKFILLS.LAST_RECORD_ID);
+                                               }
+                                           });
+        return lastRecordId == null ? ULong.valueOf(0) : lastRecordId;
+    }
+
+    // Lock the progress of the backfill until the end of the transaction (two nodes starting the job at once may conflict on the insert, the batch is then retried)
+    private ULong lockBackfill(final DSLContext dslContext, final String name, final DateTime utcNow) {
+        final ULong lastRecordId = dslContext.select(AVATAX_BACKFILLS.LAST_RECORD_ID)
+                                             .from(AVATAX_BACKFILLS)
+                                             .where(AVATAX_BACKFILLS.NAME.equal(name))
+                                             .forUpdate()
+                                             .fetchOne(AVATAX_BACKFILLS.LAST_RECORD_ID);
+        if (lastRecordId != null) {
+            return lastRecordId;
+        }
+
+        dslContext.insertInto(AVATAX_BACKFILLS,
+                              AVATAX_BACKFILLS.NAME,
+                              AVATAX_BACKFILLS.LAST_RECORD_ID,
+                              AVATAX_BACKFILLS.UPDATED_DATE)
+                  .values(name, ULong.valueOf(0), toLocalDateTime(utcNow))
+                  .execute();
+        return ULong.valueOf(0);
+    }
+
+    private void updateBackfill(final DSLContext dslContext, final String name, final ULong lastRecordId, final DateTime utcNow) {
+        dslContext.update(AVATAX_BACKFILLS)
+                  .set(AVATAX_BACKFILLS.LAST_RECORD_ID, lastRecordId)
+                  .set(AVATAX_BACKFILLS.UPDATED_DATE, toLocalDateTime(utcNow))
+                  .where(AVATAX_BACKFILLS.NAME.equal(name))
+                  .execute();
+    }
+
+    // Same as PluginDao#execute, timing the query (including getting the connection)
+    private <T> T execute(final String query, @Nullable final UUID kbTenantId, final WithConnectionCallback<T> callback) throws SQLException {
+        final long startNanos = System.nanoTime();
+        boolean failed = true;
+        try {
+            final T result = execute(dataSource.getConnection(), callback);
+            failed = false;
+            return result;
+        } finally {
+            metrics.recordQuery(kbTenantId, query, System.nanoTime() - startNanos, failed);
+        }
+    }
+
+    // Rows written by older versions of the plugin
+    private void addTaxedItemsWithAdjustments(final ULong recordId,
+                                              @Nullable final String kbInvoiceItemsIdsAsString,
+                                              final Map<UUID, Set<UUID>> kbInvoiceItemsIds) {
+        try {
+            kbInvoiceItemsIdsFromString(kbInvoiceItemsIdsAsString, kbInvoiceItemsIds);
+        } catch (final IOException e) {
+            logger.warn("Corrupted entry for response record_id {}: {}", recordId, kbInvoiceItemsIdsAsString);
+        }
     }
 
     private void kbInvoiceItemsIdsFromString(@Nullable final String kbInvoiceItemsIdsAsString, final Map<UUID, Set<UUID>> kbInvoiceItemsIds) throws IOException {
@@ -316,22 +1685,4 @@ public class AvaTaxDao extends PluginDao {
             }
         }
     }
-
-    private String kbInvoiceItemsIdsAsString(final Map<UUID, Iterable<InvoiceItem>> kbInvoiceItems) throws SQLException {
-        final Map<UUID, Set<UUID>> kbInvoiceItemsIds = Maps.<UUID, Iterable<InvoiceItem>, Set<UUID>>transformValues(kbInvoiceItems,
-                                                                                                                    new Function<Iterable<InvoiceItem>, Set<UUID>>() {
-                                                                                                                        @Override
-                                                                                                                        public Set<UUID> apply(final Iterable<InvoiceItem> invoiceItems) {
-                                                                                                                            final Set<UUID> invoiceItemIds = new HashSet<UUID>();
-                                                                                                                            if (invoiceItems == null) {
-                                                                                                                                return invoiceItemIds;
-                                                                                                                            }
-                                                                                                                            for (final InvoiceItem invoiceItem : invoiceItems) {
-                                                                                                                                invoiceItemIds.add(invoiceItem.getId());
-                                                                                                                            }
-                                                                                                                            return invoiceItemIds;
-                                                                                                                        }
-                                                                                                                    });
-        return asString(kbInvoiceItemsIds);
-    }
 }
@@ -0,0 +1,168 @@
+/*
+ * Copyright 2020-2026 Equinix, Inc
+ * Copyright 2014-2026 The Billing Project, LLC
+ *
+ * The Billing Project licenses this file to you under the Apache License, version 2.0
+ * (the "License"); you may not use this file except in compliance with the
+ * License.  You may obtain a copy of the License at:
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.killbill.billing.plugin.avatax.dao;
+
+import java.util.Map;
+import java.util.UUID;
+
+import javax.annotation.Nullable;
+
+import org.joda.time.DateTime;
+import org.killbill.billing.invoice.api.InvoiceItem;
+import org.killbill.billing.plugin.avatax.client.model.AvaTaxErrors;
+import org.killbill.billing.plugin.avatax.client.model.CreateTransactionModel;
+import org.killbill.billing.plugin.avatax.client.model.TaxRateResult;
+import org.killbill.billing.plugin.avatax.client.model.TransactionModel;
+
+/**
+ * Response to store in avatax_responses, along with the invoice items (and adjustments) it taxed.
+ * <p/>
+ * Exactly one of the transaction (AvaTax success), the errors (AvaTax failure) or the tax rates (Tax Rates API, or local estimate
+ * while AvaTax is unavailable, flagged as fallback) is set.
+ * <p/>
+ * Fallback responses also carry the request to send to AvaTax later on (see avatax_pending_documents).
+ */
+public class AvaTaxResponse {
+
+    private final UUID kbAccountId;
+    private final UUID kbInvoiceId;
+    private final Map<UUID, Iterable<InvoiceItem>> kbInvoiceItems;
+    private final TransactionModel transaction;
+    private final AvaTaxErrors errors;
+    private final TaxRateResult taxRateResult;
+    private final boolean fallback;
+    private final CreateTransactionModel pendingRequest;
+    private final DateTime createdDate;
+    private final UUID kbTenantId;
+
+    private AvaTaxResponse(final UUID kbAccountId,
+                           final UUID kbInvoiceId,
+                           final Map<UUID, Iterable<InvoiceItem>> kbInvoiceItems,
+                           @Nullable final TransactionModel transaction,
+                           @Nullable final AvaTaxErrors errors,
+                           @Nullable final TaxRateResult taxRateResult,
+                           final boolean fallback,
+                           @Nullable final CreateTransactionModel pendingRequest,
+                           final DateTime createdDate,
+                           final UUID kbTenantId) {
+        this.kbAccountId = kbAccountId;
+        this.kbInvoiceId = kbInvoiceId;
+        this.kbInvoiceItems = kbInvoiceItems;
+        this.transaction = transaction;
+        this.errors = errors;
+        this.taxRateResult = taxRateResult;
+        this.fallback = fallback;
+        this.pendingRequest = pendingRequest;
+        this.createdDate = createdDate;
+        this.kbTenantId = kbTenantId;
+    }
+
+    public static AvaTaxResponse forTransaction(final UUID kbAccountId,
+                                                final UUID kbInvoiceId,
+                                                final Map<UUID, Iterable<InvoiceItem>> kbInvoiceItems,
+                                                final TransactionModel transaction,
+                                                final DateTime createdDate,
+                                                final UUID kbTenantId) {
+        return new AvaTaxResponse(kbAccountId, kbInvoiceId, kbInvoiceItems, transaction, null, null, false, null, createdDate, kbTenantId);
+    }
+
+    public static AvaTaxResponse forErrors(final UUID kbAccountId,
+                                           final UUID kbInvoiceId,
+                                           final Map<UUID, Iterable<InvoiceItem>> kbInvoiceItems,
+                                           final AvaTaxErrors errors,
+                                           final DateTime createdDate,
+                                           final UUID kbTenantId) {
+        return new AvaTaxResponse(kbAccountId, kbInvoiceId, kbInvoiceItems, null, errors, null, false, null, createdDate, kbTenantId);
+    }
+
+    public static AvaTaxResponse forTaxRates(final UUID kbAccountId,
+                                             final UUID kbInvoiceId,
+                                             final Map<UUID, Iterable<InvoiceItem>> kbInvoiceItems,
+                                             final TaxRateResult taxRateResult,
+                                             final DateTime createdDate,
+                                             final UUID kbTenantId) {
+        return new AvaTaxResponse(kbAccountId, kbInvoiceId, kbInvoiceItems, null, null, taxRateResult, false, null, createdDate, kbTenantId);
+    }
+
+    // Taxes estimated locally while AvaTax was unavailable: the document still needs to be created in AvaTax
+    public static AvaTaxResponse forFallback(final UUID kbAccountId,
+                                             final UUID kbInvoiceId,
+                                             final Map<UUID, Iterable<InvoiceItem>> kbInvoiceItems,
+                                             final TaxRateResult taxRateResult,
+                                             final CreateTransactionModel pendingRequest,
+                                             final DateTime createdDate,
+                                             final UUID kbTenantId) {
+        return new AvaTaxResponse(kbAccountId, kbInvoiceId, kbInvoiceItems, null, null, taxRateResult, true, pendingRequest, createdDate, kbTenantId);
+    }
+
+    public UUID getKbAccountId() {
+        return kbAccountId;
+    }
+
+    public UUID getKbInvoiceId() {
+        return kbInvoiceId;
+    }
+
+    public Map<UUID, Iterable<InvoiceItem>> getKbInvoiceItems() {
+        return kbInvoiceItems;
+    }
+
+    public TransactionModel getTransaction() {
+        return transaction;
+    }
+
+    public AvaTaxErrors getErrors() {
+        return errors;
+    }
+
+    public TaxRateResult getTaxRateResult() {
+        return taxRateResult;
+    }
+
+    public boolean isFallback() {
+        return fallback;
+    }
+
+    public CreateTransactionModel getPendingRequest() {
+        return pendingRequest;
+    }
+
+    public DateTime getCreatedDate() {
+        return createdDate;
+    }
+
+    public UUID getKbTenantId() {
+        return kbTenantId;
+    }
+
+    @Override
+    public String toString() {
+        final StringBuilder sb = new StringBuilder("AvaTaxResponse{");
+        sb.append("kbInvoiceId=").append(kbInvoiceId);
+        sb.append(", kbTenantId=").append(kbTenantId);
+        if (transaction != null) {
+            sb.append(", docCode='").append(transaction.code).append('\'');
+        } else if (errors != null) {
+            sb.append(", errors=true");
+        } else if (fallback) {
+            sb.append(", fallback=true");
+        }
+        sb.append('}');
+        return sb.toString();
+    }
+}
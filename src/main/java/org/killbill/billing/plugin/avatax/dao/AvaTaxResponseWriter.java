@@ -0,0 +1,378 @@
+/*
+ * Copyright 2020-2026 Equinix, Inc
+ * Copyright 2014-2026 The Billing Project, LLC
+ *
+ * The Billing Project licenses this file to you under the Apache License, version 2.0
+ * (the "License"); you may not use this file except in compliance with the
+ * License.  You may obtain a copy of the License at:
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.killbill.billing.plugin.avatax.dao;
+
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Properties;
+import java.util.Queue;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+import org.killbill.billing.plugin.avatax.client.ClientUtils;
+import org.killbill.billing.plugin.avatax.core.AvaTaxActivator;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.google.common.annotations.VisibleForTesting;
+import com.google.common.base.MoreObjects;
+import com.google.common.collect.ImmutableList;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+
+/**
+ * Store the AvaTax responses, either synchronously (default) or in the background (write-behind).
+ * <p/>
+ * With write-behind, responses are queued and a dedicated thread stores them in batches (see AvaTaxDao#addResponses).
+ * The responses written together (e.g. by an AvaTaxResponsesUnitOfWork) are always stored in the same transaction.
+ * Readers of the responses of an invoice (the tax calculation, onSuccessCall) must call {@link #flush(Collection)} first:
+ * it waits until the pending responses of these invoices are stored. When the queue is full, responses are stored
+ * synchronously.
+ * <p/>
+ * Responses the writer fails to store are retried by the writer a few times (or by the next flush for their invoice), then dropped.
+ */
+public class AvaTaxResponseWriter {
+
+    public static final String PROPERTY_PREFIX = AvaTaxActivator.PROPERTY_PREFIX + "responses.writeBehind.";
+
+    private static final Logger logger = LoggerFactory.getLogger(AvaTaxResponseWriter.class);
+
+    private static final int DEFAULT_QUEUE_SIZE = 1000;
+    private static final int DEFAULT_BATCH_SIZE = 50;
+    private static final int DEFAULT_FLUSH_TIMEOUT_MILLIS = 30000;
+    private static final long POLL_MILLIS = 100;
+    private static final int MAX_WRITE_ATTEMPTS = 3;
+    private static final long RETRY_DELAY_MILLIS = 500;
+
+    private final AvaTaxDao dao;
+    private final int batchSize;
+    private final long flushTimeoutMillis;
+    // Null when write-behind is disabled
+    private final BlockingQueue<PendingResponse> queue;
+    private final ConcurrentMap<UUID, Queue<PendingResponse>> pendingResponsesByInvoiceId = new ConcurrentHashMap<UUID, Queue<PendingResponse>>();
+    // Responses the writer failed to store, retried by the writer thread (only accessed by that thread)
+    private final List<PendingResponse> failedResponses = new LinkedList<PendingResponse>();
+
+    private ExecutorService executor;
+    private volatile boolean running;
+
+    // Synchronous writer
+    public AvaTaxResponseWriter(final AvaTaxDao dao) {
+        this(dao, 0, 0, 0);
+    }
+
+    public AvaTaxResponseWriter(final AvaTaxDao dao, final int queueSize, final int batchSize, final long flushTimeoutMillis) {
+        this.dao = dao;
+        this.batchSize = batchSize;
+        this.flushTimeoutMillis = flushTimeoutMillis;
+        this.queue = queueSize > 0 ? new ArrayBlockingQueue<PendingResponse>(queueSize) : null;
+    }
+
+    public static boolean isEnabled(final Properties properties) {
+        return Boolean.parseBoolean(properties.getProperty(PROPERTY_PREFIX + "enabled"));
+    }
+
+    public static AvaTaxResponseWriter create(final AvaTaxDao dao, final Properties properties) {
+        if (!isEnabled(properties)) {
+            return new AvaTaxResponseWriter(dao);
+        }
+
+        final int queueSize = MoreObjects.firstNonNull(ClientUtils.getIntegerProperty(properties, PROPERTY_PREFIX, "queueSize"), DEFAULT_QUEUE_SIZE);
+        final int batchSize = MoreObjects.firstNonNull(ClientUtils.getIntegerProperty(properties, PROPERTY_PREFIX, "batchSize"), DEFAULT_BATCH_SIZE);
+        final int flushTimeoutMillis = MoreObjects.firstNonNull(ClientUtils.getIntegerProperty(properties, PROPERTY_PREFIX, "flushTimeoutMillis"), DEFAULT_FLUSH_TIMEOUT_MILLIS);
+        return new AvaTaxResponseWriter(dao, queueSize, Math.max(1, batchSize), flushTimeoutMillis);
+    }
+
+    public boolean isWriteBehind() {
+        return queue != null;
+    }
+
+    public synchronized void start() {
+        if (queue == null || running) {
+            return;
+        }
+
+        logger.info("Starting the AvaTax responses writer (queueSize={}, batchSize={})", queue.remainingCapacity() + queue.size(), batchSize);
+        running = true;
+        executor = Executors.newSingleThreadExecutor(new ThreadFactoryBuilder().setNameFormat("avatax-response-writer-%d")
+                                                                               .setDaemon(true)
+                                                                               .build());
+        executor.submit(new Runnable() {
+            @Override
+            public void run() {
+                writeLoop();
+            }
+        });
+    }
+
+    /**
+     * Stop the writer, once all pending responses are stored. Responses are stored synchronously afterwards.
+     */
+    public synchronized void stop() throws InterruptedException {
+        if (executor == null) {
+            return;
+        }
+
+        running = false;
+        executor.shutdown();
+        if (!executor.awaitTermination(flushTimeoutMillis, TimeUnit.MILLISECONDS)) {
+            logger.warn("Timed out waiting for the AvaTax responses writer to store {} pending responses", queue.size());
+            executor.shutdownNow();
+        }
+        executor = null;
+    }
+
+    public AvaTaxResponsesUnitOfWork beginUnitOfWork() {
+        return new AvaTaxResponsesUnitOfWork(this);
+    }
+
+    public void write(final AvaTaxResponse response) throws SQLException {
+        write(ImmutableList.<AvaTaxResponse>of(response));
+    }
+
+    /**
+     * Store these responses together (in the same transaction).
+     */
+    public void write(final List<AvaTaxResponse> responses) throws SQLException {
+        if (responses.isEmpty()) {
+            return;
+        }
+        if (queue == null || !running) {
+            dao.addResponses(responses);
+            return;
+        }
+
+        final PendingResponse pendingResponse = new PendingResponse(responses);
+        for (final UUID kbInvoiceId : pendingResponse.kbInvoiceIds) {
+            pendingResponsesByInvoiceId.compute(kbInvoiceId, (k, pendingResponses) -> {
+                final Queue<PendingResponse> result = pendingResponses == null ? new ConcurrentLinkedQueue<PendingResponse>() : pendingResponses;
+                result.add(pendingResponse);
+                return result;
+            });
+        }
+        if (!queue.offer(pendingResponse)) {
+            // Back-pressure: the database can't keep up
+            logger.debug("AvaTax responses queue full, storing {} synchronously", responses);
+            try {
+                dao.addResponses(responses);
+                pendingResponse.future.complete(null);
+            } catch (final SQLException e) {
+                pendingResponse.future.completeExceptionally(e);
+                throw e;
+            } finally {
+                removePending(pendingResponse);
+            }
+        }
+    }
+
+    /**
+     * Wait until the pending responses of these invoices are stored. Responses the writer failed to store are retried synchronously.
+     *
+     * @param kbInvoiceIds invoice ids
+     * @throws SQLException if a response couldn't be stored, or if they aren't stored in time
+     */
+    public void flush(final Collection<UUID> kbInvoiceIds) throws SQLException {
+        if (queue == null) {
+            return;
+        }
+
+        final long deadlineNanos = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(flushTimeoutMillis);
+        for (final UUID kbInvoiceId : kbInvoiceIds) {
+            final Queue<PendingResponse> pendingResponses = pendingResponsesByInvoiceId.get(kbInvoiceId);
+            if (pendingResponses == null) {
+                continue;
+            }
+
+            for (final PendingResponse pendingResponse : pendingResponses) {
+                try {
+                    pendingResponse.future.get(Math.max(0, deadlineNanos - System.nanoTime()), TimeUnit.NANOSECONDS);
+                } catch (final InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw new SQLException("Interrupted while waiting for the responses of invoice " + kbInvoiceId + " to be stored", e);
+                } catch (final ExecutionException e) {
+                    retry(pendingResponse);
+                } catch (final TimeoutException e) {
+                    throw new SQLException("Timed out waiting for the responses of invoice " + kbInvoiceId + " to be stored", e);
+                }
+            }
+        }
+    }
+
+    @VisibleForTesting
+    boolean hasPendingResponses(final UUID kbInvoiceId) {
+        return pendingResponsesByInvoiceId.containsKey(kbInvoiceId);
+    }
+
+    private void writeLoop() {
+        final List<PendingResponse> batch = new ArrayList<PendingResponse>(batchSize);
+        // Drain the queue before stopping
+        while (running || !queue.isEmpty()) {
+            try {
+                retryFailedResponses(false);
+
+                final PendingResponse first = queue.poll(POLL_MILLIS, TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    continue;
+                }
+                batch.add(first);
+                queue.drainTo(batch, batchSize - 1);
+                writeBatch(batch);
+            } catch (final InterruptedException e) {
+                Thread.currentThread().interrupt();
+                break;
+            } catch (final RuntimeException e) {
+                logger.warn("Unexpected error in the AvaTax responses writer", e);
+            } finally {
+                batch.clear();
+            }
+        }
+
+        // Interrupted: store the remaining responses one by one
+        PendingResponse pendingResponse;
+        while ((pendingResponse = queue.poll()) != null) {
+            writeBatch(ImmutableList.<PendingResponse>of(pendingResponse));
+        }
+        while (!failedResponses.isEmpty()) {
+            retryFailedResponses(true);
+        }
+    }
+
+    private void retryFailedResponses(final boolean now) {
+        final long nowNanos = System.nanoTime();
+        final List<PendingResponse> dueResponses = new ArrayList<PendingResponse>();
+        final Iterator<PendingResponse> iterator = failedResponses.iterator();
+        while (iterator.hasNext()) {
+            final PendingResponse pendingResponse = iterator.next();
+            if (now || pendingResponse.nextAttemptNanos - nowNanos <= 0) {
+                iterator.remove();
+                dueResponses.add(pendingResponse);
+            }
+        }
+
+        for (final PendingResponse pendingResponse : dueResponses) {
+            try {
+                retry(pendingResponse);
+            } catch (final SQLException e) {
+                fail(pendingResponse, e);
+            }
+        }
+    }
+
+    private void writeBatch(final List<PendingResponse> batch) {
+        final List<AvaTaxResponse> responses = new ArrayList<AvaTaxResponse>(batch.size());
+        for (final PendingResponse pendingResponse : batch) {
+            responses.addAll(pendingResponse.responses);
+        }
+
+        try {
+            dao.addResponses(responses);
+            for (final PendingResponse pendingResponse : batch) {
+                pendingResponse.future.complete(null);
+                removePending(pendingResponse);
+            }
+            return;
+        } catch (final SQLException e) {
+            if (batch.size() == 1) {
+                fail(batch.get(0), e);
+                return;
+            }
+            logger.warn("Unable to store a batch of {} AvaTax responses, retrying one by one", batch.size(), e);
+        }
+
+        // Don't let one bad response fail the whole batch
+        for (final PendingResponse pendingResponse : batch) {
+            try {
+                dao.addResponses(pendingResponse.responses);
+                pendingResponse.future.complete(null);
+                removePending(pendingResponse);
+            } catch (final SQLException e) {
+                fail(pendingResponse, e);
+            }
+        }
+    }
+
+    // Until the last attempt, the response is kept in the pending responses, so that the next flush for that invoice retries it right away
+    private void fail(final PendingResponse pendingResponse, final SQLException e) {
+        pendingResponse.future.completeExceptionally(e);
+        pendingResponse.attempts++;
+        if (pendingResponse.attempts >= MAX_WRITE_ATTEMPTS) {
+            logger.error("Unable to store {} after {} attempts, giving up", pendingResponse.responses, pendingResponse.attempts, e);
+            removePending(pendingResponse);
+        } else {
+            logger.warn("Unable to store {}, retrying", pendingResponse.responses, e);
+            pendingResponse.nextAttemptNanos = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(RETRY_DELAY_MILLIS * pendingResponse.attempts);
+            failedResponses.add(pendingResponse);
+        }
+    }
+
+    private void retry(final PendingResponse pendingResponse) throws SQLException {
+        // Concurrent flushes for the same invoice must not store the response twice
+        synchronized (pendingResponse) {
+            if (pendingResponse.stored) {
+                return;
+            }
+            dao.addResponses(pendingResponse.responses);
+            pendingResponse.stored = true;
+        }
+        removePending(pendingResponse);
+    }
+
+    private void removePending(final PendingResponse pendingResponse) {
+        for (final UUID kbInvoiceId : pendingResponse.kbInvoiceIds) {
+            pendingResponsesByInvoiceId.computeIfPresent(kbInvoiceId, (k, pendingResponses) -> {
+                pendingResponses.remove(pendingResponse);
+                return pendingResponses.isEmpty() ? null : pendingResponses;
+            });
+        }
+    }
+
+    // Responses written together
+    private static final class PendingResponse {
+
+        private final List<AvaTaxResponse> responses;
+        private final Set<UUID> kbInvoiceIds = new HashSet<UUID>();
+        private final CompletableFuture<Void> future = new CompletableFuture<Void>();
+        // Set once stored by a retry (see AvaTaxResponseWriter#retry)
+        private boolean stored;
+        // Attempts made by the writer thread
+        private int attempts;
+        private long nextAttemptNanos;
+
+        private PendingResponse(final List<AvaTaxResponse> responses) {
+            this.responses = responses;
+            for (final AvaTaxResponse response : responses) {
+                kbInvoiceIds.add(response.getKbInvoiceId());
+            }
+        }
+    }
+}
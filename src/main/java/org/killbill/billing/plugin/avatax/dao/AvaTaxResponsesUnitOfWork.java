@@ -0,0 +1,66 @@
+/*
+ * Copyright 2020-2026 Equinix, Inc
+ * Copyright 2014-2026 The Billing Project, LLC
+ *
+ * The Billing Project licenses this file to you under the Apache License, version 2.0
+ * (the "License"); you may not use this file except in compliance with the
+ * License.  You may obtain a copy of the License at:
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.killbill.billing.plugin.avatax.dao;
+
+import java.sql.SQLException;
+import java.util.LinkedList;
+import java.util.List;
+
+import com.google.common.collect.ImmutableList;
+
+/**
+ * Collect the responses produced while computing the taxes of an invoice (sales document and return documents),
+ * so that they are stored in a single transaction on commit (see AvaTaxDao#addResponses).
+ * <p/>
+ * Responses added after the commit (e.g. by a concurrent tax call still running when another one failed) are stored right away.
+ * Instances are thread-safe.
+ */
+public class AvaTaxResponsesUnitOfWork {
+
+    private final AvaTaxResponseWriter responseWriter;
+    private final List<AvaTaxResponse> responses = new LinkedList<AvaTaxResponse>();
+
+    private boolean committed;
+
+    AvaTaxResponsesUnitOfWork(final AvaTaxResponseWriter responseWriter) {
+        this.responseWriter = responseWriter;
+    }
+
+    public void add(final AvaTaxResponse response) throws SQLException {
+        synchronized (this) {
+            if (!committed) {
+                responses.add(response);
+                return;
+            }
+        }
+        responseWriter.write(response);
+    }
+
+    public void commit() throws SQLException {
+        final List<AvaTaxResponse> toWrite;
+        synchronized (this) {
+            if (committed) {
+                return;
+            }
+            committed = true;
+            toWrite = ImmutableList.<AvaTaxResponse>copyOf(responses);
+            responses.clear();
+        }
+        responseWriter.write(toWrite);
+    }
+}
@@ -0,0 +1,105 @@
+/*
+ * Copyright 2020-2026 Equinix, Inc
+ * Copyright 2014-2026 The Billing Project, LLC
+ *
+ * The Billing Project licenses this file to you under the Apache License, version 2.0
+ * (the "License"); you may not use this file except in compliance with the
+ * License.  You may obtain a copy of the License at:
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.killbill.billing.plugin.avatax.dao;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+
+import javax.annotation.Nullable;
+
+/**
+ * Compressed encoding of the large JSON columns of avatax_responses (tax_lines_bin, tax_summary_bin, tax_addresses_bin and messages_bin).
+ * <p>
+ * Format: a version byte, then the UTF-8 JSON compressed with Deflate (zlib format, so that corrupted values are detected by the checksum).
+ */
+public final class CompressedJsonCodec {
+
+    static final byte VERSION = 1;
+
+    private static final int BUFFER_SIZE = 4096;
+
+    private CompressedJsonCodec() {}
+
+    public static byte[] encode(@Nullable final String json) {
+        if (json == null) {
+            return null;
+        }
+
+        final byte[] input = json.getBytes(StandardCharsets.UTF_8);
+        // JSON usually compresses 5-10x: start small, the stream grows as needed
+        final ByteArrayOutputStream output = new ByteArrayOutputStream(Math.max(64, input.length / 4));
+        output.write(VERSION);
+
+        final Deflater deflater = new Deflater(Deflater.DEFAULT_COMPRESSION);
+        try {
+            deflater.setInput(input);
+            deflater.finish();
+            final byte[] buffer = new byte[BUFFER_SIZE];
+            while (!deflater.finished()) {
+                final int length = deflater.deflate(buffer);
+                output.write(buffer, 0, length);
+            }
+        } finally {
+            // Release the native memory right away
+            deflater.end();
+        }
+        return output.toByteArray();
+    }
+
+    /**
+     * @param bytes encoded value
+     * @return the JSON
+     * @throws IllegalArgumentException if the value is corrupted
+     */
+    public static String decode(@Nullable final byte[] bytes) {
+        if (bytes == null) {
+            return null;
+        }
+        if (bytes.length == 0) {
+            throw new IllegalArgumentException("Truncated value");
+        }
+        if (bytes[0] != VERSION) {
+            throw new IllegalArgumentException("Unsupported encoding version " + bytes[0]);
+        }
+
+        final ByteArrayOutputStream output = new ByteArrayOutputStream(bytes.length * 4);
+        final Inflater inflater = new Inflater();
+        try {
+            inflater.setInput(bytes, 1, bytes.length - 1);
+            final byte[] buffer = new byte[BUFFER_SIZE];
+            while (!inflater.finished()) {
+                final int length = inflater.inflate(buffer);
+                if (length == 0 && !inflater.finished() && (inflater.needsInput() || inflater.needsDictionary())) {
+                    throw new IllegalArgumentException("Truncated value");
+                }
+                output.write(buffer, 0, length);
+            }
+            if (inflater.getRemaining() > 0) {
+                throw new IllegalArgumentException("Trailing bytes: " + inflater.getRemaining());
+            }
+        } catch (final DataFormatException e) {
+            throw new IllegalArgumentException("Invalid compressed value", e);
+        } finally {
+            inflater.end();
+        }
+        return new String(output.toByteArray(), StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,97 @@
+/*
+ * Copyright 2020-2026 Equinix, Inc
+ * Copyright 2014-2026 The Billing Project, LLC
+ *
+ * The Billing Project licenses this file to you under the Apache License, version 2.0
+ * (the "License"); you may not use this file except in compliance with the
+ * License.  You may obtain a copy of the License at:
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.killbill.billing.plugin.avatax.dao;
+
+import java.sql.SQLException;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Properties;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+import org.killbill.billing.plugin.avatax.client.ClientUtils;
+import org.killbill.billing.plugin.avatax.dao.gen.tables.records.AvataxTaxCodesRecord;
+
+import com.google.common.base.MoreObjects;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+
+// Per-tenant cache of the product name -> tax code mapping, each tenant mapping being loaded in a single query.
+// Local changes (AvaTaxTaxCodesServlet) invalidate it, the TTL bounds the staleness for changes made on other nodes.
+public class TaxCodesCache {
+
+    public static final String TTL_SECONDS_PROPERTY = "taxCodes.cache.ttlSeconds";
+
+    private static final int DEFAULT_TTL_SECONDS = 60;
+    private static final int MAX_TENANTS = 1000;
+
+    private final AvaTaxDao dao;
+    // Null when the cache is disabled
+    private final Cache<UUID, Map<String, String>> cache;
+
+    public TaxCodesCache(final AvaTaxDao dao, final long ttlSeconds) {
+        this.dao = dao;
+        if (ttlSeconds <= 0) {
+            this.cache = null;
+        } else {
+            this.cache = CacheBuilder.newBuilder()
+                                     .maximumSize(MAX_TENANTS)
+                                     .expireAfterWrite(ttlSeconds, TimeUnit.SECONDS)
+                                     .build();
+        }
+    }
+
+    public static TaxCodesCache create(final AvaTaxDao dao, final Properties properties) {
+        final int ttlSeconds = MoreObjects.firstNonNull(ClientUtils.getIntegerProperty(properties, TTL_SECONDS_PROPERTY), DEFAULT_TTL_SECONDS);
+        return new TaxCodesCache(dao, ttlSeconds);
+    }
+
+    public boolean isEnabled() {
+        return cache != null;
+    }
+
+    public String getTaxCode(final String productName, final UUID kbTenantId) throws SQLException {
+        if (cache == null) {
+            return dao.getTaxCode(productName, kbTenantId);
+        }
+
+        Map<String, String> taxCodes = cache.getIfPresent(kbTenantId);
+        if (taxCodes == null) {
+            taxCodes = loadTaxCodes(kbTenantId);
+            cache.put(kbTenantId, taxCodes);
+        }
+        return taxCodes.get(productName);
+    }
+
+    public void invalidate(final UUID kbTenantId) {
+        if (cache != null) {
+            cache.invalidate(kbTenantId);
+        }
+    }
+
+    private Map<String, String> loadTaxCodes(final UUID kbTenantId) throws SQLException {
+        final Map<String, String> taxCodes = new HashMap<String, String>();
+        // Records are sorted by record_id: keep the first one, as AvaTaxDao#getTaxCode does
+        for (final AvataxTaxCodesRecord record : dao.getTaxCodes(kbTenantId)) {
+            if (!taxCodes.containsKey(record.getProductName())) {
+                taxCodes.put(record.getProductName(), record.getTaxCode());
+            }
+        }
+        return taxCodes;
+    }
+}
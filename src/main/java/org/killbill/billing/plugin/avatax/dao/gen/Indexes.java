@@ -7,8 +7,13 @@ package org.killbill.billing.plugin.avatax.dao.gen;
 import org.jooq.Index;
 import org.jooq.OrderField;
 import org.jooq.impl.Internal;
+import org.killbill.billing.plugin.avatax.dao.gen.tables.AvataxBulkCommits;
+import org.killbill.billing.plugin.avatax.dao.gen.tables.AvataxOutbox;
+import org.killbill.billing.plugin.avatax.dao.gen.tables.AvataxPendingDocuments;
 import org.killbill.billing.plugin.avatax.dao.gen.tables.AvataxResponses;
 import org.killbill.billing.plugin.avatax.dao.gen.tables.AvataxTaxCodes;
+import org.killbill.billing.plugin.avatax.dao.gen.tables.AvataxTaxRates;
+import org.killbill.billing.plugin.avatax.dao.gen.tables.AvataxTaxRatesStaging;
 
 
 /**
@@ -21,17 +26,33 @@ public class Indexes {
     // INDEX definitions
     // -------------------------------------------------------------------------
 
+    public static final Index AVATAX_BULK_COMMITS_AVATAX_BULK_COMMITS_STATUS = Indexes0.AVATAX_BULK_COMMITS_AVATAX_BULK_COMMITS_STATUS;
+    public static final Index AVATAX_OUTBOX_AVATAX_OUTBOX_BULK_COMMIT_ID_STATUS = Indexes0.AVATAX_OUTBOX_AVATAX_OUTBOX_BULK_COMMIT_ID_STATUS;
+    public static final Index AVATAX_OUTBOX_AVATAX_OUTBOX_STATUS_NEXT_ATTEMPT_DATE = Indexes0.AVATAX_OUTBOX_AVATAX_OUTBOX_STATUS_NEXT_ATTEMPT_DATE;
+    public static final Index AVATAX_PENDING_DOCUMENTS_AVATAX_PENDING_DOCUMENTS_STATUS_NEXT_ATTEMPT_DATE = Indexes0.AVATAX_PENDING_DOCUMENTS_AVATAX_PENDING_DOCUMENTS_STATUS_NEXT_ATTEMPT_DATE;
     public static final Index AVATAX_RESPONSES_AVATAX_RESPONSES_KB_ACCOUNT_ID = Indexes0.AVATAX_RESPONSES_AVATAX_RESPONSES_KB_ACCOUNT_ID;
-    public static final Index AVATAX_RESPONSES_AVATAX_RESPONSES_KB_INVOICE_ID = Indexes0.AVATAX_RESPONSES_AVATAX_RESPONSES_KB_INVOICE_ID;
+    public static final Index AVATAX_RESPONSES_AVATAX_RESPONSES_KB_INVOICE_ID_RESULT_CODE_KB_TENANT_ID = Indexes0.AVATAX_RESPONSES_AVATAX_RESPONSES_KB_INVOICE_ID_RESULT_CODE_KB_TENANT_ID;
+    public static final Index AVATAX_RESPONSES_AVATAX_RESPONSES_KB_TENANT_ID_DOC_DATE = Indexes0.AVATAX_RESPONSES_AVATAX_RESPONSES_KB_TENANT_ID_DOC_DATE;
+    public static final Index AVATAX_TAX_CODES_AVATAX_TAX_CODES_KB_TENANT_ID_PRODUCT_NAME = Indexes0.AVATAX_TAX_CODES_AVATAX_TAX_CODES_KB_TENANT_ID_PRODUCT_NAME;
     public static final Index AVATAX_TAX_CODES_AVATAX_TAX_CODES_PRODUCT_NAME = Indexes0.AVATAX_TAX_CODES_AVATAX_TAX_CODES_PRODUCT_NAME;
+    public static final Index AVATAX_TAX_RATES_AVATAX_TAX_RATES_POSTAL_CODE_COUNTRY_KB_TENANT_ID = Indexes0.AVATAX_TAX_RATES_AVATAX_TAX_RATES_POSTAL_CODE_COUNTRY_KB_TENANT_ID;
+    public static final Index AVATAX_TAX_RATES_STAGING_AVATAX_TAX_RATES_STAGING_IMPORT_ID_POSTAL_CODE = Indexes0.AVATAX_TAX_RATES_STAGING_AVATAX_TAX_RATES_STAGING_IMPORT_ID_POSTAL_CODE;
 
     // -------------------------------------------------------------------------
     // [#1459] distribute members to avoid static initialisers > 64kb
     // -------------------------------------------------------------------------
 
     private static class Indexes0 {
+        public static Index AVATAX_BULK_COMMITS_AVATAX_BULK_COMMITS_STATUS = Internal.createIndex("avatax_bulk_commits_status", AvataxBulkCommits.AVATAX_BULK_COMMITS, new OrderField[] { AvataxBulkCommits.AVATAX_BULK_COMMITS.STATUS }, false);
+        public static Index AVATAX_OUTBOX_AVATAX_OUTBOX_BULK_COMMIT_ID_STATUS = Internal.createIndex("avatax_outbox_bulk_commit_id_status", AvataxOutbox.AVATAX_OUTBOX, new OrderField[] { AvataxOutbox.AVATAX_OUTBOX.BULK_COMMIT_ID, AvataxOutbox.AVATAX_OUTBOX.STATUS }, false);
+        public static Index AVATAX_OUTBOX_AVATAX_OUTBOX_STATUS_NEXT_ATTEMPT_DATE = Internal.createIndex("avatax_outbox_status_next_attempt_date", AvataxOutbox.AVATAX_OUTBOX, new OrderField[] { AvataxOutbox.AVATAX_OUTBOX.STATUS, AvataxOutbox.AVATAX_OUTBOX.NEXT_ATTEMPT_DATE }, false);
+        public static Index AVATAX_PENDING_DOCUMENTS_AVATAX_PENDING_DOCUMENTS_STATUS_NEXT_ATTEMPT_DATE = Internal.createIndex("avatax_pending_documents_status_next_attempt_date", AvataxPendingDocuments.AVATAX_PENDING_DOCUMENTS, new OrderField[] { AvataxPendingDocuments.AVATAX_PENDING_DOCUMENTS.STATUS, AvataxPendingDocuments.AVATAX_PENDING_DOCUMENTS.NEXT_ATTEMPT_DATE }, false);
         public static Index AVATAX_RESPONSES_AVATAX_RESPONSES_KB_ACCOUNT_ID = Internal.createIndex("avatax_responses_kb_account_id", AvataxResponses.AVATAX_RESPONSES, new OrderField[] { AvataxResponses.AVATAX_RESPONSES.KB_ACCOUNT_ID }, false);
-        public static Index AVATAX_RESPONSES_AVATAX_RESPONSES_KB_INVOICE_ID = Internal.createIndex("avatax_responses_kb_invoice_id", AvataxResponses.AVATAX_RESPONSES, new OrderField[] { AvataxResponses.AVATAX_RESPONSES.KB_INVOICE_ID }, false);
+        public static Index AVATAX_RESPONSES_AVATAX_RESPONSES_KB_INVOICE_ID_RESULT_CODE_KB_TENANT_ID = Internal.createIndex("avatax_responses_kb_invoice_id_result_code_kb_tenant_id", AvataxResponses.AVATAX_RESPONSES, new OrderField[] { AvataxResponses.AVATAX_RESPONSES.KB_INVOICE_ID, AvataxResponses.AVATAX_RESPONSES.RESULT_CODE, AvataxResponses.AVATAX_RESPONSES.KB_TENANT_ID, AvataxResponses.AVATAX_RESPONSES.RECORD_ID, AvataxResponses.AVATAX_RESPONSES.DOC_CODE }, false);
+        public static Index AVATAX_RESPONSES_AVATAX_RESPONSES_KB_TENANT_ID_DOC_DATE = Internal.createIndex("avatax_responses_kb_tenant_id_doc_date", AvataxResponses.AVATAX_RESPONSES, new OrderField[] { AvataxResponses.AVATAX_RESPONSES.KB_TENANT_ID, AvataxResponses.AVATAX_RESPONSES.DOC_DATE }, false);
+        public static Index AVATAX_TAX_CODES_AVATAX_TAX_CODES_KB_TENANT_ID_PRODUCT_NAME = Internal.createIndex("avatax_tax_codes_kb_tenant_id_product_name", AvataxTaxCodes.AVATAX_TAX_CODES, new OrderField[] { AvataxTaxCodes.AVATAX_TAX_CODES.KB_TENANT_ID, AvataxTaxCodes.AVATAX_TAX_CODES.PRODUCT_NAME }, false);
         public static Index AVATAX_TAX_CODES_AVATAX_TAX_CODES_PRODUCT_NAME = Internal.createIndex("avatax_tax_codes_product_name", AvataxTaxCodes.AVATAX_TAX_CODES, new OrderField[] { AvataxTaxCodes.AVATAX_TAX_CODES.PRODUCT_NAME }, false);
+        public static Index AVATAX_TAX_RATES_AVATAX_TAX_RATES_POSTAL_CODE_COUNTRY_KB_TENANT_ID = Internal.createIndex("avatax_tax_rates_postal_code_country_kb_tenant_id", AvataxTaxRates.AVATAX_TAX_RATES, new OrderField[] { AvataxTaxRates.AVATAX_TAX_RATES.POSTAL_CODE, AvataxTaxRates.AVATAX_TAX_RATES.COUNTRY, AvataxTaxRates.AVATAX_TAX_RATES.KB_TENANT_ID }, false);
+        public static Index AVATAX_TAX_RATES_STAGING_AVATAX_TAX_RATES_STAGING_IMPORT_ID_POSTAL_CODE = Internal.createIndex("avatax_tax_rates_staging_import_id_postal_code", AvataxTaxRatesStaging.AVATAX_TAX_RATES_STAGING, new OrderField[] { AvataxTaxRatesStaging.AVATAX_TAX_RATES_STAGING.IMPORT_ID, AvataxTaxRatesStaging.AVATAX_TAX_RATES_STAGING.POSTAL_CODE }, false);
     }
 }
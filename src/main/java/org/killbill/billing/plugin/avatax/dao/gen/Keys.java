@@ -9,10 +9,24 @@ import org.jooq.TableField;
 import org.jooq.UniqueKey;
 import org.jooq.impl.Internal;
 import org.jooq.types.ULong;
+import org.killbill.billing.plugin.avatax.dao.gen.tables.AvataxBackfills;
+import org.killbill.billing.plugin.avatax.dao.gen.tables.AvataxBulkCommits;
+import org.killbill.billing.plugin.avatax.dao.gen.tables.AvataxOutbox;
+import org.killbill.billing.plugin.avatax.dao.gen.tables.AvataxPendingDocuments;
+import org.killbill.billing.plugin.avatax.dao.gen.tables.AvataxResponseItems;
 import org.killbill.billing.plugin.avatax.dao.gen.tables.AvataxResponses;
 import org.killbill.billing.plugin.avatax.dao.gen.tables.AvataxTaxCodes;
+import org.killbill.billing.plugin.avatax.dao.gen.tables.AvataxTaxRates;
+import org.killbill.billing.plugin.avatax.dao.gen.tables.AvataxTaxRatesStaging;
+import org.killbill.billing.plugin.avatax.dao.gen.tables.records.AvataxBackfillsRecord;
+import org.killbill.billing.plugin.avatax.dao.gen.tables.records.AvataxBulkCommitsRecord;
+import org.killbill.billing.plugin.avatax.dao.gen.tables.records.AvataxOutboxRecord;
+import org.killbill.billing.plugin.avatax.dao.gen.tables.records.AvataxPendingDocumentsRecord;
+import org.killbill.billing.plugin.avatax.dao.gen.tables.records.AvataxResponseItemsRecord;
 import org.killbill.billing.plugin.avatax.dao.gen.tables.records.AvataxResponsesRecord;
 import org.killbill.billing.plugin.avatax.dao.gen.tables.records.AvataxTaxCodesRecord;
+import org.killbill.billing.plugin.avatax.dao.gen.tables.records.AvataxTaxRatesRecord;
+import org.killbill.billing.plugin.avatax.dao.gen.tables.records.AvataxTaxRatesStagingRecord;
 
 
 /**
@@ -26,18 +40,44 @@ public class Keys {
     // IDENTITY definitions
     // -------------------------------------------------------------------------
 
+    public static final Identity<AvataxBackfillsRecord, ULong> IDENTITY_AVATAX_BACKFILLS = Identities0.IDENTITY_AVATAX_BACKFILLS;
+    public static final Identity<AvataxBulkCommitsRecord, ULong> IDENTITY_AVATAX_BULK_COMMITS = Identities0.IDENTITY_AVATAX_BULK_COMMITS;
+    public static final Identity<AvataxOutboxRecord, ULong> IDENTITY_AVATAX_OUTBOX = Identities0.IDENTITY_AVATAX_OUTBOX;
+    public static final Identity<AvataxPendingDocumentsRecord, ULong> IDENTITY_AVATAX_PENDING_DOCUMENTS = Identities0.IDENTITY_AVATAX_PENDING_DOCUMENTS;
+    public static final Identity<AvataxResponseItemsRecord, ULong> IDENTITY_AVATAX_RESPONSE_ITEMS = Identities0.IDENTITY_AVATAX_RESPONSE_ITEMS;
     public static final Identity<AvataxResponsesRecord, ULong> IDENTITY_AVATAX_RESPONSES = Identities0.IDENTITY_AVATAX_RESPONSES;
     public static final Identity<AvataxTaxCodesRecord, ULong> IDENTITY_AVATAX_TAX_CODES = Identities0.IDENTITY_AVATAX_TAX_CODES;
+    public static final Identity<AvataxTaxRatesRecord, ULong> IDENTITY_AVATAX_TAX_RATES = Identities0.IDENTITY_AVATAX_TAX_RATES;
+    public static final Identity<AvataxTaxRatesStagingRecord, ULong> IDENTITY_AVATAX_TAX_RATES_STAGING = Identities0.IDENTITY_AVATAX_TAX_RATES_STAGING;
 
     // -------------------------------------------------------------------------
     // UNIQUE and PRIMARY KEY definitions
     // -------------------------------------------------------------------------
 
+    public static final UniqueKey<AvataxBackfillsRecord> KEY_AVATAX_BACKFILLS_PRIMARY = UniqueKeys0.KEY_AVATAX_BACKFILLS_PRIMARY;
+    public static final UniqueKey<AvataxBackfillsRecord> KEY_AVATAX_BACKFILLS_RECORD_ID = UniqueKeys0.KEY_AVATAX_BACKFILLS_RECORD_ID;
+    public static final UniqueKey<AvataxBackfillsRecord> KEY_AVATAX_BACKFILLS_AVATAX_BACKFILLS_NAME = UniqueKeys0.KEY_AVATAX_BACKFILLS_AVATAX_BACKFILLS_NAME;
+    public static final UniqueKey<AvataxBulkCommitsRecord> KEY_AVATAX_BULK_COMMITS_PRIMARY = UniqueKeys0.KEY_AVATAX_BULK_COMMITS_PRIMARY;
+    public static final UniqueKey<AvataxBulkCommitsRecord> KEY_AVATAX_BULK_COMMITS_RECORD_ID = UniqueKeys0.KEY_AVATAX_BULK_COMMITS_RECORD_ID;
+    public static final UniqueKey<AvataxBulkCommitsRecord> KEY_AVATAX_BULK_COMMITS_AVATAX_BULK_COMMITS_BULK_COMMIT_ID = UniqueKeys0.KEY_AVATAX_BULK_COMMITS_AVATAX_BULK_COMMITS_BULK_COMMIT_ID;
+    public static final UniqueKey<AvataxOutboxRecord> KEY_AVATAX_OUTBOX_PRIMARY = UniqueKeys0.KEY_AVATAX_OUTBOX_PRIMARY;
+    public static final UniqueKey<AvataxOutboxRecord> KEY_AVATAX_OUTBOX_RECORD_ID = UniqueKeys0.KEY_AVATAX_OUTBOX_RECORD_ID;
+    public static final UniqueKey<AvataxOutboxRecord> KEY_AVATAX_OUTBOX_AVATAX_OUTBOX_DOC_CODE_KB_TENANT_ID = UniqueKeys0.KEY_AVATAX_OUTBOX_AVATAX_OUTBOX_DOC_CODE_KB_TENANT_ID;
+    public static final UniqueKey<AvataxPendingDocumentsRecord> KEY_AVATAX_PENDING_DOCUMENTS_PRIMARY = UniqueKeys0.KEY_AVATAX_PENDING_DOCUMENTS_PRIMARY;
+    public static final UniqueKey<AvataxPendingDocumentsRecord> KEY_AVATAX_PENDING_DOCUMENTS_RECORD_ID = UniqueKeys0.KEY_AVATAX_PENDING_DOCUMENTS_RECORD_ID;
+    public static final UniqueKey<AvataxPendingDocumentsRecord> KEY_AVATAX_PENDING_DOCUMENTS_AVATAX_PENDING_DOCUMENTS_RESPONSE_RECORD_ID = UniqueKeys0.KEY_AVATAX_PENDING_DOCUMENTS_AVATAX_PENDING_DOCUMENTS_RESPONSE_RECORD_ID;
+    public static final UniqueKey<AvataxResponseItemsRecord> KEY_AVATAX_RESPONSE_ITEMS_PRIMARY = UniqueKeys0.KEY_AVATAX_RESPONSE_ITEMS_PRIMARY;
+    public static final UniqueKey<AvataxResponseItemsRecord> KEY_AVATAX_RESPONSE_ITEMS_RECORD_ID = UniqueKeys0.KEY_AVATAX_RESPONSE_ITEMS_RECORD_ID;
+    public static final UniqueKey<AvataxResponseItemsRecord> KEY_AVATAX_RESPONSE_ITEMS_AVATAX_RESPONSE_ITEMS_RESPONSE_RECORD_ID = UniqueKeys0.KEY_AVATAX_RESPONSE_ITEMS_AVATAX_RESPONSE_ITEMS_RESPONSE_RECORD_ID;
     public static final UniqueKey<AvataxResponsesRecord> KEY_AVATAX_RESPONSES_PRIMARY = UniqueKeys0.KEY_AVATAX_RESPONSES_PRIMARY;
     public static final UniqueKey<AvataxResponsesRecord> KEY_AVATAX_RESPONSES_RECORD_ID = UniqueKeys0.KEY_AVATAX_RESPONSES_RECORD_ID;
     public static final UniqueKey<AvataxTaxCodesRecord> KEY_AVATAX_TAX_CODES_PRIMARY = UniqueKeys0.KEY_AVATAX_TAX_CODES_PRIMARY;
     public static final UniqueKey<AvataxTaxCodesRecord> KEY_AVATAX_TAX_CODES_RECORD_ID = UniqueKeys0.KEY_AVATAX_TAX_CODES_RECORD_ID;
     public static final UniqueKey<AvataxTaxCodesRecord> KEY_AVATAX_TAX_CODES_AVATAX_TAX_CODES_PRODUCT_NAME_TAX_CODE_KB_TENANT_ID = UniqueKeys0.KEY_AVATAX_TAX_CODES_AVATAX_TAX_CODES_PRODUCT_NAME_TAX_CODE_KB_TENANT_ID;
+    public static final UniqueKey<AvataxTaxRatesRecord> KEY_AVATAX_TAX_RATES_PRIMARY = UniqueKeys0.KEY_AVATAX_TAX_RATES_PRIMARY;
+    public static final UniqueKey<AvataxTaxRatesRecord> KEY_AVATAX_TAX_RATES_RECORD_ID = UniqueKeys0.KEY_AVATAX_TAX_RATES_RECORD_ID;
+    public static final UniqueKey<AvataxTaxRatesStagingRecord> KEY_AVATAX_TAX_RATES_STAGING_PRIMARY = UniqueKeys0.KEY_AVATAX_TAX_RATES_STAGING_PRIMARY;
+    public static final UniqueKey<AvataxTaxRatesStagingRecord> KEY_AVATAX_TAX_RATES_STAGING_RECORD_ID = UniqueKeys0.KEY_AVATAX_TAX_RATES_STAGING_RECORD_ID;
 
     // -------------------------------------------------------------------------
     // FOREIGN KEY definitions
@@ -49,15 +89,41 @@ public class Keys {
     // -------------------------------------------------------------------------
 
     private static class Identities0 {
+        public static Identity<AvataxBackfillsRecord, ULong> IDENTITY_AVATAX_BACKFILLS = Internal.createIdentity(AvataxBackfills.AVATAX_BACKFILLS, AvataxBackfills.AVATAX_BACKFILLS.RECORD_ID);
+        public static Identity<AvataxBulkCommitsRecord, ULong> IDENTITY_AVATAX_BULK_COMMITS = Internal.createIdentity(AvataxBulkCommits.AVATAX_BULK_COMMITS, AvataxBulkCommits.AVATAX_BULK_COMMITS.RECORD_ID);
+        public static Identity<AvataxOutboxRecord, ULong> IDENTITY_AVATAX_OUTBOX = Internal.createIdentity(AvataxOutbox.AVATAX_OUTBOX, AvataxOutbox.AVATAX_OUTBOX.RECORD_ID);
+        public static Identity<AvataxPendingDocumentsRecord, ULong> IDENTITY_AVATAX_PENDING_DOCUMENTS = Internal.createIdentity(AvataxPendingDocuments.AVATAX_PENDING_DOCUMENTS, AvataxPendingDocuments.AVATAX_PENDING_DOCUMENTS.RECORD_ID);
+        public static Identity<AvataxResponseItemsRecord, ULong> IDENTITY_AVATAX_RESPONSE_ITEMS = Internal.createIdentity(AvataxResponseItems.AVATAX_RESPONSE_ITEMS, AvataxResponseItems.AVATAX_RESPONSE_ITEMS.RECORD_ID);
         public static Identity<AvataxResponsesRecord, ULong> IDENTITY_AVATAX_RESPONSES = Internal.createIdentity(AvataxResponses.AVATAX_RESPONSES, AvataxResponses.AVATAX_RESPONSES.RECORD_ID);
         public static Identity<AvataxTaxCodesRecord, ULong> IDENTITY_AVATAX_TAX_CODES = Internal.createIdentity(AvataxTaxCodes.AVATAX_TAX_CODES, AvataxTaxCodes.AVATAX_TAX_CODES.RECORD_ID);
+        public static Identity<AvataxTaxRatesRecord, ULong> IDENTITY_AVATAX_TAX_RATES = Internal.createIdentity(AvataxTaxRates.AVATAX_TAX_RATES, AvataxTaxRates.AVATAX_TAX_RATES.RECORD_ID);
+        public static Identity<AvataxTaxRatesStagingRecord, ULong> IDENTITY_AVATAX_TAX_RATES_STAGING = Internal.createIdentity(AvataxTaxRatesStaging.AVATAX_TAX_RATES_STAGING, AvataxTaxRatesStaging.AVATAX_TAX_RATES_STAGING.RECORD_ID);
     }
 
     private static class UniqueKeys0 {
+        public static final UniqueKey<AvataxBackfillsRecord> KEY_AVATAX_BACKFILLS_PRIMARY = Internal.createUniqueKey(AvataxBackfills.AVATAX_BACKFILLS, "KEY_avatax_backfills_PRIMARY", new TableField[] { AvataxBackfills.AVATAX_BACKFILLS.RECORD_ID }, true);
+        public static final UniqueKey<AvataxBackfillsRecord> KEY_AVATAX_BACKFILLS_RECORD_ID = Internal.createUniqueKey(AvataxBackfills.AVATAX_BACKFILLS, "KEY_avatax_backfills_record_id", new TableField[] { AvataxBackfills.AVATAX_BACKFILLS.RECORD_ID }, true);
+        public static final UniqueKey<AvataxBackfillsRecord> KEY_AVATAX_BACKFILLS_AVATAX_BACKFILLS_NAME = Internal.createUniqueKey(AvataxBackfills.AVATAX_BACKFILLS, "KEY_avatax_backfills_avatax_backfills_name", new TableField[] { AvataxBackfills.AVATAX_BACKFILLS.NAME }, true);
+        public static final UniqueKey<AvataxBulkCommitsRecord> KEY_AVATAX_BULK_COMMITS_PRIMARY = Internal.createUniqueKey(AvataxBulkCommits.AVATAX_BULK_COMMITS, "KEY_avatax_bulk_commits_PRIMARY", new TableField[] { AvataxBulkCommits.AVATAX_BULK_COMMITS.RECORD_ID }, true);
+        public static final UniqueKey<AvataxBulkCommitsRecord> KEY_AVATAX_BULK_COMMITS_RECORD_ID = Internal.createUniqueKey(AvataxBulkCommits.AVATAX_BULK_COMMITS, "KEY_avatax_bulk_commits_record_id", new TableField[] { AvataxBulkCommits.AVATAX_BULK_COMMITS.RECORD_ID }, true);
+        public static final UniqueKey<AvataxBulkCommitsRecord> KEY_AVATAX_BULK_COMMITS_AVATAX_BULK_COMMITS_BULK_COMMIT_ID = Internal.createUniqueKey(AvataxBulkCommits.AVATAX_BULK_COMMITS, "KEY_avatax_bulk_commits_avatax_bulk_commits_bulk_commit_id", new TableField[] { AvataxBulkCommits.AVATAX_BULK_COMMITS.BULK_COMMIT_ID }, true);
+        public static final UniqueKey<AvataxOutboxRecord> KEY_AVATAX_OUTBOX_PRIMARY = Internal.createUniqueKey(AvataxOutbox.AVATAX_OUTBOX, "KEY_avatax_outbox_PRIMARY", new TableField[] { AvataxOutbox.AVATAX_OUTBOX.RECORD_ID }, true);
+        public static final UniqueKey<AvataxOutboxRecord> KEY_AVATAX_OUTBOX_RECORD_ID = Internal.createUniqueKey(AvataxOutbox.AVATAX_OUTBOX, "KEY_avatax_outbox_record_id", new TableField[] { AvataxOutbox.AVATAX_OUTBOX.RECORD_ID }, true);
+        public static final UniqueKey<AvataxOutboxRecord> KEY_AVATAX_OUTBOX_AVATAX_OUTBOX_DOC_CODE_KB_TENANT_ID = Internal.createUniqueKey(AvataxOutbox.AVATAX_OUTBOX, "KEY_avatax_outbox_avatax_outbox_doc_code_kb_tenant_id", new TableField[] { AvataxOutbox.AVATAX_OUTBOX.DOC_CODE, AvataxOutbox.AVATAX_OUTBOX.KB_TENANT_ID }, true);
+        public static final UniqueKey<AvataxPendingDocumentsRecord> KEY_AVATAX_PENDING_DOCUMENTS_PRIMARY = Internal.createUniqueKey(AvataxPendingDocuments.AVATAX_PENDING_DOCUMENTS, "KEY_avatax_pending_documents_PRIMARY", new TableField[] { AvataxPendingDocuments.AVATAX_PENDING_DOCUMENTS.RECORD_ID }, true);
+        public static final UniqueKey<AvataxPendingDocumentsRecord> KEY_AVATAX_PENDING_DOCUMENTS_RECORD_ID = Internal.createUniqueKey(AvataxPendingDocuments.AVATAX_PENDING_DOCUMENTS, "KEY_avatax_pending_documents_record_id", new TableField[] { AvataxPendingDocuments.AVATAX_PENDING_DOCUMENTS.RECORD_ID }, true);
+        public static final UniqueKey<AvataxPendingDocumentsRecord> KEY_AVATAX_PENDING_DOCUMENTS_AVATAX_PENDING_DOCUMENTS_RESPONSE_RECORD_ID = Internal.createUniqueKey(AvataxPendingDocuments.AVATAX_PENDING_DOCUMENTS, "KEY_avatax_pending_documents_avatax_pending_documents_response_record_id", new TableField[] { AvataxPendingDocuments.AVATAX_PENDING_DOCUMENTS.RESPONSE_RECORD_ID }, true);
+        public static final UniqueKey<AvataxResponseItemsRecord> KEY_AVATAX_RESPONSE_ITEMS_PRIMARY = Internal.createUniqueKey(AvataxResponseItems.AVATAX_RESPONSE_ITEMS, "KEY_avatax_response_items_PRIMARY", new TableField[] { AvataxResponseItems.AVATAX_RESPONSE_ITEMS.RECORD_ID }, true);
+        public static final UniqueKey<AvataxResponseItemsRecord> KEY_AVATAX_RESPONSE_ITEMS_RECORD_ID = Internal.createUniqueKey(AvataxResponseItems.AVATAX_RESPONSE_ITEMS, "KEY_avatax_response_items_record_id", new TableField[] { AvataxResponseItems.AVATAX_RESPONSE_ITEMS.RECORD_ID }, true);
+        public static final UniqueKey<AvataxResponseItemsRecord> KEY_AVATAX_RESPONSE_ITEMS_AVATAX_RESPONSE_ITEMS_RESPONSE_RECORD_ID = Internal.createUniqueKey(AvataxResponseItems.AVATAX_RESPONSE_ITEMS, "KEY_avatax_response_items_avatax_response_items_response_record_id", new TableField[] { AvataxResponseItems.AVATAX_RESPONSE_ITEMS.RESPONSE_RECORD_ID, AvataxResponseItems.AVATAX_RESPONSE_ITEMS.KB_INVOICE_ITEM_ID, AvataxResponseItems.AVATAX_RESPONSE_ITEMS.KB_ADJUSTMENT_ITEM_ID }, true);
         public static final UniqueKey<AvataxResponsesRecord> KEY_AVATAX_RESPONSES_PRIMARY = Internal.createUniqueKey(AvataxResponses.AVATAX_RESPONSES, "KEY_avatax_responses_PRIMARY", new TableField[] { AvataxResponses.AVATAX_RESPONSES.RECORD_ID }, true);
         public static final UniqueKey<AvataxResponsesRecord> KEY_AVATAX_RESPONSES_RECORD_ID = Internal.createUniqueKey(AvataxResponses.AVATAX_RESPONSES, "KEY_avatax_responses_record_id", new TableField[] { AvataxResponses.AVATAX_RESPONSES.RECORD_ID }, true);
         public static final UniqueKey<AvataxTaxCodesRecord> KEY_AVATAX_TAX_CODES_PRIMARY = Internal.createUniqueKey(AvataxTaxCodes.AVATAX_TAX_CODES, "KEY_avatax_tax_codes_PRIMARY", new TableField[] { AvataxTaxCodes.AVATAX_TAX_CODES.RECORD_ID }, true);
         public static final UniqueKey<AvataxTaxCodesRecord> KEY_AVATAX_TAX_CODES_RECORD_ID = Internal.createUniqueKey(AvataxTaxCodes.AVATAX_TAX_CODES, "KEY_avatax_tax_codes_record_id", new TableField[] { AvataxTaxCodes.AVATAX_TAX_CODES.RECORD_ID }, true);
         public static final UniqueKey<AvataxTaxCodesRecord> KEY_AVATAX_TAX_CODES_AVATAX_TAX_CODES_PRODUCT_NAME_TAX_CODE_KB_TENANT_ID = Internal.createUniqueKey(AvataxTaxCodes.AVATAX_TAX_CODES, "KEY_avatax_tax_codes_avatax_tax_codes_product_name_tax_code_kb_tenant_id", new TableField[] { AvataxTaxCodes.AVATAX_TAX_CODES.PRODUCT_NAME, AvataxTaxCodes.AVATAX_TAX_CODES.TAX_CODE, AvataxTaxCodes.AVATAX_TAX_CODES.KB_TENANT_ID }, true);
+        public static final UniqueKey<AvataxTaxRatesRecord> KEY_AVATAX_TAX_RATES_PRIMARY = Internal.createUniqueKey(AvataxTaxRates.AVATAX_TAX_RATES, "KEY_avatax_tax_rates_PRIMARY", new TableField[] { AvataxTaxRates.AVATAX_TAX_RATES.RECORD_ID }, true);
+        public static final UniqueKey<AvataxTaxRatesRecord> KEY_AVATAX_TAX_RATES_RECORD_ID = Internal.createUniqueKey(AvataxTaxRates.AVATAX_TAX_RATES, "KEY_avatax_tax_rates_record_id", new TableField[] { AvataxTaxRates.AVATAX_TAX_RATES.RECORD_ID }, true);
+        public static final UniqueKey<AvataxTaxRatesStagingRecord> KEY_AVATAX_TAX_RATES_STAGING_PRIMARY = Internal.createUniqueKey(AvataxTaxRatesStaging.AVATAX_TAX_RATES_STAGING, "KEY_avatax_tax_rates_staging_PRIMARY", new TableField[] { AvataxTaxRatesStaging.AVATAX_TAX_RATES_STAGING.RECORD_ID }, true);
+        public static final UniqueKey<AvataxTaxRatesStagingRecord> KEY_AVATAX_TAX_RATES_STAGING_RECORD_ID = Internal.createUniqueKey(AvataxTaxRatesStaging.AVATAX_TAX_RATES_STAGING, "KEY_avatax_tax_rates_staging_record_id", new TableField[] { AvataxTaxRatesStaging.AVATAX_TAX_RATES_STAGING.RECORD_ID }, true);
     }
 }
@@ -10,8 +10,15 @@ import java.util.List;
 import org.jooq.Catalog;
 import org.jooq.Table;
 import org.jooq.impl.SchemaImpl;
+import org.killbill.billing.plugin.avatax.dao.gen.tables.AvataxBackfills;
+import org.killbill.billing.plugin.avatax.dao.gen.tables.AvataxBulkCommits;
+import org.killbill.billing.plugin.avatax.dao.gen.tables.AvataxOutbox;
+import org.killbill.billing.plugin.avatax.dao.gen.tables.AvataxPendingDocuments;
+import org.killbill.billing.plugin.avatax.dao.gen.tables.AvataxResponseItems;
 import org.killbill.billing.plugin.avatax.dao.gen.tables.AvataxResponses;
 import org.killbill.billing.plugin.avatax.dao.gen.tables.AvataxTaxCodes;
+import org.killbill.billing.plugin.avatax.dao.gen.tables.AvataxTaxRates;
+import org.killbill.billing.plugin.avatax.dao.gen.tables.AvataxTaxRatesStaging;
 
 
 /**
@@ -27,6 +34,31 @@ public class Killbill extends SchemaImpl {
      */
     public static final Killbill KILLBILL = new Killbill();
 
+    /**
+     * The table <code>killbill.avatax_backfills</code>.
+     */
+    public final AvataxBackfills AVATAX_BACKFILLS = AvataxBackfills.AVATAX_BACKFILLS;
+
+    /**
+     * The table <code>killbill.avatax_bulk_commits</code>.
+     */
+    public final AvataxBulkCommits AVATAX_BULK_COMMITS = AvataxBulkCommits.AVATAX_BULK_COMMITS;
+
+    /**
+     * The table <code>killbill.avatax_outbox</code>.
+     */
+    public final AvataxOutbox AVATAX_OUTBOX = AvataxOutbox.AVATAX_OUTBOX;
+
+    /**
+     * The table <code>killbill.avatax_pending_documents</code>.
+     */
+    public final AvataxPendingDocuments AVATAX_PENDING_DOCUMENTS = AvataxPendingDocuments.AVATAX_PENDING_DOCUMENTS;
+
+    /**
+     * The table <code>killbill.avatax_response_items</code>.
+     */
+    public final AvataxResponseItems AVATAX_RESPONSE_ITEMS = AvataxResponseItems.AVATAX_RESPONSE_ITEMS;
+
     /**
      * The table <code>killbill.avatax_responses</code>.
      */
@@ -37,6 +69,16 @@ public class Killbill extends SchemaImpl {
      */
     public final AvataxTaxCodes AVATAX_TAX_CODES = AvataxTaxCodes.AVATAX_TAX_CODES;
 
+    /**
+     * The table <code>killbill.avatax_tax_rates</code>.
+     */
+    public final AvataxTaxRates AVATAX_TAX_RATES = AvataxTaxRates.AVATAX_TAX_RATES;
+
+    /**
+     * The table <code>killbill.avatax_tax_rates_staging</code>.
+     */
+    public final AvataxTaxRatesStaging AVATAX_TAX_RATES_STAGING = AvataxTaxRatesStaging.AVATAX_TAX_RATES_STAGING;
+
     /**
      * No further instances allowed
      */
@@ -53,7 +95,14 @@ public class Killbill extends SchemaImpl {
     @Override
     public final List<Table<?>> getTables() {
         return Arrays.<Table<?>>asList(
+            AvataxBackfills.AVATAX_BACKFILLS,
+            AvataxBulkCommits.AVATAX_BULK_COMMITS,
+            AvataxOutbox.AVATAX_OUTBOX,
+            AvataxPendingDocuments.AVATAX_PENDING_DOCUMENTS,
+            AvataxResponseItems.AVATAX_RESPONSE_ITEMS,
             AvataxResponses.AVATAX_RESPONSES,
-            AvataxTaxCodes.AVATAX_TAX_CODES);
+            AvataxTaxCodes.AVATAX_TAX_CODES,
+            AvataxTaxRates.AVATAX_TAX_RATES,
+            AvataxTaxRatesStaging.AVATAX_TAX_RATES_STAGING);
     }
 }
@@ -4,8 +4,15 @@
 package org.killbill.billing.plugin.avatax.dao.gen;
 
 
+import org.killbill.billing.plugin.avatax.dao.gen.tables.AvataxBackfills;
+import org.killbill.billing.plugin.avatax.dao.gen.tables.AvataxBulkCommits;
+import org.killbill.billing.plugin.avatax.dao.gen.tables.AvataxOutbox;
+import org.killbill.billing.plugin.avatax.dao.gen.tables.AvataxPendingDocuments;
+import org.killbill.billing.plugin.avatax.dao.gen.tables.AvataxResponseItems;
 import org.killbill.billing.plugin.avatax.dao.gen.tables.AvataxResponses;
 import org.killbill.billing.plugin.avatax.dao.gen.tables.AvataxTaxCodes;
+import org.killbill.billing.plugin.avatax.dao.gen.tables.AvataxTaxRates;
+import org.killbill.billing.plugin.avatax.dao.gen.tables.AvataxTaxRatesStaging;
 
 
 /**
@@ -14,6 +21,31 @@ import org.killbill.billing.plugin.avatax.dao.gen.tables.AvataxTaxCodes;
 @SuppressWarnings({ "all", "unchecked", "rawtypes" })
 public class Tables {
 
+    /**
+     * The table <code>killbill.avatax_backfills</code>.
+     */
+    public static final AvataxBackfills AVATAX_BACKFILLS = AvataxBackfills.AVATAX_BACKFILLS;
+
+    /**
+     * The table <code>killbill.avatax_bulk_commits</code>.
+     */
+    public static final AvataxBulkCommits AVATAX_BULK_COMMITS = AvataxBulkCommits.AVATAX_BULK_COMMITS;
+
+    /**
+     * The table <code>killbill.avatax_outbox</code>.
+     */
+    public static final AvataxOutbox AVATAX_OUTBOX = AvataxOutbox.AVATAX_OUTBOX;
+
+    /**
+     * The table <code>killbill.avatax_pending_documents</code>.
+     */
+    public static final AvataxPendingDocuments AVATAX_PENDING_DOCUMENTS = AvataxPendingDocuments.AVATAX_PENDING_DOCUMENTS;
+
+    /**
+     * The table <code>killbill.avatax_response_items</code>.
+     */
+    public static final AvataxResponseItems AVATAX_RESPONSE_ITEMS = AvataxResponseItems.AVATAX_RESPONSE_ITEMS;
+
     /**
      * The table <code>killbill.avatax_responses</code>.
      */
@@ -23,4 +55,14 @@ public class Tables {
      * The table <code>killbill.avatax_tax_codes</code>.
      */
     public static final AvataxTaxCodes AVATAX_TAX_CODES = AvataxTaxCodes.AVATAX_TAX_CODES;
+
+    /**
+     * The table <code>killbill.avatax_tax_rates</code>.
+     */
+    public static final AvataxTaxRates AVATAX_TAX_RATES = AvataxTaxRates.AVATAX_TAX_RATES;
+
+    /**
+     * The table <code>killbill.avatax_tax_rates_staging</code>.
+     */
+    public static final AvataxTaxRatesStaging AVATAX_TAX_RATES_STAGING = AvataxTaxRatesStaging.AVATAX_TAX_RATES_STAGING;
 }
@@ -15,7 +15,6 @@ import org.jooq.Identity;
 import org.jooq.Index;
 import org.jooq.Name;
 import org.jooq.Record;
-import org.jooq.Row22;
 import org.jooq.Schema;
 import org.jooq.Table;
 import org.jooq.TableField;
@@ -126,16 +125,31 @@ public class AvataxResponses extends TableImpl<AvataxResponsesRecord> {
      */
     public final TableField<AvataxResponsesRecord, String> TAX_LINES = createField(DSL.name("tax_lines"), org.jooq.impl.SQLDataType.CLOB, this, "");
 
+    /**
+     * The column <code>killbill.avatax_responses.tax_lines_bin</code>.
+     */
+    public final TableField<AvataxResponsesRecord, byte[]> TAX_LINES_BIN = createField(DSL.name("tax_lines_bin"), org.jooq.impl.SQLDataType.BLOB, this, "");
+
     /**
      * The column <code>killbill.avatax_responses.tax_summary</code>.
      */
     public final TableField<AvataxResponsesRecord, String> TAX_SUMMARY = createField(DSL.name("tax_summary"), org.jooq.impl.SQLDataType.CLOB, this, "");
 
+    /**
+     * The column <code>killbill.avatax_responses.tax_summary_bin</code>.
+     */
+    public final TableField<AvataxResponsesRecord, byte[]> TAX_SUMMARY_BIN = createField(DSL.name("tax_summary_bin"), org.jooq.impl.SQLDataType.BLOB, this, "");
+
     /**
      * The column <code>killbill.avatax_responses.tax_addresses</code>.
      */
     public final TableField<AvataxResponsesRecord, String> TAX_ADDRESSES = createField(DSL.name("tax_addresses"), org.jooq.impl.SQLDataType.CLOB, this, "");
 
+    /**
+     * The column <code>killbill.avatax_responses.tax_addresses_bin</code>.
+     */
+    public final TableField<AvataxResponsesRecord, byte[]> TAX_ADDRESSES_BIN = createField(DSL.name("tax_addresses_bin"), org.jooq.impl.SQLDataType.BLOB, this, "");
+
     /**
      * The column <code>killbill.avatax_responses.result_code</code>.
      */
@@ -146,11 +160,21 @@ public class AvataxResponses extends TableImpl<AvataxResponsesRecord> {
      */
     public final TableField<AvataxResponsesRecord, String> MESSAGES = createField(DSL.name("messages"), org.jooq.impl.SQLDataType.CLOB, this, "");
 
+    /**
+     * The column <code>killbill.avatax_responses.messages_bin</code>.
+     */
+    public final TableField<AvataxResponsesRecord, byte[]> MESSAGES_BIN = createField(DSL.name("messages_bin"), org.jooq.impl.SQLDataType.BLOB, this, "");
+
     /**
      * The column <code>killbill.avatax_responses.additional_data</code>.
      */
     public final TableField<AvataxResponsesRecord, String> ADDITIONAL_DATA = createField(DSL.name("additional_data"), org.jooq.impl.SQLDataType.CLOB, this, "");
 
+    /**
+     * The column <code>killbill.avatax_responses.is_fallback</code>.
+     */
+    public final TableField<AvataxResponsesRecord, Boolean> IS_FALLBACK = createField(DSL.name("is_fallback"), org.jooq.impl.SQLDataType.BOOLEAN, this, "");
+
     /**
      * The column <code>killbill.avatax_responses.created_date</code>.
      */
@@ -201,7 +225,7 @@ public class AvataxResponses extends TableImpl<AvataxResponsesRecord> {
 
     @Override
     public List<Index> getIndexes() {
-        return Arrays.<Index>asList(Indexes.AVATAX_RESPONSES_AVATAX_RESPONSES_KB_ACCOUNT_ID, Indexes.AVATAX_RESPONSES_AVATAX_RESPONSES_KB_INVOICE_ID);
+        return Arrays.<Index>asList(Indexes.AVATAX_RESPONSES_AVATAX_RESPONSES_KB_ACCOUNT_ID, Indexes.AVATAX_RESPONSES_AVATAX_RESPONSES_KB_INVOICE_ID_RESULT_CODE_KB_TENANT_ID, Indexes.AVATAX_RESPONSES_AVATAX_RESPONSES_KB_TENANT_ID_DOC_DATE);
     }
 
     @Override
@@ -244,13 +268,4 @@ public class AvataxResponses extends TableImpl<AvataxResponsesRecord> {
     public AvataxResponses rename(Name name) {
         return new AvataxResponses(name, null);
     }
-
-    // -------------------------------------------------------------------------
-    // Row22 type methods
-    // -------------------------------------------------------------------------
-
-    @Override
-    public Row22<ULong, String, String, String, String, LocalDateTime, LocalDateTime, BigDecimal, BigDecimal, BigDecimal, BigDecimal, BigDecimal, BigDecimal, LocalDateTime, String, String, String, String, String, String, LocalDateTime, String> fieldsRow() {
-        return (Row22) super.fieldsRow();
-    }
 }
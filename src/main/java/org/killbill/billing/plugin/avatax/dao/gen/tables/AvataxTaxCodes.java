@@ -115,7 +115,7 @@ public class AvataxTaxCodes extends TableImpl<AvataxTaxCodesRecord> {
 
     @Override
     public List<Index> getIndexes() {
-        return Arrays.<Index>asList(Indexes.AVATAX_TAX_CODES_AVATAX_TAX_CODES_PRODUCT_NAME);
+        return Arrays.<Index>asList(Indexes.AVATAX_TAX_CODES_AVATAX_TAX_CODES_KB_TENANT_ID_PRODUCT_NAME, Indexes.AVATAX_TAX_CODES_AVATAX_TAX_CODES_PRODUCT_NAME);
     }
 
     @Override
@@ -7,10 +7,7 @@ package org.killbill.billing.plugin.avatax.dao.gen.tables.records;
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
 
-import org.jooq.Field;
 import org.jooq.Record1;
-import org.jooq.Record22;
-import org.jooq.Row22;
 import org.jooq.impl.UpdatableRecordImpl;
 import org.jooq.types.ULong;
 import org.killbill.billing.plugin.avatax.dao.gen.tables.AvataxResponses;
@@ -20,7 +17,7 @@ import org.killbill.billing.plugin.avatax.dao.gen.tables.AvataxResponses;
  * This class is generated by jOOQ.
  */
 @SuppressWarnings({ "all", "unchecked", "rawtypes" })
-public class AvataxResponsesRecord extends UpdatableRecordImpl<AvataxResponsesRecord> implements Record22<ULong, String, String, String, String, LocalDateTime, LocalDateTime, BigDecimal, BigDecimal, BigDecimal, BigDecimal, BigDecimal, BigDecimal, LocalDateTime, String, String, String, String, String, String, LocalDateTime, String> {
+public class AvataxResponsesRecord extends UpdatableRecordImpl<AvataxResponsesRecord> {
 
     private static final long serialVersionUID = -999611206;
 
@@ -234,102 +231,172 @@ public class AvataxResponsesRecord extends UpdatableRecordImpl<AvataxResponsesRe
         return (String) get(14);
     }
 
+    /**
+     * Setter for <code>killbill.avatax_responses.tax_lines_bin</code>.
+     */
+    public void setTaxLinesBin(byte[] value) {
+        set(15, value);
+    }
+
+    /**
+     * Getter for <code>killbill.avatax_responses.tax_lines_bin</code>.
+     */
+    public byte[] getTaxLinesBin() {
+        return (byte[]) get(15);
+    }
+
     /**
      * Setter for <code>killbill.avatax_responses.tax_summary</code>.
      */
     public void setTaxSummary(String value) {
-        set(15, value);
+        set(16, value);
     }
 
     /**
      * Getter for <code>killbill.avatax_responses.tax_summary</code>.
      */
     public String getTaxSummary() {
-        return (String) get(15);
+        return (String) get(16);
+    }
+
+    /**
+     * Setter for <code>killbill.avatax_responses.tax_summary_bin</code>.
+     */
+    public void setTaxSummaryBin(byte[] value) {
+        set(17, value);
+    }
+
+    /**
+     * Getter for <code>killbill.avatax_responses.tax_summary_bin</code>.
+     */
+    public byte[] getTaxSummaryBin() {
+        return (byte[]) get(17);
     }
 
     /**
      * Setter for <code>killbill.avatax_responses.tax_addresses</code>.
      */
     public void setTaxAddresses(String value) {
-        set(16, value);
+        set(18, value);
     }
 
     /**
      * Getter for <code>killbill.avatax_responses.tax_addresses</code>.
      */
     public String getTaxAddresses() {
-        return (String) get(16);
+        return (String) get(18);
+    }
+
+    /**
+     * Setter for <code>killbill.avatax_responses.tax_addresses_bin</code>.
+     */
+    public void setTaxAddressesBin(byte[] value) {
+        set(19, value);
+    }
+
+    /**
+     * Getter for <code>killbill.avatax_responses.tax_addresses_bin</code>.
+     */
+    public byte[] getTaxAddressesBin() {
+        return (byte[]) get(19);
     }
 
     /**
      * Setter for <code>killbill.avatax_responses.result_code</code>.
      */
     public void setResultCode(String value) {
-        set(17, value);
+        set(20, value);
     }
 
     /**
      * Getter for <code>killbill.avatax_responses.result_code</code>.
      */
     public String getResultCode() {
-        return (String) get(17);
+        return (String) get(20);
     }
 
     /**
      * Setter for <code>killbill.avatax_responses.messages</code>.
      */
     public void setMessages(String value) {
-        set(18, value);
+        set(21, value);
     }
 
     /**
      * Getter for <code>killbill.avatax_responses.messages</code>.
      */
     public String getMessages() {
-        return (String) get(18);
+        return (String) get(21);
+    }
+
+    /**
+     * Setter for <code>killbill.avatax_responses.messages_bin</code>.
+     */
+    public void setMessagesBin(byte[] value) {
+        set(22, value);
+    }
+
+    /**
+     * Getter for <code>killbill.avatax_responses.messages_bin</code>.
+     */
+    public byte[] getMessagesBin() {
+        return (byte[]) get(22);
     }
 
     /**
      * Setter for <code>killbill.avatax_responses.additional_data</code>.
      */
     public void setAdditionalData(String value) {
-        set(19, value);
+        set(23, value);
     }
 
     /**
      * Getter for <code>killbill.avatax_responses.additional_data</code>.
      */
     public String getAdditionalData() {
-        return (String) get(19);
+        return (String) get(23);
+    }
+
+    /**
+     * Setter for <code>killbill.avatax_responses.is_fallback</code>.
+     */
+    public void setIsFallback(Boolean value) {
+        set(24, value);
+    }
+
+    /**
+     * Getter for <code>killbill.avatax_responses.is_fallback</code>.
+     */
+    public Boolean getIsFallback() {
+        return (Boolean) get(24);
     }
 
     /**
      * Setter for <code>killbill.avatax_responses.created_date</code>.
      */
     public void setCreatedDate(LocalDateTime value) {
-        set(20, value);
+        set(25, value);
     }
 
     /**
      * Getter for <code>killbill.avatax_responses.created_date</code>.
      */
     public LocalDateTime getCreatedDate() {
-        return (LocalDateTime) get(20);
+        return (LocalDateTime) get(25);
     }
 
     /**
      * Setter for <code>killbill.avatax_responses.kb_tenant_id</code>.
      */
     public void setKbTenantId(String value) {
-        set(21, value);
+        set(26, value);
     }
 
     /**
      * Getter for <code>killbill.avatax_responses.kb_tenant_id</code>.
      */
     public String getKbTenantId() {
-        return (String) get(21);
+        return (String) get(26);
     }
 
     // -------------------------------------------------------------------------
@@ -341,509 +408,6 @@ public class AvataxResponsesRecord extends UpdatableRecordImpl<AvataxResponsesRe
         return (Record1) super.key();
     }
 
-    // -------------------------------------------------------------------------
-    // Record22 type implementation
-    // -------------------------------------------------------------------------
-
-    @Override
-    public Row22<ULong, String, String, String, String, LocalDateTime, LocalDateTime, BigDecimal, BigDecimal, BigDecimal, BigDecimal, BigDecimal, BigDecimal, LocalDateTime, String, String, String, String, String, String, LocalDateTime, String> fieldsRow() {
-        return (Row22) super.fieldsRow();
-    }
-
-    @Override
-    public Row22<ULong, String, String, String, String, LocalDateTime, LocalDateTime, BigDecimal, BigDecimal, BigDecimal, BigDecimal, BigDecimal, BigDecimal, LocalDateTime, String, String, String, String, String, String, LocalDateTime, String> valuesRow() {
-        return (Row22) super.valuesRow();
-    }
-
-    @Override
-    public Field<ULong> field1() {
-        return AvataxResponses.AVATAX_RESPONSES.RECORD_ID;
-    }
-
-    @Override
-    public Field<String> field2() {
-        return AvataxResponses.AVATAX_RESPONSES.KB_ACCOUNT_ID;
-    }
-
-    @Override
-    public Field<String> field3() {
-        return AvataxResponses.AVATAX_RESPONSES.KB_INVOICE_ID;
-    }
-
-    @Override
-    public Field<String> field4() {
-        return AvataxResponses.AVATAX_RESPONSES.KB_INVOICE_ITEM_IDS;
-    }
-
-    @Override
-    public Field<String> field5() {
-        return AvataxResponses.AVATAX_RESPONSES.DOC_CODE;
-    }
-
-    @Override
-    public Field<LocalDateTime> field6() {
-        return AvataxResponses.AVATAX_RESPONSES.DOC_DATE;
-    }
-
-    @Override
-    public Field<LocalDateTime> field7() {
-        return AvataxResponses.AVATAX_RESPONSES.TIMESTAMP;
-    }
-
-    @Override
-    public Field<BigDecimal> field8() {
-        return AvataxResponses.AVATAX_RESPONSES.TOTAL_AMOUNT;
-    }
-
-    @Override
-    public Field<BigDecimal> field9() {
-        return AvataxResponses.AVATAX_RESPONSES.TOTAL_DISCOUNT;
-    }
-
-    @Override
-    public Field<BigDecimal> field10() {
-        return AvataxResponses.AVATAX_RESPONSES.TOTAL_EXEMPTION;
-    }
-
-    @Override
-    public Field<BigDecimal> field11() {
-        return AvataxResponses.AVATAX_RESPONSES.TOTAL_TAXABLE;
-    }
-
-    @Override
-    public Field<BigDecimal> field12() {
-        return AvataxResponses.AVATAX_RESPONSES.TOTAL_TAX;
-    }
-
-    @Override
-    public Field<BigDecimal> field13() {
-        return AvataxResponses.AVATAX_RESPONSES.TOTAL_TAX_CALCULATED;
-    }
-
-    @Override
-    public Field<LocalDateTime> field14() {
-        return AvataxResponses.AVATAX_RESPONSES.TAX_DATE;
-    }
-
-    @Override
-    public Field<String> field15() {
-        return AvataxResponses.AVATAX_RESPONSES.TAX_LINES;
-    }
-
-    @Override
-    public Field<String> field16() {
-        return AvataxResponses.AVATAX_RESPONSES.TAX_SUMMARY;
-    }
-
-    @Override
-    public Field<String> field17() {
-        return AvataxResponses.AVATAX_RESPONSES.TAX_ADDRESSES;
-    }
-
-    @Override
-    public Field<String> field18() {
-        return AvataxResponses.AVATAX_RESPONSES.RESULT_CODE;
-    }
-
-    @Override
-    public Field<String> field19() {
-        return AvataxResponses.AVATAX_RESPONSES.MESSAGES;
-    }
-
-    @Override
-    public Field<String> field20() {
-        return AvataxResponses.AVATAX_RESPONSES.ADDITIONAL_DATA;
-    }
-
-    @Override
-    public Field<LocalDateTime> field21() {
-        return AvataxResponses.AVATAX_RESPONSES.CREATED_DATE;
-    }
-
-    @Override
-    public Field<String> field22() {
-        return AvataxResponses.AVATAX_RESPONSES.KB_TENANT_ID;
-    }
-
-    @Override
-    public ULong component1() {
-        return getRecordId();
-    }
-
-    @Override
-    public String component2() {
-        return getKbAccountId();
-    }
-
-    @Override
-    public String component3() {
-        return getKbInvoiceId();
-    }
-
-    @Override
-    public String component4() {
-        return getKbInvoiceItemIds();
-    }
-
-    @Override
-    public String component5() {
-        return getDocCode();
-    }
-
-    @Override
-    public LocalDateTime component6() {
-        return getDocDate();
-    }
-
-    @Override
-    public LocalDateTime component7() {
-        return getTimestamp();
-    }
-
-    @Override
-    public BigDecimal component8() {
-        return getTotalAmount();
-    }
-
-    @Override
-    public BigDecimal component9() {
-        return getTotalDiscount();
-    }
-
-    @Override
-    public BigDecimal component10() {
-        return getTotalExemption();
-    }
-
-    @Override
-    public BigDecimal component11() {
-        return getTotalTaxable();
-    }
-
-    @Override
-    public BigDecimal component12() {
-        return getTotalTax();
-    }
-
-    @Override
-    public BigDecimal component13() {
-        return getTotalTaxCalculated();
-    }
-
-    @Override
-    public LocalDateTime component14() {
-        return getTaxDate();
-    }
-
-    @Override
-    public String component15() {
-        return getTaxLines();
-    }
-
-    @Override
-    public String component16() {
-        return getTaxSummary();
-    }
-
-    @Override
-    public String component17() {
-        return getTaxAddresses();
-    }
-
-    @Override
-    public String component18() {
-        return getResultCode();
-    }
-
-    @Override
-    public String component19() {
-        return getMessages();
-    }
-
-    @Override
-    public String component20() {
-        return getAdditionalData();
-    }
-
-    @Override
-    public LocalDateTime component21() {
-        return getCreatedDate();
-    }
-
-    @Override
-    public String component22() {
-        return getKbTenantId();
-    }
-
-    @Override
-    public ULong value1() {
-        return getRecordId();
-    }
-
-    @Override
-    public String value2() {
-        return getKbAccountId();
-    }
-
-    @Override
-    public String value3() {
-        return getKbInvoiceId();
-    }
-
-    @Override
-    public String value4() {
-        return getKbInvoiceItemIds();
-    }
-
-    @Override
-    public String value5() {
-        return getDocCode();
-    }
-
-    @Override
-    public LocalDateTime value6() {
-        return getDocDate();
-    }
-
-    @Override
-    public LocalDateTime value7() {
-        return getTimestamp();
-    }
-
-    @Override
-    public BigDecimal value8() {
-        return getTotalAmount();
-    }
-
-    @Override
-    public BigDecimal value9() {
-        return getTotalDiscount();
-    }
-
-    @Override
-    public BigDecimal value10() {
-        return getTotalExemption();
-    }
-
-    @Override
-    public BigDecimal value11() {
-        return getTotalTaxable();
-    }
-
-    @Override
-    public BigDecimal value12() {
-        return getTotalTax();
-    }
-
-    @Override
-    public BigDecimal value13() {
-        return getTotalTaxCalculated();
-    }
-
-    @Override
-    public LocalDateTime value14() {
-        return getTaxDate();
-    }
-
-    @Override
-    public String value15() {
-        return getTaxLines();
-    }
-
-    @Override
-    public String value16() {
-        return getTaxSummary();
-    }
-
-    @Override
-    public String value17() {
-        return getTaxAddresses();
-    }
-
-    @Override
-    public String value18() {
-        return getResultCode();
-    }
-
-    @Override
-    public String value19() {
-        return getMessages();
-    }
-
-    @Override
-    public String value20() {
-        return getAdditionalData();
-    }
-
-    @Override
-    public LocalDateTime value21() {
-        return getCreatedDate();
-    }
-
-    @Override
-    public String value22() {
-        return getKbTenantId();
-    }
-
-    @Override
-    public AvataxResponsesRecord value1(ULong value) {
-        setRecordId(value);
-        return this;
-    }
-
-    @Override
-    public AvataxResponsesRecord value2(String value) {
-        setKbAccountId(value);
-        return this;
-    }
-
-    @Override
-    public AvataxResponsesRecord value3(String value) {
-        setKbInvoiceId(value);
-        return this;
-    }
-
-    @Override
-    public AvataxResponsesRecord value4(String value) {
-        setKbInvoiceItemIds(value);
-        return this;
-    }
-
-    @Override
-    public AvataxResponsesRecord value5(String value) {
-        setDocCode(value);
-        return this;
-    }
-
-    @Override
-    public AvataxResponsesRecord value6(LocalDateTime value) {
-        setDocDate(value);
-        return this;
-    }
-
-    @Override
-    public AvataxResponsesRecord value7(LocalDateTime value) {
-        setTimestamp(value);
-        return this;
-    }
-
-    @Override
-    public AvataxResponsesRecord value8(BigDecimal value) {
-        setTotalAmount(value);
-        return this;
-    }
-
-    @Override
-    public AvataxResponsesRecord value9(BigDecimal value) {
-        setTotalDiscount(value);
-        return this;
-    }
-
-    @Override
-    public AvataxResponsesRecord value10(BigDecimal value) {
-        setTotalExemption(value);
-        return this;
-    }
-
-    @Override
-    public AvataxResponsesRecord value11(BigDecimal value) {
-        setTotalTaxable(value);
-        return this;
-    }
-
-    @Override
-    public AvataxResponsesRecord value12(BigDecimal value) {
-        setTotalTax(value);
-        return this;
-    }
-
-    @Override
-    public AvataxResponsesRecord value13(BigDecimal value) {
-        setTotalTaxCalculated(value);
-        return this;
-    }
-
-    @Override
-    public AvataxResponsesRecord value14(LocalDateTime value) {
-        setTaxDate(value);
-        return this;
-    }
-
-    @Override
-    public AvataxResponsesRecord value15(String value) {
-        setTaxLines(value);
-        return this;
-    }
-
-    @Override
-    public AvataxResponsesRecord value16(String value) {
-        setTaxSummary(value);
-        return this;
-    }
-
-    @Override
-    public AvataxResponsesRecord value17(String value) {
-        setTaxAddresses(value);
-        return this;
-    }
-
-    @Override
-    public AvataxResponsesRecord value18(String value) {
-        setResultCode(value);
-        return this;
-    }
-
-    @Override
-    public AvataxResponsesRecord value19(String value) {
-        setMessages(value);
-        return this;
-    }
-
-    @Override
-    public AvataxResponsesRecord value20(String value) {
-        setAdditionalData(value);
-        return this;
-    }
-
-    @Override
-    public AvataxResponsesRecord value21(LocalDateTime value) {
-        setCreatedDate(value);
-        return this;
-    }
-
-    @Override
-    public AvataxResponsesRecord value22(String value) {
-        setKbTenantId(value);
-        return this;
-    }
-
-    @Override
-    public AvataxResponsesRecord values(ULong value1, String value2, String value3, String value4, String value5, LocalDateTime value6, LocalDateTime value7, BigDecimal value8, BigDecimal value9, BigDecimal value10, BigDecimal value11, BigDecimal value12, BigDecimal value13, LocalDateTime value14, String value15, String value16, String value17, String value18, String value19, String value20, LocalDateTime value21, String value22) {
-        value1(value1);
-        value2(value2);
-        value3(value3);
-        value4(value4);
-        value5(value5);
-        value6(value6);
-        value7(value7);
-        value8(value8);
-        value9(value9);
-        value10(value10);
-        value11(value11);
-        value12(value12);
-        value13(value13);
-        value14(value14);
-        value15(value15);
-        value16(value16);
-        value17(value17);
-        value18(value18);
-        value19(value19);
-        value20(value20);
-        value21(value21);
-        value22(value22);
-        return this;
-    }
-
     // -------------------------------------------------------------------------
     // Constructors
     // -------------------------------------------------------------------------
@@ -858,7 +422,7 @@ public class AvataxResponsesRecord extends UpdatableRecordImpl<AvataxResponsesRe
     /**
      * Create a detached, initialised AvataxResponsesRecord
      */
-    public AvataxResponsesRecord(ULong recordId, String kbAccountId, String kbInvoiceId, String kbInvoiceItemIds, String docCode, LocalDateTime docDate, LocalDateTime timestamp, BigDecimal totalAmount, BigDecimal totalDiscount, BigDecimal totalExemption, BigDecimal totalTaxable, BigDecimal totalTax, BigDecimal totalTaxCalculated, LocalDateTime taxDate, String taxLines, String taxSummary, String taxAddresses, String resultCode, String messages, String additionalData, LocalDateTime createdDate, String kbTenantId) {
+    public AvataxResponsesRecord(ULong recordId, String kbAccountId, String kbInvoiceId, String kbInvoiceItemIds, String docCode, LocalDateTime docDate, LocalDateTime timestamp, BigDecimal totalAmount, BigDecimal totalDiscount, BigDecimal totalExemption, BigDecimal totalTaxable, BigDecimal totalTax, BigDecimal totalTaxCalculated, LocalDateTime taxDate, String taxLines, byte[] taxLinesBin, String taxSummary, byte[] taxSummaryBin, String taxAddresses, byte[] taxAddressesBin, String resultCode, String messages, byte[] messagesBin, String additionalData, Boolean isFallback, LocalDateTime createdDate, String kbTenantId) {
         super(AvataxResponses.AVATAX_RESPONSES);
 
         set(0, recordId);
@@ -876,12 +440,17 @@ public class AvataxResponsesRecord extends UpdatableRecordImpl<AvataxResponsesRe
         set(12, totalTaxCalculated);
         set(13, taxDate);
         set(14, taxLines);
-        set(15, taxSummary);
-        set(16, taxAddresses);
-        set(17, resultCode);
-        set(18, messages);
-        set(19, additionalData);
-        set(20, createdDate);
-        set(21, kbTenantId);
+        set(15, taxLinesBin);
+        set(16, taxSummary);
+        set(17, taxSummaryBin);
+        set(18, taxAddresses);
+        set(19, taxAddressesBin);
+        set(20, resultCode);
+        set(21, messages);
+        set(22, messagesBin);
+        set(23, additionalData);
+        set(24, isFallback);
+        set(25, createdDate);
+        set(26, kbTenantId);
     }
 }
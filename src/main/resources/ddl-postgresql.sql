@@ -20,3 +20,5 @@
 CREATE DOMAIN datetime AS timestamp without time zone;
 
 CREATE DOMAIN longtext AS text;
+
+CREATE DOMAIN longblob AS bytea;
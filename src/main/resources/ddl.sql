@@ -35,17 +35,34 @@ create table avatax_responses (
 , total_tax_calculated numeric(15,9) default null
 , tax_date datetime default null
 , tax_lines longtext default null
+, tax_lines_bin longblob default null
 , tax_summary longtext default null
+, tax_summary_bin longblob default null
 , tax_addresses longtext default null
+, tax_addresses_bin longblob default null
 , result_code varchar(255) default null
 , messages longtext default null
+, messages_bin longblob default null
 , additional_data longtext default null
+, is_fallback boolean default false
 , created_date datetime not null
 , kb_tenant_id char(36) not null
 , primary key(record_id)
 ) /*! CHARACTER SET utf8 COLLATE utf8_bin */;
 create index avatax_responses_kb_account_id on avatax_responses(kb_account_id);
-create index avatax_responses_kb_invoice_id on avatax_responses(kb_invoice_id);
+create index avatax_responses_kb_invoice_id_result_code_kb_tenant_id on avatax_responses(kb_invoice_id, result_code, kb_tenant_id, record_id, doc_code);
+create index avatax_responses_kb_tenant_id_doc_date on avatax_responses(kb_tenant_id, doc_date);
+
+drop table if exists avatax_response_items;
+create table avatax_response_items (
+  record_id serial unique
+, response_record_id bigint /*! unsigned */ not null
+, kb_invoice_item_id char(36) not null
+, kb_adjustment_item_id char(36) default null
+, kb_tenant_id char(36) not null
+, primary key(record_id)
+) /*! CHARACTER SET utf8 COLLATE utf8_bin */;
+create unique index avatax_response_items_response_record_id on avatax_response_items(response_record_id, kb_invoice_item_id, kb_adjustment_item_id);
 
 drop table if exists avatax_tax_codes;
 create table avatax_tax_codes (
@@ -58,3 +75,99 @@ create table avatax_tax_codes (
 ) /*! CHARACTER SET utf8 COLLATE utf8_bin */;
 create index avatax_tax_codes_product_name on avatax_tax_codes(product_name);
 create unique index avatax_tax_codes_product_name_tax_code_kb_tenant_id on avatax_tax_codes(product_name, tax_code, kb_tenant_id);
+create index avatax_tax_codes_kb_tenant_id_product_name on avatax_tax_codes(kb_tenant_id, product_name);
+
+drop table if exists avatax_tax_rates;
+create table avatax_tax_rates (
+  record_id serial unique
+, postal_code varchar(255) not null
+, country varchar(255) not null
+, total_rate numeric(15,9) not null
+, rates longtext default null
+, effective_date datetime not null
+, created_date datetime not null
+, kb_tenant_id char(36) not null
+, primary key(record_id)
+) /*! CHARACTER SET utf8 COLLATE utf8_bin */;
+create index avatax_tax_rates_postal_code_country_kb_tenant_id on avatax_tax_rates(postal_code, country, kb_tenant_id);
+
+drop table if exists avatax_tax_rates_staging;
+create table avatax_tax_rates_staging (
+  record_id serial unique
+, import_id char(36) not null
+, postal_code varchar(255) not null
+, total_rate numeric(15,9) not null
+, rates longtext default null
+, created_date datetime not null
+, primary key(record_id)
+) /*! CHARACTER SET utf8 COLLATE utf8_bin */;
+create index avatax_tax_rates_staging_import_id_postal_code on avatax_tax_rates_staging(import_id, postal_code);
+
+drop table if exists avatax_pending_documents;
+create table avatax_pending_documents (
+  record_id serial unique
+, response_record_id bigint /*! unsigned */ not null
+, kb_account_id char(36) not null
+, kb_invoice_id char(36) not null
+, doc_code varchar(255) not null
+, request longtext not null
+, status varchar(255) not null
+, attempts int not null
+, next_attempt_date datetime not null
+, last_error longtext default null
+, created_date datetime not null
+, updated_date datetime not null
+, kb_tenant_id char(36) not null
+, primary key(record_id)
+) /*! CHARACTER SET utf8 COLLATE utf8_bin */;
+create unique index avatax_pending_documents_response_record_id on avatax_pending_documents(response_record_id);
+create index avatax_pending_documents_status_next_attempt_date on avatax_pending_documents(status, next_attempt_date);
+
+drop table if exists avatax_outbox;
+create table avatax_outbox (
+  record_id serial unique
+, kb_invoice_id char(36) not null
+, doc_code varchar(255) not null
+, operation varchar(255) not null
+, bulk_commit_id char(36) default null
+, status varchar(255) not null
+, attempts int not null
+, next_attempt_date datetime not null
+, last_error longtext default null
+, created_date datetime not null
+, updated_date datetime not null
+, kb_tenant_id char(36) not null
+, primary key(record_id)
+) /*! CHARACTER SET utf8 COLLATE utf8_bin */;
+create unique index avatax_outbox_doc_code_kb_tenant_id on avatax_outbox(doc_code, kb_tenant_id);
+create index avatax_outbox_status_next_attempt_date on avatax_outbox(status, next_attempt_date);
+create index avatax_outbox_bulk_commit_id_status on avatax_outbox(bulk_commit_id, status);
+
+drop table if exists avatax_bulk_commits;
+create table avatax_bulk_commits (
+  record_id serial unique
+, bulk_commit_id char(36) not null
+, start_date datetime default null
+, end_date datetime default null
+, kb_invoice_ids longtext default null
+, status varchar(255) not null
+, last_doc_date datetime default null
+, last_response_record_id bigint /*! unsigned */ default null
+, nb_queued int not null
+, created_date datetime not null
+, updated_date datetime not null
+, kb_tenant_id char(36) not null
+, primary key(record_id)
+) /*! CHARACTER SET utf8 COLLATE utf8_bin */;
+create unique index avatax_bulk_commits_bulk_commit_id on avatax_bulk_commits(bulk_commit_id);
+create index avatax_bulk_commits_status on avatax_bulk_commits(status);
+
+drop table if exists avatax_backfills;
+create table avatax_backfills (
+  record_id serial unique
+, name varchar(255) not null
+, last_record_id bigint /*! unsigned */ not null
+, updated_date datetime not null
+, primary key(record_id)
+) /*! CHARACTER SET utf8 COLLATE utf8_bin */;
+create unique index avatax_backfills_name on avatax_backfills(name);
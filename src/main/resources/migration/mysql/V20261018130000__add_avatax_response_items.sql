@@ -0,0 +1,9 @@
+create table avatax_response_items (
+  record_id serial unique
+, response_record_id bigint /*! unsigned */ not null
+, kb_invoice_item_id char(36) not null
+, kb_adjustment_item_id char(36) default null
+, kb_tenant_id char(36) not null
+, primary key(record_id)
+) /*! CHARACTER SET utf8 COLLATE utf8_bin */;
+create index avatax_response_items_response_record_id on avatax_response_items(response_record_id, kb_invoice_item_id, kb_adjustment_item_id);
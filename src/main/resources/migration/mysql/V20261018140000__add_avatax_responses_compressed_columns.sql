@@ -0,0 +1,4 @@
+alter table avatax_responses add column tax_lines_bin longblob default null after tax_lines;
+alter table avatax_responses add column tax_summary_bin longblob default null after tax_summary;
+alter table avatax_responses add column tax_addresses_bin longblob default null after tax_addresses;
+alter table avatax_responses add column messages_bin longblob default null after messages;
@@ -0,0 +1,18 @@
+create table avatax_pending_documents (
+  record_id serial unique
+, response_record_id bigint /*! unsigned */ not null
+, kb_account_id char(36) not null
+, kb_invoice_id char(36) not null
+, doc_code varchar(255) not null
+, request longtext not null
+, status varchar(255) not null
+, attempts int not null
+, next_attempt_date datetime not null
+, last_error longtext default null
+, created_date datetime not null
+, updated_date datetime not null
+, kb_tenant_id char(36) not null
+, primary key(record_id)
+) /*! CHARACTER SET utf8 COLLATE utf8_bin */;
+create unique index avatax_pending_documents_response_record_id on avatax_pending_documents(response_record_id);
+create index avatax_pending_documents_status_next_attempt_date on avatax_pending_documents(status, next_attempt_date);
@@ -0,0 +1,16 @@
+create table avatax_outbox (
+  record_id serial unique
+, kb_invoice_id char(36) not null
+, doc_code varchar(255) not null
+, operation varchar(255) not null
+, status varchar(255) not null
+, attempts int not null
+, next_attempt_date datetime not null
+, last_error longtext default null
+, created_date datetime not null
+, updated_date datetime not null
+, kb_tenant_id char(36) not null
+, primary key(record_id)
+) /*! CHARACTER SET utf8 COLLATE utf8_bin */;
+create unique index avatax_outbox_doc_code_kb_tenant_id on avatax_outbox(doc_code, kb_tenant_id);
+create index avatax_outbox_status_next_attempt_date on avatax_outbox(status, next_attempt_date);
@@ -0,0 +1,20 @@
+create table avatax_bulk_commits (
+  record_id serial unique
+, bulk_commit_id char(36) not null
+, start_date datetime default null
+, end_date datetime default null
+, kb_invoice_ids longtext default null
+, status varchar(255) not null
+, last_doc_date datetime default null
+, last_response_record_id bigint /*! unsigned */ default null
+, nb_queued int not null
+, created_date datetime not null
+, updated_date datetime not null
+, kb_tenant_id char(36) not null
+, primary key(record_id)
+) /*! CHARACTER SET utf8 COLLATE utf8_bin */;
+create unique index avatax_bulk_commits_bulk_commit_id on avatax_bulk_commits(bulk_commit_id);
+create index avatax_bulk_commits_status on avatax_bulk_commits(status);
+alter table avatax_outbox add column bulk_commit_id char(36) default null after operation;
+create index avatax_outbox_bulk_commit_id_status on avatax_outbox(bulk_commit_id, status);
+create index avatax_responses_kb_tenant_id_doc_date on avatax_responses(kb_tenant_id, doc_date);
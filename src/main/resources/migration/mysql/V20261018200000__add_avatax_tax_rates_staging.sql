@@ -0,0 +1,10 @@
+create table avatax_tax_rates_staging (
+  record_id serial unique
+, import_id char(36) not null
+, postal_code varchar(255) not null
+, total_rate numeric(15,9) not null
+, rates longtext default null
+, created_date datetime not null
+, primary key(record_id)
+) /*! CHARACTER SET utf8 COLLATE utf8_bin */;
+create index avatax_tax_rates_staging_import_id_postal_code on avatax_tax_rates_staging(import_id, postal_code);
@@ -0,0 +1 @@
+alter table avatax_responses drop column kb_invoice_item_ids_bin;
@@ -0,0 +1,12 @@
+create table avatax_tax_rates (
+  record_id serial unique
+, postal_code varchar(255) not null
+, country varchar(255) not null
+, total_rate numeric(15,9) not null
+, rates longtext default null
+, effective_date datetime not null
+, created_date datetime not null
+, kb_tenant_id char(36) not null
+, primary key(record_id)
+) /*! CHARACTER SET utf8 COLLATE utf8_bin */;
+create index avatax_tax_rates_postal_code_country_kb_tenant_id on avatax_tax_rates(postal_code, country, kb_tenant_id);
@@ -0,0 +1,3 @@
+create index avatax_responses_kb_invoice_id_result_code_kb_tenant_id on avatax_responses(kb_invoice_id, result_code, kb_tenant_id, record_id, doc_code);
+drop index avatax_responses_kb_invoice_id;
+create index avatax_tax_codes_kb_tenant_id_product_name on avatax_tax_codes(kb_tenant_id, product_name);
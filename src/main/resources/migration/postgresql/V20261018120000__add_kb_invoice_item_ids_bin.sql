@@ -0,0 +1 @@
+alter table avatax_responses add column kb_invoice_item_ids_bin bytea default null;
@@ -0,0 +1,4 @@
+alter table avatax_responses add column tax_lines_bin bytea default null;
+alter table avatax_responses add column tax_summary_bin bytea default null;
+alter table avatax_responses add column tax_addresses_bin bytea default null;
+alter table avatax_responses add column messages_bin bytea default null;
@@ -0,0 +1 @@
+alter table avatax_responses add column is_fallback boolean default false;
@@ -0,0 +1,2 @@
+drop index avatax_response_items_response_record_id;
+create unique index avatax_response_items_response_record_id on avatax_response_items(response_record_id, kb_invoice_item_id, kb_adjustment_item_id);
@@ -0,0 +1,8 @@
+create table avatax_backfills (
+  record_id serial unique
+, name varchar(255) not null
+, last_record_id bigint /*! unsigned */ not null
+, updated_date datetime not null
+, primary key(record_id)
+) /*! CHARACTER SET utf8 COLLATE utf8_bin */;
+create unique index avatax_backfills_name on avatax_backfills(name);
@@ -0,0 +1,321 @@
+/*
+ * Copyright 2020-2026 Equinix, Inc
+ * Copyright 2014-2026 The Billing Project, LLC
+ *
+ * The Billing Project licenses this file to you under the Apache License, version 2.0
+ * (the "License"); you may not use this file except in compliance with the
+ * License.  You may obtain a copy of the License at:
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.killbill.billing.plugin.avatax;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.net.InetSocketAddress;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.Random;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.killbill.billing.plugin.avatax.client.ClientUtils;
+import org.killbill.billing.plugin.avatax.client.model.AvaTaxErrors;
+import org.killbill.billing.plugin.avatax.client.model.CreateTransactionModel;
+import org.killbill.billing.plugin.avatax.client.model.LineItemModel;
+import org.killbill.billing.plugin.avatax.client.model.RateModel;
+import org.killbill.billing.plugin.avatax.client.model.TaxRateResult;
+import org.killbill.billing.plugin.avatax.client.model.TransactionLineDetailModel;
+import org.killbill.billing.plugin.avatax.client.model.TransactionLineModel;
+import org.killbill.billing.plugin.avatax.client.model.TransactionModel;
+import org.killbill.billing.plugin.avatax.client.model.TransactionSummary;
+import org.killbill.billing.plugin.avatax.core.AvaTaxActivator;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.google.common.collect.ImmutableMap;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+/**
+ * Embeddable AvaTax (and Tax Rates API) stub, for load and latency testing without the Avalara sandbox.
+ * <p>
+ * Taxes are deterministic: each line is taxed at the California rates (see RATES), rounded to the cent.
+ * Latency, server errors (500) and throttling (429) can be injected, and changed while the server is running.
+ */
+public class AvaTaxStubServer {
+
+    public static final String COMPANY_CODE = "DEFAULT";
+
+    // Name, type, rate
+    private static final Object[][] RATES = {{"CA STATE TAX", "State", new BigDecimal("0.06")},
+                                             {"CA COUNTY TAX", "County", new BigDecimal("0.0025")},
+                                             {"CA SPECIAL TAX", "Special", new BigDecimal("0.01")}};
+
+    private final ObjectMapper objectMapper = ClientUtils.createObjectMapper();
+    private final ConcurrentMap<String, TransactionModel> transactions = new ConcurrentHashMap<String, TransactionModel>();
+    private final ConcurrentMap<String, AtomicLong> requestCounts = new ConcurrentHashMap<String, AtomicLong>();
+    // Fixed seed, for reproducible runs (with a single client thread)
+    private final Random random = new Random(42);
+    private final AtomicLong transactionIds = new AtomicLong();
+
+    private volatile long latencyMillis = 0;
+    private volatile double errorRate = 0;
+    private volatile double throttlingRate = 0;
+
+    private HttpServer server;
+    private ExecutorService executor;
+
+    public void start() throws IOException {
+        server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        server.createContext("/", this::handle);
+        // Requests are handled concurrently, so that the injected latency doesn't serialize them
+        executor = Executors.newCachedThreadPool();
+        server.setExecutor(executor);
+        server.start();
+    }
+
+    public void stop() {
+        if (server != null) {
+            server.stop(0);
+            executor.shutdownNow();
+        }
+    }
+
+    public String getUrl() {
+        return String.format("http://127.0.0.1:%s", server.getAddress().getPort());
+    }
+
+    // Properties for AvaTaxClient and TaxRatesClient
+    public Properties getClientProperties() {
+        final Properties properties = new Properties();
+        properties.put(AvaTaxActivator.PROPERTY_PREFIX + "url", getUrl());
+        properties.put(AvaTaxActivator.PROPERTY_PREFIX + "accountId", "stub");
+        properties.put(AvaTaxActivator.PROPERTY_PREFIX + "licenseKey", "stub");
+        properties.put(AvaTaxActivator.PROPERTY_PREFIX + "companyCode", COMPANY_CODE);
+        properties.put(AvaTaxActivator.TAX_RATES_API_PROPERTY_PREFIX + "url", getUrl());
+        properties.put(AvaTaxActivator.TAX_RATES_API_PROPERTY_PREFIX + "accountId", "stub");
+        properties.put(AvaTaxActivator.TAX_RATES_API_PROPERTY_PREFIX + "licenseKey", "stub");
+        return properties;
+    }
+
+    public void setLatencyMillis(final long latencyMillis) {
+        this.latencyMillis = latencyMillis;
+    }
+
+    // Fraction of the requests failing with a 500
+    public void setErrorRate(final double errorRate) {
+        this.errorRate = errorRate;
+    }
+
+    // Fraction of the requests failing with a 429
+    public void setThrottlingRate(final double throttlingRate) {
+        this.throttlingRate = throttlingRate;
+    }
+
+    /**
+     * @param endpoint create, commit, void, get, taxratesbyaddress, taxratesbypostalcode, ping, 429 or 500
+     */
+    public long getRequestCount(final String endpoint) {
+        final AtomicLong count = requestCounts.get(endpoint);
+        return count == null ? 0 : count.get();
+    }
+
+    public TransactionModel getTransaction(final String code) {
+        return transactions.get(code);
+    }
+
+    private void handle(final HttpExchange exchange) throws IOException {
+        try {
+            if (latencyMillis > 0) {
+                Thread.sleep(latencyMillis);
+            }
+
+            final double dice = random.nextDouble();
+            if (dice < throttlingRate) {
+                count("429");
+                exchange.getResponseHeaders().add("Retry-After", "1");
+                sendError(exchange, 429, "RateLimitExceeded", "Too many requests");
+                return;
+            } else if (dice < throttlingRate + errorRate) {
+                count("500");
+                sendError(exchange, 500, "ServerError", "Internal server error");
+                return;
+            }
+
+            route(exchange);
+        } catch (final InterruptedException e) {
+            Thread.currentThread().interrupt();
+            sendError(exchange, 503, "ServiceUnavailable", "Interrupted");
+        } catch (final RuntimeException e) {
+            sendError(exchange, 500, "ServerError", e.toString());
+        } finally {
+            exchange.close();
+        }
+    }
+
+    private void route(final HttpExchange exchange) throws IOException {
+        final String method = exchange.getRequestMethod();
+        final String path = exchange.getRequestURI().getPath();
+        // /companies/{companyCode}/transactions/{transactionCode}[/commit|/void]
+        final String[] parts = path.split("/");
+
+        if ("POST".equals(method) && "/transactions/create".equals(path)) {
+            count("create");
+            final CreateTransactionModel request;
+            try (final InputStream body = exchange.getRequestBody()) {
+                request = objectMapper.readValue(body, CreateTransactionModel.class);
+            }
+            final TransactionModel transaction = createTransaction(request);
+            // Temporary documents aren't saved in the tax history
+            if (request.type == null || !request.type.name().endsWith("Order")) {
+                transactions.put(transaction.code, transaction);
+            }
+            send(exchange, 201, transaction);
+        } else if (parts.length >= 5 && "companies".equals(parts[1]) && "transactions".equals(parts[3])) {
+            final String transactionCode = parts[4];
+            final TransactionModel transaction = transactions.get(transactionCode);
+            final String operation = parts.length == 6 ? parts[5] : null;
+            count(operation == null ? "get" : operation);
+            if (transaction == null) {
+                sendError(exchange, 404, "EntityNotFoundError", String.format("Transaction %s not found", transactionCode));
+            } else if ("GET".equals(method) && operation == null) {
+                send(exchange, 200, transaction);
+            } else if ("POST".equals(method) && "commit".equals(operation)) {
+                transaction.status = "Committed";
+                send(exchange, 200, transaction);
+            } else if ("POST".equals(method) && "void".equals(operation)) {
+                transaction.status = "Cancelled";
+                send(exchange, 200, transaction);
+            } else {
+                sendError(exchange, 404, "NotFound", path);
+            }
+        } else if ("GET".equals(method) && ("/taxrates/byaddress".equals(path) || "/taxrates/bypostalcode".equals(path))) {
+            count(path.replace("/", ""));
+            send(exchange, 200, buildTaxRateResult());
+        } else if ("GET".equals(method) && "/utilities/ping".equals(path)) {
+            count("ping");
+            send(exchange, 200, ImmutableMap.<String, Object>of("version", "stub", "authenticated", true));
+        } else {
+            sendError(exchange, 404, "NotFound", path);
+        }
+    }
+
+    private TransactionModel createTransaction(final CreateTransactionModel request) {
+        final TransactionModel transaction = new TransactionModel();
+        transaction.id = transactionIds.incrementAndGet();
+        transaction.code = request.code == null ? UUID.randomUUID().toString() : request.code;
+        transaction.date = request.date == null ? new Date() : request.date;
+        transaction.type = request.type == null ? null : request.type.name();
+        transaction.status = Boolean.TRUE.equals(request.commit) ? "Committed" : "Saved";
+
+        final Map<String, TransactionSummary> summaries = new HashMap<String, TransactionSummary>();
+        final List<TransactionLineModel> lines = new LinkedList<TransactionLineModel>();
+        BigDecimal totalAmount = BigDecimal.ZERO;
+        BigDecimal totalTax = BigDecimal.ZERO;
+        if (request.lines != null) {
+            for (final LineItemModel lineItem : request.lines) {
+                final BigDecimal amount = lineItem.amount == null ? BigDecimal.ZERO : lineItem.amount;
+                final TransactionLineModel line = new TransactionLineModel();
+                line.lineNumber = lineItem.number;
+                line.taxCode = lineItem.taxCode;
+                line.isItemTaxable = true;
+                line.taxableAmount = amount.doubleValue();
+                line.details = new TransactionLineDetailModel[RATES.length];
+
+                BigDecimal lineTax = BigDecimal.ZERO;
+                for (int i = 0; i < RATES.length; i++) {
+                    final BigDecimal rate = (BigDecimal) RATES[i][2];
+                    final BigDecimal tax = amount.multiply(rate).setScale(2, RoundingMode.HALF_UP);
+                    final TransactionLineDetailModel detail = new TransactionLineDetailModel();
+                    detail.id = i;
+                    detail.taxName = (String) RATES[i][0];
+                    detail.rate = rate.doubleValue();
+                    detail.taxableAmount = amount.doubleValue();
+                    detail.tax = tax.doubleValue();
+                    line.details[i] = detail;
+                    lineTax = lineTax.add(tax);
+
+                    TransactionSummary summary = summaries.get(detail.taxName);
+                    if (summary == null) {
+                        summary = new TransactionSummary();
+                        summary.country = "US";
+                        summary.region = "CA";
+                        summary.jurisType = (String) RATES[i][1];
+                        summary.taxName = detail.taxName;
+                        summary.rate = detail.rate;
+                        summaries.put(detail.taxName, summary);
+                    }
+                    summary.taxable += detail.taxableAmount;
+                    summary.tax += detail.tax;
+                }
+                line.tax = lineTax.doubleValue();
+                line.taxCalculated = line.tax;
+                lines.add(line);
+
+                totalAmount = totalAmount.add(amount);
+                totalTax = totalTax.add(lineTax);
+            }
+        }
+
+        transaction.lines = lines.toArray(new TransactionLineModel[0]);
+        transaction.summary = summaries.values().toArray(new TransactionSummary[0]);
+        transaction.totalAmount = totalAmount.doubleValue();
+        transaction.totalTaxable = transaction.totalAmount;
+        transaction.totalTax = totalTax.doubleValue();
+        transaction.totalTaxCalculated = transaction.totalTax;
+        return transaction;
+    }
+
+    private TaxRateResult buildTaxRateResult() {
+        final TaxRateResult taxRateResult = new TaxRateResult();
+        taxRateResult.rates = new LinkedList<RateModel>();
+        for (final Object[] rate : RATES) {
+            final RateModel rateModel = new RateModel();
+            rateModel.name = (String) rate[0];
+            rateModel.type = (String) rate[1];
+            rateModel.rate = ((BigDecimal) rate[2]).doubleValue();
+            taxRateResult.rates.add(rateModel);
+            taxRateResult.totalRate += rateModel.rate;
+        }
+        return taxRateResult;
+    }
+
+    private void count(final String endpoint) {
+        requestCounts.computeIfAbsent(endpoint, k -> new AtomicLong()).incrementAndGet();
+    }
+
+    private void sendError(final HttpExchange exchange, final int status, final String code, final String message) throws IOException {
+        final AvaTaxErrors errors = new AvaTaxErrors();
+        errors.error = new AvaTaxErrors.AvaTaxError();
+        errors.error.code = code;
+        errors.error.message = message;
+        send(exchange, status, errors);
+    }
+
+    private void send(final HttpExchange exchange, final int status, final Object body) throws IOException {
+        final byte[] bytes = objectMapper.writeValueAsBytes(body);
+        exchange.getResponseHeaders().add("Content-Type", "application/json");
+        exchange.sendResponseHeaders(status, bytes.length);
+        try (final OutputStream outputStream = exchange.getResponseBody()) {
+            outputStream.write(bytes);
+        }
+    }
+}
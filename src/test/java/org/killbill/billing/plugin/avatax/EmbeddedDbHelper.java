@@ -25,6 +25,7 @@ import javax.sql.DataSource;
 import org.killbill.billing.platform.test.PlatformDBTestingHelper;
 import org.killbill.billing.plugin.TestUtils;
 import org.killbill.commons.embeddeddb.EmbeddedDB;
+import org.killbill.commons.embeddeddb.EmbeddedDB.DBEngine;
 
 public class EmbeddedDbHelper {
 
@@ -68,4 +69,8 @@ public class EmbeddedDbHelper {
     public DataSource getDataSource() throws IOException {
         return embeddedDB.getDataSource();
     }
+
+    public DBEngine getDBEngine() {
+        return embeddedDB.getDBEngine();
+    }
 }
\ No newline at end of file
@@ -19,11 +19,14 @@
 package org.killbill.billing.plugin.avatax.api;
 
 import java.math.BigDecimal;
+import java.sql.SQLException;
 import java.util.Collection;
 import java.util.LinkedList;
 import java.util.List;
 import java.util.UUID;
 
+import org.joda.time.DateTime;
+import org.joda.time.DateTimeZone;
 import org.killbill.billing.account.api.Account;
 import org.killbill.billing.catalog.api.CatalogApiException;
 import org.killbill.billing.catalog.api.CatalogUserApi;
@@ -41,8 +44,15 @@ import org.killbill.billing.plugin.TestUtils;
 import org.killbill.billing.plugin.api.PluginCallContext;
 import org.killbill.billing.plugin.avatax.AvaTaxRemoteTestBase;
 import org.killbill.billing.plugin.avatax.TestInvoiceContext;
+import org.killbill.billing.plugin.avatax.client.model.TransactionModel;
 import org.killbill.billing.plugin.avatax.core.AvaTaxActivator;
 import org.killbill.billing.plugin.avatax.core.AvaTaxConfigurationHandler;
+import org.killbill.billing.plugin.avatax.core.AvaTaxInvoiceStats;
+import org.killbill.billing.plugin.avatax.core.AvaTaxOutboxWorker;
+import org.killbill.billing.plugin.avatax.dao.AvaTaxDao;
+import org.killbill.billing.plugin.avatax.dao.AvaTaxResponseWriter;
+import org.killbill.billing.plugin.avatax.dao.TaxCodesCache;
+import org.killbill.billing.plugin.avatax.dao.gen.tables.records.AvataxOutboxRecord;
 import org.killbill.billing.util.api.CustomFieldUserApi;
 import org.killbill.billing.util.callcontext.CallContext;
 import org.killbill.billing.util.callcontext.TenantContext;
@@ -54,6 +64,10 @@ import org.testng.Assert;
 import org.testng.annotations.BeforeMethod;
 import org.testng.annotations.Test;
 
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.ImmutableSet;
+
 // Note: the test assumes all California authorities are set up to collect sales and use tax (270+)
 public class TestAvaTaxInvoicePluginApi extends AvaTaxRemoteTestBase {
 
@@ -95,6 +109,10 @@ public class TestAvaTaxInvoicePluginApi extends AvaTaxRemoteTestBase {
         avaTaxConfigurationHandler.setDefaultConfigurable(client);
         avaTaxInvoicePluginApi = new AvaTaxInvoicePluginApi(avaTaxConfigurationHandler,
                                                             dao,
+                                                            new AvaTaxResponseWriter(dao),
+                                                            new TaxCodesCache(dao, 60),
+                                                            new PlanProductsCache(osgiKillbillAPI, 60),
+                                                            new AvaTaxInvoiceStats(100),
                                                             osgiKillbillAPI,
                                                             new OSGIConfigPropertiesService(Mockito.mock(BundleContext.class)),
                                                             clock);
@@ -230,6 +248,95 @@ public class TestAvaTaxInvoicePluginApi extends AvaTaxRemoteTestBase {
         checkTaxes(additionalInvoiceItems, 0, BigDecimal.ZERO);
     }
 
+    @Test(groups = "slow")
+    public void testOnSuccessCallQueuesOutboxOperations() throws Exception {
+        final Account account = TestUtils.buildAccount(Currency.USD, "US");
+        final Invoice invoice = TestUtils.buildInvoice(account);
+        final UUID kbTenantId = UUID.randomUUID();
+        final InvoiceContext context = new TestInvoiceContext(null, invoice, null, false, false, new PluginCallContext(AvaTaxActivator.PLUGIN_NAME, new DefaultClock().getUTCNow(), account.getId(), kbTenantId));
+
+        final TransactionModel transaction = new TransactionModel();
+        transaction.code = UUID.randomUUID().toString();
+        dao.addResponse(account.getId(), invoice.getId(), ImmutableMap.<UUID, Iterable<InvoiceItem>>of(), transaction, new DateTime(DateTimeZone.UTC), kbTenantId);
+
+        buildInvoicePluginApi(dao).onSuccessCall(context, ImmutableList.<PluginProperty>of(new PluginProperty("INVOICE_OPERATION", AvaTaxOutboxWorker.COMMIT, false)));
+
+        final DateTime utcNow = new DateTime(DateTimeZone.UTC);
+        final List<AvataxOutboxRecord> operations = dao.claimOutboxOperations(10, utcNow, utcNow.plusMinutes(5));
+        Assert.assertEquals(operations.size(), 1);
+        Assert.assertEquals(operations.get(0).getDocCode(), transaction.code);
+        Assert.assertEquals(operations.get(0).getOperation(), AvaTaxOutboxWorker.COMMIT);
+        Assert.assertEquals(operations.get(0).getKbInvoiceId(), invoice.getId().toString());
+    }
+
+    @Test(groups = "fast")
+    public void testOnSuccessCallRetriesOutboxOperations() throws Exception {
+        final Account account = TestUtils.buildAccount(Currency.USD, "US");
+        final Invoice invoice = TestUtils.buildInvoice(account);
+        final UUID invoiceId = invoice.getId();
+        final UUID kbTenantId = UUID.randomUUID();
+        final InvoiceContext context = new TestInvoiceContext(null, invoice, null, false, false, new PluginCallContext(AvaTaxActivator.PLUGIN_NAME, new DefaultClock().getUTCNow(), account.getId(), kbTenantId));
+        final List<PluginProperty> properties = ImmutableList.<PluginProperty>of(new PluginProperty("INVOICE_OPERATION", AvaTaxOutboxWorker.VOID, false));
+
+        final AvaTaxDao mockDao = Mockito.mock(AvaTaxDao.class);
+        Mockito.when(mockDao.getSuccessfulDocCodes(invoiceId, kbTenantId)).thenReturn(ImmutableList.<String>of("doc"));
+        Mockito.doThrow(new SQLException("Boom"))
+               .doNothing()
+               .when(mockDao).addOutboxOperations(Mockito.eq(invoiceId), Mockito.<Collection<String>>any(), Mockito.eq(AvaTaxOutboxWorker.VOID), Mockito.<DateTime>any(), Mockito.eq(kbTenantId));
+        final AvaTaxInvoicePluginApi invoicePluginApi = buildInvoicePluginApi(mockDao);
+        invoicePluginApi.onSuccessCall(context, properties);
+        Mockito.verify(mockDao, Mockito.times(2)).addOutboxOperations(Mockito.eq(invoiceId), Mockito.eq(ImmutableSet.<String>of("doc")), Mockito.eq(AvaTaxOutboxWorker.VOID), Mockito.<DateTime>any(), Mockito.eq(kbTenantId));
+
+        // The operation is never dropped silently
+        Mockito.doThrow(new SQLException("Boom"))
+               .when(mockDao).addOutboxOperations(Mockito.eq(invoiceId), Mockito.<Collection<String>>any(), Mockito.eq(AvaTaxOutboxWorker.VOID), Mockito.<DateTime>any(), Mockito.eq(kbTenantId));
+        try {
+            invoicePluginApi.onSuccessCall(context, properties);
+            Assert.fail();
+        } catch (final RuntimeException e) {
+            Assert.assertTrue(e.getCause() instanceof SQLException);
+        }
+    }
+
+    @Test(groups = "fast")
+    public void testFlushResponsesRetries() throws Exception {
+        final Account account = TestUtils.buildAccount(Currency.USD, "US");
+        final Invoice invoice = TestUtils.buildInvoice(account);
+        final InvoiceContext context = new TestInvoiceContext(null, invoice, null, false, false, new PluginCallContext(AvaTaxActivator.PLUGIN_NAME, new DefaultClock().getUTCNow(), account.getId(), UUID.randomUUID()));
+
+        final AvaTaxResponseWriter responseWriter = Mockito.mock(AvaTaxResponseWriter.class);
+        Mockito.doThrow(new SQLException("Boom"))
+               .doThrow(new SQLException("Boom"))
+               .doNothing()
+               .when(responseWriter).flush(Mockito.<UUID>anyCollection());
+        AvaTaxInvoicePluginApi.flushResponses(responseWriter, context);
+        Mockito.verify(responseWriter, Mockito.times(3)).flush(ImmutableList.<UUID>of(invoice.getId()));
+
+        // The responses are never dropped silently
+        Mockito.reset(responseWriter);
+        Mockito.doThrow(new SQLException("Boom")).when(responseWriter).flush(Mockito.<UUID>anyCollection());
+        try {
+            AvaTaxInvoicePluginApi.flushResponses(responseWriter, context);
+            Assert.fail();
+        } catch (final RuntimeException e) {
+            Assert.assertTrue(e.getCause() instanceof SQLException);
+        }
+        Mockito.verify(responseWriter, Mockito.times(3)).flush(ImmutableList.<UUID>of(invoice.getId()));
+    }
+
+    private AvaTaxInvoicePluginApi buildInvoicePluginApi(final AvaTaxDao avaTaxDao) {
+        final OSGIKillbillAPI killbillAPI = Mockito.mock(OSGIKillbillAPI.class);
+        return new AvaTaxInvoicePluginApi(new AvaTaxConfigurationHandler(AvaTaxActivator.PLUGIN_NAME, killbillAPI),
+                                          avaTaxDao,
+                                          new AvaTaxResponseWriter(avaTaxDao),
+                                          new TaxCodesCache(avaTaxDao, 60),
+                                          new PlanProductsCache(killbillAPI, 60),
+                                          new AvaTaxInvoiceStats(100),
+                                          killbillAPI,
+                                          new OSGIConfigPropertiesService(Mockito.mock(BundleContext.class)),
+                                          new DefaultClock());
+    }
+
     private void checkTaxes(final Collection<InvoiceItem> additionalInvoiceItems, final int nbItems, final BigDecimal totalTax) {
         Assert.assertEquals(additionalInvoiceItems.size(), nbItems);
         BigDecimal computedTax = BigDecimal.ZERO;
@@ -0,0 +1,94 @@
+/*
+ * Copyright 2020-2026 Equinix, Inc
+ * Copyright 2014-2026 The Billing Project, LLC
+ *
+ * The Billing Project licenses this file to you under the Apache License, version 2.0
+ * (the "License"); you may not use this file except in compliance with the
+ * License.  You may obtain a copy of the License at:
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.killbill.billing.plugin.avatax.api;
+
+import java.util.UUID;
+
+import org.killbill.billing.payment.api.PluginProperty;
+import org.killbill.billing.plugin.api.PluginProperties;
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.Iterables;
+
+public class TestAvaTaxPluginProperties {
+
+    @Test(groups = "fast")
+    public void testLookups() throws Exception {
+        final UUID invoiceItemId = UUID.randomUUID();
+        final UUID otherInvoiceItemId = UUID.randomUUID();
+        final Iterable<PluginProperty> properties = ImmutableList.<PluginProperty>of(new PluginProperty(AvaTaxTaxCalculator.CUSTOMER_USAGE_TYPE, "E", false),
+                                                                                     new PluginProperty(AvaTaxTaxCalculator.CUSTOMER_USAGE_TYPE, "F", false),
+                                                                                     new PluginProperty(AvaTaxTaxCalculator.LOCATION_ADDRESS1, "", false),
+                                                                                     new PluginProperty(AvaTaxTaxCalculator.TAX_CODE + "_" + invoiceItemId, "DC010200", false),
+                                                                                     new PluginProperty(AvaTaxTaxCalculator.LOCATION_CODE + "_" + invoiceItemId, "LOC1", false),
+                                                                                     new PluginProperty(AvaTaxTaxCalculator.TAX_CODE + "_" + otherInvoiceItemId, null, false),
+                                                                                     new PluginProperty(AvaTaxTaxCalculator.TAX_CODE + "_not-a-uuid", "DC010500", false));
+
+        final AvaTaxPluginProperties pluginProperties = new AvaTaxPluginProperties(properties);
+        Assert.assertSame(AvaTaxPluginProperties.of(pluginProperties), pluginProperties);
+        Assert.assertEquals(Iterables.size(pluginProperties), 7);
+
+        // Same semantics as PluginProperties#findPluginPropertyValue
+        for (final String key : new String[]{AvaTaxTaxCalculator.CUSTOMER_USAGE_TYPE,
+                                             AvaTaxTaxCalculator.LOCATION_ADDRESS1,
+                                             AvaTaxTaxCalculator.LOCATION_CITY,
+                                             AvaTaxTaxCalculator.TAX_CODE + "_not-a-uuid"}) {
+            Assert.assertEquals(pluginProperties.getValue(key), PluginProperties.findPluginPropertyValue(key, properties));
+        }
+        Assert.assertEquals(pluginProperties.getValue(AvaTaxTaxCalculator.CUSTOMER_USAGE_TYPE), "E");
+        Assert.assertEquals(pluginProperties.getValue(AvaTaxTaxCalculator.LOCATION_ADDRESS1, "default"), "default");
+
+        Assert.assertEquals(pluginProperties.getTaxCode(invoiceItemId), "DC010200");
+        Assert.assertEquals(pluginProperties.getLocationCode(invoiceItemId), "LOC1");
+        Assert.assertNull(pluginProperties.getTaxCode(otherInvoiceItemId));
+        Assert.assertNull(pluginProperties.getLocationCode(otherInvoiceItemId));
+    }
+
+    @Test(groups = "fast")
+    public void testRateTypes() throws Exception {
+        Assert.assertTrue(new AvaTaxPluginProperties(null).getRateTypes().isEmpty());
+
+        // All values are kept, not only the first one
+        final AvaTaxPluginProperties pluginProperties = new AvaTaxPluginProperties(ImmutableList.<PluginProperty>of(new PluginProperty(TaxRatesTaxCalculator.RATE_TYPE, "State", false),
+                                                                                                                    new PluginProperty(AvaTaxTaxCalculator.CUSTOMER_USAGE_TYPE, "E", false),
+                                                                                                                    new PluginProperty(TaxRatesTaxCalculator.RATE_TYPE, "County", false)));
+        Assert.assertEquals(pluginProperties.getRateTypes(), ImmutableList.<String>of("State", "County"));
+    }
+
+    @Test(groups = "fast")
+    public void testAddIfAbsent() throws Exception {
+        final UUID invoiceItemId = UUID.randomUUID();
+        final UUID otherInvoiceItemId = UUID.randomUUID();
+        final AvaTaxPluginProperties pluginProperties = new AvaTaxPluginProperties(ImmutableList.<PluginProperty>of(new PluginProperty(AvaTaxTaxCalculator.TAX_CODE + "_" + invoiceItemId, "DC010200", false)));
+
+        // Plugin properties take precedence
+        Assert.assertFalse(pluginProperties.addTaxCodeIfAbsent(invoiceItemId, "DC010500"));
+        Assert.assertEquals(pluginProperties.getTaxCode(invoiceItemId), "DC010200");
+
+        Assert.assertTrue(pluginProperties.addTaxCodeIfAbsent(otherInvoiceItemId, "DC010500"));
+        Assert.assertFalse(pluginProperties.addTaxCodeIfAbsent(otherInvoiceItemId, "DC010400"));
+        Assert.assertEquals(pluginProperties.getTaxCode(otherInvoiceItemId), "DC010500");
+        Assert.assertEquals(PluginProperties.findPluginPropertyValue(AvaTaxTaxCalculator.TAX_CODE + "_" + otherInvoiceItemId, pluginProperties), "DC010500");
+
+        Assert.assertTrue(pluginProperties.addIfAbsent(AvaTaxTaxCalculator.CUSTOMER_USAGE_TYPE, "E"));
+        Assert.assertEquals(pluginProperties.getValue(AvaTaxTaxCalculator.CUSTOMER_USAGE_TYPE), "E");
+        Assert.assertEquals(Iterables.size(pluginProperties), 3);
+    }
+}
@@ -0,0 +1,111 @@
+/*
+ * Copyright 2020-2026 Equinix, Inc
+ * Copyright 2014-2026 The Billing Project, LLC
+ *
+ * The Billing Project licenses this file to you under the Apache License, version 2.0
+ * (the "License"); you may not use this file except in compliance with the
+ * License.  You may obtain a copy of the License at:
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.killbill.billing.plugin.avatax.api;
+
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import org.killbill.billing.invoice.api.InvoiceItem;
+import org.mockito.Mockito;
+import org.testng.Assert;
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import com.google.common.collect.ImmutableList;
+
+public class TestAvaTaxTaxCalculatorBase {
+
+    private ExecutorService executor;
+
+    @BeforeMethod(groups = "fast")
+    public void setUp() {
+        executor = Executors.newFixedThreadPool(2);
+    }
+
+    @AfterMethod(groups = "fast")
+    public void tearDown() {
+        executor.shutdownNow();
+    }
+
+    @Test(groups = "fast")
+    public void testResultsInSubmissionOrder() throws Exception {
+        final InvoiceItem item1 = Mockito.mock(InvoiceItem.class);
+        final InvoiceItem item2 = Mockito.mock(InvoiceItem.class);
+        final InvoiceItem item3 = Mockito.mock(InvoiceItem.class);
+        final CountDownLatch latch = new CountDownLatch(1);
+
+        final Callable<Iterable<InvoiceItem>> call1 = () -> {
+            // Completes last
+            Assert.assertTrue(latch.await(5, TimeUnit.SECONDS));
+            return ImmutableList.<InvoiceItem>of(item1);
+        };
+        final Callable<Iterable<InvoiceItem>> call2 = () -> {
+            latch.countDown();
+            return ImmutableList.<InvoiceItem>of(item2, item3);
+        };
+
+        final List<InvoiceItem> items = AvaTaxTaxCalculatorBase.executeTaxCalls(ImmutableList.<Callable<Iterable<InvoiceItem>>>of(call1, call2), executor);
+        Assert.assertEquals(items, ImmutableList.<InvoiceItem>of(item1, item2, item3));
+    }
+
+    @Test(groups = "fast")
+    public void testFailureWaitsForCallsInFlight() throws Exception {
+        final CountDownLatch startedLatch = new CountDownLatch(1);
+        final CountDownLatch failureLatch = new CountDownLatch(1);
+        final AtomicBoolean inFlightCallCompleted = new AtomicBoolean(false);
+        final AtomicBoolean queuedCallStarted = new AtomicBoolean(false);
+        final IllegalStateException failure = new IllegalStateException("AvaTax is down");
+
+        final Callable<Iterable<InvoiceItem>> inFlightCall = () -> {
+            // Still running when the second call fails
+            startedLatch.countDown();
+            Assert.assertTrue(failureLatch.await(5, TimeUnit.SECONDS));
+            Thread.sleep(100);
+            inFlightCallCompleted.set(true);
+            return ImmutableList.<InvoiceItem>of();
+        };
+        final Callable<Iterable<InvoiceItem>> failedCall = () -> {
+            // Otherwise, the first call could be skipped
+            Assert.assertTrue(startedLatch.await(5, TimeUnit.SECONDS));
+            failureLatch.countDown();
+            throw failure;
+        };
+        final Callable<Iterable<InvoiceItem>> queuedCall = () -> {
+            // Only 2 threads: queued behind the first two calls
+            queuedCallStarted.set(true);
+            return ImmutableList.<InvoiceItem>of();
+        };
+
+        try {
+            AvaTaxTaxCalculatorBase.executeTaxCalls(ImmutableList.<Callable<Iterable<InvoiceItem>>>of(inFlightCall, failedCall, queuedCall), executor);
+            Assert.fail();
+        } catch (final IllegalStateException e) {
+            Assert.assertSame(e, failure);
+        }
+
+        // The call in flight wasn't interrupted, and the queued one was skipped
+        Assert.assertTrue(inFlightCallCompleted.get());
+        Assert.assertFalse(queuedCallStarted.get());
+    }
+}
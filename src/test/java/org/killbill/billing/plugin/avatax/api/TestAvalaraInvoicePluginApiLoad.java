@@ -0,0 +1,225 @@
+/*
+ * Copyright 2020-2026 Equinix, Inc
+ * Copyright 2014-2026 The Billing Project, LLC
+ *
+ * The Billing Project licenses this file to you under the Apache License, version 2.0
+ * (the "License"); you may not use this file except in compliance with the
+ * License.  You may obtain a copy of the License at:
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.killbill.billing.plugin.avatax.api;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Properties;
+import java.util.UUID;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import org.killbill.billing.account.api.Account;
+import org.killbill.billing.catalog.api.CatalogApiException;
+import org.killbill.billing.catalog.api.CatalogUserApi;
+import org.killbill.billing.catalog.api.Currency;
+import org.killbill.billing.catalog.api.StaticCatalog;
+import org.killbill.billing.invoice.api.Invoice;
+import org.killbill.billing.invoice.api.InvoiceItemType;
+import org.killbill.billing.invoice.api.InvoiceUserApi;
+import org.killbill.billing.invoice.plugin.api.InvoiceContext;
+import org.killbill.billing.osgi.libs.killbill.OSGIConfigPropertiesService;
+import org.killbill.billing.osgi.libs.killbill.OSGIKillbillAPI;
+import org.killbill.billing.payment.api.PluginProperty;
+import org.killbill.billing.plugin.TestUtils;
+import org.killbill.billing.plugin.api.PluginCallContext;
+import org.killbill.billing.plugin.avatax.AvaTaxStubServer;
+import org.killbill.billing.plugin.avatax.EmbeddedDbHelper;
+import org.killbill.billing.plugin.avatax.TestInvoiceContext;
+import org.killbill.billing.plugin.avatax.client.AvaTaxClient;
+import org.killbill.billing.plugin.avatax.client.TaxRatesClient;
+import org.killbill.billing.plugin.avatax.core.AvaTaxActivator;
+import org.killbill.billing.plugin.avatax.core.AvaTaxConfigurationHandler;
+import org.killbill.billing.plugin.avatax.core.AvaTaxInvoiceStats;
+import org.killbill.billing.plugin.avatax.core.TaxRatesConfigurationHandler;
+import org.killbill.billing.plugin.avatax.dao.AvaTaxDao;
+import org.killbill.billing.plugin.avatax.dao.AvaTaxResponseWriter;
+import org.killbill.billing.plugin.avatax.dao.TaxCodesCache;
+import org.killbill.billing.util.api.CustomFieldUserApi;
+import org.killbill.billing.util.callcontext.TenantContext;
+import org.killbill.clock.Clock;
+import org.killbill.clock.DefaultClock;
+import org.mockito.Mockito;
+import org.osgi.framework.BundleContext;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.testng.Assert;
+import org.testng.annotations.AfterClass;
+import org.testng.annotations.BeforeClass;
+import org.testng.annotations.Test;
+
+import com.google.common.collect.ImmutableList;
+
+/**
+ * Drives AvalaraInvoicePluginApi#getAdditionalInvoiceItems against the AvaTax stub (see AvaTaxStubServer) with concurrent
+ * invoices, and reports the latency percentiles and the throughput. The responses are stored in the embedded database.
+ * <p>
+ * This isn't part of the regular test groups. To run it:
+ * <pre>
+ * mvn test -Dgroups=load -Dtest=TestAvalaraInvoicePluginApiLoad -Davatax.load.invoices=1000 -Davatax.load.concurrency=16 -Davatax.load.latencyMillis=100
+ * </pre>
+ * Other knobs: avatax.load.items (items per invoice), avatax.load.errorRate and avatax.load.throttlingRate (fraction of the
+ * AvaTax requests failing with a 500 and a 429 respectively), avatax.load.clientConcurrency (AvaTax concurrency property),
+ * avatax.load.writeBehind (store the responses in the background, see AvaTaxResponseWriter).
+ */
+public class TestAvalaraInvoicePluginApiLoad {
+
+    private static final Logger logger = LoggerFactory.getLogger(TestAvalaraInvoicePluginApiLoad.class);
+
+    private static final int NB_INVOICES = Integer.getInteger("avatax.load.invoices", 1000);
+    private static final int CONCURRENCY = Integer.getInteger("avatax.load.concurrency", 16);
+    private static final int NB_ITEMS_PER_INVOICE = Integer.getInteger("avatax.load.items", 10);
+    private static final int LATENCY_MILLIS = Integer.getInteger("avatax.load.latencyMillis", 100);
+    private static final double ERROR_RATE = Double.parseDouble(System.getProperty("avatax.load.errorRate", "0"));
+    private static final double THROTTLING_RATE = Double.parseDouble(System.getProperty("avatax.load.throttlingRate", "0"));
+    private static final String CLIENT_CONCURRENCY = System.getProperty("avatax.load.clientConcurrency", "1");
+    private static final boolean WRITE_BEHIND = Boolean.getBoolean("avatax.load.writeBehind");
+
+    private final Clock clock = new DefaultClock();
+
+    private AvaTaxStubServer stubServer;
+    private AvaTaxConfigurationHandler avaTaxConfigurationHandler;
+    private AvaTaxResponseWriter responseWriter;
+    private AvalaraInvoicePluginApi avalaraInvoicePluginApi;
+    private Account account;
+
+    @BeforeClass(groups = "load")
+    public void setUp() throws Exception {
+        EmbeddedDbHelper.instance().startDb();
+        final AvaTaxDao dao = new AvaTaxDao(EmbeddedDbHelper.instance().getDataSource());
+        responseWriter = WRITE_BEHIND ? new AvaTaxResponseWriter(dao, 1000, 50, 30000) : new AvaTaxResponseWriter(dao);
+        responseWriter.start();
+
+        stubServer = new AvaTaxStubServer();
+        stubServer.start();
+        stubServer.setLatencyMillis(LATENCY_MILLIS);
+        stubServer.setErrorRate(ERROR_RATE);
+        stubServer.setThrottlingRate(THROTTLING_RATE);
+
+        account = TestUtils.buildAccount(Currency.USD, "45 Fremont Street", null, "San Francisco", "CA", "94105", "US");
+        final OSGIKillbillAPI osgiKillbillAPI = TestUtils.buildOSGIKillbillAPI(account);
+        Mockito.when(osgiKillbillAPI.getCustomFieldUserApi()).thenReturn(Mockito.mock(CustomFieldUserApi.class));
+        Mockito.when(osgiKillbillAPI.getInvoiceUserApi()).thenReturn(Mockito.mock(InvoiceUserApi.class));
+        final CatalogUserApi catalogUserApi = Mockito.mock(CatalogUserApi.class);
+        final StaticCatalog staticCatalog = Mockito.mock(StaticCatalog.class);
+        Mockito.doThrow(CatalogApiException.class).when(staticCatalog).findPlan(Mockito.anyString());
+        Mockito.when(catalogUserApi.getCurrentCatalog(Mockito.any(), Mockito.<TenantContext>any())).thenReturn(staticCatalog);
+        Mockito.when(osgiKillbillAPI.getCatalogUserApi()).thenReturn(catalogUserApi);
+
+        final Properties properties = stubServer.getClientProperties();
+        properties.put(AvaTaxActivator.PROPERTY_PREFIX + "concurrency", CLIENT_CONCURRENCY);
+        avaTaxConfigurationHandler = new AvaTaxConfigurationHandler(AvaTaxActivator.PLUGIN_NAME, osgiKillbillAPI);
+        avaTaxConfigurationHandler.setDefaultConfigurable(new AvaTaxClient(properties));
+        final TaxRatesConfigurationHandler taxRatesConfigurationHandler = new TaxRatesConfigurationHandler(AvaTaxActivator.PLUGIN_NAME, osgiKillbillAPI);
+        taxRatesConfigurationHandler.setDefaultConfigurable(new TaxRatesClient(properties));
+
+        avalaraInvoicePluginApi = new AvalaraInvoicePluginApi(avaTaxConfigurationHandler,
+                                                              taxRatesConfigurationHandler,
+                                                              dao,
+                                                              responseWriter,
+                                                              new TaxCodesCache(dao, 60),
+                                                              new PlanProductsCache(osgiKillbillAPI, 60),
+                                                              new AvaTaxInvoiceStats(100),
+                                                              osgiKillbillAPI,
+                                                              new OSGIConfigPropertiesService(Mockito.mock(BundleContext.class)),
+                                                              clock);
+    }
+
+    @AfterClass(groups = "load")
+    public void tearDown() throws Exception {
+        avaTaxConfigurationHandler.shutdown();
+        responseWriter.stop();
+        stubServer.stop();
+        EmbeddedDbHelper.instance().stopDB();
+    }
+
+    @Test(groups = "load")
+    public void testLoad() throws Exception {
+        final List<Invoice> invoices = new ArrayList<Invoice>(NB_INVOICES);
+        for (int i = 0; i < NB_INVOICES; i++) {
+            final Invoice invoice = TestUtils.buildInvoice(account);
+            for (int j = 0; j < NB_ITEMS_PER_INVOICE; j++) {
+                invoice.getInvoiceItems().add(TestUtils.buildInvoiceItem(invoice, InvoiceItemType.RECURRING, new BigDecimal("100"), null));
+            }
+            invoices.add(invoice);
+        }
+        final UUID kbTenantId = UUID.randomUUID();
+        final InvoiceContext invoiceContext = new TestInvoiceContext(null, null, null, false, false, new PluginCallContext(AvaTaxActivator.PLUGIN_NAME, clock.getUTCNow(), account.getId(), kbTenantId));
+        final List<PluginProperty> pluginProperties = ImmutableList.<PluginProperty>of();
+
+        final ExecutorService executor = Executors.newFixedThreadPool(CONCURRENCY);
+        final List<Future<Long>> futures = new LinkedList<Future<Long>>();
+        final long startNanos = System.nanoTime();
+        for (final Invoice invoice : invoices) {
+            futures.add(executor.submit(new Callable<Long>() {
+                @Override
+                public Long call() {
+                    final long invoiceStartNanos = System.nanoTime();
+                    try {
+                        avalaraInvoicePluginApi.getAdditionalInvoiceItems(invoice, false, pluginProperties, invoiceContext);
+                        return System.nanoTime() - invoiceStartNanos;
+                    } catch (final RuntimeException e) {
+                        // Failed invoices are reported separately
+                        return -(System.nanoTime() - invoiceStartNanos);
+                    }
+                }
+            }));
+        }
+
+        final List<Long> latencies = new ArrayList<Long>(NB_INVOICES);
+        int nbErrors = 0;
+        for (final Future<Long> future : futures) {
+            final long latency = future.get();
+            if (latency < 0) {
+                nbErrors++;
+            }
+            latencies.add(Math.abs(latency));
+        }
+        final long elapsedNanos = System.nanoTime() - startNanos;
+        executor.shutdown();
+        Assert.assertTrue(executor.awaitTermination(10, TimeUnit.SECONDS));
+
+        final long[] sortedLatencies = new long[latencies.size()];
+        for (int i = 0; i < sortedLatencies.length; i++) {
+            sortedLatencies[i] = latencies.get(i);
+        }
+        Arrays.sort(sortedLatencies);
+
+        logger.info("{} invoices ({} items each), concurrency={}, AvaTax latency={}ms, errorRate={}, throttlingRate={}, writeBehind={}",
+                    NB_INVOICES, NB_ITEMS_PER_INVOICE, CONCURRENCY, LATENCY_MILLIS, ERROR_RATE, THROTTLING_RATE, WRITE_BEHIND);
+        logger.info("latency (ms): p50={} p99={} max={}",
+                    percentile(sortedLatencies, 0.50), percentile(sortedLatencies, 0.99), sortedLatencies[sortedLatencies.length - 1] / 1000000.0);
+        logger.info("throughput: {} invoices/s, failed invoices: {}, AvaTax requests: create={} 429={} 500={}",
+                    NB_INVOICES / (elapsedNanos / 1000000000.0), nbErrors, stubServer.getRequestCount("create"), stubServer.getRequestCount("429"), stubServer.getRequestCount("500"));
+
+        if (ERROR_RATE == 0 && THROTTLING_RATE == 0) {
+            Assert.assertEquals(nbErrors, 0);
+        }
+    }
+
+    private double percentile(final long[] sortedLatencies, final double percentile) {
+        final int index = (int) Math.ceil(percentile * sortedLatencies.length) - 1;
+        return sortedLatencies[Math.max(0, index)] / 1000000.0;
+    }
+}
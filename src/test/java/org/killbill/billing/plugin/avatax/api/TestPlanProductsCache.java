@@ -0,0 +1,126 @@
+/*
+ * Copyright 2020-2026 Equinix, Inc
+ * Copyright 2014-2026 The Billing Project, LLC
+ *
+ * The Billing Project licenses this file to you under the Apache License, version 2.0
+ * (the "License"); you may not use this file except in compliance with the
+ * License.  You may obtain a copy of the License at:
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.killbill.billing.plugin.avatax.api;
+
+import java.util.UUID;
+
+import org.killbill.billing.catalog.api.CatalogApiException;
+import org.killbill.billing.catalog.api.CatalogUserApi;
+import org.killbill.billing.catalog.api.Plan;
+import org.killbill.billing.catalog.api.Product;
+import org.killbill.billing.catalog.api.StaticCatalog;
+import org.killbill.billing.notification.plugin.api.ExtBusEvent;
+import org.killbill.billing.notification.plugin.api.ExtBusEventType;
+import org.killbill.billing.osgi.libs.killbill.OSGIKillbillAPI;
+import org.killbill.billing.plugin.avatax.core.AvaTaxCatalogEventHandler;
+import org.killbill.billing.util.callcontext.TenantContext;
+import org.mockito.Mockito;
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+import com.google.common.collect.ImmutableList;
+
+public class TestPlanProductsCache {
+
+    @Test(groups = "fast")
+    public void testCaching() throws Exception {
+        final Plan plan = Mockito.mock(Plan.class);
+        Mockito.when(plan.getName()).thenReturn("super-monthly");
+        final Product product = Mockito.mock(Product.class);
+        Mockito.when(product.getName()).thenReturn("Super");
+        Mockito.when(plan.getProduct()).thenReturn(product);
+
+        final StaticCatalog catalog = Mockito.mock(StaticCatalog.class);
+        Mockito.when(catalog.getPlans()).thenReturn(ImmutableList.<Plan>of(plan));
+        Mockito.doThrow(CatalogApiException.class).when(catalog).findPlan(Mockito.anyString());
+
+        final CatalogUserApi catalogUserApi = Mockito.mock(CatalogUserApi.class);
+        Mockito.when(catalogUserApi.getCurrentCatalog(Mockito.any(), Mockito.<TenantContext>any())).thenReturn(catalog);
+        final OSGIKillbillAPI killbillAPI = Mockito.mock(OSGIKillbillAPI.class);
+        Mockito.when(killbillAPI.getCatalogUserApi()).thenReturn(catalogUserApi);
+
+        final UUID kbTenantId = UUID.randomUUID();
+        final TenantContext context = Mockito.mock(TenantContext.class);
+        Mockito.when(context.getTenantId()).thenReturn(kbTenantId);
+
+        final PlanProductsCache planProductsCache = new PlanProductsCache(killbillAPI, 60);
+        for (int i = 0; i < 3; i++) {
+            Assert.assertEquals(planProductsCache.getProductName("super-monthly", context), "Super");
+            Assert.assertNull(planProductsCache.getProductName("unknown-monthly", context));
+        }
+        // The catalog is resolved once and unknown plans are looked up once
+        Mockito.verify(catalogUserApi, Mockito.times(1)).getCurrentCatalog(Mockito.any(), Mockito.<TenantContext>any());
+        Mockito.verify(catalog, Mockito.times(1)).findPlan("unknown-monthly");
+
+        // Unrelated tenant configuration change
+        final AvaTaxCatalogEventHandler catalogEventHandler = new AvaTaxCatalogEventHandler(planProductsCache);
+        catalogEventHandler.handleKillbillEvent(buildEvent(ExtBusEventType.TENANT_CONFIG_CHANGE, "PLUGIN_CONFIG_killbill-avatax", kbTenantId));
+        Assert.assertEquals(planProductsCache.getProductName("super-monthly", context), "Super");
+        Mockito.verify(catalogUserApi, Mockito.times(1)).getCurrentCatalog(Mockito.any(), Mockito.<TenantContext>any());
+
+        // New catalog
+        catalogEventHandler.handleKillbillEvent(buildEvent(ExtBusEventType.TENANT_CONFIG_CHANGE, "CATALOG", kbTenantId));
+        Assert.assertEquals(planProductsCache.getProductName("super-monthly", context), "Super");
+        Mockito.verify(catalogUserApi, Mockito.times(2)).getCurrentCatalog(Mockito.any(), Mockito.<TenantContext>any());
+    }
+
+    @Test(groups = "fast")
+    public void testCacheDisabled() throws Exception {
+        final StaticCatalog catalog = Mockito.mock(StaticCatalog.class);
+        Mockito.when(catalog.getPlans()).thenReturn(ImmutableList.<Plan>of());
+        Mockito.doThrow(CatalogApiException.class).when(catalog).findPlan(Mockito.anyString());
+        final CatalogUserApi catalogUserApi = Mockito.mock(CatalogUserApi.class);
+        Mockito.when(catalogUserApi.getCurrentCatalog(Mockito.any(), Mockito.<TenantContext>any())).thenReturn(catalog);
+        final OSGIKillbillAPI killbillAPI = Mockito.mock(OSGIKillbillAPI.class);
+        Mockito.when(killbillAPI.getCatalogUserApi()).thenReturn(catalogUserApi);
+
+        final TenantContext context = Mockito.mock(TenantContext.class);
+        Mockito.when(context.getTenantId()).thenReturn(UUID.randomUUID());
+
+        final PlanProductsCache planProductsCache = new PlanProductsCache(killbillAPI, 0);
+        planProductsCache.getProductName("super-monthly", context);
+        planProductsCache.getProductName("super-monthly", context);
+        // The catalog is resolved for each lookup
+        Mockito.verify(catalogUserApi, Mockito.times(2)).getCurrentCatalog(Mockito.any(), Mockito.<TenantContext>any());
+    }
+
+    @Test(groups = "fast")
+    public void testCatalogNotAvailable() throws Exception {
+        final CatalogUserApi catalogUserApi = Mockito.mock(CatalogUserApi.class);
+        Mockito.doThrow(CatalogApiException.class).when(catalogUserApi).getCurrentCatalog(Mockito.any(), Mockito.<TenantContext>any());
+        final OSGIKillbillAPI killbillAPI = Mockito.mock(OSGIKillbillAPI.class);
+        Mockito.when(killbillAPI.getCatalogUserApi()).thenReturn(catalogUserApi);
+
+        final TenantContext context = Mockito.mock(TenantContext.class);
+        Mockito.when(context.getTenantId()).thenReturn(UUID.randomUUID());
+
+        final PlanProductsCache planProductsCache = new PlanProductsCache(killbillAPI, 60);
+        Assert.assertNull(planProductsCache.getProductName("super-monthly", context));
+        Assert.assertNull(planProductsCache.getProductName("super-monthly", context));
+        // Retried
+        Mockito.verify(catalogUserApi, Mockito.times(2)).getCurrentCatalog(Mockito.any(), Mockito.<TenantContext>any());
+    }
+
+    private ExtBusEvent buildEvent(final ExtBusEventType eventType, final String metaData, final UUID kbTenantId) {
+        final ExtBusEvent event = Mockito.mock(ExtBusEvent.class);
+        Mockito.when(event.getEventType()).thenReturn(eventType);
+        Mockito.when(event.getMetaData()).thenReturn(metaData);
+        Mockito.when(event.getTenantId()).thenReturn(kbTenantId);
+        return event;
+    }
+}
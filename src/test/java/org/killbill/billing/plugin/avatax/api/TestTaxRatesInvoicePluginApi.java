@@ -39,7 +39,9 @@ import org.killbill.billing.plugin.api.PluginCallContext;
 import org.killbill.billing.plugin.avatax.AvaTaxRemoteTestBase;
 import org.killbill.billing.plugin.avatax.TestInvoiceContext;
 import org.killbill.billing.plugin.avatax.core.AvaTaxActivator;
+import org.killbill.billing.plugin.avatax.core.AvaTaxInvoiceStats;
 import org.killbill.billing.plugin.avatax.core.TaxRatesConfigurationHandler;
+import org.killbill.billing.plugin.avatax.dao.AvaTaxResponseWriter;
 import org.killbill.billing.util.callcontext.CallContext;
 import org.killbill.billing.util.callcontext.TenantContext;
 import org.killbill.clock.Clock;
@@ -83,6 +85,8 @@ public class TestTaxRatesInvoicePluginApi extends AvaTaxRemoteTestBase {
         taxRatesConfigurationHandler.setDefaultConfigurable(taxRatesClient);
         taxRatesInvoicePluginApi = new TaxRatesInvoicePluginApi(taxRatesConfigurationHandler,
                                                                 dao,
+                                                                new AvaTaxResponseWriter(dao),
+                                                                new AvaTaxInvoiceStats(100),
                                                                 osgiKillbillAPI,
                                                                 new OSGIConfigPropertiesService(Mockito.mock(BundleContext.class)),
                                                                 clock);
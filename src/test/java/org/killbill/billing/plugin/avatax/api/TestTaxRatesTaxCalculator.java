@@ -0,0 +1,125 @@
+/*
+ * Copyright 2020-2026 Equinix, Inc
+ * Copyright 2014-2026 The Billing Project, LLC
+ *
+ * The Billing Project licenses this file to you under the Apache License, version 2.0
+ * (the "License"); you may not use this file except in compliance with the
+ * License.  You may obtain a copy of the License at:
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.killbill.billing.plugin.avatax.api;
+
+import java.util.UUID;
+
+import org.joda.time.DateTime;
+import org.killbill.billing.account.api.Account;
+import org.killbill.billing.catalog.api.Currency;
+import org.killbill.billing.osgi.libs.killbill.OSGIKillbillAPI;
+import org.killbill.billing.plugin.TestUtils;
+import org.killbill.billing.plugin.avatax.AvaTaxRemoteTestBase;
+import org.killbill.billing.plugin.avatax.client.AvaTaxClientException;
+import org.killbill.billing.plugin.avatax.client.TaxRatesCache;
+import org.killbill.billing.plugin.avatax.client.TaxRatesClient;
+import org.killbill.billing.plugin.avatax.client.model.TaxRateResult;
+import org.killbill.billing.plugin.avatax.core.AvaTaxActivator;
+import org.killbill.billing.plugin.avatax.core.TaxRatesConfigurationHandler;
+import org.killbill.clock.Clock;
+import org.killbill.clock.DefaultClock;
+import org.mockito.Mockito;
+import org.testng.Assert;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+public class TestTaxRatesTaxCalculator extends AvaTaxRemoteTestBase {
+
+    private static final int MAX_AGE_SECONDS = 3600;
+
+    private Clock clock;
+    private UUID kbTenantId;
+    private Account account;
+    private TaxRatesClient taxRatesClient;
+    private TaxRatesTaxCalculator calculator;
+
+    @BeforeMethod(groups = "slow")
+    public void setUp() throws Exception {
+        clock = new DefaultClock();
+        kbTenantId = UUID.randomUUID();
+        account = TestUtils.buildAccount(Currency.USD, "45 Fremont Street", null, "San Francisco", "CA", "94105", "US");
+
+        // Local store enabled, in-memory cache disabled
+        taxRatesClient = Mockito.mock(TaxRatesClient.class);
+        Mockito.when(taxRatesClient.isLocalStoreEnabled()).thenReturn(true);
+        Mockito.when(taxRatesClient.getLocalStoreMaxAgeSeconds()).thenReturn(MAX_AGE_SECONDS);
+        Mockito.when(taxRatesClient.getTaxRatesCache()).thenReturn(new TaxRatesCache(0, 0));
+
+        final OSGIKillbillAPI osgiKillbillAPI = TestUtils.buildOSGIKillbillAPI(account);
+        final TaxRatesConfigurationHandler taxRatesConfigurationHandler = new TaxRatesConfigurationHandler(AvaTaxActivator.PLUGIN_NAME, osgiKillbillAPI);
+        taxRatesConfigurationHandler.setDefaultConfigurable(taxRatesClient);
+        calculator = new TaxRatesTaxCalculator(taxRatesConfigurationHandler, dao, clock, osgiKillbillAPI);
+    }
+
+    @Test(groups = "slow")
+    public void testStoredRates() throws Exception {
+        final DateTime utcNow = clock.getUTCNow();
+        // Imported rates, effective for a long time but stored recently
+        final TaxRateResult storedTaxRates = buildTaxRates(0.08625);
+        dao.addTaxRates("94105", "US", storedTaxRates, utcNow.minusYears(1), utcNow.minusSeconds(MAX_AGE_SECONDS / 2), kbTenantId);
+
+        Assert.assertEquals(calculator.getTaxRates(account, kbTenantId), storedTaxRates);
+        Mockito.verify(taxRatesClient, Mockito.never()).fromPostal(Mockito.anyString(), Mockito.anyString());
+    }
+
+    @Test(groups = "slow")
+    public void testStaleRatesAreRefreshed() throws Exception {
+        final DateTime utcNow = clock.getUTCNow();
+        dao.addTaxRates("94105", "US", buildTaxRates(0.08625), utcNow.minusYears(1), utcNow.minusSeconds(MAX_AGE_SECONDS * 2), kbTenantId);
+        final TaxRateResult refreshedTaxRates = buildTaxRates(0.09);
+        Mockito.when(taxRatesClient.fromPostal("94105", "US")).thenReturn(refreshedTaxRates);
+
+        Assert.assertEquals(calculator.getTaxRates(account, kbTenantId), refreshedTaxRates);
+        Mockito.verify(taxRatesClient, Mockito.times(1)).fromPostal("94105", "US");
+
+        // The refreshed rates are stored
+        Assert.assertEquals(calculator.getTaxRates(account, kbTenantId), refreshedTaxRates);
+        Mockito.verify(taxRatesClient, Mockito.times(1)).fromPostal("94105", "US");
+    }
+
+    @Test(groups = "slow")
+    public void testStaleRatesAreUsedIfRefreshFails() throws Exception {
+        final DateTime utcNow = clock.getUTCNow();
+        final TaxRateResult storedTaxRates = buildTaxRates(0.08625);
+        dao.addTaxRates("94105", "US", storedTaxRates, utcNow.minusYears(1), utcNow.minusSeconds(MAX_AGE_SECONDS * 2), kbTenantId);
+        Mockito.when(taxRatesClient.fromPostal("94105", "US")).thenThrow(new AvaTaxClientException(new IllegalStateException("Tax Rates API is down")));
+
+        Assert.assertEquals(calculator.getTaxRates(account, kbTenantId), storedTaxRates);
+    }
+
+    @Test(groups = "slow")
+    public void testOffline() throws Exception {
+        Mockito.when(taxRatesClient.isLocalStoreOffline()).thenReturn(true);
+
+        Assert.assertNull(calculator.getTaxRates(account, kbTenantId));
+
+        // Stale rates are used as is
+        final DateTime utcNow = clock.getUTCNow();
+        final TaxRateResult storedTaxRates = buildTaxRates(0.08625);
+        dao.addTaxRates("94105", "US", storedTaxRates, utcNow.minusYears(1), utcNow.minusSeconds(MAX_AGE_SECONDS * 2), kbTenantId);
+        Assert.assertEquals(calculator.getTaxRates(account, kbTenantId), storedTaxRates);
+
+        Mockito.verify(taxRatesClient, Mockito.never()).fromPostal(Mockito.anyString(), Mockito.anyString());
+    }
+
+    private TaxRateResult buildTaxRates(final double totalRate) {
+        final TaxRateResult taxRates = new TaxRateResult();
+        taxRates.totalRate = totalRate;
+        return taxRates;
+    }
+}
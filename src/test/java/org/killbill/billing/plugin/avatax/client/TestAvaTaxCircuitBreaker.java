@@ -0,0 +1,167 @@
+/*
+ * Copyright 2020-2026 Equinix, Inc
+ * Copyright 2014-2026 The Billing Project, LLC
+ *
+ * The Billing Project licenses this file to you under the Apache License, version 2.0
+ * (the "License"); you may not use this file except in compliance with the
+ * License.  You may obtain a copy of the License at:
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.killbill.billing.plugin.avatax.client;
+
+import java.math.BigDecimal;
+import java.util.Properties;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.killbill.billing.plugin.avatax.AvaTaxStubServer;
+import org.killbill.billing.plugin.avatax.client.AvaTaxCircuitBreaker.State;
+import org.killbill.billing.plugin.avatax.client.model.CreateTransactionModel;
+import org.killbill.billing.plugin.avatax.client.model.DocType;
+import org.killbill.billing.plugin.avatax.client.model.LineItemModel;
+import org.killbill.billing.plugin.avatax.core.AvaTaxActivator;
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+import com.google.common.base.Ticker;
+
+public class TestAvaTaxCircuitBreaker {
+
+    private static final long SLOW_NANOS = TimeUnit.SECONDS.toNanos(2);
+
+    private final AtomicLong nanos = new AtomicLong();
+    private final Ticker ticker = new Ticker() {
+        @Override
+        public long read() {
+            return nanos.get();
+        }
+    };
+
+    @Test(groups = "fast")
+    public void testFailureRate() throws Exception {
+        // 50% failure rate over the last 4 calls, 1s open
+        final AvaTaxCircuitBreaker circuitBreaker = new AvaTaxCircuitBreaker(true, 50, 100, 1000, 4, 4, 1000, 2, ticker);
+
+        recordCall(circuitBreaker, 0, true);
+        recordCall(circuitBreaker, 0, true);
+        recordCall(circuitBreaker, 0, false);
+        // Not enough calls yet
+        Assert.assertEquals(circuitBreaker.getState(), State.CLOSED);
+        recordCall(circuitBreaker, 0, false);
+        Assert.assertEquals(circuitBreaker.getState(), State.OPEN);
+        Assert.assertFalse(circuitBreaker.tryAcquirePermission());
+
+        // Trial calls
+        nanos.addAndGet(TimeUnit.SECONDS.toNanos(1));
+        Assert.assertTrue(circuitBreaker.tryAcquirePermission());
+        Assert.assertEquals(circuitBreaker.getState(), State.HALF_OPEN);
+        Assert.assertTrue(circuitBreaker.tryAcquirePermission());
+        Assert.assertFalse(circuitBreaker.tryAcquirePermission());
+        circuitBreaker.onResult(0, false);
+        circuitBreaker.onResult(0, true);
+        Assert.assertEquals(circuitBreaker.getState(), State.OPEN);
+
+        nanos.addAndGet(TimeUnit.SECONDS.toNanos(1));
+        recordCall(circuitBreaker, 0, false);
+        recordCall(circuitBreaker, 0, false);
+        Assert.assertEquals(circuitBreaker.getState(), State.CLOSED);
+
+        // The window starts over
+        recordCall(circuitBreaker, 0, true);
+        recordCall(circuitBreaker, 0, false);
+        recordCall(circuitBreaker, 0, false);
+        recordCall(circuitBreaker, 0, false);
+        recordCall(circuitBreaker, 0, false);
+        Assert.assertEquals(circuitBreaker.getState(), State.CLOSED);
+    }
+
+    @Test(groups = "fast")
+    public void testSlowCallRate() throws Exception {
+        // Open if all calls take 1s or more
+        final AvaTaxCircuitBreaker circuitBreaker = new AvaTaxCircuitBreaker(true, 50, 100, 1000, 3, 3, 1000, 1, ticker);
+
+        recordCall(circuitBreaker, SLOW_NANOS, false);
+        recordCall(circuitBreaker, 0, false);
+        recordCall(circuitBreaker, SLOW_NANOS, false);
+        Assert.assertEquals(circuitBreaker.getState(), State.CLOSED);
+        // The first slow call is evicted: still a fast call in the window
+        recordCall(circuitBreaker, SLOW_NANOS, false);
+        Assert.assertEquals(circuitBreaker.getState(), State.CLOSED);
+        // The fast call is evicted
+        recordCall(circuitBreaker, SLOW_NANOS, false);
+        Assert.assertEquals(circuitBreaker.getState(), State.OPEN);
+    }
+
+    @Test(groups = "fast")
+    public void testDisabled() throws Exception {
+        final AvaTaxCircuitBreaker circuitBreaker = AvaTaxCircuitBreaker.create(new Properties());
+        for (int i = 0; i < 50; i++) {
+            recordCall(circuitBreaker, SLOW_NANOS * 10, true);
+        }
+        Assert.assertEquals(circuitBreaker.getState(), State.CLOSED);
+    }
+
+    @Test(groups = "fast")
+    public void testCreateTransaction() throws Exception {
+        final AvaTaxStubServer stubServer = new AvaTaxStubServer();
+        stubServer.start();
+        try {
+            final Properties properties = stubServer.getClientProperties();
+            properties.put(AvaTaxActivator.PROPERTY_PREFIX + "circuitBreaker.enabled", "true");
+            properties.put(AvaTaxActivator.PROPERTY_PREFIX + "circuitBreaker.minimumCalls", "2");
+            properties.put(AvaTaxActivator.PROPERTY_PREFIX + "circuitBreaker.windowSize", "2");
+            properties.put(AvaTaxActivator.PROPERTY_PREFIX + "circuitBreaker.waitDurationInOpenStateMs", "3600000");
+            final AvaTaxClient client = new AvaTaxClient(properties);
+
+            stubServer.setErrorRate(1);
+            for (int i = 0; i < 2; i++) {
+                try {
+                    client.createTransaction(buildCreateTransactionModel(UUID.randomUUID().toString()));
+                    Assert.fail();
+                } catch (final AvaTaxClientException e) {
+                    Assert.assertFalse(e instanceof AvaTaxCircuitOpenException);
+                }
+            }
+            Assert.assertEquals(client.getCircuitBreaker().getState(), State.OPEN);
+
+            stubServer.setErrorRate(0);
+            try {
+                client.createTransaction(buildCreateTransactionModel(UUID.randomUUID().toString()));
+                Assert.fail();
+            } catch (final AvaTaxCircuitOpenException e) {
+                // Expected
+            }
+            // AvaTax wasn't called
+            Assert.assertEquals(stubServer.getRequestCount("500"), 2);
+            Assert.assertEquals(stubServer.getRequestCount("create"), 0);
+        } finally {
+            stubServer.stop();
+        }
+    }
+
+    private void recordCall(final AvaTaxCircuitBreaker circuitBreaker, final long durationNanos, final boolean failed) {
+        Assert.assertTrue(circuitBreaker.tryAcquirePermission());
+        circuitBreaker.onResult(durationNanos, failed);
+    }
+
+    private CreateTransactionModel buildCreateTransactionModel(final String code) {
+        final CreateTransactionModel createTransactionModel = new CreateTransactionModel();
+        createTransactionModel.code = code;
+        createTransactionModel.companyCode = AvaTaxStubServer.COMPANY_CODE;
+        createTransactionModel.currencyCode = "USD";
+        createTransactionModel.type = DocType.SalesInvoice;
+        createTransactionModel.lines = new LineItemModel[]{new LineItemModel()};
+        createTransactionModel.lines[0].number = UUID.randomUUID().toString();
+        createTransactionModel.lines[0].amount = BigDecimal.TEN;
+        return createTransactionModel;
+    }
+}
@@ -0,0 +1,138 @@
+/*
+ * Copyright 2020-2026 Equinix, Inc
+ * Copyright 2014-2026 The Billing Project, LLC
+ *
+ * The Billing Project licenses this file to you under the Apache License, version 2.0
+ * (the "License"); you may not use this file except in compliance with the
+ * License.  You may obtain a copy of the License at:
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.killbill.billing.plugin.avatax.client;
+
+import java.math.BigDecimal;
+import java.util.UUID;
+
+import org.joda.time.DateTime;
+import org.killbill.billing.plugin.avatax.AvaTaxStubServer;
+import org.killbill.billing.plugin.avatax.client.model.CreateTransactionModel;
+import org.killbill.billing.plugin.avatax.client.model.DocType;
+import org.killbill.billing.plugin.avatax.client.model.LineItemModel;
+import org.killbill.billing.plugin.avatax.client.model.TaxRateResult;
+import org.killbill.billing.plugin.avatax.client.model.TransactionModel;
+import org.testng.Assert;
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+public class TestAvaTaxStubServer {
+
+    private AvaTaxStubServer stubServer;
+    private AvaTaxClient client;
+    private TaxRatesClient taxRatesClient;
+
+    @BeforeMethod(groups = "fast")
+    public void setUp() throws Exception {
+        stubServer = new AvaTaxStubServer();
+        stubServer.start();
+        client = new AvaTaxClient(stubServer.getClientProperties());
+        taxRatesClient = new TaxRatesClient(stubServer.getClientProperties());
+    }
+
+    @AfterMethod(groups = "fast")
+    public void tearDown() throws Exception {
+        stubServer.stop();
+    }
+
+    @Test(groups = "fast")
+    public void testTransactions() throws Exception {
+        Assert.assertTrue(client.ping().authenticated);
+
+        final TransactionModel transaction = client.createTransaction(buildCreateTransactionModel("100", "10"));
+        // 7.25% for each line, rounded to the cent
+        Assert.assertEquals(transaction.lines.length, 2);
+        Assert.assertEquals(transaction.lines[0].tax, 7.25);
+        Assert.assertEquals(transaction.lines[0].details.length, 3);
+        Assert.assertEquals(transaction.lines[1].tax, 0.73);
+        Assert.assertEquals(transaction.totalTax, 7.98);
+        Assert.assertEquals(transaction.status, "Saved");
+
+        Assert.assertEquals(client.getTransactionByCode(transaction.code), transaction);
+        Assert.assertEquals(client.commitTransaction(transaction.code).status, "Committed");
+        Assert.assertEquals(client.voidTransaction(transaction.code).status, "Cancelled");
+        Assert.assertEquals(stubServer.getTransaction(transaction.code).status, "Cancelled");
+        Assert.assertEquals(stubServer.getRequestCount("create"), 1);
+
+        try {
+            client.getTransactionByCode(UUID.randomUUID().toString());
+            Assert.fail();
+        } catch (final AvaTaxClientException e) {
+            Assert.assertEquals(e.getErrors().error.code, "EntityNotFoundError");
+        }
+    }
+
+    @Test(groups = "fast")
+    public void testTaxRates() throws Exception {
+        final TaxRateResult byPostalCode = taxRatesClient.fromPostal("94105", "US");
+        Assert.assertEquals(byPostalCode.rates.size(), 3);
+        Assert.assertEquals(byPostalCode.totalRate, 0.0725, 0.000001);
+        Assert.assertEquals(taxRatesClient.fromAddress("45 Fremont Street", "San Francisco", "CA", "94105", "US"), byPostalCode);
+        Assert.assertEquals(stubServer.getRequestCount("taxratesbypostalcode"), 1);
+        Assert.assertEquals(stubServer.getRequestCount("taxratesbyaddress"), 1);
+    }
+
+    @Test(groups = "fast")
+    public void testFaultInjection() throws Exception {
+        stubServer.setThrottlingRate(1);
+        try {
+            client.createTransaction(buildCreateTransactionModel("100"));
+            Assert.fail();
+        } catch (final AvaTaxClientException e) {
+            Assert.assertEquals(e.getErrors().error.code, "RateLimitExceeded");
+        }
+
+        stubServer.setThrottlingRate(0);
+        stubServer.setErrorRate(1);
+        try {
+            client.createTransaction(buildCreateTransactionModel("100"));
+            Assert.fail();
+        } catch (final AvaTaxClientException e) {
+            Assert.assertEquals(e.getErrors().error.code, "ServerError");
+        }
+
+        stubServer.setErrorRate(0);
+        stubServer.setLatencyMillis(200);
+        final long startMillis = System.currentTimeMillis();
+        client.createTransaction(buildCreateTransactionModel("100"));
+        Assert.assertTrue(System.currentTimeMillis() - startMillis >= 200);
+
+        Assert.assertEquals(stubServer.getRequestCount("429"), 1);
+        Assert.assertEquals(stubServer.getRequestCount("500"), 1);
+        Assert.assertEquals(stubServer.getRequestCount("create"), 1);
+    }
+
+    private CreateTransactionModel buildCreateTransactionModel(final String... amounts) {
+        final CreateTransactionModel createTransactionModel = new CreateTransactionModel();
+        createTransactionModel.code = UUID.randomUUID().toString();
+        createTransactionModel.customerCode = UUID.randomUUID().toString();
+        createTransactionModel.date = new DateTime("2026-10-01").toDate();
+        createTransactionModel.companyCode = AvaTaxStubServer.COMPANY_CODE;
+        createTransactionModel.currencyCode = "USD";
+        createTransactionModel.type = DocType.SalesInvoice;
+        createTransactionModel.commit = false;
+        createTransactionModel.lines = new LineItemModel[amounts.length];
+        for (int i = 0; i < amounts.length; i++) {
+            createTransactionModel.lines[i] = new LineItemModel();
+            createTransactionModel.lines[i].number = UUID.randomUUID().toString();
+            createTransactionModel.lines[i].amount = new BigDecimal(amounts[i]);
+        }
+        return createTransactionModel;
+    }
+}
@@ -0,0 +1,71 @@
+/*
+ * Copyright 2020-2026 Equinix, Inc
+ * Copyright 2014-2026 The Billing Project, LLC
+ *
+ * The Billing Project licenses this file to you under the Apache License, version 2.0
+ * (the "License"); you may not use this file except in compliance with the
+ * License.  You may obtain a copy of the License at:
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.killbill.billing.plugin.avatax.client;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.killbill.billing.plugin.avatax.client.model.TaxRateResult;
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+public class TestTaxRatesCache {
+
+    @Test(groups = "fast")
+    public void testKeyNormalization() throws Exception {
+        Assert.assertEquals(TaxRatesCache.toKey("45  Fremont St ", "San Francisco", "ca", "94105", "us"),
+                            TaxRatesCache.toKey("45 fremont st", " SAN FRANCISCO", "CA", "94105", "US"));
+        Assert.assertNotEquals(TaxRatesCache.toKey(null, null, null, "94105", "US"),
+                               TaxRatesCache.toKey("45 Fremont St", "San Francisco", "CA", "94105", "US"));
+    }
+
+    @Test(groups = "fast")
+    public void testCaching() throws Exception {
+        final AtomicInteger nbCalls = new AtomicInteger();
+        final TaxRatesCache.TaxRatesLoader loader = () -> {
+            nbCalls.incrementAndGet();
+            return new TaxRateResult();
+        };
+
+        final TaxRatesCache cache = new TaxRatesCache(10, 3600);
+        Assert.assertTrue(cache.isEnabled());
+        final TaxRateResult taxRates = cache.get(null, null, null, "94105", "US", loader);
+        Assert.assertSame(cache.get(null, null, null, "94105", "us", loader), taxRates);
+        Assert.assertEquals(nbCalls.get(), 1);
+
+        cache.get(null, null, null, "60602", "US", loader);
+        Assert.assertEquals(nbCalls.get(), 2);
+
+        cache.invalidateAll();
+        cache.get(null, null, null, "94105", "US", loader);
+        Assert.assertEquals(nbCalls.get(), 3);
+    }
+
+    @Test(groups = "fast")
+    public void testDisabled() throws Exception {
+        final AtomicInteger nbCalls = new AtomicInteger();
+        final TaxRatesCache cache = new TaxRatesCache(10, 0);
+        Assert.assertFalse(cache.isEnabled());
+        for (int i = 0; i < 3; i++) {
+            cache.get(null, null, null, "94105", "US", () -> {
+                nbCalls.incrementAndGet();
+                return new TaxRateResult();
+            });
+        }
+        Assert.assertEquals(nbCalls.get(), 3);
+    }
+}
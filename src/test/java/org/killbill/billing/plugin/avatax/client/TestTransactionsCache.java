@@ -0,0 +1,117 @@
+/*
+ * Copyright 2020-2026 Equinix, Inc
+ * Copyright 2014-2026 The Billing Project, LLC
+ *
+ * The Billing Project licenses this file to you under the Apache License, version 2.0
+ * (the "License"); you may not use this file except in compliance with the
+ * License.  You may obtain a copy of the License at:
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.killbill.billing.plugin.avatax.client;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.killbill.billing.plugin.avatax.client.model.TransactionModel;
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+public class TestTransactionsCache {
+
+    @Test(groups = "fast")
+    public void testCaching() throws Exception {
+        final AtomicInteger nbCalls = new AtomicInteger();
+        final TransactionsCache cache = new TransactionsCache(10, 3600);
+        Assert.assertTrue(cache.isEnabled());
+
+        final TransactionModel transaction = cache.get("INV-1", () -> {
+            nbCalls.incrementAndGet();
+            return buildTransaction("INV-1", "Committed");
+        });
+        Assert.assertSame(cache.get("INV-1", () -> {
+            nbCalls.incrementAndGet();
+            return buildTransaction("INV-1", "Committed");
+        }), transaction);
+        Assert.assertEquals(nbCalls.get(), 1);
+
+        // Voided
+        cache.invalidate("INV-1");
+        Assert.assertEquals(cache.get("INV-1", () -> {
+            nbCalls.incrementAndGet();
+            return buildTransaction("INV-1", "Cancelled");
+        }).status, "Cancelled");
+        Assert.assertEquals(nbCalls.get(), 2);
+    }
+
+    @Test(groups = "fast")
+    public void testVoidedDuringLookup() throws Exception {
+        final AtomicInteger nbCalls = new AtomicInteger();
+        final TransactionsCache cache = new TransactionsCache(10, 3600);
+
+        // The lookup started before the void, and returns the transaction as committed
+        Assert.assertEquals(cache.get("INV-4", () -> {
+            nbCalls.incrementAndGet();
+            cache.invalidate("INV-4");
+            return buildTransaction("INV-4", "Committed");
+        }).status, "Committed");
+
+        // Not cached
+        Assert.assertEquals(cache.get("INV-4", () -> {
+            nbCalls.incrementAndGet();
+            return buildTransaction("INV-4", "Cancelled");
+        }).status, "Cancelled");
+        Assert.assertEquals(nbCalls.get(), 2);
+    }
+
+    @Test(groups = "fast")
+    public void testUncommittedTransactionsAreNotCached() throws Exception {
+        final AtomicInteger nbCalls = new AtomicInteger();
+        final TransactionsCache cache = new TransactionsCache(10, 3600);
+        for (int i = 0; i < 3; i++) {
+            Assert.assertEquals(cache.get("INV-2", () -> {
+                nbCalls.incrementAndGet();
+                return buildTransaction("INV-2", "Saved");
+            }).status, "Saved");
+        }
+        Assert.assertEquals(nbCalls.get(), 3);
+
+        // Committed in the meantime
+        cache.get("INV-2", () -> {
+            nbCalls.incrementAndGet();
+            return buildTransaction("INV-2", "Committed");
+        });
+        cache.get("INV-2", () -> {
+            nbCalls.incrementAndGet();
+            return buildTransaction("INV-2", "Committed");
+        });
+        Assert.assertEquals(nbCalls.get(), 4);
+    }
+
+    @Test(groups = "fast")
+    public void testDisabled() throws Exception {
+        final AtomicInteger nbCalls = new AtomicInteger();
+        final TransactionsCache cache = new TransactionsCache(10, 0);
+        Assert.assertFalse(cache.isEnabled());
+        for (int i = 0; i < 3; i++) {
+            cache.get("INV-3", () -> {
+                nbCalls.incrementAndGet();
+                return buildTransaction("INV-3", "Committed");
+            });
+        }
+        Assert.assertEquals(nbCalls.get(), 3);
+    }
+
+    private TransactionModel buildTransaction(final String code, final String status) {
+        final TransactionModel transaction = new TransactionModel();
+        transaction.code = code;
+        transaction.status = status;
+        return transaction;
+    }
+}
@@ -0,0 +1,132 @@
+/*
+ * Copyright 2020-2026 Equinix, Inc
+ * Copyright 2014-2026 The Billing Project, LLC
+ *
+ * The Billing Project licenses this file to you under the Apache License, version 2.0
+ * (the "License"); you may not use this file except in compliance with the
+ * License.  You may obtain a copy of the License at:
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+package org.killbill.billing.plugin.avatax.core;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+import org.joda.time.DateTime;
+import org.joda.time.DateTimeZone;
+import org.jooq.types.ULong;
+import org.killbill.billing.invoice.api.Invoice;
+import org.killbill.billing.invoice.api.InvoiceStatus;
+import org.killbill.billing.invoice.api.InvoiceUserApi;
+import org.killbill.billing.osgi.libs.killbill.OSGIKillbillAPI;
+import org.killbill.billing.plugin.avatax.dao.AvaTaxDao;
+import org.killbill.billing.plugin.avatax.dao.gen.tables.records.AvataxBulkCommitsRecord;
+import org.killbill.billing.plugin.avatax.dao.gen.tables.records.AvataxResponsesRecord;
+import org.killbill.billing.util.callcontext.TenantContext;
+import org.killbill.clock.Clock;
+import org.mockito.Mockito;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+
+public class TestAvaTaxBulkCommitsWorker {
+
+    private UUID kbTenantId;
+    private InvoiceUserApi invoiceUserApi;
+    private AvaTaxDao dao;
+    private AvaTaxBulkCommitsWorker worker;
+
+    @BeforeMethod(groups = "fast")
+    public void setUp() throws Exception {
+        kbTenantId = UUID.randomUUID();
+        invoiceUserApi = Mockito.mock(InvoiceUserApi.class);
+        final OSGIKillbillAPI killbillAPI = Mockito.mock(OSGIKillbillAPI.class);
+        Mockito.when(killbillAPI.getInvoiceUserApi()).thenReturn(invoiceUserApi);
+        final Clock clock = Mockito.mock(Clock.class);
+        Mockito.when(clock.getUTCNow()).thenReturn(new DateTime(2026, 10, 18, 18, 0, DateTimeZone.UTC));
+        dao = Mockito.mock(AvaTaxDao.class);
+
+        // Pages of 2 documents
+        worker = new AvaTaxBulkCommitsWorker(dao, killbillAPI, clock, 2, 1000);
+    }
+
+    @Test(groups = "fast")
+    public void testScan() throws Exception {
+        final UUID committedInvoiceId = buildInvoice(InvoiceStatus.COMMITTED);
+        final UUID draftInvoiceId = buildInvoice(InvoiceStatus.DRAFT);
+        final AvataxResponsesRecord response1 = buildResponse(committedInvoiceId, 1);
+        final AvataxResponsesRecord response2 = buildResponse(draftInvoiceId, 2);
+        final AvataxResponsesRecord response3 = buildResponse(committedInvoiceId, 3);
+
+        final AvataxBulkCommitsRecord bulkCommit = buildBulkCommit();
+        Mockito.when(dao.getBulkCommitResponses(bulkCommit, 2)).thenReturn(ImmutableList.<AvataxResponsesRecord>of(response1, response2),
+                                                                          ImmutableList.<AvataxResponsesRecord>of(response3));
+        Mockito.when(dao.addBulkCommitOperations(Mockito.eq(bulkCommit), Mockito.anyMap(), Mockito.any(), Mockito.any(), Mockito.anyBoolean(), Mockito.<DateTime>any())).thenReturn(true);
+
+        worker.scan(bulkCommit);
+
+        // Documents of draft invoices are skipped
+        Mockito.verify(dao).addBulkCommitOperations(Mockito.eq(bulkCommit),
+                                                    Mockito.eq(ImmutableMap.<String, UUID>of(response1.getDocCode(), committedInvoiceId)),
+                                                    Mockito.eq(response2.getDocDate()),
+                                                    Mockito.eq(response2.getRecordId()),
+                                                    Mockito.eq(false),
+                                                    Mockito.<DateTime>any());
+        Mockito.verify(dao).addBulkCommitOperations(Mockito.eq(bulkCommit),
+                                                    Mockito.eq(ImmutableMap.<String, UUID>of(response3.getDocCode(), committedInvoiceId)),
+                                                    Mockito.eq(response3.getDocDate()),
+                                                    Mockito.eq(response3.getRecordId()),
+                                                    Mockito.eq(true),
+                                                    Mockito.<DateTime>any());
+        Mockito.verify(dao, Mockito.times(2)).getBulkCommitResponses(bulkCommit, 2);
+    }
+
+    @Test(groups = "fast")
+    public void testScannedByAnotherNode() throws Exception {
+        final UUID committedInvoiceId = buildInvoice(InvoiceStatus.COMMITTED);
+        final AvataxBulkCommitsRecord bulkCommit = buildBulkCommit();
+        Mockito.when(dao.getBulkCommitResponses(bulkCommit, 2)).thenReturn(ImmutableList.<AvataxResponsesRecord>of(buildResponse(committedInvoiceId, 1), buildResponse(committedInvoiceId, 2)));
+        Mockito.when(dao.addBulkCommitOperations(Mockito.eq(bulkCommit), Mockito.anyMap(), Mockito.any(), Mockito.any(), Mockito.anyBoolean(), Mockito.<DateTime>any())).thenReturn(false);
+
+        worker.scan(bulkCommit);
+
+        Mockito.verify(dao, Mockito.times(1)).getBulkCommitResponses(bulkCommit, 2);
+    }
+
+    private UUID buildInvoice(final InvoiceStatus status) throws Exception {
+        final UUID kbInvoiceId = UUID.randomUUID();
+        final Invoice invoice = Mockito.mock(Invoice.class);
+        Mockito.when(invoice.getId()).thenReturn(kbInvoiceId);
+        Mockito.when(invoice.getStatus()).thenReturn(status);
+        Mockito.when(invoiceUserApi.getInvoice(Mockito.eq(kbInvoiceId), Mockito.<TenantContext>any())).thenReturn(invoice);
+        return kbInvoiceId;
+    }
+
+    private AvataxBulkCommitsRecord buildBulkCommit() {
+        final AvataxBulkCommitsRecord bulkCommit = new AvataxBulkCommitsRecord();
+        bulkCommit.setRecordId(ULong.valueOf(1));
+        bulkCommit.setBulkCommitId(UUID.randomUUID().toString());
+        bulkCommit.setStatus(AvaTaxDao.BULK_COMMIT_SCANNING);
+        bulkCommit.setNbQueued(0);
+        bulkCommit.setKbTenantId(kbTenantId.toString());
+        return bulkCommit;
+    }
+
+    private AvataxResponsesRecord buildResponse(final UUID kbInvoiceId, final long recordId) {
+        final AvataxResponsesRecord response = new AvataxResponsesRecord();
+        response.setRecordId(ULong.valueOf(recordId));
+        response.setKbInvoiceId(kbInvoiceId.toString());
+        response.setDocCode(UUID.randomUUID().toString());
+        response.setDocDate(LocalDateTime.of(2026, 9, (int) recordId, 0, 0));
+        return response;
+    }
+}
@@ -0,0 +1,88 @@
+/*
+ * Copyright 2020-2026 Equinix, Inc
+ * Copyright 2014-2026 The Billing Project, LLC
+ *
+ * The Billing Project licenses this file to you under the Apache License, version 2.0
+ * (the "License"); you may not use this file except in compliance with the
+ * License.  You may obtain a copy of the License at:
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.killbill.billing.plugin.avatax.core;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+public class TestAvaTaxExecutors {
+
+    @Test(groups = "fast")
+    public void testPerTenantExecutors() throws Exception {
+        final AvaTaxExecutors executors = new AvaTaxExecutors();
+        try {
+            final UUID kbTenantId = UUID.randomUUID();
+            final ExecutorService executor = executors.getExecutor(kbTenantId, 4);
+            Assert.assertEquals(((ThreadPoolExecutor) executor).getMaximumPoolSize(), 4);
+            Assert.assertSame(executors.getExecutor(kbTenantId, 4), executor);
+            Assert.assertNotSame(executors.getExecutor(UUID.randomUUID(), 4), executor);
+            Assert.assertNotSame(executors.getExecutor(null, 4), executor);
+
+            // Configuration change
+            Assert.assertSame(executors.getExecutor(kbTenantId, 2), executor);
+            Assert.assertEquals(((ThreadPoolExecutor) executor).getCorePoolSize(), 2);
+            Assert.assertEquals(((ThreadPoolExecutor) executor).getMaximumPoolSize(), 2);
+            Assert.assertSame(executors.getExecutor(kbTenantId, 8), executor);
+            Assert.assertEquals(((ThreadPoolExecutor) executor).getCorePoolSize(), 8);
+            Assert.assertEquals(((ThreadPoolExecutor) executor).getMaximumPoolSize(), 8);
+
+            Assert.assertEquals(executor.submit(() -> "ok").get(), "ok");
+        } finally {
+            executors.shutdown();
+        }
+    }
+
+    @Test(groups = "fast")
+    public void testBoundedQueue() throws Exception {
+        final AvaTaxExecutors executors = new AvaTaxExecutors("avatax-read-", 1);
+        final CountDownLatch latch = new CountDownLatch(1);
+        try {
+            final ExecutorService executor = executors.getExecutor(UUID.randomUUID(), 2);
+            // 2 running, 1 waiting
+            final List<Future<Boolean>> futures = new ArrayList<Future<Boolean>>();
+            for (int i = 0; i < 3; i++) {
+                futures.add(executor.submit(() -> latch.await(10, TimeUnit.SECONDS)));
+            }
+            try {
+                executor.submit(() -> "ko");
+                Assert.fail();
+            } catch (final RejectedExecutionException e) {
+                // Expected
+            }
+
+            latch.countDown();
+            for (final Future<Boolean> future : futures) {
+                Assert.assertTrue(future.get());
+            }
+            Assert.assertEquals(executor.submit(() -> "ok").get(), "ok");
+        } finally {
+            latch.countDown();
+            executors.shutdown();
+        }
+    }
+}
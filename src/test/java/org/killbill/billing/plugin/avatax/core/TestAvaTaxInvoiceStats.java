@@ -0,0 +1,93 @@
+/*
+ * Copyright 2020-2026 Equinix, Inc
+ * Copyright 2014-2026 The Billing Project, LLC
+ *
+ * The Billing Project licenses this file to you under the Apache License, version 2.0
+ * (the "License"); you may not use this file except in compliance with the
+ * License.  You may obtain a copy of the License at:
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.killbill.billing.plugin.avatax.core;
+
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+import org.joda.time.DateTime;
+import org.joda.time.DateTimeZone;
+import org.killbill.billing.plugin.avatax.core.AvaTaxInvoiceTimings.Phase;
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+public class TestAvaTaxInvoiceStats {
+
+    @Test(groups = "fast")
+    public void testThreshold() throws Exception {
+        final AvaTaxInvoiceStats invoiceStats = new AvaTaxInvoiceStats(10);
+        final UUID kbTenantId = UUID.randomUUID();
+
+        final AvaTaxInvoiceTimings fastInvoice = buildTimings(kbTenantId, 0);
+        Assert.assertFalse(invoiceStats.record(fastInvoice, 5000));
+        // Disabled
+        final AvaTaxInvoiceTimings slowInvoice = buildTimings(kbTenantId, 20);
+        Assert.assertFalse(invoiceStats.record(slowInvoice, -1));
+        Assert.assertEquals(invoiceStats.getStats(kbTenantId).get("nbSlowInvoices"), 0);
+
+        Assert.assertTrue(invoiceStats.record(slowInvoice, 10));
+        Assert.assertEquals(invoiceStats.getStats(kbTenantId).get("nbSlowInvoices"), 1);
+    }
+
+    @Test(groups = "fast")
+    public void testAggregates() throws Exception {
+        final AvaTaxInvoiceStats invoiceStats = new AvaTaxInvoiceStats(2);
+        final UUID kbTenantId = UUID.randomUUID();
+        final UUID otherKbTenantId = UUID.randomUUID();
+
+        final AvaTaxInvoiceTimings firstInvoice = buildTimings(kbTenantId, 0);
+        firstInvoice.add(Phase.HTTP, TimeUnit.MILLISECONDS.toNanos(100));
+        final AvaTaxInvoiceTimings secondInvoice = buildTimings(kbTenantId, 0);
+        secondInvoice.add(Phase.HTTP, TimeUnit.MILLISECONDS.toNanos(300));
+        secondInvoice.add(Phase.PERSIST, TimeUnit.MILLISECONDS.toNanos(50));
+        final AvaTaxInvoiceTimings thirdInvoice = buildTimings(kbTenantId, 0);
+        thirdInvoice.add(Phase.HTTP, TimeUnit.MILLISECONDS.toNanos(500));
+        Assert.assertTrue(invoiceStats.record(firstInvoice, 0));
+        Assert.assertTrue(invoiceStats.record(secondInvoice, 0));
+        Assert.assertTrue(invoiceStats.record(buildTimings(otherKbTenantId, 0), 0));
+        Assert.assertTrue(invoiceStats.record(thirdInvoice, 0));
+
+        // Bounded: only the two most recent invoices are kept
+        final Map<String, Object> stats = invoiceStats.getStats(kbTenantId);
+        Assert.assertEquals(stats.get("nbSlowInvoices"), 1);
+        final List<Map<String, Object>> slowInvoices = (List<Map<String, Object>>) stats.get("slowInvoices");
+        Assert.assertEquals(slowInvoices.get(0).get("kbInvoiceId"), thirdInvoice.getKbInvoiceId());
+        Assert.assertEquals(((Map<String, Long>) slowInvoices.get(0).get("phasesMs")).get("http"), (Long) 500L);
+        Assert.assertEquals(invoiceStats.getStats(otherKbTenantId).get("nbSlowInvoices"), 1);
+
+        final AvaTaxInvoiceStats biggerInvoiceStats = new AvaTaxInvoiceStats(10);
+        biggerInvoiceStats.record(firstInvoice, 0);
+        biggerInvoiceStats.record(secondInvoice, 0);
+        final Map<String, Object> biggerStats = biggerInvoiceStats.getStats(kbTenantId);
+        Assert.assertEquals(biggerStats.get("nbSlowInvoices"), 2);
+        final Map<String, Map<String, Long>> phases = (Map<String, Map<String, Long>>) biggerStats.get("phases");
+        Assert.assertEquals(phases.get("http").get("avgMs"), (Long) 200L);
+        Assert.assertEquals(phases.get("http").get("maxMs"), (Long) 300L);
+        Assert.assertEquals(phases.get("persist").get("avgMs"), (Long) 25L);
+        Assert.assertEquals(phases.get("catalog").get("maxMs"), (Long) 0L);
+    }
+
+    private AvaTaxInvoiceTimings buildTimings(final UUID kbTenantId, final long durationMillis) throws InterruptedException {
+        final AvaTaxInvoiceTimings timings = new AvaTaxInvoiceTimings(UUID.randomUUID(), kbTenantId, new DateTime(DateTimeZone.UTC));
+        Thread.sleep(durationMillis);
+        timings.stop();
+        return timings;
+    }
+}
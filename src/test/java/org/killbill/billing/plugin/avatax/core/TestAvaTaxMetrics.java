@@ -0,0 +1,160 @@
+/*
+ * Copyright 2020-2026 Equinix, Inc
+ * Copyright 2014-2026 The Billing Project, LLC
+ *
+ * The Billing Project licenses this file to you under the Apache License, version 2.0
+ * (the "License"); you may not use this file except in compliance with the
+ * License.  You may obtain a copy of the License at:
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.killbill.billing.plugin.avatax.core;
+
+import java.math.BigDecimal;
+import java.net.http.HttpTimeoutException;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+import org.joda.time.DateTime;
+import org.killbill.billing.plugin.avatax.AvaTaxStubServer;
+import org.killbill.billing.plugin.avatax.client.AvaTaxClient;
+import org.killbill.billing.plugin.avatax.client.AvaTaxClientException;
+import org.killbill.billing.plugin.avatax.client.TaxRatesClient;
+import org.killbill.billing.plugin.avatax.client.model.CreateTransactionModel;
+import org.killbill.billing.plugin.avatax.client.model.DocType;
+import org.killbill.billing.plugin.avatax.client.model.LineItemModel;
+import org.killbill.commons.metrics.api.Counter;
+import org.killbill.commons.metrics.api.Histogram;
+import org.killbill.commons.metrics.api.MetricRegistry;
+import org.killbill.commons.metrics.api.Timer;
+import org.mockito.Mockito;
+import org.testng.Assert;
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+public class TestAvaTaxMetrics {
+
+    private AvaTaxStubServer stubServer;
+    private MetricRegistry registry;
+    private Timer timer;
+    private Counter counter;
+    private Histogram histogram;
+
+    @BeforeMethod(groups = "fast")
+    public void setUp() throws Exception {
+        stubServer = new AvaTaxStubServer();
+        stubServer.start();
+
+        timer = Mockito.mock(Timer.class);
+        counter = Mockito.mock(Counter.class);
+        histogram = Mockito.mock(Histogram.class);
+        registry = Mockito.mock(MetricRegistry.class);
+        Mockito.when(registry.timer(Mockito.anyString())).thenReturn(timer);
+        Mockito.when(registry.counter(Mockito.anyString())).thenReturn(counter);
+        Mockito.when(registry.histogram(Mockito.anyString())).thenReturn(histogram);
+    }
+
+    @AfterMethod(groups = "fast")
+    public void tearDown() throws Exception {
+        stubServer.stop();
+    }
+
+    @Test(groups = "fast")
+    public void testAvaTaxClient() throws Exception {
+        final UUID kbTenantId = UUID.randomUUID();
+        final AvaTaxClient client = new AvaTaxClient(stubServer.getClientProperties(), new AvaTaxMetrics(registry).forTenant(kbTenantId));
+
+        client.createTransaction(buildCreateTransactionModel());
+        Mockito.verify(registry).timer("avatax." + kbTenantId + ".client.createTransaction");
+        Mockito.verify(registry).histogram("avatax." + kbTenantId + ".client.createTransaction.request.bytes");
+        Mockito.verify(registry).histogram("avatax." + kbTenantId + ".client.createTransaction.response.bytes");
+        Mockito.verify(timer).update(Mockito.anyLong(), Mockito.eq(TimeUnit.NANOSECONDS));
+        Mockito.verify(histogram, Mockito.times(2)).update(Mockito.longThat(bytes -> bytes > 0));
+        Mockito.verifyNoInteractions(counter);
+
+        try {
+            client.getTransactionByCode(UUID.randomUUID().toString());
+            Assert.fail();
+        } catch (final AvaTaxClientException e) {
+            Assert.assertEquals(e.getErrors().error.code, "EntityNotFoundError");
+        }
+        Mockito.verify(registry).timer("avatax." + kbTenantId + ".client.getTransactionByCode");
+        Mockito.verify(registry).counter("avatax." + kbTenantId + ".client.getTransactionByCode.errors.EntityNotFoundError");
+        Mockito.verify(counter).inc(1);
+        // No request body
+        Mockito.verify(registry, Mockito.never()).histogram("avatax." + kbTenantId + ".client.getTransactionByCode.request.bytes");
+    }
+
+    @Test(groups = "fast")
+    public void testTaxRatesClient() throws Exception {
+        final TaxRatesClient client = new TaxRatesClient(stubServer.getClientProperties(), new AvaTaxMetrics(registry).forTenant(null));
+
+        client.fromPostal("94105", "US");
+        Mockito.verify(registry).timer("avatax.default.client.fromPostal");
+        Mockito.verify(registry).histogram("avatax.default.client.fromPostal.response.bytes");
+
+        stubServer.setErrorRate(1);
+        try {
+            client.fromAddress("45 Fremont Street", "San Francisco", "CA", "94105", "US");
+            Assert.fail();
+        } catch (final AvaTaxClientException e) {
+            Assert.assertNull(e.getErrors());
+        }
+        Mockito.verify(registry).counter("avatax.default.client.fromAddress.errors.HTTP_500");
+        Mockito.verify(counter).inc(1);
+    }
+
+    @Test(groups = "fast")
+    public void testQueries() throws Exception {
+        final UUID kbTenantId = UUID.randomUUID();
+        final AvaTaxMetrics metrics = new AvaTaxMetrics(registry);
+
+        metrics.recordQuery(kbTenantId, "getTaxCodes", 1000, false);
+        metrics.recordQuery(null, "backfillResponseItems", 1000, true);
+        Mockito.verify(registry).timer("avatax." + kbTenantId + ".dao.getTaxCodes");
+        Mockito.verify(registry).timer("avatax.default.dao.backfillResponseItems");
+        Mockito.verify(registry).counter("avatax.default.dao.backfillResponseItems.errors");
+        Mockito.verify(timer, Mockito.times(2)).update(1000, TimeUnit.NANOSECONDS);
+        Mockito.verify(counter).inc(1);
+    }
+
+    @Test(groups = "fast")
+    public void testNoRegistry() throws Exception {
+        final AvaTaxMetrics metrics = new AvaTaxMetrics(null);
+        Assert.assertSame(metrics.forTenant(UUID.randomUUID()), metrics);
+
+        // Nothing recorded, nothing fails
+        final AvaTaxClient client = new AvaTaxClient(stubServer.getClientProperties(), metrics);
+        client.createTransaction(buildCreateTransactionModel());
+        metrics.recordQuery(UUID.randomUUID(), "getTaxCodes", 1000, true);
+    }
+
+    @Test(groups = "fast")
+    public void testErrorCode() throws Exception {
+        Assert.assertEquals(AvaTaxMetrics.errorCode(new AvaTaxClientException(new HttpTimeoutException("timed out"))), "HttpTimeoutException");
+        Assert.assertEquals(AvaTaxMetrics.errorCode(new AvaTaxClientException("Invalid address")), "Unknown");
+    }
+
+    private CreateTransactionModel buildCreateTransactionModel() {
+        final CreateTransactionModel createTransactionModel = new CreateTransactionModel();
+        createTransactionModel.code = UUID.randomUUID().toString();
+        createTransactionModel.customerCode = UUID.randomUUID().toString();
+        createTransactionModel.date = new DateTime("2026-10-01").toDate();
+        createTransactionModel.companyCode = AvaTaxStubServer.COMPANY_CODE;
+        createTransactionModel.currencyCode = "USD";
+        createTransactionModel.type = DocType.SalesInvoice;
+        createTransactionModel.commit = false;
+        createTransactionModel.lines = new LineItemModel[]{new LineItemModel()};
+        createTransactionModel.lines[0].number = UUID.randomUUID().toString();
+        createTransactionModel.lines[0].amount = new BigDecimal("100");
+        return createTransactionModel;
+    }
+}
@@ -0,0 +1,160 @@
+/*
+ * Copyright 2020-2026 Equinix, Inc
+ * Copyright 2014-2026 The Billing Project, LLC
+ *
+ * The Billing Project licenses this file to you under the Apache License, version 2.0
+ * (the "License"); you may not use this file except in compliance with the
+ * License.  You may obtain a copy of the License at:
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+package org.killbill.billing.plugin.avatax.core;
+
+import java.math.BigDecimal;
+import java.util.Date;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.UUID;
+
+import org.joda.time.DateTime;
+import org.joda.time.DateTimeZone;
+import org.jooq.types.ULong;
+import org.killbill.billing.plugin.avatax.AvaTaxStubServer;
+import org.killbill.billing.plugin.avatax.client.AvaTaxClient;
+import org.killbill.billing.plugin.avatax.client.model.CreateTransactionModel;
+import org.killbill.billing.plugin.avatax.client.model.DocType;
+import org.killbill.billing.plugin.avatax.client.model.LineItemModel;
+import org.killbill.billing.plugin.avatax.dao.AvaTaxDao;
+import org.killbill.billing.plugin.avatax.dao.gen.tables.records.AvataxOutboxRecord;
+import org.killbill.clock.Clock;
+import org.mockito.Mockito;
+import org.testng.Assert;
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import com.google.common.collect.ImmutableList;
+
+public class TestAvaTaxOutboxWorker {
+
+    private AvaTaxStubServer stubServer;
+    private AvaTaxClient avaTaxClient;
+    private Clock clock;
+    private UUID kbTenantId;
+    private AvaTaxDao dao;
+    private AvaTaxOutboxWorker worker;
+
+    @BeforeMethod(groups = "fast")
+    public void setUp() throws Exception {
+        stubServer = new AvaTaxStubServer();
+        stubServer.start();
+        avaTaxClient = new AvaTaxClient(stubServer.getClientProperties());
+
+        clock = Mockito.mock(Clock.class);
+        Mockito.when(clock.getUTCNow()).thenReturn(new DateTime(2026, 10, 18, 17, 0, DateTimeZone.UTC));
+        kbTenantId = UUID.randomUUID();
+        final AvaTaxConfigurationHandler avaTaxConfigurationHandler = Mockito.mock(AvaTaxConfigurationHandler.class);
+        Mockito.when(avaTaxConfigurationHandler.getConfigurable(kbTenantId)).thenReturn(avaTaxClient);
+        dao = Mockito.mock(AvaTaxDao.class);
+
+        // 4 concurrent calls, 10 seconds initial backoff, 10 minutes max, 3 attempts
+        worker = new AvaTaxOutboxWorker(dao, avaTaxConfigurationHandler, clock, 10, 1000, 300000, 4, 10000, 600000, 3);
+    }
+
+    @AfterMethod(groups = "fast")
+    public void tearDown() throws Exception {
+        worker.stop();
+        stubServer.stop();
+    }
+
+    @Test(groups = "fast")
+    public void testCommitAndVoid() throws Exception {
+        final List<AvataxOutboxRecord> operations = new LinkedList<AvataxOutboxRecord>();
+        for (int i = 0; i < 6; i++) {
+            final String docCode = createUncommittedTransaction();
+            operations.add(buildOperation(docCode, i % 2 == 0 ? AvaTaxOutboxWorker.COMMIT : AvaTaxOutboxWorker.VOID, 0));
+        }
+        Mockito.when(dao.claimOutboxOperations(Mockito.eq(10), Mockito.<DateTime>any(), Mockito.<DateTime>any())).thenReturn(operations);
+
+        Assert.assertEquals(worker.processBatch(), 6);
+
+        for (final AvataxOutboxRecord operation : operations) {
+            final String expectedStatus = AvaTaxOutboxWorker.COMMIT.equals(operation.getOperation()) ? "Committed" : "Cancelled";
+            Assert.assertEquals(stubServer.getTransaction(operation.getDocCode()).status, expectedStatus);
+            Mockito.verify(dao).completeOutboxOperation(operation);
+        }
+        Assert.assertEquals(stubServer.getRequestCount("commit"), 3);
+        Assert.assertEquals(stubServer.getRequestCount("void"), 3);
+        Mockito.verify(dao, Mockito.never()).rescheduleOutboxOperation(Mockito.<AvataxOutboxRecord>any(),
+                                                                       Mockito.anyString(),
+                                                                       Mockito.anyInt(),
+                                                                       Mockito.<DateTime>any(),
+                                                                       Mockito.anyString(),
+                                                                       Mockito.<DateTime>any());
+    }
+
+    @Test(groups = "fast")
+    public void testBackoff() throws Exception {
+        final AvataxOutboxRecord operation = buildOperation(createUncommittedTransaction(), AvaTaxOutboxWorker.COMMIT, 0);
+        final AvataxOutboxRecord failingOperation = buildOperation(createUncommittedTransaction(), AvaTaxOutboxWorker.VOID, 2);
+        final DateTime nextAttemptDate = clock.getUTCNow().plusSeconds(10);
+        stubServer.setErrorRate(1);
+
+        Mockito.when(dao.claimOutboxOperations(Mockito.eq(10), Mockito.<DateTime>any(), Mockito.<DateTime>any())).thenReturn(ImmutableList.<AvataxOutboxRecord>of(operation));
+        Assert.assertEquals(worker.processBatch(), 1);
+        Mockito.verify(dao).rescheduleOutboxOperation(Mockito.eq(operation),
+                                                      Mockito.eq(AvaTaxDao.OUTBOX_PENDING),
+                                                      Mockito.eq(1),
+                                                      Mockito.eq(nextAttemptDate),
+                                                      Mockito.anyString(),
+                                                      Mockito.<DateTime>any());
+
+        // Last attempt
+        Mockito.when(dao.claimOutboxOperations(Mockito.eq(10), Mockito.<DateTime>any(), Mockito.<DateTime>any())).thenReturn(ImmutableList.<AvataxOutboxRecord>of(failingOperation));
+        Assert.assertEquals(worker.processBatch(), 1);
+        Mockito.verify(dao).rescheduleOutboxOperation(Mockito.eq(failingOperation),
+                                                      Mockito.eq(AvaTaxDao.OUTBOX_FAILED),
+                                                      Mockito.eq(3),
+                                                      Mockito.<DateTime>any(),
+                                                      Mockito.anyString(),
+                                                      Mockito.<DateTime>any());
+        Mockito.verify(dao, Mockito.never()).completeOutboxOperation(Mockito.<AvataxOutboxRecord>any());
+
+        Assert.assertEquals(worker.getBackoffMillis(1), 10000);
+        Assert.assertEquals(worker.getBackoffMillis(2), 20000);
+        Assert.assertEquals(worker.getBackoffMillis(6), 320000);
+        Assert.assertEquals(worker.getBackoffMillis(7), 600000);
+    }
+
+    private String createUncommittedTransaction() throws Exception {
+        final CreateTransactionModel request = new CreateTransactionModel();
+        request.code = UUID.randomUUID().toString();
+        request.companyCode = AvaTaxStubServer.COMPANY_CODE;
+        request.currencyCode = "USD";
+        request.type = DocType.SalesInvoice;
+        request.date = new Date();
+        request.commit = false;
+        request.lines = new LineItemModel[]{new LineItemModel()};
+        request.lines[0].number = UUID.randomUUID().toString();
+        request.lines[0].amount = BigDecimal.TEN;
+        return avaTaxClient.createTransaction(request).code;
+    }
+
+    private AvataxOutboxRecord buildOperation(final String docCode, final String operation, final int attempts) {
+        final AvataxOutboxRecord record = new AvataxOutboxRecord();
+        record.setRecordId(ULong.valueOf(docCode.hashCode() & 0x7fffffff));
+        record.setKbInvoiceId(UUID.randomUUID().toString());
+        record.setDocCode(docCode);
+        record.setOperation(operation);
+        record.setStatus(AvaTaxDao.OUTBOX_PENDING);
+        record.setAttempts(attempts);
+        record.setKbTenantId(kbTenantId.toString());
+        return record;
+    }
+}
@@ -0,0 +1,271 @@
+/*
+ * Copyright 2020-2026 Equinix, Inc
+ * Copyright 2014-2026 The Billing Project, LLC
+ *
+ * The Billing Project licenses this file to you under the Apache License, version 2.0
+ * (the "License"); you may not use this file except in compliance with the
+ * License.  You may obtain a copy of the License at:
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.killbill.billing.plugin.avatax.core;
+
+import java.math.BigDecimal;
+import java.util.Date;
+import java.util.Properties;
+import java.util.UUID;
+
+import org.joda.time.DateTime;
+import org.joda.time.DateTimeZone;
+import org.jooq.types.ULong;
+import org.killbill.billing.invoice.api.Invoice;
+import org.killbill.billing.invoice.api.InvoiceStatus;
+import org.killbill.billing.invoice.api.InvoiceUserApi;
+import org.killbill.billing.osgi.libs.killbill.OSGIKillbillAPI;
+import org.killbill.billing.plugin.avatax.AvaTaxStubServer;
+import org.killbill.billing.plugin.avatax.client.AvaTaxClient;
+import org.killbill.billing.plugin.avatax.client.model.CreateTransactionModel;
+import org.killbill.billing.plugin.avatax.client.model.DocType;
+import org.killbill.billing.plugin.avatax.client.model.LineItemModel;
+import org.killbill.billing.plugin.avatax.client.model.TransactionModel;
+import org.killbill.billing.plugin.avatax.dao.AvaTaxDao;
+import org.killbill.billing.plugin.avatax.dao.gen.tables.records.AvataxPendingDocumentsRecord;
+import org.killbill.billing.util.callcontext.TenantContext;
+import org.killbill.clock.Clock;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mockito;
+import org.testng.Assert;
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import com.google.common.collect.ImmutableList;
+
+public class TestAvaTaxPendingDocumentsWorker {
+
+    private AvaTaxStubServer stubServer;
+    private Clock clock;
+    private UUID kbTenantId;
+    private AvaTaxDao dao;
+    private InvoiceUserApi invoiceUserApi;
+    private AvaTaxPendingDocumentsWorker worker;
+
+    @BeforeMethod(groups = "fast")
+    public void setUp() throws Exception {
+        stubServer = new AvaTaxStubServer();
+        stubServer.start();
+
+        clock = Mockito.mock(Clock.class);
+        Mockito.when(clock.getUTCNow()).thenReturn(new DateTime(2026, 10, 18, 16, 0, DateTimeZone.UTC));
+        kbTenantId = UUID.randomUUID();
+        final AvaTaxConfigurationHandler avaTaxConfigurationHandler = Mockito.mock(AvaTaxConfigurationHandler.class);
+        final Properties clientProperties = stubServer.getClientProperties();
+        clientProperties.put(AvaTaxActivator.PROPERTY_PREFIX + "commitDocuments", "true");
+        Mockito.when(avaTaxConfigurationHandler.getConfigurable(kbTenantId)).thenReturn(new AvaTaxClient(clientProperties));
+        invoiceUserApi = Mockito.mock(InvoiceUserApi.class);
+        final OSGIKillbillAPI killbillAPI = Mockito.mock(OSGIKillbillAPI.class);
+        Mockito.when(killbillAPI.getInvoiceUserApi()).thenReturn(invoiceUserApi);
+        dao = Mockito.mock(AvaTaxDao.class);
+        Mockito.when(dao.completePendingDocument(Mockito.<AvataxPendingDocumentsRecord>any(), Mockito.<TransactionModel>any(), Mockito.<DateTime>any())).thenReturn(true);
+
+        // 1 minute initial backoff, 10 minutes max, 3 attempts
+        worker = new AvaTaxPendingDocumentsWorker(dao, avaTaxConfigurationHandler, killbillAPI, clock, 10, 1000, 300000, 100, 60000, 600000, 3);
+    }
+
+    @AfterMethod(groups = "fast")
+    public void tearDown() throws Exception {
+        stubServer.stop();
+    }
+
+    @Test(groups = "fast")
+    public void testCreateDocument() throws Exception {
+        final AvataxPendingDocumentsRecord pendingDocument = buildPendingDocument(0);
+        mockClaim(pendingDocument);
+
+        Assert.assertEquals(worker.processBatch(), 1);
+
+        final ArgumentCaptor<TransactionModel> transaction = ArgumentCaptor.forClass(TransactionModel.class);
+        Mockito.verify(dao).completePendingDocument(Mockito.eq(pendingDocument), transaction.capture(), Mockito.<DateTime>any());
+        Assert.assertEquals(transaction.getValue().code, pendingDocument.getDocCode());
+        Assert.assertEquals(stubServer.getTransaction(pendingDocument.getDocCode()).status, "Committed");
+        Assert.assertEquals(stubServer.getRequestCount("create"), 1);
+    }
+
+    @Test(groups = "fast")
+    public void testDocumentCreatedByPreviousAttempt() throws Exception {
+        final AvataxPendingDocumentsRecord pendingDocument = buildPendingDocument(1);
+        // The response of the first attempt was lost
+        final CreateTransactionModel uncommittedRequest = buildRequest(pendingDocument.getDocCode());
+        uncommittedRequest.commit = false;
+        new AvaTaxClient(stubServer.getClientProperties()).createTransaction(uncommittedRequest);
+        mockClaim(pendingDocument);
+
+        Assert.assertEquals(worker.processBatch(), 1);
+
+        Mockito.verify(dao).completePendingDocument(Mockito.eq(pendingDocument), Mockito.<TransactionModel>any(), Mockito.<DateTime>any());
+        // Not created twice, but committed
+        Assert.assertEquals(stubServer.getRequestCount("create"), 1);
+        Assert.assertEquals(stubServer.getTransaction(pendingDocument.getDocCode()).status, "Committed");
+    }
+
+    @Test(groups = "fast")
+    public void testInvoiceCommittedBeforeDrain() throws Exception {
+        final AvataxPendingDocumentsRecord pendingDocument = buildPendingDocument(0, InvoiceStatus.COMMITTED);
+        // Queued while the invoice was still a draft
+        dao.toCreateTransactionModel(pendingDocument).commit = false;
+        mockClaim(pendingDocument);
+
+        Assert.assertEquals(worker.processBatch(), 1);
+
+        Mockito.verify(dao).completePendingDocument(Mockito.eq(pendingDocument), Mockito.<TransactionModel>any(), Mockito.<DateTime>any());
+        Assert.assertEquals(stubServer.getTransaction(pendingDocument.getDocCode()).status, "Committed");
+    }
+
+    @Test(groups = "fast")
+    public void testDraftInvoice() throws Exception {
+        final AvataxPendingDocumentsRecord pendingDocument = buildPendingDocument(0, InvoiceStatus.DRAFT);
+        mockClaim(pendingDocument);
+
+        Assert.assertEquals(worker.processBatch(), 1);
+
+        Mockito.verify(dao).completePendingDocument(Mockito.eq(pendingDocument), Mockito.<TransactionModel>any(), Mockito.<DateTime>any());
+        Assert.assertEquals(stubServer.getTransaction(pendingDocument.getDocCode()).status, "Saved");
+    }
+
+    @Test(groups = "fast")
+    public void testInvoiceVoidedBeforeDrain() throws Exception {
+        final AvataxPendingDocumentsRecord pendingDocument = buildPendingDocument(0, InvoiceStatus.VOID);
+        mockClaim(pendingDocument);
+
+        Assert.assertEquals(worker.processBatch(), 1);
+
+        Mockito.verify(dao).reschedulePendingDocument(Mockito.eq(pendingDocument),
+                                                      Mockito.eq(AvaTaxDao.PENDING_DOCUMENT_SKIPPED),
+                                                      Mockito.eq(0),
+                                                      Mockito.<DateTime>any(),
+                                                      Mockito.anyString(),
+                                                      Mockito.<DateTime>any());
+        Mockito.verify(dao, Mockito.never()).completePendingDocument(Mockito.<AvataxPendingDocumentsRecord>any(), Mockito.<TransactionModel>any(), Mockito.<DateTime>any());
+        Assert.assertEquals(stubServer.getRequestCount("create"), 0);
+
+        // Created by a previous attempt: voided
+        final AvataxPendingDocumentsRecord createdDocument = buildPendingDocument(1, InvoiceStatus.VOID);
+        final CreateTransactionModel uncommittedRequest = buildRequest(createdDocument.getDocCode());
+        uncommittedRequest.commit = false;
+        new AvaTaxClient(stubServer.getClientProperties()).createTransaction(uncommittedRequest);
+        mockClaim(createdDocument);
+
+        Assert.assertEquals(worker.processBatch(), 1);
+
+        Assert.assertEquals(stubServer.getTransaction(createdDocument.getDocCode()).status, "Cancelled");
+        Mockito.verify(dao, Mockito.never()).completePendingDocument(Mockito.<AvataxPendingDocumentsRecord>any(), Mockito.<TransactionModel>any(), Mockito.<DateTime>any());
+    }
+
+    @Test(groups = "fast")
+    public void testLeaseExpired() throws Exception {
+        // Another node created the document, but its lease expired before it recorded it
+        final AvataxPendingDocumentsRecord pendingDocument = buildPendingDocument(0);
+        new AvaTaxClient(stubServer.getClientProperties()).createTransaction(buildRequest(pendingDocument.getDocCode()));
+        mockClaim(pendingDocument);
+
+        Assert.assertEquals(worker.processBatch(), 1);
+
+        Mockito.verify(dao).completePendingDocument(Mockito.eq(pendingDocument), Mockito.<TransactionModel>any(), Mockito.<DateTime>any());
+        Assert.assertEquals(stubServer.getRequestCount("create"), 1);
+    }
+
+    @Test(groups = "fast")
+    public void testClaimOneAtATime() throws Exception {
+        final AvataxPendingDocumentsRecord pendingDocument1 = buildPendingDocument(0);
+        final AvataxPendingDocumentsRecord pendingDocument2 = buildPendingDocument(0);
+        Mockito.when(dao.claimPendingDocuments(Mockito.eq(1), Mockito.<DateTime>any(), Mockito.<DateTime>any())).thenReturn(ImmutableList.<AvataxPendingDocumentsRecord>of(pendingDocument1),
+                                                                                                                        ImmutableList.<AvataxPendingDocumentsRecord>of(pendingDocument2),
+                                                                                                                        ImmutableList.<AvataxPendingDocumentsRecord>of());
+
+        Assert.assertEquals(worker.processBatch(), 2);
+
+        Mockito.verify(dao, Mockito.times(3)).claimPendingDocuments(Mockito.eq(1), Mockito.<DateTime>any(), Mockito.<DateTime>any());
+        Assert.assertEquals(stubServer.getRequestCount("create"), 2);
+    }
+
+    @Test(groups = "fast")
+    public void testBackoff() throws Exception {
+        stubServer.setErrorRate(1);
+        final DateTime nextAttemptDate = clock.getUTCNow().plusMinutes(1);
+
+        final AvataxPendingDocumentsRecord pendingDocument = buildPendingDocument(0);
+        mockClaim(pendingDocument);
+        Assert.assertEquals(worker.processBatch(), 1);
+        Mockito.verify(dao).reschedulePendingDocument(Mockito.eq(pendingDocument),
+                                                      Mockito.eq(AvaTaxDao.PENDING_DOCUMENT_PENDING),
+                                                      Mockito.eq(1),
+                                                      Mockito.eq(nextAttemptDate),
+                                                      Mockito.anyString(),
+                                                      Mockito.<DateTime>any());
+
+        // Last attempt
+        final AvataxPendingDocumentsRecord failingDocument = buildPendingDocument(2);
+        mockClaim(failingDocument);
+        Assert.assertEquals(worker.processBatch(), 1);
+        Mockito.verify(dao).reschedulePendingDocument(Mockito.eq(failingDocument),
+                                                      Mockito.eq(AvaTaxDao.PENDING_DOCUMENT_FAILED),
+                                                      Mockito.eq(3),
+                                                      Mockito.<DateTime>any(),
+                                                      Mockito.anyString(),
+                                                      Mockito.<DateTime>any());
+        Mockito.verify(dao, Mockito.never()).completePendingDocument(Mockito.<AvataxPendingDocumentsRecord>any(), Mockito.<TransactionModel>any(), Mockito.<DateTime>any());
+
+        Assert.assertEquals(worker.getBackoffMillis(1), 60000);
+        Assert.assertEquals(worker.getBackoffMillis(2), 120000);
+        Assert.assertEquals(worker.getBackoffMillis(4), 480000);
+        Assert.assertEquals(worker.getBackoffMillis(5), 600000);
+        Assert.assertEquals(worker.getBackoffMillis(100), 600000);
+    }
+
+    private void mockClaim(final AvataxPendingDocumentsRecord pendingDocument) throws Exception {
+        Mockito.when(dao.claimPendingDocuments(Mockito.eq(1), Mockito.<DateTime>any(), Mockito.<DateTime>any())).thenReturn(ImmutableList.<AvataxPendingDocumentsRecord>of(pendingDocument),
+                                                                                                                        ImmutableList.<AvataxPendingDocumentsRecord>of());
+    }
+
+    private AvataxPendingDocumentsRecord buildPendingDocument(final int attempts) throws Exception {
+        return buildPendingDocument(attempts, InvoiceStatus.COMMITTED);
+    }
+
+    private AvataxPendingDocumentsRecord buildPendingDocument(final int attempts, final InvoiceStatus invoiceStatus) throws Exception {
+        final CreateTransactionModel request = buildRequest(UUID.randomUUID().toString());
+        final Invoice invoice = Mockito.mock(Invoice.class);
+        Mockito.when(invoice.getId()).thenReturn(UUID.randomUUID());
+        Mockito.when(invoice.getStatus()).thenReturn(invoiceStatus);
+        Mockito.when(invoiceUserApi.getInvoice(Mockito.eq(invoice.getId()), Mockito.<TenantContext>any())).thenReturn(invoice);
+
+        final AvataxPendingDocumentsRecord pendingDocument = new AvataxPendingDocumentsRecord();
+        pendingDocument.setRecordId(ULong.valueOf(1));
+        pendingDocument.setDocCode(request.code);
+        pendingDocument.setKbInvoiceId(invoice.getId().toString());
+        pendingDocument.setAttempts(attempts);
+        pendingDocument.setKbTenantId(kbTenantId.toString());
+        Mockito.when(dao.toCreateTransactionModel(pendingDocument)).thenReturn(request);
+        return pendingDocument;
+    }
+
+    private CreateTransactionModel buildRequest(final String code) {
+        final CreateTransactionModel request = new CreateTransactionModel();
+        request.code = code;
+        request.companyCode = AvaTaxStubServer.COMPANY_CODE;
+        request.currencyCode = "USD";
+        request.type = DocType.SalesInvoice;
+        request.date = new Date();
+        request.commit = true;
+        request.lines = new LineItemModel[]{new LineItemModel()};
+        request.lines[0].number = UUID.randomUUID().toString();
+        request.lines[0].amount = BigDecimal.TEN;
+        return request;
+    }
+}
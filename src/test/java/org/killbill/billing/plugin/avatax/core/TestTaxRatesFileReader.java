@@ -0,0 +1,74 @@
+/*
+ * Copyright 2020-2026 Equinix, Inc
+ * Copyright 2014-2026 The Billing Project, LLC
+ *
+ * The Billing Project licenses this file to you under the Apache License, version 2.0
+ * (the "License"); you may not use this file except in compliance with the
+ * License.  You may obtain a copy of the License at:
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.killbill.billing.plugin.avatax.core;
+
+import java.io.StringReader;
+import java.util.Map.Entry;
+
+import org.killbill.billing.plugin.avatax.client.model.TaxRateResult;
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+import com.google.common.collect.ImmutableList;
+
+public class TestTaxRatesFileReader {
+
+    private static final String TAX_RATES_FILE = "State,ZipCode,TaxRegionName,EstimatedCombinedRate,StateRate,EstimatedCountyRate,EstimatedCityRate,EstimatedSpecialRate,RiskLevel\n" +
+                                                 "CA,94105,\"SAN FRANCISCO, CITY\",0.086250,0.060000,0.002500,0,0.023750,1\n" +
+                                                 "\n" +
+                                                 "MA,2110,BOSTON,0.062500,0.062500,0,0,0,1\n";
+
+    @Test(groups = "fast")
+    public void testReadFile() throws Exception {
+        try (final TaxRatesFileReader reader = new TaxRatesFileReader(new StringReader(TAX_RATES_FILE))) {
+            Assert.assertTrue(reader.hasNext());
+            final Entry<String, TaxRateResult> sanFrancisco = reader.next();
+            Assert.assertEquals(sanFrancisco.getKey(), "94105");
+            Assert.assertEquals(sanFrancisco.getValue().totalRate, 0.08625);
+            Assert.assertEquals(sanFrancisco.getValue().rates.size(), 3);
+            Assert.assertEquals(sanFrancisco.getValue().rates.get(0).rate, 0.06);
+            Assert.assertEquals(sanFrancisco.getValue().rates.get(0).type, "State");
+            Assert.assertEquals(sanFrancisco.getValue().rates.get(0).name, "CA State Tax");
+            Assert.assertEquals(sanFrancisco.getValue().rates.get(2).type, "Special");
+
+            Assert.assertTrue(reader.hasNext());
+            final Entry<String, TaxRateResult> boston = reader.next();
+            Assert.assertEquals(boston.getKey(), "02110");
+            Assert.assertEquals(boston.getValue().rates.size(), 1);
+
+            Assert.assertFalse(reader.hasNext());
+        }
+    }
+
+    @Test(groups = "fast")
+    public void testSplit() throws Exception {
+        Assert.assertEquals(TaxRatesFileReader.split("a,\"b, \"\"c\"\"\",,d"), ImmutableList.<String>of("a", "b, \"c\"", "", "d"));
+    }
+
+    @Test(groups = "fast", expectedExceptions = IllegalArgumentException.class)
+    public void testInvalidHeader() throws Exception {
+        new TaxRatesFileReader(new StringReader("Zip,Rate\n94105,0.08625\n"));
+    }
+
+    @Test(groups = "fast", expectedExceptions = IllegalArgumentException.class)
+    public void testInvalidRate() throws Exception {
+        try (final TaxRatesFileReader reader = new TaxRatesFileReader(new StringReader("State,ZipCode,EstimatedCombinedRate\nCA,94105,N/A\n"))) {
+            reader.next();
+        }
+    }
+}
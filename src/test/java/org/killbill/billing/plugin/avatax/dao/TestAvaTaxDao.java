@@ -18,14 +18,24 @@
 
 package org.killbill.billing.plugin.avatax.dao;
 
+import java.io.StringReader;
 import java.math.BigDecimal;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Map.Entry;
 import java.util.Set;
 import java.util.UUID;
 
 import org.joda.time.DateTime;
 import org.joda.time.DateTimeZone;
+import org.jooq.types.ULong;
 import org.killbill.billing.account.api.Account;
 import org.killbill.billing.catalog.api.Currency;
 import org.killbill.billing.invoice.api.Invoice;
@@ -33,14 +43,32 @@ import org.killbill.billing.invoice.api.InvoiceItem;
 import org.killbill.billing.invoice.api.InvoiceItemType;
 import org.killbill.billing.plugin.TestUtils;
 import org.killbill.billing.plugin.avatax.AvaTaxRemoteTestBase;
+import org.killbill.billing.plugin.avatax.EmbeddedDbHelper;
+import org.killbill.billing.plugin.avatax.client.ClientUtils;
 import org.killbill.billing.plugin.avatax.client.model.AvaTaxErrors;
+import org.killbill.billing.plugin.avatax.client.model.CreateTransactionModel;
+import org.killbill.billing.plugin.avatax.client.model.RateModel;
+import org.killbill.billing.plugin.avatax.client.model.TaxRateResult;
+import org.killbill.billing.plugin.avatax.client.model.TransactionLineModel;
 import org.killbill.billing.plugin.avatax.client.model.TransactionModel;
+import org.killbill.billing.plugin.avatax.core.AvaTaxMetrics;
+import org.killbill.billing.plugin.avatax.core.TaxRatesFileReader;
+import org.killbill.billing.plugin.avatax.dao.gen.tables.records.AvataxBulkCommitsRecord;
+import org.killbill.billing.plugin.avatax.dao.gen.tables.records.AvataxOutboxRecord;
+import org.killbill.billing.plugin.avatax.dao.gen.tables.records.AvataxPendingDocumentsRecord;
 import org.killbill.billing.plugin.avatax.dao.gen.tables.records.AvataxResponsesRecord;
+import org.killbill.billing.plugin.avatax.dao.gen.tables.records.AvataxTaxRatesRecord;
 import org.testng.Assert;
 import org.testng.annotations.Test;
 
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.google.common.base.Function;
+import com.google.common.base.Predicate;
 import com.google.common.collect.ImmutableList;
 import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.ImmutableSet;
+import com.google.common.collect.Iterables;
+import com.google.common.collect.Maps;
 
 public class TestAvaTaxDao extends AvaTaxRemoteTestBase {
 
@@ -60,6 +88,485 @@ public class TestAvaTaxDao extends AvaTaxRemoteTestBase {
         Assert.assertEquals(dao.getTaxCode(productName, kbTenantId), taxCode);
     }
 
+    @Test(groups = "slow")
+    public void testCreateReadTaxRates() throws Exception {
+        final UUID kbTenantId = UUID.randomUUID();
+        final DateTime utcNow = new DateTime(DateTimeZone.UTC);
+
+        final RateModel rateModel = new RateModel();
+        rateModel.rate = 0.0625;
+        rateModel.name = "CA STATE TAX";
+        rateModel.type = "State";
+        final TaxRateResult taxRates = new TaxRateResult();
+        taxRates.totalRate = 0.0625;
+        taxRates.rates = ImmutableList.<RateModel>of(rateModel);
+
+        Assert.assertNull(dao.getTaxRates("94105", "US", utcNow, kbTenantId));
+
+        dao.addTaxRates("94105", "US", taxRates, utcNow.minusDays(2), utcNow, kbTenantId);
+        final AvataxTaxRatesRecord snapshot = dao.getTaxRates("94105", "US", utcNow, kbTenantId);
+        Assert.assertNotNull(snapshot);
+        Assert.assertEquals(dao.toTaxRateResult(snapshot), taxRates);
+        Assert.assertNull(dao.getTaxRates("94105", "US", utcNow, UUID.randomUUID()));
+        Assert.assertNull(dao.getTaxRates("60602", "US", utcNow, kbTenantId));
+
+        // New snapshots replace previous ones
+        final TaxRateResult newTaxRates = new TaxRateResult();
+        newTaxRates.totalRate = 0.07;
+        dao.addTaxRates("94105", "US", newTaxRates, utcNow.minusDays(1), utcNow, kbTenantId);
+        final AvataxTaxRatesRecord newSnapshot = dao.getTaxRates("94105", "US", utcNow, kbTenantId);
+        Assert.assertEquals(dao.toTaxRateResult(newSnapshot), newTaxRates);
+        Assert.assertNull(dao.getTaxRates("94105", "US", utcNow.minusDays(2), kbTenantId));
+    }
+
+    @Test(groups = "slow")
+    public void testAddTaxRatesKeepsFutureSnapshots() throws Exception {
+        final UUID kbTenantId = UUID.randomUUID();
+        final DateTime utcNow = new DateTime(DateTimeZone.UTC);
+
+        // Imported ahead of a rate change
+        final TaxRateResult futureTaxRates = new TaxRateResult();
+        futureTaxRates.totalRate = 0.08;
+        dao.importTaxRates("US", ImmutableList.<Entry<String, TaxRateResult>>of(Maps.immutableEntry("94105", futureTaxRates)).iterator(), 10, utcNow.plusDays(10), utcNow, kbTenantId);
+
+        final TaxRateResult previousTaxRates = new TaxRateResult();
+        previousTaxRates.totalRate = 0.06;
+        dao.addTaxRates("94105", "US", previousTaxRates, utcNow.minusDays(1), utcNow, kbTenantId);
+
+        // Refreshed from the Tax Rates API
+        final TaxRateResult currentTaxRates = new TaxRateResult();
+        currentTaxRates.totalRate = 0.07;
+        dao.addTaxRates("94105", "US", currentTaxRates, utcNow, utcNow, kbTenantId);
+
+        Assert.assertEquals(dao.toTaxRateResult(dao.getTaxRates("94105", "US", utcNow, kbTenantId)), currentTaxRates);
+        Assert.assertNull(dao.getTaxRates("94105", "US", utcNow.minusDays(1), kbTenantId));
+        Assert.assertEquals(dao.toTaxRateResult(dao.getTaxRates("94105", "US", utcNow.plusDays(10), kbTenantId)), futureTaxRates);
+    }
+
+    @Test(groups = "slow")
+    public void testImportTaxRates() throws Exception {
+        final UUID kbTenantId = UUID.randomUUID();
+        final DateTime utcNow = new DateTime(DateTimeZone.UTC);
+
+        final TaxRateResult previousTaxRates = new TaxRateResult();
+        previousTaxRates.totalRate = 0.05;
+        dao.addTaxRates("00001", "US", previousTaxRates, utcNow.minusDays(30), utcNow, kbTenantId);
+
+        final List<Entry<String, TaxRateResult>> taxRatesByPostalCode = new ArrayList<Entry<String, TaxRateResult>>();
+        for (int i = 0; i < 25; i++) {
+            final TaxRateResult taxRates = new TaxRateResult();
+            taxRates.totalRate = i / 100.0;
+            taxRatesByPostalCode.add(Maps.immutableEntry(String.format("%05d", i), taxRates));
+        }
+        // Repeated in a later batch
+        final TaxRateResult updatedTaxRates = new TaxRateResult();
+        updatedTaxRates.totalRate = 0.5;
+        taxRatesByPostalCode.add(Maps.immutableEntry("00002", updatedTaxRates));
+        final int nbImported = dao.importTaxRates("US", taxRatesByPostalCode.iterator(), 10, utcNow.minusDays(1), utcNow, kbTenantId);
+        Assert.assertEquals(nbImported, 25);
+
+        Assert.assertEquals(dao.toTaxRateResult(dao.getTaxRates("00001", "US", utcNow, kbTenantId)).totalRate, 0.01);
+        Assert.assertEquals(dao.toTaxRateResult(dao.getTaxRates("00002", "US", utcNow, kbTenantId)).totalRate, 0.5);
+        Assert.assertEquals(dao.toTaxRateResult(dao.getTaxRates("00024", "US", utcNow, kbTenantId)).totalRate, 0.24);
+        // Previous rates are kept for past dates
+        Assert.assertEquals(dao.toTaxRateResult(dao.getTaxRates("00001", "US", utcNow.minusDays(2), kbTenantId)), previousTaxRates);
+    }
+
+    @Test(groups = "slow")
+    public void testImportTaxRatesWithInvalidRow() throws Exception {
+        final UUID kbTenantId = UUID.randomUUID();
+        final DateTime utcNow = new DateTime(DateTimeZone.UTC);
+
+        final TaxRateResult previousTaxRates = new TaxRateResult();
+        previousTaxRates.totalRate = 0.05;
+        dao.addTaxRates("00001", "US", previousTaxRates, utcNow.minusDays(30), utcNow, kbTenantId);
+
+        final StringBuilder file = new StringBuilder("State,ZipCode,EstimatedCombinedRate\n");
+        for (int i = 0; i < 25; i++) {
+            file.append("CA,").append(String.format("%05d", i)).append(",0.0").append(i % 10).append("\n");
+        }
+        // Invalid row in the last batch
+        file.append("CA,00025,N/A\n");
+
+        try (final TaxRatesFileReader reader = new TaxRatesFileReader(new StringReader(file.toString()))) {
+            dao.importTaxRates("US", reader, 10, utcNow.minusDays(1), utcNow, kbTenantId);
+            Assert.fail();
+        } catch (final IllegalArgumentException e) {
+            // Expected
+        }
+
+        // Nothing has changed
+        Assert.assertEquals(dao.toTaxRateResult(dao.getTaxRates("00001", "US", utcNow, kbTenantId)), previousTaxRates);
+        Assert.assertNull(dao.getTaxRates("00002", "US", utcNow, kbTenantId));
+        Assert.assertNull(dao.getTaxRates("00024", "US", utcNow, kbTenantId));
+        // The staged rates are cleaned up
+        try (final Connection connection = EmbeddedDbHelper.instance().getDataSource().getConnection();
+             final PreparedStatement statement = connection.prepareStatement("select count(*) from avatax_tax_rates_staging");
+             final ResultSet resultSet = statement.executeQuery()) {
+            Assert.assertTrue(resultSet.next());
+            Assert.assertEquals(resultSet.getInt(1), 0);
+        }
+    }
+
+    @Test(groups = "slow")
+    public void testBackfillResponseItems() throws Exception {
+        final UUID kbInvoiceId = UUID.randomUUID();
+        final UUID kbTenantId = UUID.randomUUID();
+        final UUID taxableItemId1 = UUID.randomUUID();
+        final UUID adjustmentItemId11 = UUID.randomUUID();
+        final UUID taxableItemId2 = UUID.randomUUID();
+
+        // Response written by an older version of the plugin
+        try (final Connection connection = EmbeddedDbHelper.instance().getDataSource().getConnection();
+             final PreparedStatement statement = connection.prepareStatement("insert into avatax_responses (kb_account_id, kb_invoice_id, kb_invoice_item_ids, result_code, created_date, kb_tenant_id) values (?, ?, ?, ?, ?, ?)")) {
+            statement.setString(1, UUID.randomUUID().toString());
+            statement.setString(2, kbInvoiceId.toString());
+            statement.setString(3, String.format("{\"%s\":[\"%s\"],\"%s\":[]}", taxableItemId1, adjustmentItemId11, taxableItemId2));
+            statement.setString(4, "Success");
+            statement.setTimestamp(5, new Timestamp(System.currentTimeMillis()));
+            statement.setString(6, kbTenantId.toString());
+            statement.executeUpdate();
+        }
+
+        // Response written by the current version (legacy column included)
+        final UUID taxableItemId3 = UUID.randomUUID();
+        dao.addResponse(UUID.randomUUID(),
+                        kbInvoiceId,
+                        ImmutableMap.<UUID, Iterable<InvoiceItem>>of(taxableItemId3, ImmutableList.<InvoiceItem>of()),
+                        new TransactionModel(),
+                        new DateTime(DateTimeZone.UTC),
+                        kbTenantId);
+
+        final Map<UUID, Set<UUID>> expected = ImmutableMap.<UUID, Set<UUID>>of(taxableItemId1, ImmutableSet.<UUID>of(adjustmentItemId11),
+                                                                               taxableItemId2, ImmutableSet.<UUID>of(),
+                                                                               taxableItemId3, ImmutableSet.<UUID>of());
+        Assert.assertEquals(dao.getTaxedItemsWithAdjustments(kbInvoiceId, kbTenantId), expected);
+
+        Assert.assertEquals(dao.getBackfillLastRecordId(AvaTaxDao.RESPONSE_ITEMS_BACKFILL), ULong.valueOf(0));
+        final ULong lastRecordId = dao.backfillResponseItems(10, new DateTime(DateTimeZone.UTC));
+        Assert.assertNotNull(lastRecordId);
+        // The progress is persisted
+        Assert.assertEquals(dao.getBackfillLastRecordId(AvaTaxDao.RESPONSE_ITEMS_BACKFILL), lastRecordId);
+        Assert.assertNull(dao.backfillResponseItems(10, new DateTime(DateTimeZone.UTC)));
+        // After a restart
+        Assert.assertNull(new AvaTaxDao(EmbeddedDbHelper.instance().getDataSource()).backfillResponseItems(10, new DateTime(DateTimeZone.UTC)));
+
+        Assert.assertEquals(dao.getTaxedItemsWithAdjustments(kbInvoiceId, kbTenantId), expected);
+    }
+
+    @Test(groups = "slow")
+    public void testCompressResponses() throws Exception {
+        final UUID kbAccountId = UUID.randomUUID();
+        final UUID kbInvoiceId = UUID.randomUUID();
+        final UUID kbTenantId = UUID.randomUUID();
+
+        final TransactionLineModel line = new TransactionLineModel();
+        line.lineNumber = "1";
+        line.taxCode = "PC030000";
+        line.tax = 0.53;
+        final TransactionModel taxResult = new TransactionModel();
+        taxResult.code = UUID.randomUUID().toString();
+        taxResult.lines = new TransactionLineModel[]{line};
+
+        // Stored as is, then compressed
+        dao.addResponse(kbAccountId, kbInvoiceId, ImmutableMap.<UUID, Iterable<InvoiceItem>>of(), taxResult, new DateTime(DateTimeZone.UTC), kbTenantId);
+        final AvataxResponsesRecord response = dao.getSuccessfulResponses(kbInvoiceId, kbTenantId).get(0);
+        final String taxLines = response.getTaxLines();
+        Assert.assertNotNull(taxLines);
+        Assert.assertNull(response.getTaxLinesBin());
+
+        final AvaTaxDao compressingDao = new AvaTaxDao(EmbeddedDbHelper.instance().getDataSource(), AvaTaxMetrics.NO_OP, true);
+        compressingDao.addResponse(kbAccountId, kbInvoiceId, ImmutableMap.<UUID, Iterable<InvoiceItem>>of(), taxResult, new DateTime(DateTimeZone.UTC), kbTenantId);
+        final AvataxResponsesRecord compressedResponse = dao.getSuccessfulResponses(kbInvoiceId, kbTenantId).get(1);
+        Assert.assertNull(compressedResponse.getTaxLines());
+        Assert.assertNotNull(compressedResponse.getTaxLinesBin());
+        Assert.assertEquals(CompressedJsonCodec.decode(compressedResponse.getTaxLinesBin()), taxLines);
+        Assert.assertEquals(CompressedJsonCodec.decode(compressedResponse.getTaxSummaryBin()), response.getTaxSummary());
+        Assert.assertEquals(CompressedJsonCodec.decode(compressedResponse.getMessagesBin()), response.getMessages());
+
+        // Other tests may have stored responses as well
+        ULong lastRecordId = dao.compressResponses(1, new DateTime(DateTimeZone.UTC));
+        Assert.assertNotNull(lastRecordId);
+        // The progress is persisted
+        Assert.assertEquals(dao.getBackfillLastRecordId(AvaTaxDao.RESPONSES_COMPRESSION_BACKFILL), lastRecordId);
+        while (lastRecordId != null) {
+            lastRecordId = dao.compressResponses(10, new DateTime(DateTimeZone.UTC));
+        }
+        // After a restart
+        Assert.assertNull(new AvaTaxDao(EmbeddedDbHelper.instance().getDataSource()).compressResponses(10, new DateTime(DateTimeZone.UTC)));
+
+        final List<AvataxResponsesRecord> responses = dao.getSuccessfulResponses(kbInvoiceId, kbTenantId);
+        Assert.assertEquals(responses.size(), 2);
+        for (final AvataxResponsesRecord migratedResponse : responses) {
+            Assert.assertNull(migratedResponse.getTaxLines());
+            Assert.assertEquals(CompressedJsonCodec.decode(migratedResponse.getTaxLinesBin()), taxLines);
+            Assert.assertEquals(migratedResponse.getDocCode(), taxResult.code);
+        }
+    }
+
+    @Test(groups = "slow")
+    public void testStripResponses() throws Exception {
+        final UUID kbTenantId = UUID.randomUUID();
+        final UUID otherKbTenantId = UUID.randomUUID();
+        final UUID kbInvoiceId = UUID.randomUUID();
+        final UUID taxableItemId = UUID.randomUUID();
+        final DateTime utcNow = new DateTime(DateTimeZone.UTC);
+
+        final TransactionLineModel line = new TransactionLineModel();
+        line.lineNumber = "1";
+        final TransactionModel taxResult = new TransactionModel();
+        taxResult.code = UUID.randomUUID().toString();
+        taxResult.lines = new TransactionLineModel[]{line};
+
+        final Map<UUID, Iterable<InvoiceItem>> kbInvoiceItems = ImmutableMap.<UUID, Iterable<InvoiceItem>>of(taxableItemId, ImmutableList.<InvoiceItem>of());
+        dao.addResponse(UUID.randomUUID(), kbInvoiceId, kbInvoiceItems, taxResult, utcNow.minusDays(100), kbTenantId);
+        dao.addResponse(UUID.randomUUID(), kbInvoiceId, kbInvoiceItems, taxResult, utcNow.minusDays(10), kbTenantId);
+        dao.addResponse(UUID.randomUUID(), kbInvoiceId, kbInvoiceItems, taxResult, utcNow.minusDays(100), otherKbTenantId);
+
+        // 30 days retention, other tenants (including the ones of other tests) are left alone
+        final Function<UUID, DateTime> retentionCutOffs = new Function<UUID, DateTime>() {
+            @Override
+            public DateTime apply(final UUID input) {
+                return kbTenantId.equals(input) ? utcNow.minusDays(30) : null;
+            }
+        };
+        ULong lastRecordId = ULong.valueOf(0);
+        while (lastRecordId != null) {
+            lastRecordId = dao.stripResponses(lastRecordId, 2, retentionCutOffs);
+        }
+
+        final List<AvataxResponsesRecord> responses = dao.getSuccessfulResponses(kbInvoiceId, kbTenantId);
+        Assert.assertEquals(responses.size(), 2);
+        Assert.assertNull(responses.get(0).getTaxLines());
+        Assert.assertNotNull(responses.get(1).getTaxLines());
+        Assert.assertNotNull(dao.getSuccessfulResponses(kbInvoiceId, otherKbTenantId).get(0).getTaxLines());
+
+        // Still needed for adjustments
+        Assert.assertEquals(responses.get(0).getDocCode(), taxResult.code);
+        Assert.assertEquals(dao.getSuccessfulDocCodes(kbInvoiceId, kbTenantId), ImmutableList.<String>of(taxResult.code));
+        Assert.assertEquals(dao.getTaxedItemsWithAdjustments(kbInvoiceId, kbTenantId), ImmutableMap.<UUID, Set<UUID>>of(taxableItemId, ImmutableSet.<UUID>of()));
+    }
+
+    @Test(groups = "slow")
+    public void testPendingDocuments() throws Exception {
+        final UUID kbAccountId = UUID.randomUUID();
+        final UUID kbInvoiceId = UUID.randomUUID();
+        final UUID kbTenantId = UUID.randomUUID();
+        final UUID taxableItemId = UUID.randomUUID();
+        // datetime columns don't store the milliseconds
+        final DateTime utcNow = new DateTime(DateTimeZone.UTC).withMillisOfSecond(0);
+
+        final TaxRateResult taxRates = new TaxRateResult();
+        taxRates.totalRate = 0.0825;
+        final CreateTransactionModel request = new CreateTransactionModel();
+        request.code = String.format("%s_%s", kbInvoiceId, UUID.randomUUID().toString().substring(0, 12));
+        request.date = new Date();
+        request.commit = true;
+
+        // Taxes estimated while AvaTax was unavailable
+        final Map<UUID, Iterable<InvoiceItem>> kbInvoiceItems = ImmutableMap.<UUID, Iterable<InvoiceItem>>of(taxableItemId, ImmutableList.<InvoiceItem>of());
+        dao.addResponses(ImmutableList.<AvaTaxResponse>of(AvaTaxResponse.forFallback(kbAccountId, kbInvoiceId, kbInvoiceItems, taxRates, request, utcNow, kbTenantId)));
+        final AvataxResponsesRecord fallbackResponse = dao.getSuccessfulResponses(kbInvoiceId, kbTenantId).get(0);
+        Assert.assertTrue(fallbackResponse.getIsFallback());
+        Assert.assertNull(fallbackResponse.getDocCode());
+        // Item adjustments reference the queued document
+        Assert.assertEquals(dao.getFirstSuccessfulDocCodes(ImmutableList.<UUID>of(kbInvoiceId), kbTenantId), ImmutableMap.<UUID, String>of(kbInvoiceId, request.code));
+        Assert.assertTrue(dao.getSuccessfulDocCodes(kbInvoiceId, kbTenantId).isEmpty());
+
+        // Claimed once, until the lease expires
+        final List<AvataxPendingDocumentsRecord> pendingDocuments = claimPendingDocuments(utcNow, kbTenantId);
+        Assert.assertEquals(pendingDocuments.size(), 1);
+        Assert.assertEquals(pendingDocuments.get(0).getResponseRecordId(), fallbackResponse.getRecordId());
+        Assert.assertEquals(pendingDocuments.get(0).getDocCode(), request.code);
+        Assert.assertEquals((int) pendingDocuments.get(0).getAttempts(), 0);
+        Assert.assertEquals(dao.toCreateTransactionModel(pendingDocuments.get(0)).code, request.code);
+        Assert.assertTrue(dao.toCreateTransactionModel(pendingDocuments.get(0)).commit);
+        Assert.assertTrue(claimPendingDocuments(utcNow, kbTenantId).isEmpty());
+
+        // Failed attempt
+        dao.reschedulePendingDocument(pendingDocuments.get(0), AvaTaxDao.PENDING_DOCUMENT_PENDING, 1, utcNow.plusMinutes(1), "ServerError", utcNow);
+        Assert.assertTrue(claimPendingDocuments(utcNow, kbTenantId).isEmpty());
+        final List<AvataxPendingDocumentsRecord> retriedDocuments = claimPendingDocuments(utcNow.plusMinutes(1), kbTenantId);
+        Assert.assertEquals(retriedDocuments.size(), 1);
+        Assert.assertEquals((int) retriedDocuments.get(0).getAttempts(), 1);
+        Assert.assertEquals(retriedDocuments.get(0).getLastError(), "ServerError");
+
+        // Document created in AvaTax
+        final TransactionModel taxResult = new TransactionModel();
+        taxResult.code = request.code;
+        taxResult.totalTax = 0.83;
+        Assert.assertTrue(dao.completePendingDocument(retriedDocuments.get(0), taxResult, utcNow.plusMinutes(1)));
+        Assert.assertFalse(dao.completePendingDocument(retriedDocuments.get(0), taxResult, utcNow.plusMinutes(1)));
+        Assert.assertTrue(claimPendingDocuments(utcNow.plusDays(1), kbTenantId).isEmpty());
+
+        // The fallback response is replaced
+        final List<AvataxResponsesRecord> responses = dao.getSuccessfulResponses(kbInvoiceId, kbTenantId);
+        Assert.assertEquals(responses.size(), 1);
+        Assert.assertEquals(responses.get(0).getRecordId(), fallbackResponse.getRecordId());
+        Assert.assertFalse(responses.get(0).getIsFallback());
+        Assert.assertEquals(responses.get(0).getDocCode(), request.code);
+        Assert.assertEquals(responses.get(0).getTotalTax().compareTo(BigDecimal.valueOf(0.83)), 0);
+        Assert.assertEquals(responses.get(0).getCreatedDate(), fallbackResponse.getCreatedDate());
+        Assert.assertEquals(responses.get(0).getKbAccountId(), kbAccountId.toString());
+        // Legacy column, read by the previous release of the plugin
+        Assert.assertEquals(responses.get(0).getKbInvoiceItemIds(), fallbackResponse.getKbInvoiceItemIds());
+        Assert.assertTrue(responses.get(0).getKbInvoiceItemIds().contains(taxableItemId.toString()));
+        Assert.assertEquals(dao.getSuccessfulDocCodes(kbInvoiceId, kbTenantId), ImmutableList.<String>of(request.code));
+        Assert.assertEquals(dao.getFirstSuccessfulDocCodes(ImmutableList.<UUID>of(kbInvoiceId), kbTenantId), ImmutableMap.<UUID, String>of(kbInvoiceId, request.code));
+        Assert.assertEquals(dao.getTaxedItemsWithAdjustments(kbInvoiceId, kbTenantId), ImmutableMap.<UUID, Set<UUID>>of(taxableItemId, ImmutableSet.<UUID>of()));
+    }
+
+    @Test(groups = "slow")
+    public void testOutbox() throws Exception {
+        final UUID kbInvoiceId = UUID.randomUUID();
+        final UUID kbTenantId = UUID.randomUUID();
+        final String docCode1 = String.format("%s_%s", kbInvoiceId, UUID.randomUUID().toString().substring(0, 12));
+        final String docCode2 = String.format("%s_%s", kbInvoiceId, UUID.randomUUID().toString().substring(0, 12));
+        // datetime columns don't store the milliseconds
+        final DateTime utcNow = new DateTime(DateTimeZone.UTC).withMillisOfSecond(0);
+
+        // Invoice committed
+        dao.addOutboxOperations(kbInvoiceId, ImmutableList.<String>of(docCode1, docCode2), "commit", utcNow, kbTenantId);
+
+        // Claimed once, until the lease expires
+        final List<AvataxOutboxRecord> operations = claimOutboxOperations(utcNow, kbTenantId);
+        Assert.assertEquals(operations.size(), 2);
+        Assert.assertEquals(operations.get(0).getDocCode(), docCode1);
+        Assert.assertEquals(operations.get(0).getOperation(), "commit");
+        Assert.assertEquals(operations.get(0).getKbInvoiceId(), kbInvoiceId.toString());
+        Assert.assertEquals((int) operations.get(0).getAttempts(), 0);
+        Assert.assertEquals(operations.get(1).getDocCode(), docCode2);
+        Assert.assertTrue(claimOutboxOperations(utcNow, kbTenantId).isEmpty());
+
+        // Same operation queued again: deduplicated, the lease is kept
+        dao.addOutboxOperations(kbInvoiceId, ImmutableList.<String>of(docCode1), "commit", utcNow.plusSeconds(1), kbTenantId);
+        Assert.assertTrue(claimOutboxOperations(utcNow.plusSeconds(1), kbTenantId).isEmpty());
+
+        // Failed attempt for the first document, the second one is committed
+        dao.rescheduleOutboxOperation(operations.get(0), AvaTaxDao.OUTBOX_PENDING, 1, utcNow.plusMinutes(1), "ServerError", utcNow.plusSeconds(2));
+        dao.completeOutboxOperation(operations.get(1));
+        Assert.assertTrue(claimOutboxOperations(utcNow.plusSeconds(2), kbTenantId).isEmpty());
+        final List<AvataxOutboxRecord> retriedOperations = claimOutboxOperations(utcNow.plusMinutes(1), kbTenantId);
+        Assert.assertEquals(retriedOperations.size(), 1);
+        Assert.assertEquals(retriedOperations.get(0).getDocCode(), docCode1);
+        Assert.assertEquals((int) retriedOperations.get(0).getAttempts(), 1);
+        Assert.assertEquals(retriedOperations.get(0).getLastError(), "ServerError");
+
+        // Invoice voided while the commit is retried: the void replaces the commit
+        dao.addOutboxOperations(kbInvoiceId, ImmutableList.<String>of(docCode1, docCode2), "void", utcNow.plusMinutes(2), kbTenantId);
+        dao.completeOutboxOperation(retriedOperations.get(0));
+        final List<AvataxOutboxRecord> voidOperations = claimOutboxOperations(utcNow.plusMinutes(2), kbTenantId);
+        Assert.assertEquals(voidOperations.size(), 2);
+        Assert.assertEquals(voidOperations.get(0).getDocCode(), docCode1);
+        Assert.assertEquals(voidOperations.get(0).getOperation(), "void");
+        Assert.assertEquals((int) voidOperations.get(0).getAttempts(), 0);
+        Assert.assertNull(voidOperations.get(0).getLastError());
+        Assert.assertEquals(voidOperations.get(1).getDocCode(), docCode2);
+        Assert.assertEquals(voidOperations.get(1).getOperation(), "void");
+
+        // Gave up on the first document, the second one is voided
+        dao.rescheduleOutboxOperation(voidOperations.get(0), AvaTaxDao.OUTBOX_FAILED, 20, utcNow.plusMinutes(3), "ServerError", utcNow.plusMinutes(3));
+        dao.completeOutboxOperation(voidOperations.get(1));
+        Assert.assertTrue(claimOutboxOperations(utcNow.plusDays(1), kbTenantId).isEmpty());
+
+        // Failed operations are retried when queued again
+        dao.addOutboxOperations(kbInvoiceId, ImmutableList.<String>of(docCode1), "void", utcNow.plusMinutes(4), kbTenantId);
+        final List<AvataxOutboxRecord> revivedOperations = claimOutboxOperations(utcNow.plusMinutes(4), kbTenantId);
+        Assert.assertEquals(revivedOperations.size(), 1);
+        Assert.assertEquals(revivedOperations.get(0).getDocCode(), docCode1);
+        Assert.assertEquals(revivedOperations.get(0).getStatus(), AvaTaxDao.OUTBOX_PENDING);
+        Assert.assertEquals((int) revivedOperations.get(0).getAttempts(), 0);
+    }
+
+    @Test(groups = "slow")
+    public void testBulkCommits() throws Exception {
+        final UUID kbAccountId = UUID.randomUUID();
+        final UUID kbTenantId = UUID.randomUUID();
+        // datetime columns don't store the milliseconds
+        final DateTime utcNow = new DateTime(DateTimeZone.UTC).withMillisOfSecond(0);
+
+        // Two invoices in September (the first one repaired), one in October
+        final UUID kbInvoiceId1 = UUID.randomUUID();
+        final String docCode1a = addResponse(kbAccountId, kbInvoiceId1, new DateTime(2026, 9, 5, 0, 0, DateTimeZone.UTC), utcNow, kbTenantId);
+        final String docCode1b = addResponse(kbAccountId, kbInvoiceId1, new DateTime(2026, 9, 5, 0, 0, DateTimeZone.UTC), utcNow, kbTenantId);
+        final UUID kbInvoiceId2 = UUID.randomUUID();
+        final String docCode2 = addResponse(kbAccountId, kbInvoiceId2, new DateTime(2026, 9, 30, 0, 0, DateTimeZone.UTC), utcNow, kbTenantId);
+        final UUID kbInvoiceId3 = UUID.randomUUID();
+        final String docCode3 = addResponse(kbAccountId, kbInvoiceId3, new DateTime(2026, 10, 1, 0, 0, DateTimeZone.UTC), utcNow, kbTenantId);
+
+        // The second invoice was voided in the meantime
+        dao.addOutboxOperations(kbInvoiceId2, ImmutableList.<String>of(docCode2), "void", utcNow, kbTenantId);
+
+        final UUID bulkCommitId = UUID.randomUUID();
+        dao.addBulkCommit(bulkCommitId, new DateTime(2026, 9, 1, 0, 0, DateTimeZone.UTC), new DateTime(2026, 10, 1, 0, 0, DateTimeZone.UTC), null, utcNow, kbTenantId);
+        final AvataxBulkCommitsRecord bulkCommit = dao.getBulkCommit(bulkCommitId, kbTenantId);
+        Assert.assertEquals(bulkCommit.getStatus(), AvaTaxDao.BULK_COMMIT_SCANNING);
+        Assert.assertEquals((int) bulkCommit.getNbQueued(), 0);
+        Assert.assertTrue(isBulkCommitToScan(bulkCommitId));
+        Assert.assertNull(dao.getBulkCommit(bulkCommitId, UUID.randomUUID()));
+
+        // First page
+        final AvataxBulkCommitsRecord staleBulkCommit = dao.getBulkCommit(bulkCommitId, kbTenantId);
+        final List<AvataxResponsesRecord> firstPage = dao.getBulkCommitResponses(bulkCommit, 2);
+        Assert.assertEquals(firstPage.size(), 2);
+        Assert.assertEquals(firstPage.get(0).getDocCode(), docCode1a);
+        Assert.assertEquals(firstPage.get(1).getDocCode(), docCode1b);
+        Assert.assertTrue(dao.addBulkCommitOperations(bulkCommit,
+                                                      ImmutableMap.<String, UUID>of(docCode1a, kbInvoiceId1, docCode1b, kbInvoiceId1),
+                                                      firstPage.get(1).getDocDate(),
+                                                      firstPage.get(1).getRecordId(),
+                                                      false,
+                                                      utcNow));
+        Assert.assertEquals((int) bulkCommit.getNbQueued(), 2);
+
+        // Same page processed by another node
+        Assert.assertFalse(dao.addBulkCommitOperations(staleBulkCommit,
+                                                       ImmutableMap.<String, UUID>of(docCode1a, kbInvoiceId1, docCode1b, kbInvoiceId1),
+                                                       firstPage.get(1).getDocDate(),
+                                                       firstPage.get(1).getRecordId(),
+                                                       false,
+                                                       utcNow));
+
+        // Last page: the void isn't replaced
+        final List<AvataxResponsesRecord> lastPage = dao.getBulkCommitResponses(bulkCommit, 2);
+        Assert.assertEquals(lastPage.size(), 1);
+        Assert.assertEquals(lastPage.get(0).getDocCode(), docCode2);
+        Assert.assertTrue(dao.addBulkCommitOperations(bulkCommit,
+                                                      ImmutableMap.<String, UUID>of(docCode2, kbInvoiceId2),
+                                                      lastPage.get(0).getDocDate(),
+                                                      lastPage.get(0).getRecordId(),
+                                                      true,
+                                                      utcNow));
+        final AvataxBulkCommitsRecord queuedBulkCommit = dao.getBulkCommit(bulkCommitId, kbTenantId);
+        Assert.assertEquals(queuedBulkCommit.getStatus(), AvaTaxDao.BULK_COMMIT_QUEUED);
+        Assert.assertEquals((int) queuedBulkCommit.getNbQueued(), 2);
+        Assert.assertFalse(isBulkCommitToScan(bulkCommitId));
+        Assert.assertEquals(dao.getBulkCommitOutboxCounts(bulkCommitId, kbTenantId), ImmutableMap.<String, Integer>of(AvaTaxDao.OUTBOX_PENDING, 2));
+
+        final Map<String, AvataxOutboxRecord> operations = new HashMap<String, AvataxOutboxRecord>();
+        for (final AvataxOutboxRecord operation : claimOutboxOperations(utcNow, kbTenantId)) {
+            operations.put(operation.getDocCode(), operation);
+        }
+        Assert.assertEquals(operations.size(), 3);
+        Assert.assertEquals(operations.get(docCode1a).getOperation(), "commit");
+        Assert.assertEquals(operations.get(docCode1a).getBulkCommitId(), bulkCommitId.toString());
+        Assert.assertEquals(operations.get(docCode2).getOperation(), "void");
+        Assert.assertNull(operations.get(docCode2).getBulkCommitId());
+
+        // Progress
+        dao.completeOutboxOperation(operations.get(docCode1a));
+        dao.rescheduleOutboxOperation(operations.get(docCode1b), AvaTaxDao.OUTBOX_FAILED, 20, utcNow, "ServerError", utcNow);
+        Assert.assertEquals(dao.getBulkCommitOutboxCounts(bulkCommitId, kbTenantId), ImmutableMap.<String, Integer>of(AvaTaxDao.OUTBOX_FAILED, 1));
+
+        // By invoice ids
+        final UUID otherBulkCommitId = UUID.randomUUID();
+        dao.addBulkCommit(otherBulkCommitId, null, null, ImmutableList.<UUID>of(kbInvoiceId3), utcNow, kbTenantId);
+        final List<AvataxResponsesRecord> responses = dao.getBulkCommitResponses(dao.getBulkCommit(otherBulkCommitId, kbTenantId), 2);
+        Assert.assertEquals(responses.size(), 1);
+        Assert.assertEquals(responses.get(0).getDocCode(), docCode3);
+        Assert.assertEquals(responses.get(0).getKbInvoiceId(), kbInvoiceId3.toString());
+    }
+
     @Test(groups = "slow")
     public void testCreateReadResponses() throws Exception {
         final Account account = TestUtils.buildAccount(Currency.USD, "US");
@@ -117,12 +624,64 @@ public class TestAvaTaxDao extends AvaTaxRemoteTestBase {
         Assert.assertEquals(responses.get(0).getDocCode(), taxResultS1.code);
         Assert.assertEquals(responses.get(1).getDocCode(), taxResultS2.code);
 
-        final Map<UUID, Set<UUID>> kbInvoiceItems = dao.getTaxedItemsWithAdjustments(responses);
+        final Map<UUID, Set<UUID>> kbInvoiceItems = dao.getTaxedItemsWithAdjustments(kbInvoiceId, kbTenantId);
         Assert.assertEquals(kbInvoiceItems.size(), 2);
         Assert.assertEquals(kbInvoiceItems.get(taxableItem1.getId()).size(), 2);
         Assert.assertTrue(kbInvoiceItems.get(taxableItem1.getId()).contains(adjustmentItem11.getId()));
         Assert.assertTrue(kbInvoiceItems.get(taxableItem1.getId()).contains(adjustmentItem12.getId()));
         Assert.assertEquals(kbInvoiceItems.get(taxableItem2.getId()).size(), 1);
         Assert.assertTrue(kbInvoiceItems.get(taxableItem2.getId()).contains(adjustmentItem21.getId()));
+
+        // Taxed items are stored in avatax_response_items, and in the legacy JSON column for the previous release
+        final Map<UUID, Set<UUID>> legacyKbInvoiceItems = ClientUtils.createObjectMapper().readValue(responses.get(1).getKbInvoiceItemIds(), new TypeReference<Map<UUID, Set<UUID>>>() {});
+        Assert.assertEquals(legacyKbInvoiceItems, ImmutableMap.<UUID, Set<UUID>>of(taxableItem1.getId(), ImmutableSet.<UUID>of(adjustmentItem11.getId(), adjustmentItem12.getId()),
+                                                                                   taxableItem2.getId(), ImmutableSet.<UUID>of(adjustmentItem21.getId())));
+        Assert.assertEquals(dao.getSuccessfulDocCodes(kbInvoiceId, kbTenantId), ImmutableList.<String>of(taxResultS1.code, taxResultS2.code));
+
+
+        final UUID otherKbInvoiceId = UUID.randomUUID();
+        final Map<UUID, String> docCodes = dao.getFirstSuccessfulDocCodes(ImmutableList.<UUID>of(kbInvoiceId, otherKbInvoiceId), kbTenantId);
+        Assert.assertEquals(docCodes.size(), 1);
+        Assert.assertEquals(docCodes.get(kbInvoiceId), taxResultS1.code);
+        Assert.assertTrue(dao.getFirstSuccessfulDocCodes(ImmutableList.<UUID>of(kbInvoiceId), UUID.randomUUID()).isEmpty());
+        Assert.assertTrue(dao.getFirstSuccessfulDocCodes(ImmutableList.<UUID>of(), kbTenantId).isEmpty());
+    }
+
+    // Other tests may have queued documents as well
+    private List<AvataxPendingDocumentsRecord> claimPendingDocuments(final DateTime utcNow, final UUID kbTenantId) throws Exception {
+        return ImmutableList.<AvataxPendingDocumentsRecord>copyOf(Iterables.<AvataxPendingDocumentsRecord>filter(dao.claimPendingDocuments(100, utcNow, utcNow.plusMinutes(5)),
+                                                                                                               new Predicate<AvataxPendingDocumentsRecord>() {
+                                                                                                                   @Override
+                                                                                                                   public boolean apply(final AvataxPendingDocumentsRecord pendingDocument) {
+                                                                                                                       return kbTenantId.toString().equals(pendingDocument.getKbTenantId());
+                                                                                                                   }
+                                                                                                               }));
+    }
+
+    private List<AvataxOutboxRecord> claimOutboxOperations(final DateTime utcNow, final UUID kbTenantId) throws Exception {
+        return ImmutableList.<AvataxOutboxRecord>copyOf(Iterables.<AvataxOutboxRecord>filter(dao.claimOutboxOperations(100, utcNow, utcNow.plusMinutes(5)),
+                                                                                             new Predicate<AvataxOutboxRecord>() {
+                                                                                                 @Override
+                                                                                                 public boolean apply(final AvataxOutboxRecord operation) {
+                                                                                                     return kbTenantId.toString().equals(operation.getKbTenantId());
+                                                                                                 }
+                                                                                             }));
+    }
+
+    private String addResponse(final UUID kbAccountId, final UUID kbInvoiceId, final DateTime docDate, final DateTime utcNow, final UUID kbTenantId) throws Exception {
+        final TransactionModel taxResult = new TransactionModel();
+        taxResult.code = UUID.randomUUID().toString();
+        taxResult.date = docDate.toDate();
+        dao.addResponse(kbAccountId, kbInvoiceId, ImmutableMap.<UUID, Iterable<InvoiceItem>>of(UUID.randomUUID(), ImmutableList.<InvoiceItem>of()), taxResult, utcNow, kbTenantId);
+        return taxResult.code;
+    }
+
+    private boolean isBulkCommitToScan(final UUID bulkCommitId) throws Exception {
+        for (final AvataxBulkCommitsRecord bulkCommit : dao.getBulkCommitsToScan()) {
+            if (bulkCommitId.toString().equals(bulkCommit.getBulkCommitId())) {
+                return true;
+            }
+        }
+        return false;
     }
 }
@@ -0,0 +1,293 @@
+/*
+ * Copyright 2020-2026 Equinix, Inc
+ * Copyright 2014-2026 The Billing Project, LLC
+ *
+ * The Billing Project licenses this file to you under the Apache License, version 2.0
+ * (the "License"); you may not use this file except in compliance with the
+ * License.  You may obtain a copy of the License at:
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.killbill.billing.plugin.avatax.dao;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+import java.util.UUID;
+
+import javax.sql.DataSource;
+
+import org.jooq.InsertValuesStep4;
+import org.jooq.InsertValuesStep8;
+import org.jooq.SQLDialect;
+import org.jooq.conf.Settings;
+import org.jooq.impl.DSL;
+import org.killbill.billing.plugin.avatax.EmbeddedDbHelper;
+import org.killbill.billing.plugin.avatax.dao.gen.tables.records.AvataxResponsesRecord;
+import org.killbill.billing.plugin.avatax.dao.gen.tables.records.AvataxTaxCodesRecord;
+import org.killbill.commons.embeddeddb.EmbeddedDB.DBEngine;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.testng.Assert;
+import org.testng.annotations.AfterClass;
+import org.testng.annotations.BeforeClass;
+import org.testng.annotations.Test;
+
+import com.google.common.collect.ImmutableList;
+
+import static org.killbill.billing.plugin.avatax.dao.gen.tables.AvataxResponses.AVATAX_RESPONSES;
+import static org.killbill.billing.plugin.avatax.dao.gen.tables.AvataxTaxCodes.AVATAX_TAX_CODES;
+
+/**
+ * Compares the lookup times on avatax_responses and avatax_tax_codes with the legacy single-column indexes and with
+ * the composite (tenant-aware) indexes, against the embedded database.
+ * <p>
+ * This isn't part of the regular test groups. To run it (10M rows by default, it takes a while to load):
+ * <pre>
+ * mvn test -Dgroups=benchmark -Dtest=TestAvaTaxDaoIndexesBenchmark -Davatax.benchmark.rows=10000000
+ * </pre>
+ * Add -Dorg.killbill.billing.dbi.test.postgresql=true to run it against PostgreSQL. The latest results are in the README.
+ */
+public class TestAvaTaxDaoIndexesBenchmark {
+
+    private static final Logger logger = LoggerFactory.getLogger(TestAvaTaxDaoIndexesBenchmark.class);
+
+    private static final int NB_RESPONSES = Integer.getInteger("avatax.benchmark.rows", 10000000);
+    private static final int NB_TAX_CODES = Integer.getInteger("avatax.benchmark.taxCodes", 100000);
+    private static final int NB_QUERIES = Integer.getInteger("avatax.benchmark.queries", 1000);
+    private static final int NB_TENANTS = 10;
+    private static final int NB_RESPONSES_PER_INVOICE = 4;
+    private static final int BATCH_SIZE = 1000;
+    // Fixed seed, for reproducible runs
+    private static final long SEED = 42;
+
+    private final List<UUID> tenantIds = new ArrayList<UUID>();
+    private final List<UUID[]> sampleInvoices = new ArrayList<UUID[]>();
+    private final List<Object[]> sampleProducts = new ArrayList<Object[]>();
+
+    private DataSource dataSource;
+    private DBEngine dbEngine;
+    private AvaTaxDao dao;
+
+    @BeforeClass(groups = "benchmark")
+    public void setUp() throws Exception {
+        EmbeddedDbHelper.instance().startDb();
+        dataSource = EmbeddedDbHelper.instance().getDataSource();
+        dbEngine = EmbeddedDbHelper.instance().getDBEngine();
+        dao = new AvaTaxDao(dataSource);
+
+        final Random random = new Random(SEED);
+        for (int i = 0; i < NB_TENANTS; i++) {
+            tenantIds.add(new UUID(random.nextLong(), random.nextLong()));
+        }
+        loadResponses(random);
+        loadTaxCodes(random);
+    }
+
+    @AfterClass(groups = "benchmark")
+    public void tearDown() throws Exception {
+        EmbeddedDbHelper.instance().stopDB();
+    }
+
+    @Test(groups = "benchmark")
+    public void testIndexes() throws Exception {
+        // Legacy schema
+        executeDDL("create index avatax_responses_kb_invoice_id on avatax_responses(kb_invoice_id)");
+        executeDDL(dropIndex("avatax_responses_kb_invoice_id_result_code_kb_tenant_id", "avatax_responses"));
+        executeDDL(dropIndex("avatax_tax_codes_kb_tenant_id_product_name", "avatax_tax_codes"));
+        analyze();
+        final double[] responsesBefore = benchmarkResponses();
+        final double[] taxCodesBefore = benchmarkTaxCodes();
+
+        // Current schema
+        executeDDL("create index avatax_responses_kb_invoice_id_result_code_kb_tenant_id on avatax_responses(kb_invoice_id, result_code, kb_tenant_id, record_id, doc_code)");
+        executeDDL(dropIndex("avatax_responses_kb_invoice_id", "avatax_responses"));
+        executeDDL("create index avatax_tax_codes_kb_tenant_id_product_name on avatax_tax_codes(kb_tenant_id, product_name)");
+        analyze();
+        final double[] responsesAfter = benchmarkResponses();
+        final double[] taxCodesAfter = benchmarkTaxCodes();
+
+        logger.info("{} - {} responses, {} tax codes, {} queries", dbEngine, NB_RESPONSES, NB_TAX_CODES, NB_QUERIES);
+        logger.info("avatax_responses  (p50/p99/mean ms): before={} after={} speedup={}x", Arrays.toString(responsesBefore), Arrays.toString(responsesAfter), responsesBefore[2] / responsesAfter[2]);
+        logger.info("avatax_tax_codes  (p50/p99/mean ms): before={} after={} speedup={}x", Arrays.toString(taxCodesBefore), Arrays.toString(taxCodesAfter), taxCodesBefore[2] / taxCodesAfter[2]);
+    }
+
+    private double[] benchmarkResponses() throws SQLException {
+        final long[] latencies = new long[sampleInvoices.size()];
+        for (int i = 0; i < sampleInvoices.size(); i++) {
+            final UUID[] sampleInvoice = sampleInvoices.get(i);
+            final long startNanos = System.nanoTime();
+            // Queries run for each invoice (see AvaTaxTaxCalculatorBase and AvaTaxInvoicePluginApi)
+            final Map<UUID, Set<UUID>> taxedItems = dao.getTaxedItemsWithAdjustments(sampleInvoice[0], sampleInvoice[1]);
+            dao.getSuccessfulDocCodes(sampleInvoice[0], sampleInvoice[1]);
+            dao.getFirstSuccessfulDocCodes(ImmutableList.<UUID>of(sampleInvoice[0]), sampleInvoice[1]);
+            latencies[i] = System.nanoTime() - startNanos;
+            Assert.assertEquals(taxedItems.size(), NB_RESPONSES_PER_INVOICE - 1);
+        }
+        return stats(latencies);
+    }
+
+    private double[] benchmarkTaxCodes() throws SQLException {
+        final long[] latencies = new long[sampleProducts.size()];
+        for (int i = 0; i < sampleProducts.size(); i++) {
+            final Object[] sampleProduct = sampleProducts.get(i);
+            final long startNanos = System.nanoTime();
+            final String taxCode = dao.getTaxCode((String) sampleProduct[0], (UUID) sampleProduct[1]);
+            latencies[i] = System.nanoTime() - startNanos;
+            Assert.assertNotNull(taxCode);
+        }
+        return stats(latencies);
+    }
+
+    private void loadResponses(final Random random) throws SQLException {
+        final int nbInvoices = NB_RESPONSES / NB_RESPONSES_PER_INVOICE;
+        final int sampleEvery = Math.max(1, nbInvoices / NB_QUERIES);
+        final LocalDateTime createdDate = LocalDateTime.now();
+
+        try (final Connection connection = dataSource.getConnection()) {
+            InsertValuesStep8<AvataxResponsesRecord, String, String, String, String, String, String, LocalDateTime, String> insert = null;
+            int nbRowsInBatch = 0;
+            for (int i = 0; i < nbInvoices; i++) {
+                final UUID tenantId = tenantIds.get(i % NB_TENANTS);
+                final UUID accountId = new UUID(random.nextLong(), random.nextLong());
+                final UUID invoiceId = new UUID(random.nextLong(), random.nextLong());
+                if (i % sampleEvery == 0 && sampleInvoices.size() < NB_QUERIES) {
+                    sampleInvoices.add(new UUID[]{invoiceId, tenantId});
+                }
+
+                for (int j = 0; j < NB_RESPONSES_PER_INVOICE; j++) {
+                    if (insert == null) {
+                        insert = DSL.using(connection, dialect(), settings())
+                                    .insertInto(AVATAX_RESPONSES,
+                                                AVATAX_RESPONSES.KB_ACCOUNT_ID,
+                                                AVATAX_RESPONSES.KB_INVOICE_ID,
+                                                AVATAX_RESPONSES.KB_INVOICE_ITEM_IDS,
+                                                AVATAX_RESPONSES.DOC_CODE,
+                                                AVATAX_RESPONSES.RESULT_CODE,
+                                                AVATAX_RESPONSES.TAX_LINES,
+                                                AVATAX_RESPONSES.CREATED_DATE,
+                                                AVATAX_RESPONSES.KB_TENANT_ID);
+                    }
+                    insert = insert.values(accountId.toString(),
+                                           invoiceId.toString(),
+                                           String.format("{\"%s\":[]}", new UUID(random.nextLong(), random.nextLong())),
+                                           UUID.randomUUID().toString(),
+                                           // One error for each invoice
+                                           j == NB_RESPONSES_PER_INVOICE - 1 ? "Error" : "Success",
+                                           "[{\"lineNumber\":\"1\",\"tax\":1.0}]",
+                                           createdDate,
+                                           tenantId.toString());
+                    if (++nbRowsInBatch == BATCH_SIZE) {
+                        insert.execute();
+                        insert = null;
+                        nbRowsInBatch = 0;
+                    }
+                }
+            }
+            if (insert != null) {
+                insert.execute();
+            }
+        }
+
+        // One taxed item per successful response (the doc_code is random, reuse it as the item id)
+        executeDDL("insert into avatax_response_items (response_record_id, kb_invoice_item_id, kb_adjustment_item_id, kb_tenant_id) " +
+                   "select record_id, doc_code, null, kb_tenant_id from avatax_responses where result_code = 'Success'");
+    }
+
+    private void loadTaxCodes(final Random random) throws SQLException {
+        final int sampleEvery = Math.max(1, NB_TAX_CODES / NB_QUERIES);
+        final LocalDateTime createdDate = LocalDateTime.now();
+
+        try (final Connection connection = dataSource.getConnection()) {
+            InsertValuesStep4<AvataxTaxCodesRecord, String, String, LocalDateTime, String> insert = null;
+            int nbRowsInBatch = 0;
+            for (int i = 0; i < NB_TAX_CODES; i++) {
+                final UUID tenantId = tenantIds.get(i % NB_TENANTS);
+                // Same catalog for all tenants
+                final String productName = "Product-" + (i / NB_TENANTS);
+                if (i % sampleEvery == 0 && sampleProducts.size() < NB_QUERIES) {
+                    sampleProducts.add(new Object[]{productName, tenantId});
+                }
+
+                if (insert == null) {
+                    insert = DSL.using(connection, dialect(), settings())
+                                .insertInto(AVATAX_TAX_CODES,
+                                            AVATAX_TAX_CODES.PRODUCT_NAME,
+                                            AVATAX_TAX_CODES.TAX_CODE,
+                                            AVATAX_TAX_CODES.CREATED_DATE,
+                                            AVATAX_TAX_CODES.KB_TENANT_ID);
+                }
+                insert = insert.values(productName, "PC" + random.nextInt(1000000), createdDate, tenantId.toString());
+                if (++nbRowsInBatch == BATCH_SIZE) {
+                    insert.execute();
+                    insert = null;
+                    nbRowsInBatch = 0;
+                }
+            }
+            if (insert != null) {
+                insert.execute();
+            }
+        }
+    }
+
+    private String dropIndex(final String indexName, final String tableName) {
+        if (dbEngine == DBEngine.MYSQL) {
+            return String.format("drop index %s on %s", indexName, tableName);
+        } else {
+            return String.format("drop index %s", indexName);
+        }
+    }
+
+    private void analyze() throws SQLException {
+        for (final String tableName : new String[]{"avatax_responses", "avatax_response_items", "avatax_tax_codes"}) {
+            if (dbEngine == DBEngine.MYSQL) {
+                executeDDL("analyze table " + tableName);
+            } else if (dbEngine == DBEngine.POSTGRESQL) {
+                executeDDL("analyze " + tableName);
+            }
+        }
+    }
+
+    private void executeDDL(final String sql) throws SQLException {
+        try (final Connection connection = dataSource.getConnection();
+             final Statement statement = connection.createStatement()) {
+            statement.execute(sql);
+        }
+    }
+
+    private SQLDialect dialect() {
+        return dbEngine == DBEngine.POSTGRESQL ? SQLDialect.POSTGRES : SQLDialect.MYSQL;
+    }
+
+    // Same as the DAO: tables aren't qualified with the schema name
+    private Settings settings() {
+        return new Settings().withRenderSchema(false);
+    }
+
+    // p50, p99 and mean, in milliseconds
+    private static double[] stats(final long[] latenciesNanos) {
+        final long[] sorted = latenciesNanos.clone();
+        Arrays.sort(sorted);
+        long total = 0;
+        for (final long latency : sorted) {
+            total += latency;
+        }
+        return new double[]{sorted[sorted.length / 2] / 1e6,
+                            sorted[Math.min(sorted.length - 1, (int) (sorted.length * 0.99))] / 1e6,
+                            total / (double) sorted.length / 1e6};
+    }
+}
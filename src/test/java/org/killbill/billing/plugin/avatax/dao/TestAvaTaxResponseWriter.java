@@ -0,0 +1,207 @@
+/*
+ * Copyright 2020-2026 Equinix, Inc
+ * Copyright 2014-2026 The Billing Project, LLC
+ *
+ * The Billing Project licenses this file to you under the Apache License, version 2.0
+ * (the "License"); you may not use this file except in compliance with the
+ * License.  You may obtain a copy of the License at:
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.killbill.billing.plugin.avatax.dao;
+
+import java.math.BigDecimal;
+import java.sql.SQLException;
+import java.util.List;
+import java.util.UUID;
+
+import org.joda.time.DateTime;
+import org.joda.time.DateTimeZone;
+import org.killbill.billing.account.api.Account;
+import org.killbill.billing.catalog.api.Currency;
+import org.killbill.billing.invoice.api.Invoice;
+import org.killbill.billing.invoice.api.InvoiceItem;
+import org.killbill.billing.invoice.api.InvoiceItemType;
+import org.killbill.billing.plugin.TestUtils;
+import org.killbill.billing.plugin.avatax.AvaTaxRemoteTestBase;
+import org.killbill.billing.plugin.avatax.client.model.AvaTaxErrors;
+import org.killbill.billing.plugin.avatax.client.model.TransactionModel;
+import org.mockito.Mockito;
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.ImmutableSet;
+
+public class TestAvaTaxResponseWriter extends AvaTaxRemoteTestBase {
+
+    @Test(groups = "slow")
+    public void testAddResponses() throws Exception {
+        final Account account = TestUtils.buildAccount(Currency.USD, "US");
+        final Invoice invoice = TestUtils.buildInvoice(account);
+        final UUID kbTenantId = UUID.randomUUID();
+        final InvoiceItem taxableItem = TestUtils.buildInvoiceItem(invoice, InvoiceItemType.RECURRING, BigDecimal.TEN, null);
+        final InvoiceItem adjustmentItem = TestUtils.buildInvoiceItem(invoice, InvoiceItemType.ITEM_ADJ, BigDecimal.ONE.negate(), taxableItem.getId());
+
+        final TransactionModel salesTransaction = new TransactionModel();
+        salesTransaction.code = UUID.randomUUID().toString();
+        final TransactionModel returnTransaction = new TransactionModel();
+        returnTransaction.code = UUID.randomUUID().toString();
+        final DateTime utcNow = new DateTime(DateTimeZone.UTC);
+        dao.addResponses(ImmutableList.<AvaTaxResponse>of(AvaTaxResponse.forTransaction(account.getId(), invoice.getId(), ImmutableMap.<UUID, Iterable<InvoiceItem>>of(taxableItem.getId(), ImmutableList.<InvoiceItem>of()), salesTransaction, utcNow, kbTenantId),
+                                                          AvaTaxResponse.forErrors(account.getId(), invoice.getId(), ImmutableMap.<UUID, Iterable<InvoiceItem>>of(), new AvaTaxErrors(), utcNow, kbTenantId),
+                                                          AvaTaxResponse.forTransaction(account.getId(), invoice.getId(), ImmutableMap.<UUID, Iterable<InvoiceItem>>of(taxableItem.getId(), ImmutableList.<InvoiceItem>of(adjustmentItem)), returnTransaction, utcNow, kbTenantId)));
+
+        Assert.assertEquals(dao.getSuccessfulDocCodes(invoice.getId(), kbTenantId), ImmutableList.<String>of(salesTransaction.code, returnTransaction.code));
+        Assert.assertEquals(dao.getTaxedItemsWithAdjustments(invoice.getId(), kbTenantId).get(taxableItem.getId()), ImmutableSet.<UUID>of(adjustmentItem.getId()));
+    }
+
+    @Test(groups = "slow")
+    public void testWriteBehind() throws Exception {
+        final Account account = TestUtils.buildAccount(Currency.USD, "US");
+        final UUID kbTenantId = UUID.randomUUID();
+
+        final AvaTaxResponseWriter responseWriter = new AvaTaxResponseWriter(dao, 10, 5, 10000);
+        Assert.assertTrue(responseWriter.isWriteBehind());
+        responseWriter.start();
+        try {
+            final ImmutableList.Builder<Invoice> invoicesBuilder = ImmutableList.<Invoice>builder();
+            for (int i = 0; i < 25; i++) {
+                final Invoice invoice = TestUtils.buildInvoice(account);
+                final InvoiceItem taxableItem = TestUtils.buildInvoiceItem(invoice, InvoiceItemType.RECURRING, BigDecimal.TEN, null);
+                final TransactionModel transaction = new TransactionModel();
+                transaction.code = invoice.getId().toString();
+                // The queue can be full, in which case the response is stored synchronously
+                responseWriter.write(AvaTaxResponse.forTransaction(account.getId(), invoice.getId(), ImmutableMap.<UUID, Iterable<InvoiceItem>>of(taxableItem.getId(), ImmutableList.<InvoiceItem>of()), transaction, new DateTime(DateTimeZone.UTC), kbTenantId));
+                invoicesBuilder.add(invoice);
+            }
+
+            for (final Invoice invoice : invoicesBuilder.build()) {
+                responseWriter.flush(ImmutableList.<UUID>of(invoice.getId()));
+                Assert.assertEquals(dao.getSuccessfulDocCodes(invoice.getId(), kbTenantId), ImmutableList.<String>of(invoice.getId().toString()));
+                Assert.assertEquals(dao.getTaxedItemsWithAdjustments(invoice.getId(), kbTenantId).size(), 1);
+            }
+        } finally {
+            responseWriter.stop();
+        }
+
+        // Synchronous once stopped
+        final Invoice invoice = TestUtils.buildInvoice(account);
+        responseWriter.write(AvaTaxResponse.forTransaction(account.getId(), invoice.getId(), ImmutableMap.<UUID, Iterable<InvoiceItem>>of(), new TransactionModel(), new DateTime(DateTimeZone.UTC), kbTenantId));
+        Assert.assertEquals(dao.getSuccessfulResponses(invoice.getId(), kbTenantId).size(), 1);
+    }
+
+    @Test(groups = "slow")
+    public void testWriteBehindRetries() throws Exception {
+        final Account account = TestUtils.buildAccount(Currency.USD, "US");
+        final Invoice invoice = TestUtils.buildInvoice(account);
+        final UUID invoiceId = invoice.getId();
+        final UUID kbTenantId = UUID.randomUUID();
+
+        // The first attempt fails
+        final AvaTaxDao failingDao = Mockito.spy(dao);
+        Mockito.doThrow(new SQLException("Database is down"))
+               .doCallRealMethod()
+               .when(failingDao).addResponses(Mockito.<List<AvaTaxResponse>>any());
+
+        final AvaTaxResponseWriter responseWriter = new AvaTaxResponseWriter(failingDao, 10, 5, 10000);
+        responseWriter.start();
+        try {
+            responseWriter.write(AvaTaxResponse.forTransaction(account.getId(), invoiceId, ImmutableMap.<UUID, Iterable<InvoiceItem>>of(), new TransactionModel(), new DateTime(DateTimeZone.UTC), kbTenantId));
+
+            // Retried by the writer, without any flush
+            waitUntilNotPending(responseWriter, invoiceId);
+            Assert.assertEquals(dao.getSuccessfulResponses(invoiceId, kbTenantId).size(), 1);
+            Mockito.verify(failingDao, Mockito.times(2)).addResponses(Mockito.<List<AvaTaxResponse>>any());
+        } finally {
+            responseWriter.stop();
+        }
+    }
+
+    @Test(groups = "slow")
+    public void testWriteBehindGivesUp() throws Exception {
+        final Account account = TestUtils.buildAccount(Currency.USD, "US");
+        final Invoice invoice = TestUtils.buildInvoice(account);
+        final UUID invoiceId = invoice.getId();
+        final UUID kbTenantId = UUID.randomUUID();
+
+        final AvaTaxDao failingDao = Mockito.spy(dao);
+        Mockito.doThrow(new SQLException("Database is down"))
+               .when(failingDao).addResponses(Mockito.<List<AvaTaxResponse>>any());
+
+        final AvaTaxResponseWriter responseWriter = new AvaTaxResponseWriter(failingDao, 10, 5, 10000);
+        responseWriter.start();
+        try {
+            responseWriter.write(AvaTaxResponse.forTransaction(account.getId(), invoiceId, ImmutableMap.<UUID, Iterable<InvoiceItem>>of(), new TransactionModel(), new DateTime(DateTimeZone.UTC), kbTenantId));
+
+            // Dropped after the last attempt
+            waitUntilNotPending(responseWriter, invoiceId);
+            Mockito.verify(failingDao, Mockito.times(3)).addResponses(Mockito.<List<AvaTaxResponse>>any());
+            Assert.assertTrue(dao.getSuccessfulResponses(invoiceId, kbTenantId).isEmpty());
+            // Nothing left to wait for
+            responseWriter.flush(ImmutableList.<UUID>of(invoiceId));
+        } finally {
+            responseWriter.stop();
+        }
+    }
+
+    private void waitUntilNotPending(final AvaTaxResponseWriter responseWriter, final UUID invoiceId) throws InterruptedException {
+        final long deadlineMillis = System.currentTimeMillis() + 10000;
+        while (responseWriter.hasPendingResponses(invoiceId) && System.currentTimeMillis() < deadlineMillis) {
+            Thread.sleep(50);
+        }
+        Assert.assertFalse(responseWriter.hasPendingResponses(invoiceId));
+    }
+
+    @Test(groups = "slow")
+    public void testUnitOfWork() throws Exception {
+        final Account account = TestUtils.buildAccount(Currency.USD, "US");
+        final Invoice invoice = TestUtils.buildInvoice(account);
+        final Invoice originalInvoice = TestUtils.buildInvoice(account);
+        final UUID kbTenantId = UUID.randomUUID();
+
+        final AvaTaxResponsesUnitOfWork unitOfWork = new AvaTaxResponseWriter(dao).beginUnitOfWork();
+        final TransactionModel salesTransaction = new TransactionModel();
+        salesTransaction.code = UUID.randomUUID().toString();
+        unitOfWork.add(AvaTaxResponse.forTransaction(account.getId(), invoice.getId(), ImmutableMap.<UUID, Iterable<InvoiceItem>>of(), salesTransaction, new DateTime(DateTimeZone.UTC), kbTenantId));
+        unitOfWork.add(AvaTaxResponse.forErrors(account.getId(), originalInvoice.getId(), ImmutableMap.<UUID, Iterable<InvoiceItem>>of(), new AvaTaxErrors(), new DateTime(DateTimeZone.UTC), kbTenantId));
+        // Nothing is stored until the commit
+        Assert.assertTrue(dao.getSuccessfulDocCodes(invoice.getId(), kbTenantId).isEmpty());
+
+        unitOfWork.commit();
+        Assert.assertEquals(dao.getSuccessfulDocCodes(invoice.getId(), kbTenantId), ImmutableList.<String>of(salesTransaction.code));
+
+        // Stored right away once committed
+        final TransactionModel returnTransaction = new TransactionModel();
+        returnTransaction.code = UUID.randomUUID().toString();
+        unitOfWork.add(AvaTaxResponse.forTransaction(account.getId(), invoice.getId(), ImmutableMap.<UUID, Iterable<InvoiceItem>>of(), returnTransaction, new DateTime(DateTimeZone.UTC), kbTenantId));
+        Assert.assertEquals(dao.getSuccessfulDocCodes(invoice.getId(), kbTenantId), ImmutableList.<String>of(salesTransaction.code, returnTransaction.code));
+        // No-op
+        unitOfWork.commit();
+        Assert.assertEquals(dao.getSuccessfulResponses(invoice.getId(), kbTenantId).size(), 2);
+    }
+
+    @Test(groups = "slow")
+    public void testSynchronous() throws Exception {
+        final Account account = TestUtils.buildAccount(Currency.USD, "US");
+        final Invoice invoice = TestUtils.buildInvoice(account);
+        final UUID kbTenantId = UUID.randomUUID();
+
+        final AvaTaxResponseWriter responseWriter = new AvaTaxResponseWriter(dao);
+        Assert.assertFalse(responseWriter.isWriteBehind());
+        responseWriter.start();
+        responseWriter.write(AvaTaxResponse.forTransaction(account.getId(), invoice.getId(), ImmutableMap.<UUID, Iterable<InvoiceItem>>of(), new TransactionModel(), new DateTime(DateTimeZone.UTC), kbTenantId));
+        // Stored before returning
+        Assert.assertEquals(dao.getSuccessfulResponses(invoice.getId(), kbTenantId).size(), 1);
+        responseWriter.flush(ImmutableList.<UUID>of(invoice.getId()));
+        responseWriter.stop();
+    }
+}
@@ -0,0 +1,63 @@
+/*
+ * Copyright 2020-2026 Equinix, Inc
+ * Copyright 2014-2026 The Billing Project, LLC
+ *
+ * The Billing Project licenses this file to you under the Apache License, version 2.0
+ * (the "License"); you may not use this file except in compliance with the
+ * License.  You may obtain a copy of the License at:
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.killbill.billing.plugin.avatax.dao;
+
+import java.util.Arrays;
+
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+import com.google.common.base.Strings;
+import com.google.common.collect.ImmutableList;
+
+public class TestCompressedJsonCodec {
+
+    @Test(groups = "fast")
+    public void testRoundTrip() throws Exception {
+        final String json = "[" + Strings.repeat("{\"lineNumber\":\"1\",\"taxCode\":\"PC030000\",\"tax\":0.53,\"details\":[{\"jurisName\":\"CALIFORNIA\"}]},", 50) + "{}]";
+        final byte[] bytes = CompressedJsonCodec.encode(json);
+        Assert.assertEquals(bytes[0], CompressedJsonCodec.VERSION);
+        Assert.assertTrue(bytes.length < json.length() / 10);
+        Assert.assertEquals(CompressedJsonCodec.decode(bytes), json);
+
+        // Non-ASCII characters
+        Assert.assertEquals(CompressedJsonCodec.decode(CompressedJsonCodec.encode("[{\"jurisName\":\"ZÜRICH\"}]")), "[{\"jurisName\":\"ZÜRICH\"}]");
+        Assert.assertEquals(CompressedJsonCodec.decode(CompressedJsonCodec.encode("")), "");
+        Assert.assertNull(CompressedJsonCodec.encode(null));
+        Assert.assertNull(CompressedJsonCodec.decode(null));
+    }
+
+    @Test(groups = "fast")
+    public void testCorrupted() throws Exception {
+        final byte[] bytes = CompressedJsonCodec.encode("{\"resultCode\":\"Success\"}");
+        final byte[] flipped = Arrays.copyOf(bytes, bytes.length);
+        flipped[flipped.length - 1] ^= 0x01;
+        for (final byte[] corrupted : ImmutableList.<byte[]>of(new byte[0],
+                                                               Arrays.copyOf(bytes, bytes.length - 1),
+                                                               Arrays.copyOf(bytes, bytes.length + 1),
+                                                               flipped,
+                                                               "{}".getBytes())) {
+            try {
+                CompressedJsonCodec.decode(corrupted);
+                Assert.fail();
+            } catch (final IllegalArgumentException e) {
+                // Expected
+            }
+        }
+    }
+}
@@ -0,0 +1,60 @@
+/*
+ * Copyright 2020-2026 Equinix, Inc
+ * Copyright 2014-2026 The Billing Project, LLC
+ *
+ * The Billing Project licenses this file to you under the Apache License, version 2.0
+ * (the "License"); you may not use this file except in compliance with the
+ * License.  You may obtain a copy of the License at:
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.killbill.billing.plugin.avatax.dao;
+
+import java.io.File;
+import java.net.URL;
+import java.util.Arrays;
+import java.util.Set;
+import java.util.TreeSet;
+
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+public class TestMigrations {
+
+    @Test(groups = "fast")
+    public void testMigrationsExistForAllDatabases() throws Exception {
+        // Migrations are split per database: none should be left at the top level
+        for (final File file : listFiles("migration")) {
+            Assert.assertTrue(file.isDirectory(), "Migration outside of a database specific directory: " + file.getName());
+        }
+
+        final Set<String> mysqlMigrations = listMigrations("migration/mysql");
+        final Set<String> postgresqlMigrations = listMigrations("migration/postgresql");
+        Assert.assertFalse(mysqlMigrations.isEmpty());
+        Assert.assertEquals(postgresqlMigrations, mysqlMigrations);
+    }
+
+    private Set<String> listMigrations(final String path) throws Exception {
+        final Set<String> migrations = new TreeSet<String>();
+        for (final File file : listFiles(path)) {
+            Assert.assertTrue(file.getName().matches("V[0-9]+__[a-z0-9_]+\\.sql"), "Invalid migration name: " + file.getName());
+            migrations.add(file.getName());
+        }
+        return migrations;
+    }
+
+    private Iterable<File> listFiles(final String path) throws Exception {
+        final URL url = TestMigrations.class.getClassLoader().getResource(path);
+        Assert.assertNotNull(url, path);
+        final File[] files = new File(url.toURI()).listFiles();
+        Assert.assertNotNull(files, path);
+        return Arrays.asList(files);
+    }
+}
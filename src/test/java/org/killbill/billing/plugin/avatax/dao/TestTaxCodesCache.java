@@ -0,0 +1,61 @@
+/*
+ * Copyright 2020-2026 Equinix, Inc
+ * Copyright 2014-2026 The Billing Project, LLC
+ *
+ * The Billing Project licenses this file to you under the Apache License, version 2.0
+ * (the "License"); you may not use this file except in compliance with the
+ * License.  You may obtain a copy of the License at:
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.killbill.billing.plugin.avatax.dao;
+
+import java.util.UUID;
+
+import org.joda.time.DateTime;
+import org.joda.time.DateTimeZone;
+import org.killbill.billing.plugin.avatax.AvaTaxRemoteTestBase;
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+public class TestTaxCodesCache extends AvaTaxRemoteTestBase {
+
+    @Test(groups = "slow")
+    public void testCaching() throws Exception {
+        final UUID kbTenantId = UUID.randomUUID();
+        final UUID otherKbTenantId = UUID.randomUUID();
+        dao.setTaxCode("Super", "DC010200", new DateTime(DateTimeZone.UTC), kbTenantId);
+        dao.setTaxCode("Super", "DC010500", new DateTime(DateTimeZone.UTC), otherKbTenantId);
+
+        final TaxCodesCache taxCodesCache = new TaxCodesCache(dao, 3600);
+        Assert.assertTrue(taxCodesCache.isEnabled());
+        Assert.assertEquals(taxCodesCache.getTaxCode("Super", kbTenantId), "DC010200");
+        Assert.assertEquals(taxCodesCache.getTaxCode("Super", otherKbTenantId), "DC010500");
+        Assert.assertNull(taxCodesCache.getTaxCode("Standard", kbTenantId));
+
+        // Changes made behind the cache's back (e.g. on another node) aren't visible until the entry expires
+        dao.setTaxCode("Standard", "DC010400", new DateTime(DateTimeZone.UTC), kbTenantId);
+        Assert.assertNull(taxCodesCache.getTaxCode("Standard", kbTenantId));
+
+        taxCodesCache.invalidate(kbTenantId);
+        Assert.assertEquals(taxCodesCache.getTaxCode("Standard", kbTenantId), "DC010400");
+    }
+
+    @Test(groups = "slow")
+    public void testDisabled() throws Exception {
+        final UUID kbTenantId = UUID.randomUUID();
+        final TaxCodesCache taxCodesCache = new TaxCodesCache(dao, 0);
+        Assert.assertFalse(taxCodesCache.isEnabled());
+        Assert.assertNull(taxCodesCache.getTaxCode("Super", kbTenantId));
+
+        dao.setTaxCode("Super", "DC010200", new DateTime(DateTimeZone.UTC), kbTenantId);
+        Assert.assertEquals(taxCodesCache.getTaxCode("Super", kbTenantId), "DC010200");
+    }
+}